@@ -7,7 +7,9 @@ import org.apache.accumulo.core.iterators.IteratorEnvironment;
 import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.user.RowEncodingIterator;
 import org.apache.hadoop.io.Text;
+import org.vertexium.accumulo.iterator.model.Direction;
 import org.vertexium.accumulo.iterator.model.EdgeInfo;
+import org.vertexium.accumulo.iterator.model.EdgesWithEdgeInfo;
 import org.vertexium.accumulo.iterator.model.VertexiumAccumuloIteratorException;
 import org.vertexium.accumulo.iterator.util.DataInputStreamUtils;
 import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
@@ -17,7 +19,10 @@ import java.util.*;
 
 public class ConnectedVertexIdsIterator extends RowEncodingIterator {
     public static final String SETTING_LABEL_PREFIX = "label:";
+    public static final String SETTING_DIRECTION = "direction";
+    public static final byte[] HEADER = new byte[]{'C', 'V', 'I', 'D', '1'};
     private Set<String> labels;
+    private Direction direction;
 
     public static void setLabels(IteratorSetting settings, String[] labels) {
         if (labels == null) {
@@ -28,6 +33,10 @@ public class ConnectedVertexIdsIterator extends RowEncodingIterator {
         }
     }
 
+    public static void setDirection(IteratorSetting settings, Direction direction) {
+        settings.addOption(SETTING_DIRECTION, direction.name());
+    }
+
     @Override
     public void init(SortedKeyValueIterator<Key, Value> source, Map<String, String> options, IteratorEnvironment env) throws IOException {
         super.init(source, options, env);
@@ -39,11 +48,23 @@ public class ConnectedVertexIdsIterator extends RowEncodingIterator {
             }
         }
         this.labels = labels.size() == 0 ? null : labels;
+
+        String directionString = options.get(SETTING_DIRECTION);
+        this.direction = directionString == null ? Direction.BOTH : Direction.valueOf(directionString);
     }
 
+    /**
+     * Values start with {@link #HEADER} so a client and a tablet server on different versions fail instead of
+     * misreading each other's values.
+     */
     public static Set<String> decodeValue(Value value) throws IOException {
         ByteArrayInputStream bais = new ByteArrayInputStream(value.get());
         DataInputStream in = new DataInputStream(bais);
+        byte[] header = new byte[HEADER.length];
+        int read = in.read(header);
+        if (read != header.length || !Arrays.equals(header, HEADER)) {
+            throw new IOException("Unexpected connected vertex ids header, the tablet servers may be running another version of the iterators");
+        }
         return DataInputStreamUtils.decodeSetOfStrings(in);
     }
 
@@ -54,35 +75,53 @@ public class ConnectedVertexIdsIterator extends RowEncodingIterator {
 
     @Override
     public Value rowEncoder(List<Key> keys, List<Value> values) throws IOException {
-        Map<Text, String> inVertexIds = new HashMap<>();
-        Map<Text, String> outVertexIds = new HashMap<>();
+        boolean includeOut = direction == Direction.OUT || direction == Direction.BOTH;
+        boolean includeIn = direction == Direction.IN || direction == Direction.BOTH;
+        EdgesWithEdgeInfo inEdges = new EdgesWithEdgeInfo();
+        EdgesWithEdgeInfo outEdges = new EdgesWithEdgeInfo();
+        List<Text> inRemovedEdgeIds = new ArrayList<>();
+        List<Text> outRemovedEdgeIds = new ArrayList<>();
+        Text columnFamily = new Text();
         for (int i = 0; i < keys.size(); i++) {
             Key key = keys.get(i);
             Value value = values.get(i);
-            if (key.getColumnFamily().equals(VertexIterator.CF_OUT_EDGE)) {
+            key.getColumnFamily(columnFamily);
+            if (includeOut && columnFamily.equals(VertexIterator.CF_OUT_EDGE)) {
                 EdgeInfo edgeInfo = new EdgeInfo(value.get(), key.getTimestamp());
                 if (isMatch(edgeInfo)) {
-                    outVertexIds.put(key.getColumnQualifier(), edgeInfo.getVertexId());
+                    outEdges.add(key.getColumnQualifier(), edgeInfo);
                 }
-            } else if (key.getColumnFamily().equals(VertexIterator.CF_OUT_EDGE_HIDDEN)
-                    || key.getColumnFamily().equals(VertexIterator.CF_OUT_EDGE_SOFT_DELETE)) {
-                outVertexIds.remove(key.getColumnQualifier());
-            } else if (key.getColumnFamily().equals(VertexIterator.CF_IN_EDGE)) {
+            } else if (includeOut && (columnFamily.equals(VertexIterator.CF_OUT_EDGE_HIDDEN)
+                    || columnFamily.equals(VertexIterator.CF_OUT_EDGE_SOFT_DELETE))) {
+                outRemovedEdgeIds.add(key.getColumnQualifier());
+            } else if (includeIn && columnFamily.equals(VertexIterator.CF_IN_EDGE)) {
                 EdgeInfo edgeInfo = new EdgeInfo(value.get(), key.getTimestamp());
                 if (isMatch(edgeInfo)) {
-                    inVertexIds.put(key.getColumnQualifier(), edgeInfo.getVertexId());
+                    inEdges.add(key.getColumnQualifier(), edgeInfo);
                 }
-            } else if (key.getColumnFamily().equals(VertexIterator.CF_IN_EDGE_HIDDEN)
-                    || key.getColumnFamily().equals(VertexIterator.CF_IN_EDGE_SOFT_DELETE)) {
-                inVertexIds.remove(key.getColumnQualifier());
+            } else if (includeIn && (columnFamily.equals(VertexIterator.CF_IN_EDGE_HIDDEN)
+                    || columnFamily.equals(VertexIterator.CF_IN_EDGE_SOFT_DELETE))) {
+                inRemovedEdgeIds.add(key.getColumnQualifier());
             }
         }
 
+        // the soft delete and hidden columns are each sorted by edge id, sorting combines the two runs
+        Collections.sort(inRemovedEdgeIds);
+        inEdges.removeAll(inRemovedEdgeIds);
+        Collections.sort(outRemovedEdgeIds);
+        outEdges.removeAll(outRemovedEdgeIds);
+
+        Set<String> vertexIds = new HashSet<>();
+        for (EdgeInfo edgeInfo : inEdges.getEdgeInfos()) {
+            vertexIds.add(edgeInfo.getVertexId());
+        }
+        for (EdgeInfo edgeInfo : outEdges.getEdgeInfos()) {
+            vertexIds.add(edgeInfo.getVertexId());
+        }
+
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         DataOutputStream out = new DataOutputStream(baos);
-        Set<String> vertexIds = new HashSet<>();
-        vertexIds.addAll(inVertexIds.values());
-        vertexIds.addAll(outVertexIds.values());
+        out.write(HEADER);
         DataOutputStreamUtils.encodeSetOfStrings(out, vertexIds);
         return new Value(baos.toByteArray());
     }
@@ -1,6 +1,8 @@
 package org.vertexium.accumulo.iterator;
 
 import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.accumulo.core.iterators.IteratorEnvironment;
@@ -8,7 +10,11 @@ import org.apache.accumulo.core.iterators.SortedKeyValueIterator;
 import org.apache.accumulo.core.iterators.user.RowDeletingIterator;
 import org.apache.accumulo.core.iterators.user.RowEncodingIterator;
 import org.apache.hadoop.io.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.vertexium.accumulo.iterator.model.*;
+import org.vertexium.accumulo.iterator.util.ColumnQualifierCache;
+import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
 
 import java.io.IOException;
 import java.util.*;
@@ -39,10 +45,27 @@ public abstract class ElementIterator<T extends ElementData> extends RowEncoding
     public static final Text METADATA_COLUMN_FAMILY = new Text(METADATA_COLUMN_FAMILY_STRING);
     public static final String METADATA_COLUMN_QUALIFIER_STRING = "";
     public static final Text METADATA_COLUMN_QUALIFIER = new Text(METADATA_COLUMN_QUALIFIER_STRING);
+    private static final Logger LOGGER = LoggerFactory.getLogger(ElementIterator.class);
     private static final String SETTING_FETCH_HINTS = "fetchHints";
+    private static final String SETTING_COLUMN_QUALIFIER_CACHE_SIZE = "columnQualifierCacheSize";
+    public static final String SETTING_PROPERTY_NAME_PREFIX = "propertyName:";
+    public static final String SETTING_PROPERTY_NAMES_ENABLED = "propertyNamesEnabled";
+    private static final ColumnQualifierCache<PropertyMetadataColumnQualifier> propertyMetadataColumnQualifierCache = new ColumnQualifierCache<PropertyMetadataColumnQualifier>() {
+        @Override
+        protected PropertyMetadataColumnQualifier parse(byte[] columnQualifier) {
+            return new PropertyMetadataColumnQualifier(columnQualifier);
+        }
+    };
+    private static final ColumnQualifierCache<PropertyHiddenColumnQualifier> propertyHiddenColumnQualifierCache = new ColumnQualifierCache<PropertyHiddenColumnQualifier>() {
+        @Override
+        protected PropertyHiddenColumnQualifier parse(byte[] columnQualifier) {
+            return new PropertyHiddenColumnQualifier(columnQualifier);
+        }
+    };
     private EnumSet<FetchHint> fetchHints;
+    // property names, as they appear in the column qualifiers, to include. null to include all properties
+    private Set<ByteSequence> propertyNames;
     private T elementData;
-    private static final Map<Text, PropertyMetadataColumnQualifier> stringToPropertyMetadataColumnQualifierCache = new HashMap<>();
 
     public ElementIterator(SortedKeyValueIterator<Key, Value> source, EnumSet<FetchHint> fetchHints) {
         this.sourceIter = source;
@@ -94,8 +117,12 @@ public abstract class ElementIterator<T extends ElementData> extends RowEncoding
             this.elementData.id = key.getRow();
         }
 
+        if (propertyNames != null && isPropertyColumnFamily(columnFamily) && !isPropertyNameIncluded(key.getColumnQualifierData())) {
+            return true;
+        }
+
         if (CF_PROPERTY_METADATA.equals(columnFamily)) {
-            extractPropertyMetadata(key.getColumnQualifier(), key.getColumnVisibility(), key.getTimestamp(), value);
+            extractPropertyMetadata(key.getColumnQualifierData(), key.getColumnVisibility(), key.getTimestamp(), value);
             return true;
         }
 
@@ -143,13 +170,34 @@ public abstract class ElementIterator<T extends ElementData> extends RowEncoding
         }
 
         if (CF_PROPERTY_HIDDEN.equals(columnFamily)) {
-            extractPropertyHidden(key.getColumnQualifier(), key.getColumnVisibility(), value);
+            extractPropertyHidden(key.getColumnQualifierData(), key.getColumnVisibility(), value);
             return true;
         }
 
         return true;
     }
 
+    private static boolean isPropertyColumnFamily(Text columnFamily) {
+        return CF_PROPERTY.equals(columnFamily)
+                || CF_PROPERTY_METADATA.equals(columnFamily)
+                || CF_PROPERTY_HIDDEN.equals(columnFamily)
+                || CF_PROPERTY_SOFT_DELETE.equals(columnFamily);
+    }
+
+    /**
+     * All property column qualifiers start with the property name followed by {@link KeyBase#VALUE_SEPARATOR}.
+     */
+    private boolean isPropertyNameIncluded(ByteSequence columnQualifier) {
+        byte[] bytes = columnQualifier.getBackingArray();
+        int start = columnQualifier.offset();
+        int end = start + columnQualifier.length();
+        int i = start;
+        while (i < end && bytes[i] != KeyBase.VALUE_SEPARATOR) {
+            i++;
+        }
+        return propertyNames.contains(new ArrayByteSequence(bytes, start, i - start));
+    }
+
     protected abstract boolean processColumn(Key key, Value value, Text columnFamily, Text columnQualifier);
 
     protected void processSignalColumn(Text columnQualifier) {
@@ -163,22 +211,11 @@ public abstract class ElementIterator<T extends ElementData> extends RowEncoding
     protected abstract Text getVisibilitySignal();
 
     private void extractPropertySoftDelete(Text columnQualifier, long timestamp, Text columnVisibility) {
-        PropertyColumnQualifier propertyColumnQualifier = new PropertyColumnQualifier(columnQualifier);
-        SoftDeletedProperty softDeletedProperty = new SoftDeletedProperty(
-                propertyColumnQualifier.getPropertyKey(),
-                propertyColumnQualifier.getPropertyName(),
-                timestamp,
-                columnVisibility
-        );
-        this.elementData.softDeletedProperties.add(softDeletedProperty);
-    }
-
-    private void extractPropertyMetadata(Text columnQualifier, Text columnVisibility, long timestamp, Value value) {
-        PropertyMetadataColumnQualifier propertyMetadataColumnQualifier = stringToPropertyMetadataColumnQualifierCache.get(columnQualifier);
-        if (propertyMetadataColumnQualifier == null) {
-            propertyMetadataColumnQualifier = new PropertyMetadataColumnQualifier(columnQualifier);
-            stringToPropertyMetadataColumnQualifierCache.put(columnQualifier, propertyMetadataColumnQualifier);
-        }
+        this.elementData.softDeletedProperties.add(new SoftDeletedProperty(columnQualifier, timestamp, columnVisibility));
+    }
+
+    private void extractPropertyMetadata(ByteSequence columnQualifier, Text columnVisibility, long timestamp, Value value) {
+        PropertyMetadataColumnQualifier propertyMetadataColumnQualifier = propertyMetadataColumnQualifierCache.get(columnQualifier);
         String discriminator = propertyMetadataColumnQualifier.getPropertyDiscriminator(timestamp);
         PropertyMetadata propertyMetadata = elementData.propertyMetadata.get(discriminator);
         if (propertyMetadata == null) {
@@ -188,28 +225,16 @@ public abstract class ElementIterator<T extends ElementData> extends RowEncoding
         propertyMetadata.add(propertyMetadataColumnQualifier.getMetadataKey(), columnVisibility.toString(), value.get());
     }
 
-    private void extractPropertyHidden(Text columnQualifier, Text columnVisibility, Value value) {
+    private void extractPropertyHidden(ByteSequence columnQualifier, Text columnVisibility, Value value) {
         if (value.equals(HIDDEN_VALUE_DELETED)) {
             return;
         }
-        PropertyHiddenColumnQualifier propertyHiddenColumnQualifier = new PropertyHiddenColumnQualifier(columnQualifier);
-        HiddenProperty hiddenProperty = new HiddenProperty(
-                propertyHiddenColumnQualifier.getPropertyKey(),
-                propertyHiddenColumnQualifier.getPropertyName(),
-                propertyHiddenColumnQualifier.getPropertyVisibilityString(),
-                columnVisibility
-        );
-        this.elementData.hiddenProperties.add(hiddenProperty);
+        PropertyHiddenColumnQualifier propertyHiddenColumnQualifier = propertyHiddenColumnQualifierCache.get(columnQualifier);
+        this.elementData.hiddenProperties.add(new HiddenProperty(propertyHiddenColumnQualifier, columnVisibility));
     }
 
     private void extractPropertyData(Key key, Value value) {
-        PropertyColumnQualifier propertyColumnQualifier = new PropertyColumnQualifier(key.getColumnQualifier());
-        String mapKey = propertyColumnQualifier.getDiscriminator(key.getColumnVisibility().toString(), key.getTimestamp());
-        long timestamp = key.getTimestamp();
-        this.elementData.propertyColumnQualifiers.put(mapKey, propertyColumnQualifier);
-        this.elementData.propertyValues.put(mapKey, value.get());
-        this.elementData.propertyVisibilities.put(mapKey, key.getColumnVisibility());
-        this.elementData.propertyTimestamps.put(mapKey, timestamp);
+        this.elementData.addPropertyColumn(key, value);
     }
 
     @Override
@@ -222,7 +247,44 @@ public abstract class ElementIterator<T extends ElementData> extends RowEncoding
             throw new IOException(SETTING_FETCH_HINTS + " is required");
         }
         fetchHints = FetchHint.parse(options.get(SETTING_FETCH_HINTS));
+        Set<ByteSequence> propertyNames = new HashSet<>();
+        for (Map.Entry<String, String> option : options.entrySet()) {
+            if (option.getKey().startsWith(SETTING_PROPERTY_NAME_PREFIX)) {
+                propertyNames.add(new ArrayByteSequence(option.getValue().getBytes(DataOutputStreamUtils.CHARSET)));
+            }
+        }
+        // an empty set of names still limits the properties, to none
+        boolean propertyNamesEnabled = Boolean.parseBoolean(options.get(SETTING_PROPERTY_NAMES_ENABLED));
+        this.propertyNames = propertyNamesEnabled || propertyNames.size() > 0 ? propertyNames : null;
+        String columnQualifierCacheSize = options.get(SETTING_COLUMN_QUALIFIER_CACHE_SIZE);
+        if (columnQualifierCacheSize != null) {
+            setColumnQualifierCacheMaxSize(Integer.parseInt(columnQualifierCacheSize));
+        }
         elementData = createElementData();
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("property metadata column qualifier cache: " + propertyMetadataColumnQualifierCache);
+            LOGGER.debug("property hidden column qualifier cache: " + propertyHiddenColumnQualifierCache);
+        }
+    }
+
+    /**
+     * The column qualifier caches are shared by every scan in the tablet server, so the last scan to set this wins.
+     */
+    public static void setColumnQualifierCacheSize(IteratorSetting iteratorSettings, int maxSize) {
+        iteratorSettings.addOption(SETTING_COLUMN_QUALIFIER_CACHE_SIZE, Integer.toString(maxSize));
+    }
+
+    static void setColumnQualifierCacheMaxSize(int maxSize) {
+        propertyMetadataColumnQualifierCache.setMaxSize(maxSize);
+        propertyHiddenColumnQualifierCache.setMaxSize(maxSize);
+    }
+
+    static ColumnQualifierCache<PropertyMetadataColumnQualifier> getPropertyMetadataColumnQualifierCache() {
+        return propertyMetadataColumnQualifierCache;
+    }
+
+    static ColumnQualifierCache<PropertyHiddenColumnQualifier> getPropertyHiddenColumnQualifierCache() {
+        return propertyHiddenColumnQualifierCache;
     }
 
     protected abstract T createElementData();
@@ -231,6 +293,23 @@ public abstract class ElementIterator<T extends ElementData> extends RowEncoding
         iteratorSettings.addOption(SETTING_FETCH_HINTS, FetchHint.toString(fetchHints));
     }
 
+    /**
+     * Limits the properties returned to the given names. Columns of other properties are dropped before the
+     * element is encoded.
+     *
+     * @param propertyNames The names of the properties to include. null to include all properties, an empty array to
+     *                      include none.
+     */
+    public static void setPropertyNames(IteratorSetting iteratorSettings, String[] propertyNames) {
+        if (propertyNames == null) {
+            return;
+        }
+        iteratorSettings.addOption(SETTING_PROPERTY_NAMES_ENABLED, Boolean.TRUE.toString());
+        for (int i = 0; i < propertyNames.length; i++) {
+            iteratorSettings.addOption(SETTING_PROPERTY_NAME_PREFIX + i, propertyNames[i]);
+        }
+    }
+
     public EnumSet<FetchHint> getFetchHints() {
         return fetchHints;
     }
@@ -10,6 +10,8 @@ import org.vertexium.accumulo.iterator.model.FetchHint;
 import org.vertexium.accumulo.iterator.model.SoftDeleteEdgeInfo;
 import org.vertexium.accumulo.iterator.model.VertexElementData;
 
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.EnumSet;
 import java.util.List;
 
@@ -29,6 +31,19 @@ public class VertexIterator extends ElementIterator<VertexElementData> {
     public static final String CF_IN_EDGE_SOFT_DELETE_STRING = "EIND";
     public static final Text CF_IN_EDGE_SOFT_DELETE = new Text(CF_IN_EDGE_SOFT_DELETE_STRING);
 
+    private static final Comparator<Text> TEXT_COMPARATOR = new Comparator<Text>() {
+        @Override
+        public int compare(Text o1, Text o2) {
+            return o1.compareTo(o2);
+        }
+    };
+    private static final Comparator<SoftDeleteEdgeInfo> SOFT_DELETE_EDGE_INFO_COMPARATOR = new Comparator<SoftDeleteEdgeInfo>() {
+        @Override
+        public int compare(SoftDeleteEdgeInfo o1, SoftDeleteEdgeInfo o2) {
+            return o1.getEdgeId().compareTo(o2.getEdgeId());
+        }
+    };
+
     public VertexIterator() {
         this(FetchHint.ALL);
     }
@@ -50,25 +65,30 @@ public class VertexIterator extends ElementIterator<VertexElementData> {
         return ret;
     }
 
+    /**
+     * Hidden and soft delete columns are read in edge id order, as are the edges, so removing them is a merge. The in
+     * and out hidden edge ids are two sorted runs which are combined before merging.
+     */
     private void removeHiddenAndSoftDeletes() {
-        if (!getFetchHints().contains(FetchHint.INCLUDE_HIDDEN)) {
-            for (Text edgeId : this.getElementData().hiddenEdges) {
-                this.getElementData().inEdges.remove(edgeId);
-                this.getElementData().outEdges.remove(edgeId);
-            }
+        VertexElementData elementData = this.getElementData();
+        if (!getFetchHints().contains(FetchHint.INCLUDE_HIDDEN) && elementData.hiddenEdges.size() > 0) {
+            sortIfNeeded(elementData.hiddenEdges, TEXT_COMPARATOR);
+            elementData.inEdges.removeAll(elementData.hiddenEdges);
+            elementData.outEdges.removeAll(elementData.hiddenEdges);
         }
 
-        for (SoftDeleteEdgeInfo inSoftDelete : this.getElementData().inSoftDeletes) {
-            EdgeInfo inEdge = this.getElementData().inEdges.get(inSoftDelete.getEdgeId());
-            if (inEdge != null && inSoftDelete.getTimestamp() >= inEdge.getTimestamp()) {
-                this.getElementData().inEdges.remove(inSoftDelete.getEdgeId());
-            }
-        }
+        sortIfNeeded(elementData.inSoftDeletes, SOFT_DELETE_EDGE_INFO_COMPARATOR);
+        elementData.inEdges.removeSoftDeleted(elementData.inSoftDeletes);
+
+        sortIfNeeded(elementData.outSoftDeletes, SOFT_DELETE_EDGE_INFO_COMPARATOR);
+        elementData.outEdges.removeSoftDeleted(elementData.outSoftDeletes);
+    }
 
-        for (SoftDeleteEdgeInfo outSoftDelete : this.getElementData().outSoftDeletes) {
-            EdgeInfo outEdge = this.getElementData().outEdges.get(outSoftDelete.getEdgeId());
-            if (outEdge != null && outSoftDelete.getTimestamp() >= outEdge.getTimestamp()) {
-                this.getElementData().outEdges.remove(outSoftDelete.getEdgeId());
+    private static <T> void sortIfNeeded(List<T> list, Comparator<T> comparator) {
+        for (int i = 1; i < list.size(); i++) {
+            if (comparator.compare(list.get(i - 1), list.get(i)) > 0) {
+                Collections.sort(list, comparator);
+                return;
             }
         }
     }
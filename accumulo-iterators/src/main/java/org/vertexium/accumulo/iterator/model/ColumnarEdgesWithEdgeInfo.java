@@ -0,0 +1,330 @@
+package org.vertexium.accumulo.iterator.model;
+
+import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
+import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
+
+import java.util.*;
+
+/**
+ * A read only view over edges written by {@link DataOutputStreamUtils#encodeEdges} with columnar refs. Edge ids,
+ * vertex ids and timestamps are read from the encoded value as they are asked for and labels are shared between all
+ * the edges with that label. The edges of each label are sorted by edge id so an edge is found with a binary search of
+ * each label. The edges are copied into the {@link EdgesWithEdgeInfo} the first time they are changed.
+ */
+public class ColumnarEdgesWithEdgeInfo extends EdgesWithEdgeInfo {
+    private byte[] data;
+    private final String[] labels;
+    // the index of the first edge after the edges of each label
+    private final int[] labelEnds;
+    private final int edgeCount;
+    private final int timestampsOffset;
+    // offsets into data of each edge id and vertex id with one extra entry marking the end of the last one
+    private final int[] edgeIdOffsets;
+    private final int[] vertexIdOffsets;
+
+    /**
+     * @param data        The encoded value.
+     * @param offset      The offset in data of the edge count that follows the label dictionary.
+     * @param labels      The labels in the order they were written.
+     * @param labelCounts The number of edges with each label.
+     */
+    public ColumnarEdgesWithEdgeInfo(byte[] data, int offset, String[] labels, int[] labelCounts) {
+        this.data = data;
+        this.labels = labels;
+        this.labelEnds = new int[labelCounts.length];
+        int labelEnd = 0;
+        for (int i = 0; i < labelCounts.length; i++) {
+            labelEnd += labelCounts[i];
+            labelEnds[i] = labelEnd;
+        }
+
+        this.edgeCount = readInt(data, offset);
+        if (edgeCount != labelEnd) {
+            throw new VertexiumAccumuloIteratorException("Edge count " + edgeCount + " does not match label counts " + labelEnd);
+        }
+        offset += 4;
+        this.timestampsOffset = offset;
+        offset += edgeCount * 8;
+        this.edgeIdOffsets = new int[edgeCount + 1];
+        offset = readOffsets(data, offset, edgeIdOffsets);
+        this.vertexIdOffsets = new int[edgeCount + 1];
+        readOffsets(data, offset, vertexIdOffsets);
+    }
+
+    /**
+     * Reads a block of lengths followed by the values they describe.
+     *
+     * @return The offset after the last value.
+     */
+    private int readOffsets(byte[] data, int offset, int[] offsets) {
+        int count = offsets.length - 1;
+        int valueOffset = offset + count * 4;
+        for (int i = 0; i < count; i++) {
+            offsets[i] = valueOffset;
+            valueOffset += readInt(data, offset + i * 4);
+        }
+        offsets[count] = valueOffset;
+        if (valueOffset > data.length) {
+            throw new VertexiumAccumuloIteratorException("Unexpected end of data reading edges");
+        }
+        return valueOffset;
+    }
+
+    /**
+     * Copies the edges into the {@link EdgesWithEdgeInfo} so they can be changed.
+     */
+    private void materialize() {
+        if (data == null) {
+            return;
+        }
+        List<Text> edgeIds = new ArrayList<>(edgeCount);
+        List<EdgeInfo> edgeInfos = new ArrayList<>(edgeCount);
+        for (int i = 0; i < edgeCount; i++) {
+            edgeIds.add(getEdgeId(data, i));
+            edgeInfos.add(new EdgeInfo(getLabel(i), getVertexId(data, i), getTimestamp(data, i)));
+        }
+        data = null;
+        for (int i = 0; i < edgeCount; i++) {
+            super.add(edgeIds.get(i), edgeInfos.get(i));
+        }
+    }
+
+    private Text getEdgeId(byte[] data, int i) {
+        Text edgeId = new Text();
+        edgeId.set(data, edgeIdOffsets[i], edgeIdOffsets[i + 1] - edgeIdOffsets[i]);
+        return edgeId;
+    }
+
+    private String getVertexId(byte[] data, int i) {
+        return new String(data, vertexIdOffsets[i], vertexIdOffsets[i + 1] - vertexIdOffsets[i], DataOutputStreamUtils.CHARSET);
+    }
+
+    private long getTimestamp(byte[] data, int i) {
+        int offset = timestampsOffset + i * 8;
+        return ((long) readInt(data, offset) << 32) | (readInt(data, offset + 4) & 0xffffffffL);
+    }
+
+    private String getLabel(int i) {
+        int labelIndex = Arrays.binarySearch(labelEnds, i);
+        // labelEnds holds the index after each label so an exact match belongs to the next label
+        labelIndex = labelIndex < 0 ? -labelIndex - 1 : labelIndex + 1;
+        while (labelEnds[labelIndex] == i) {
+            labelIndex++;
+        }
+        return labels[labelIndex];
+    }
+
+    private static int readInt(byte[] buffer, int offset) {
+        return ((buffer[offset] & 0xff) << 24)
+                | ((buffer[offset + 1] & 0xff) << 16)
+                | ((buffer[offset + 2] & 0xff) << 8)
+                | ((buffer[offset + 3] & 0xff));
+    }
+
+    @Override
+    public void add(Text edgeId, EdgeInfo edgeInfo) {
+        materialize();
+        super.add(edgeId, edgeInfo);
+    }
+
+    @Override
+    public void remove(Text edgeId) {
+        materialize();
+        super.remove(edgeId);
+    }
+
+    @Override
+    public void removeAll(List<Text> edgeIds) {
+        materialize();
+        super.removeAll(edgeIds);
+    }
+
+    @Override
+    public void removeSoftDeleted(List<SoftDeleteEdgeInfo> softDeletes) {
+        materialize();
+        super.removeSoftDeleted(softDeletes);
+    }
+
+    @Override
+    public int size() {
+        if (data == null) {
+            return super.size();
+        }
+        return edgeCount;
+    }
+
+    @Override
+    public void clear() {
+        data = null;
+        super.clear();
+    }
+
+    @Override
+    public EdgeInfo get(Text edgeId) {
+        if (data == null) {
+            return super.get(edgeId);
+        }
+        int labelStart = 0;
+        for (int labelEnd : labelEnds) {
+            int i = indexOf(edgeId, labelStart, labelEnd);
+            if (i >= 0) {
+                return new EdgeInfoView(data, i);
+            }
+            labelStart = labelEnd;
+        }
+        return null;
+    }
+
+    private int indexOf(Text edgeId, int start, int end) {
+        int low = start;
+        int high = end - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int length = edgeIdOffsets[mid + 1] - edgeIdOffsets[mid];
+            int result = WritableComparator.compareBytes(data, edgeIdOffsets[mid], length, edgeId.getBytes(), 0, edgeId.getLength());
+            if (result < 0) {
+                low = mid + 1;
+            } else if (result > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Iterable<EdgeInfo> getEdgeInfos() {
+        return new Iterable<EdgeInfo>() {
+            @Override
+            public Iterator<EdgeInfo> iterator() {
+                if (data == null) {
+                    return ColumnarEdgesWithEdgeInfo.super.getEdgeInfos().iterator();
+                }
+                return new ViewIterator<EdgeInfo>() {
+                    @Override
+                    protected EdgeInfo get(byte[] data, int i) {
+                        return new EdgeInfoView(data, i);
+                    }
+                };
+            }
+        };
+    }
+
+    @Override
+    public Iterable<Map.Entry<Text, EdgeInfo>> getEntries() {
+        return new Iterable<Map.Entry<Text, EdgeInfo>>() {
+            @Override
+            public Iterator<Map.Entry<Text, EdgeInfo>> iterator() {
+                if (data == null) {
+                    return ColumnarEdgesWithEdgeInfo.super.getEntries().iterator();
+                }
+                return new ViewIterator<Map.Entry<Text, EdgeInfo>>() {
+                    @Override
+                    protected Map.Entry<Text, EdgeInfo> get(byte[] data, int i) {
+                        return new EntryView(data, i);
+                    }
+                };
+            }
+        };
+    }
+
+    private abstract class ViewIterator<T> implements Iterator<T> {
+        // keeps reading the data it started with if the edges are changed while iterating
+        private final byte[] iteratorData = data;
+        private int i;
+
+        @Override
+        public boolean hasNext() {
+            return i < edgeCount;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return get(iteratorData, i++);
+        }
+
+        protected abstract T get(byte[] data, int i);
+
+        @Override
+        public void remove() {
+            throw new RuntimeException("not supported");
+        }
+    }
+
+    private class EdgeInfoView extends EdgeInfo {
+        private final byte[] viewData;
+        private final int index;
+        private String vertexId;
+
+        private EdgeInfoView(byte[] viewData, int index) {
+            this.viewData = viewData;
+            this.index = index;
+        }
+
+        @Override
+        public String getLabel() {
+            return ColumnarEdgesWithEdgeInfo.this.getLabel(index);
+        }
+
+        @Override
+        public String getVertexId() {
+            if (vertexId == null) {
+                vertexId = ColumnarEdgesWithEdgeInfo.this.getVertexId(viewData, index);
+            }
+            return vertexId;
+        }
+
+        @Override
+        public long getTimestamp() {
+            return ColumnarEdgesWithEdgeInfo.this.getTimestamp(viewData, index);
+        }
+
+        @Override
+        public byte[] getLabelBytes() {
+            return getLabel().getBytes(DataOutputStreamUtils.CHARSET);
+        }
+
+        @Override
+        public byte[] getBytes() {
+            return new EdgeInfo(getLabel(), getVertexId(), getTimestamp()).getBytes();
+        }
+
+        @Override
+        public String toString() {
+            return "EdgeInfo{" +
+                    "vertexId='" + getVertexId() + '\'' +
+                    ", label='" + getLabel() + '\'' +
+                    '}';
+        }
+    }
+
+    private class EntryView implements Map.Entry<Text, EdgeInfo> {
+        private final byte[] viewData;
+        private final int index;
+
+        private EntryView(byte[] viewData, int index) {
+            this.viewData = viewData;
+            this.index = index;
+        }
+
+        @Override
+        public Text getKey() {
+            return getEdgeId(viewData, index);
+        }
+
+        @Override
+        public EdgeInfo getValue() {
+            return new EdgeInfoView(viewData, index);
+        }
+
+        @Override
+        public EdgeInfo setValue(EdgeInfo value) {
+            throw new RuntimeException("not supported");
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package org.vertexium.accumulo.iterator.model;
+
+public enum Direction {
+    OUT,
+    IN,
+    BOTH
+}
@@ -87,8 +87,9 @@ public class EdgeInfo {
 
     public byte[] getLabelBytes() {
         // Used to use ByteBuffer here but it was to slow
-        int labelBytesLength = readInt(this.bytes, 0);
-        return Arrays.copyOfRange(this.bytes, 4, 4 + labelBytesLength);
+        byte[] bytes = getBytes();
+        int labelBytesLength = readInt(bytes, 0);
+        return Arrays.copyOfRange(bytes, 4, 4 + labelBytesLength);
     }
 
     public static EdgeInfo parse(Value value, long timestamp) {
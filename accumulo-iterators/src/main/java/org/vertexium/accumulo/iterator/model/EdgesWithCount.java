@@ -14,4 +14,17 @@ public class EdgesWithCount extends Edges {
     public Set<String> getLabels() {
         return edgeCounts.keySet();
     }
+
+    public int getCount(String label) {
+        Integer count = edgeCounts.get(label);
+        return count == null ? 0 : count;
+    }
+
+    public int getCount() {
+        int count = 0;
+        for (Integer labelCount : edgeCounts.values()) {
+            count += labelCount;
+        }
+        return count;
+    }
 }
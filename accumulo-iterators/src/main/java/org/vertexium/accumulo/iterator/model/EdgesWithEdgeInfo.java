@@ -2,17 +2,32 @@ package org.vertexium.accumulo.iterator.model;
 
 import org.apache.hadoop.io.Text;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
+/**
+ * Edge ids and their {@link EdgeInfo}s in insertion order. Edges are removed by marking their entry so removal never
+ * shifts the remaining entries. Edges read from a row arrive sorted by edge id which allows lookups by binary search
+ * and hidden or soft deleted edges to be removed with a single merge.
+ */
 public class EdgesWithEdgeInfo extends Edges {
-    // We used to use a HashMap here but that was too slow. Replaced with a List since we really don't care about duplicates anyway.
-    private List<Map.Entry<Text, EdgeInfo>> pairs = new ArrayList<>();
+    // We used to use a HashMap here but that was too slow. Replaced with an array since we really don't care about duplicates anyway.
+    private Pair[] pairs = new Pair[16];
+    private int length;
+    private int size;
+    private boolean sorted = true;
 
     public void add(Text edgeId, EdgeInfo edgeInfo) {
-        pairs.add(new Pair(edgeId, edgeInfo));
+        if (length == pairs.length) {
+            compact();
+            if (length == pairs.length) {
+                pairs = Arrays.copyOf(pairs, pairs.length * 2);
+            }
+        }
+        if (sorted && length > 0 && pairs[length - 1].edgeId.compareTo(edgeId) > 0) {
+            sorted = false;
+        }
+        pairs[length++] = new Pair(edgeId, edgeInfo);
+        size++;
     }
 
     public void add(String edgeId, EdgeInfo edgeInfo) {
@@ -22,31 +37,148 @@ public class EdgesWithEdgeInfo extends Edges {
     public void remove(Text edgeId) {
         int i = indexOf(edgeId);
         if (i >= 0) {
-            pairs.remove(i);
+            removeAt(i);
+        }
+    }
+
+    public void remove(String edgeId) {
+        remove(new Text(edgeId));
+    }
+
+    private void removeAt(int i) {
+        if (!pairs[i].removed) {
+            pairs[i].removed = true;
+            size--;
         }
     }
 
     private int indexOf(Text edgeId) {
-        for (int i = 0; i < pairs.size(); i++) {
-            if (pairs.get(i).getKey().equals(edgeId)) {
+        if (sorted) {
+            int low = 0;
+            int high = length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int result = pairs[mid].edgeId.compareTo(edgeId);
+                if (result < 0) {
+                    low = mid + 1;
+                } else if (result > 0) {
+                    high = mid - 1;
+                } else {
+                    return findLiveEntry(mid, edgeId);
+                }
+            }
+            return -1;
+        }
+        for (int i = 0; i < length; i++) {
+            if (!pairs[i].removed && pairs[i].edgeId.equals(edgeId)) {
                 return i;
             }
         }
         return -1;
     }
 
-    public void remove(String edgeId) {
-        remove(new Text(edgeId));
+    /**
+     * Removed entries keep their place in the array so a binary search can land on one. Look at the neighbors with the
+     * same edge id for one that is still present.
+     */
+    private int findLiveEntry(int i, Text edgeId) {
+        for (int j = i; j < length && pairs[j].edgeId.equals(edgeId); j++) {
+            if (!pairs[j].removed) {
+                return j;
+            }
+        }
+        for (int j = i - 1; j >= 0 && pairs[j].edgeId.equals(edgeId); j--) {
+            if (!pairs[j].removed) {
+                return j;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Removes every edge whose id is in the given list.
+     *
+     * @param edgeIds Edge ids sorted in ascending order.
+     */
+    public void removeAll(List<Text> edgeIds) {
+        if (edgeIds.isEmpty() || size == 0) {
+            return;
+        }
+        sort();
+        int edgeIdIndex = 0;
+        for (int i = 0; i < length && edgeIdIndex < edgeIds.size(); i++) {
+            Text edgeId = pairs[i].edgeId;
+            while (edgeIdIndex < edgeIds.size() && edgeIds.get(edgeIdIndex).compareTo(edgeId) < 0) {
+                edgeIdIndex++;
+            }
+            if (edgeIdIndex < edgeIds.size() && edgeIds.get(edgeIdIndex).equals(edgeId)) {
+                removeAt(i);
+            }
+        }
+    }
+
+    /**
+     * Removes every edge that has a soft delete with a timestamp at or after the edge's timestamp.
+     *
+     * @param softDeletes Soft deletes sorted by edge id.
+     */
+    public void removeSoftDeleted(List<SoftDeleteEdgeInfo> softDeletes) {
+        if (softDeletes.isEmpty() || size == 0) {
+            return;
+        }
+        sort();
+        int softDeleteIndex = 0;
+        for (int i = 0; i < length && softDeleteIndex < softDeletes.size(); i++) {
+            Pair pair = pairs[i];
+            while (softDeleteIndex < softDeletes.size() && softDeletes.get(softDeleteIndex).getEdgeId().compareTo(pair.edgeId) < 0) {
+                softDeleteIndex++;
+            }
+            for (int j = softDeleteIndex; j < softDeletes.size() && softDeletes.get(j).getEdgeId().equals(pair.edgeId); j++) {
+                if (softDeletes.get(j).getTimestamp() >= pair.edgeInfo.getTimestamp()) {
+                    removeAt(i);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void compact() {
+        if (size == length) {
+            return;
+        }
+        int j = 0;
+        for (int i = 0; i < length; i++) {
+            if (!pairs[i].removed) {
+                pairs[j++] = pairs[i];
+            }
+        }
+        Arrays.fill(pairs, j, length, null);
+        length = j;
+    }
+
+    private void sort() {
+        compact();
+        if (!sorted) {
+            Arrays.sort(pairs, 0, length, Pair.COMPARATOR);
+            sorted = true;
+        }
+    }
+
+    public int size() {
+        return size;
     }
 
     public void clear() {
-        pairs.clear();
+        Arrays.fill(pairs, 0, length, null);
+        length = 0;
+        size = 0;
+        sorted = true;
     }
 
     public EdgeInfo get(Text edgeId) {
         int i = indexOf(edgeId);
         if (i >= 0) {
-            return pairs.get(i).getValue();
+            return pairs[i].getValue();
         }
         return null;
     }
@@ -55,7 +187,7 @@ public class EdgesWithEdgeInfo extends Edges {
         return new Iterable<EdgeInfo>() {
             @Override
             public Iterator<EdgeInfo> iterator() {
-                final Iterator<Map.Entry<Text, EdgeInfo>> it = pairs.iterator();
+                final Iterator<Map.Entry<Text, EdgeInfo>> it = getEntries().iterator();
                 return new Iterator<EdgeInfo>() {
                     @Override
                     public boolean hasNext() {
@@ -77,12 +209,53 @@ public class EdgesWithEdgeInfo extends Edges {
     }
 
     public Iterable<Map.Entry<Text, EdgeInfo>> getEntries() {
-        return pairs;
+        return new Iterable<Map.Entry<Text, EdgeInfo>>() {
+            @Override
+            public Iterator<Map.Entry<Text, EdgeInfo>> iterator() {
+                return new Iterator<Map.Entry<Text, EdgeInfo>>() {
+                    private int i = nextLiveIndex(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return i < length;
+                    }
+
+                    @Override
+                    public Map.Entry<Text, EdgeInfo> next() {
+                        if (i >= length) {
+                            throw new NoSuchElementException();
+                        }
+                        Pair pair = pairs[i];
+                        i = nextLiveIndex(i + 1);
+                        return pair;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new RuntimeException("not supported");
+                    }
+                };
+            }
+        };
+    }
+
+    private int nextLiveIndex(int i) {
+        while (i < length && pairs[i].removed) {
+            i++;
+        }
+        return i;
     }
 
     private static class Pair implements Map.Entry<Text, EdgeInfo> {
+        public static final Comparator<Pair> COMPARATOR = new Comparator<Pair>() {
+            @Override
+            public int compare(Pair o1, Pair o2) {
+                return o1.edgeId.compareTo(o2.edgeId);
+            }
+        };
         private final Text edgeId;
         private final EdgeInfo edgeInfo;
+        private boolean removed;
 
         public Pair(Text edgeId, EdgeInfo edgeInfo) {
             this.edgeId = edgeId;
@@ -1,7 +1,9 @@
 package org.vertexium.accumulo.iterator.model;
 
+import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.hadoop.io.Text;
+import org.apache.hadoop.io.WritableComparator;
 import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
 
 import java.io.ByteArrayOutputStream;
@@ -10,7 +12,7 @@ import java.io.IOException;
 import java.util.*;
 
 public abstract class ElementData {
-    public static final byte[] HEADER = new byte[]{'V', 'E', 'R', 'T', '1'};
+    public static final byte[] HEADER = new byte[]{'V', 'E', 'R', 'T', '2'};
     public static final byte TYPE_ID_VERTEX = 1;
     public static final byte TYPE_ID_EDGE = 2;
     public static final int PROP_START = 1;
@@ -23,10 +25,14 @@ public abstract class ElementData {
     public List<SoftDeletedProperty> softDeletedProperties = new ArrayList<>();
     public List<HiddenProperty> hiddenProperties = new ArrayList<>();
     public Map<String, PropertyMetadata> propertyMetadata = new HashMap<>();
-    public final Map<String, PropertyColumnQualifier> propertyColumnQualifiers = new HashMap<>();
-    public final Map<String, byte[]> propertyValues = new HashMap<>();
-    public final Map<String, Text> propertyVisibilities = new HashMap<>();
-    public final Map<String, Long> propertyTimestamps = new HashMap<>();
+    // property columns are reused between rows, only the first propertyColumnCount entries belong to the current row
+    private final List<PropertyColumn> propertyColumns = new ArrayList<>();
+    private int propertyColumnCount;
+    private boolean propertyColumnsSorted = true;
+    private final ByteArrayOutputStream encodeBuffer = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream propertiesBuffer = new ByteArrayOutputStream();
+    private final List<PropertyColumn> propertyIndexColumns = new ArrayList<>();
+    private final List<Integer> propertyIndexOffsets = new ArrayList<>();
 
     public void clear() {
         id = null;
@@ -37,17 +43,30 @@ public abstract class ElementData {
         softDeletedProperties.clear();
         hiddenProperties.clear();
         propertyMetadata.clear();
-        propertyColumnQualifiers.clear();
-        propertyValues.clear();
-        propertyVisibilities.clear();
-        propertyTimestamps.clear();
+        propertyColumnCount = 0;
+        propertyColumnsSorted = true;
+    }
+
+    public void addPropertyColumn(Key key, Value value) {
+        PropertyColumn propertyColumn;
+        if (propertyColumnCount < propertyColumns.size()) {
+            propertyColumn = propertyColumns.get(propertyColumnCount);
+        } else {
+            propertyColumn = new PropertyColumn();
+            propertyColumns.add(propertyColumn);
+        }
+        propertyColumn.set(key, value);
+        if (propertyColumnCount > 0 && PropertyColumn.COMPARATOR.compare(propertyColumns.get(propertyColumnCount - 1), propertyColumn) > 0) {
+            propertyColumnsSorted = false;
+        }
+        propertyColumnCount++;
     }
 
     public final Value encode(EnumSet<FetchHint> fetchHints) throws IOException {
-        ByteArrayOutputStream out = new ByteArrayOutputStream();
-        DataOutputStream dout = new DataOutputStream(out);
+        encodeBuffer.reset();
+        DataOutputStream dout = new DataOutputStream(encodeBuffer);
         encode(dout, fetchHints);
-        return new Value(out.toByteArray());
+        return new Value(encodeBuffer.toByteArray());
     }
 
     protected void encode(DataOutputStream out, EnumSet<FetchHint> fetchHints) throws IOException {
@@ -66,52 +85,102 @@ public abstract class ElementData {
 
     protected abstract byte getTypeId();
 
+    /**
+     * Writes an index of property names followed by the encoded properties. Each index entry holds the offset and
+     * length of the properties with that name so a reader can decode only the names it is asked for. Properties are
+     * walked in column qualifier order which keeps the properties of one name together.
+     */
     private void encodeProperties(final DataOutputStream out, EnumSet<FetchHint> fetchHints) throws IOException {
+        propertiesBuffer.reset();
+        propertyIndexColumns.clear();
+        propertyIndexOffsets.clear();
+        final DataOutputStream propertiesOut = new DataOutputStream(propertiesBuffer);
         iterateProperties(new PropertyDataHandler() {
             @Override
-            public void handle(
-                    String propertyKey,
-                    String propertyName,
-                    byte[] propertyValue,
-                    Text propertyVisibility,
-                    long propertyTimestamp,
-                    Set<Text> propertyHiddenVisibilities,
-                    PropertyMetadata metadata
-            ) throws IOException {
-                out.write(PROP_START);
-                DataOutputStreamUtils.encodeString(out, propertyKey);
-                DataOutputStreamUtils.encodeString(out, propertyName);
-                DataOutputStreamUtils.encodeText(out, propertyVisibility);
-                out.writeLong(propertyTimestamp);
-                out.writeInt(propertyValue.length);
-                out.write(propertyValue);
-                DataOutputStreamUtils.encodeTextList(out, propertyHiddenVisibilities);
-                DataOutputStreamUtils.encodePropertyMetadata(out, metadata);
+            public void handle(PropertyColumn propertyColumn, Set<Text> propertyHiddenVisibilities, PropertyMetadata metadata) throws IOException {
+                if (propertyIndexColumns.isEmpty() || !hasSamePropertyName(propertyIndexColumns.get(propertyIndexColumns.size() - 1), propertyColumn)) {
+                    propertyIndexColumns.add(propertyColumn);
+                    propertyIndexOffsets.add(propertiesOut.size());
+                }
+                byte[] columnQualifier = propertyColumn.getColumnQualifier().getBytes();
+                propertiesOut.write(PROP_START);
+                DataOutputStreamUtils.encodeByteArray(propertiesOut, columnQualifier, propertyColumn.getPropertyKeyOffset(), propertyColumn.getPropertyKeyLength());
+                DataOutputStreamUtils.encodeByteArray(propertiesOut, columnQualifier, 0, propertyColumn.getPropertyNameLength());
+                DataOutputStreamUtils.encodeText(propertiesOut, propertyColumn.getVisibility());
+                propertiesOut.writeLong(propertyColumn.getTimestamp());
+                propertiesOut.writeInt(propertyColumn.getValue().length);
+                propertiesOut.write(propertyColumn.getValue());
+                DataOutputStreamUtils.encodeTextList(propertiesOut, propertyHiddenVisibilities);
+                DataOutputStreamUtils.encodePropertyMetadata(propertiesOut, metadata);
             }
         }, fetchHints);
-        out.write(PROP_END);
+        int propertiesLength = propertiesOut.size();
+        propertiesOut.write(PROP_END);
+
+        out.writeInt(propertyIndexColumns.size());
+        for (int i = 0; i < propertyIndexColumns.size(); i++) {
+            PropertyColumn propertyColumn = propertyIndexColumns.get(i);
+            int offset = propertyIndexOffsets.get(i);
+            int end = i + 1 < propertyIndexOffsets.size() ? propertyIndexOffsets.get(i + 1) : propertiesLength;
+            DataOutputStreamUtils.encodeByteArray(out, propertyColumn.getColumnQualifier().getBytes(), 0, propertyColumn.getPropertyNameLength());
+            out.writeInt(offset);
+            out.writeInt(end - offset);
+        }
+        out.writeInt(propertiesBuffer.size());
+        propertiesBuffer.writeTo(out);
+    }
+
+    private static boolean hasSamePropertyName(PropertyColumn propertyColumn1, PropertyColumn propertyColumn2) {
+        return WritableComparator.compareBytes(
+                propertyColumn1.getColumnQualifier().getBytes(), 0, propertyColumn1.getPropertyNameLength(),
+                propertyColumn2.getColumnQualifier().getBytes(), 0, propertyColumn2.getPropertyNameLength()
+        ) == 0;
     }
 
+    /**
+     * Walks the property columns in column order. Hidden properties and soft deletes are sorted the same way so they
+     * are matched up with a merge rather than a scan of every hidden property and soft delete per property.
+     */
     private void iterateProperties(PropertyDataHandler propertyDataHandler, EnumSet<FetchHint> fetchHints) throws IOException {
         boolean includeHidden = fetchHints.contains(FetchHint.INCLUDE_HIDDEN);
-        for (Map.Entry<String, byte[]> propertyValueEntry : propertyValues.entrySet()) {
-            String key = propertyValueEntry.getKey();
-            PropertyColumnQualifier propertyColumnQualifier = propertyColumnQualifiers.get(key);
-            String propertyKey = propertyColumnQualifier.getPropertyKey();
-            String propertyName = propertyColumnQualifier.getPropertyName();
-            byte[] propertyValue = propertyValueEntry.getValue();
-            Text propertyVisibility = propertyVisibilities.get(key);
-            String propertyVisibilityString = propertyVisibility.toString();
-            long propertyTimestamp = propertyTimestamps.get(key);
-            Set<Text> propertyHiddenVisibilities = getPropertyHiddenVisibilities(propertyKey, propertyName, propertyVisibilityString);
-            if (!includeHidden && isHidden(propertyKey, propertyName, propertyVisibilityString)) {
-                continue;
+        if (!propertyColumnsSorted) {
+            Collections.sort(propertyColumns.subList(0, propertyColumnCount), PropertyColumn.COMPARATOR);
+            propertyColumnsSorted = true;
+        }
+        Collections.sort(hiddenProperties, HiddenProperty.COMPARATOR);
+        Collections.sort(softDeletedProperties, SoftDeletedProperty.COMPARATOR);
+
+        int hiddenPropertyIndex = 0;
+        int softDeletedPropertyIndex = 0;
+        for (int i = 0; i < propertyColumnCount; i++) {
+            PropertyColumn propertyColumn = propertyColumns.get(i);
+
+            while (hiddenPropertyIndex < hiddenProperties.size() && hiddenProperties.get(hiddenPropertyIndex).compareTo(propertyColumn) < 0) {
+                hiddenPropertyIndex++;
             }
-            if (isPropertyDeleted(propertyKey, propertyName, propertyTimestamp, propertyVisibility)) {
+            Set<Text> propertyHiddenVisibilities = null;
+            for (int h = hiddenPropertyIndex; h < hiddenProperties.size() && hiddenProperties.get(h).compareTo(propertyColumn) == 0; h++) {
+                if (propertyHiddenVisibilities == null) {
+                    propertyHiddenVisibilities = new HashSet<>();
+                }
+                propertyHiddenVisibilities.add(hiddenProperties.get(h).getHiddenVisibility());
+            }
+            if (!includeHidden && propertyHiddenVisibilities != null) {
                 continue;
             }
-            PropertyMetadata metadata = propertyMetadata.get(key);
-            propertyDataHandler.handle(propertyKey, propertyName, propertyValue, propertyVisibility, propertyTimestamp, propertyHiddenVisibilities, metadata);
+
+            while (softDeletedPropertyIndex < softDeletedProperties.size() && softDeletedProperties.get(softDeletedPropertyIndex).compareTo(propertyColumn) < 0) {
+                softDeletedPropertyIndex++;
+            }
+            if (softDeletedPropertyIndex < softDeletedProperties.size()) {
+                SoftDeletedProperty softDeletedProperty = softDeletedProperties.get(softDeletedPropertyIndex);
+                if (softDeletedProperty.compareTo(propertyColumn) == 0 && softDeletedProperty.getTimestamp() >= propertyColumn.getTimestamp()) {
+                    continue;
+                }
+            }
+
+            PropertyMetadata metadata = propertyMetadata.isEmpty() ? null : propertyMetadata.get(propertyColumn.getDiscriminator());
+            propertyDataHandler.handle(propertyColumn, propertyHiddenVisibilities, metadata);
         }
     }
 
@@ -120,21 +189,13 @@ public abstract class ElementData {
         try {
             iterateProperties(new PropertyDataHandler() {
                 @Override
-                public void handle(
-                        String propertyKey,
-                        String propertyName,
-                        byte[] propertyValue,
-                        Text propertyVisibility,
-                        long propertyTimestamp,
-                        Set<Text> propertyHiddenVisibilities,
-                        PropertyMetadata metadata
-                ) throws IOException {
+                public void handle(PropertyColumn propertyColumn, Set<Text> propertyHiddenVisibilities, PropertyMetadata metadata) throws IOException {
                     results.add(new Property(
-                            propertyKey,
-                            propertyName,
-                            propertyValue,
-                            propertyVisibility.toString(),
-                            propertyTimestamp,
+                            propertyColumn.getPropertyKey(),
+                            propertyColumn.getPropertyName(),
+                            propertyColumn.getValue(),
+                            propertyColumn.getVisibility().toString(),
+                            propertyColumn.getTimestamp(),
                             propertyHiddenVisibilities,
                             metadata
                     ));
@@ -147,37 +208,6 @@ public abstract class ElementData {
     }
 
     private interface PropertyDataHandler {
-        void handle(String propertyKey, String propertyName, byte[] propertyValue, Text propertyVisibility, long propertyTimestamp, Set<Text> propertyHiddenVisibilities, PropertyMetadata metadata) throws IOException;
-    }
-
-    private Set<Text> getPropertyHiddenVisibilities(String propertyKey, String propertyName, String propertyVisibility) {
-        Set<Text> hiddenVisibilities = null;
-        for (HiddenProperty hiddenProperty : hiddenProperties) {
-            if (hiddenProperty.matches(propertyKey, propertyName, propertyVisibility)) {
-                if (hiddenVisibilities == null) {
-                    hiddenVisibilities = new HashSet<>();
-                }
-                hiddenVisibilities.add(hiddenProperty.getHiddenVisibility());
-            }
-        }
-        return hiddenVisibilities;
-    }
-
-    private boolean isHidden(String propertyKey, String propertyName, String propertyVisibility) {
-        for (HiddenProperty hiddenProperty : hiddenProperties) {
-            if (hiddenProperty.matches(propertyKey, propertyName, propertyVisibility)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean isPropertyDeleted(String propertyKey, String propertyName, long propertyTimestamp, Text propertyVisibility) {
-        for (SoftDeletedProperty softDeletedProperty : softDeletedProperties) {
-            if (softDeletedProperty.matches(propertyKey, propertyName, propertyVisibility)) {
-                return softDeletedProperty.getTimestamp() >= propertyTimestamp;
-            }
-        }
-        return false;
+        void handle(PropertyColumn propertyColumn, Set<Text> propertyHiddenVisibilities, PropertyMetadata metadata) throws IOException;
     }
 }
@@ -2,23 +2,48 @@ package org.vertexium.accumulo.iterator.model;
 
 import org.apache.hadoop.io.Text;
 
+import java.util.Comparator;
+
 public class HiddenProperty {
-    private final String key;
-    private final String name;
-    private final String visibility;
+    public static final Comparator<HiddenProperty> COMPARATOR = new Comparator<HiddenProperty>() {
+        @Override
+        public int compare(HiddenProperty o1, HiddenProperty o2) {
+            return PropertyColumn.compare(o1.propertyColumnQualifier, o1.propertyVisibility, o2.propertyColumnQualifier, o2.propertyVisibility);
+        }
+    };
+    private final Text propertyColumnQualifier;
+    private final Text propertyVisibility;
     private final Text hiddenVisibility;
 
-    public HiddenProperty(String key, String name, String visibility, Text hiddenVisibility) {
-        this.key = key;
-        this.name = name;
-        this.visibility = visibility;
+    /**
+     * @param columnQualifier  The hidden column qualifier made up of the property name, key and visibility.
+     * @param hiddenVisibility The visibility the property is hidden from.
+     */
+    public HiddenProperty(Text columnQualifier, Text hiddenVisibility) {
+        int i = PropertyColumn.lastIndexOfValueSeparator(columnQualifier);
+        if (i < 0) {
+            throw new VertexiumAccumuloIteratorException("Invalid hidden property column qualifier: " + columnQualifier);
+        }
+        this.propertyColumnQualifier = new Text();
+        this.propertyColumnQualifier.set(columnQualifier.getBytes(), 0, i);
+        this.propertyVisibility = new Text();
+        this.propertyVisibility.set(columnQualifier.getBytes(), i + 1, columnQualifier.getLength() - i - 1);
+        this.hiddenVisibility = hiddenVisibility;
+    }
+
+    /**
+     * @param columnQualifier  The parsed hidden column qualifier. Its property column qualifier and visibility are
+     *                         shared, not copied.
+     * @param hiddenVisibility The visibility the property is hidden from.
+     */
+    public HiddenProperty(PropertyHiddenColumnQualifier columnQualifier, Text hiddenVisibility) {
+        this.propertyColumnQualifier = columnQualifier.getPropertyColumnQualifier();
+        this.propertyVisibility = columnQualifier.getPropertyVisibility();
         this.hiddenVisibility = hiddenVisibility;
     }
 
-    public boolean matches(String propertyKey, String propertyName, String visibility) {
-        return propertyKey.equals(this.key)
-                && propertyName.equals(this.name)
-                && visibility.equals(this.visibility);
+    public int compareTo(PropertyColumn propertyColumn) {
+        return PropertyColumn.compare(propertyColumnQualifier, propertyVisibility, propertyColumn.getColumnQualifier(), propertyColumn.getVisibility());
     }
 
     public Text getHiddenVisibility() {
@@ -36,13 +61,10 @@ public class HiddenProperty {
 
         HiddenProperty that = (HiddenProperty) o;
 
-        if (key != null ? !key.equals(that.key) : that.key != null) {
-            return false;
-        }
-        if (name != null ? !name.equals(that.name) : that.name != null) {
+        if (!propertyColumnQualifier.equals(that.propertyColumnQualifier)) {
             return false;
         }
-        if (visibility != null ? !visibility.equals(that.visibility) : that.visibility != null) {
+        if (!propertyVisibility.equals(that.propertyVisibility)) {
             return false;
         }
 
@@ -51,18 +73,16 @@ public class HiddenProperty {
 
     @Override
     public int hashCode() {
-        int result = key != null ? key.hashCode() : 0;
-        result = 31 * result + (name != null ? name.hashCode() : 0);
-        result = 31 * result + (visibility != null ? visibility.hashCode() : 0);
+        int result = propertyColumnQualifier.hashCode();
+        result = 31 * result + propertyVisibility.hashCode();
         return result;
     }
 
     @Override
     public String toString() {
         return "HiddenProperty{" +
-                "key='" + key + '\'' +
-                ", name='" + name + '\'' +
-                ", visibility='" + visibility + '\'' +
+                "propertyColumnQualifier='" + propertyColumnQualifier + '\'' +
+                ", propertyVisibility='" + propertyVisibility + '\'' +
                 '}';
     }
 }
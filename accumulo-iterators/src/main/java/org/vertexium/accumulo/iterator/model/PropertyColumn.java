@@ -0,0 +1,122 @@
+package org.vertexium.accumulo.iterator.model;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
+
+import java.util.Comparator;
+
+/**
+ * A single property column of a row. Instances are reused between rows so the column qualifier and visibility are
+ * copied into buffers owned by this object and the property name and key are only decoded when asked for.
+ */
+public class PropertyColumn {
+    public static final Comparator<PropertyColumn> COMPARATOR = new Comparator<PropertyColumn>() {
+        @Override
+        public int compare(PropertyColumn o1, PropertyColumn o2) {
+            int result = PropertyColumn.compare(o1.columnQualifier, o1.visibility, o2.columnQualifier, o2.visibility);
+            if (result != 0) {
+                return result;
+            }
+            return Long.compare(o2.timestamp, o1.timestamp);
+        }
+    };
+    private final Text columnQualifier = new Text();
+    private final Text visibility = new Text();
+    private long timestamp;
+    private byte[] value;
+    private int separatorIndex;
+
+    public void set(Key key, Value value) {
+        key.getColumnQualifier(columnQualifier);
+        key.getColumnVisibility(visibility);
+        this.timestamp = key.getTimestamp();
+        this.value = value.get();
+        this.separatorIndex = indexOfValueSeparator(columnQualifier);
+        if (this.separatorIndex < 0) {
+            throw new VertexiumAccumuloIteratorException("Invalid property column qualifier: " + columnQualifier);
+        }
+    }
+
+    /**
+     * The property name and key separated by {@link KeyBase#VALUE_SEPARATOR}.
+     */
+    public Text getColumnQualifier() {
+        return columnQualifier;
+    }
+
+    public Text getVisibility() {
+        return visibility;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public byte[] getValue() {
+        return value;
+    }
+
+    public int getPropertyNameLength() {
+        return separatorIndex;
+    }
+
+    public int getPropertyKeyOffset() {
+        return separatorIndex + 1;
+    }
+
+    public int getPropertyKeyLength() {
+        return columnQualifier.getLength() - separatorIndex - 1;
+    }
+
+    public String getPropertyName() {
+        return decode(0, getPropertyNameLength());
+    }
+
+    public String getPropertyKey() {
+        return decode(getPropertyKeyOffset(), getPropertyKeyLength());
+    }
+
+    /**
+     * Same as {@link PropertyColumnQualifier#getDiscriminator(String, long)} without splitting the column qualifier.
+     */
+    public String getDiscriminator() {
+        return columnQualifier.toString() + KeyBase.VALUE_SEPARATOR + visibility.toString() + KeyBase.VALUE_SEPARATOR + timestamp;
+    }
+
+    private String decode(int offset, int length) {
+        return new String(columnQualifier.getBytes(), offset, length, DataOutputStreamUtils.CHARSET);
+    }
+
+    /**
+     * Compares property columns by column qualifier and then visibility, the order Accumulo returns them in.
+     */
+    public static int compare(Text columnQualifier1, Text visibility1, Text columnQualifier2, Text visibility2) {
+        int result = columnQualifier1.compareTo(columnQualifier2);
+        if (result != 0) {
+            return result;
+        }
+        return visibility1.compareTo(visibility2);
+    }
+
+    static int indexOfValueSeparator(Text text) {
+        byte[] bytes = text.getBytes();
+        for (int i = 0; i < text.getLength(); i++) {
+            if (bytes[i] == KeyBase.VALUE_SEPARATOR) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static int lastIndexOfValueSeparator(Text text) {
+        byte[] bytes = text.getBytes();
+        for (int i = text.getLength() - 1; i >= 0; i--) {
+            if (bytes[i] == KeyBase.VALUE_SEPARATOR) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
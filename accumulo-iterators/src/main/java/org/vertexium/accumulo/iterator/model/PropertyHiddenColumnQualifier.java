@@ -1,26 +1,77 @@
 package org.vertexium.accumulo.iterator.model;
 
 import org.apache.hadoop.io.Text;
+import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
 
 public class PropertyHiddenColumnQualifier extends KeyBase {
     private static final int PART_INDEX_PROPERTY_NAME = 0;
     private static final int PART_INDEX_PROPERTY_KEY = 1;
     private static final int PART_INDEX_PROPERTY_VISIBILITY = 2;
-    private final String[] parts;
+    private String[] parts;
+    private Text propertyColumnQualifier;
+    private Text propertyVisibility;
 
     public PropertyHiddenColumnQualifier(Text columnQualifier) {
         parts = splitOnValueSeparator(columnQualifier.toString(), 3);
     }
 
+    /**
+     * Parses the raw column qualifier bytes and keeps the property column qualifier (name and key) and the property
+     * visibility as {@link Text} so they can be shared by every {@link HiddenProperty} created from this qualifier.
+     */
+    public PropertyHiddenColumnQualifier(byte[] columnQualifier) {
+        int i = lastIndexOfValueSeparator(columnQualifier);
+        if (i < 0) {
+            throw new VertexiumAccumuloIteratorException("Invalid hidden property column qualifier: " + new String(columnQualifier, DataOutputStreamUtils.CHARSET));
+        }
+        this.propertyColumnQualifier = new Text();
+        this.propertyColumnQualifier.set(columnQualifier, 0, i);
+        this.propertyVisibility = new Text();
+        this.propertyVisibility.set(columnQualifier, i + 1, columnQualifier.length - i - 1);
+    }
+
+    private static int lastIndexOfValueSeparator(byte[] bytes) {
+        for (int i = bytes.length - 1; i >= 0; i--) {
+            if (bytes[i] == VALUE_SEPARATOR) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String[] getParts() {
+        if (parts == null) {
+            parts = splitOnValueSeparator(propertyColumnQualifier.toString() + VALUE_SEPARATOR + propertyVisibility.toString(), 3);
+        }
+        return parts;
+    }
+
     public String getPropertyName() {
-        return parts[PART_INDEX_PROPERTY_NAME];
+        return getParts()[PART_INDEX_PROPERTY_NAME];
     }
 
     public String getPropertyKey() {
-        return parts[PART_INDEX_PROPERTY_KEY];
+        return getParts()[PART_INDEX_PROPERTY_KEY];
     }
 
     public String getPropertyVisibilityString() {
-        return parts[PART_INDEX_PROPERTY_VISIBILITY];
+        return getParts()[PART_INDEX_PROPERTY_VISIBILITY];
+    }
+
+    /**
+     * The property name and key separated by {@link KeyBase#VALUE_SEPARATOR}.
+     */
+    public Text getPropertyColumnQualifier() {
+        if (propertyColumnQualifier == null) {
+            propertyColumnQualifier = new Text(getPropertyName() + VALUE_SEPARATOR + getPropertyKey());
+        }
+        return propertyColumnQualifier;
+    }
+
+    public Text getPropertyVisibility() {
+        if (propertyVisibility == null) {
+            propertyVisibility = new Text(getPropertyVisibilityString().getBytes(DataOutputStreamUtils.CHARSET));
+        }
+        return propertyVisibility;
     }
 }
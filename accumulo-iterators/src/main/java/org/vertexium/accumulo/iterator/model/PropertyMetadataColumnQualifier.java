@@ -1,6 +1,7 @@
 package org.vertexium.accumulo.iterator.model;
 
 import org.apache.hadoop.io.Text;
+import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
 
 public class PropertyMetadataColumnQualifier extends KeyBase {
     public static final int PART_INDEX_PROPERTY_NAME = 0;
@@ -13,6 +14,10 @@ public class PropertyMetadataColumnQualifier extends KeyBase {
         this.parts = splitOnValueSeparator(columnQualifier.toString(), 4);
     }
 
+    public PropertyMetadataColumnQualifier(byte[] columnQualifier) {
+        this.parts = splitOnValueSeparator(new String(columnQualifier, DataOutputStreamUtils.CHARSET), 4);
+    }
+
     public PropertyMetadataColumnQualifier(String propertyName, String propertyKey, String visibilityString, String metadataKey) {
         parts = new String[]{
                 propertyName,
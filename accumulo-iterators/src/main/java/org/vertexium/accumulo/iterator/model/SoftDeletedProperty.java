@@ -2,15 +2,24 @@ package org.vertexium.accumulo.iterator.model;
 
 import org.apache.hadoop.io.Text;
 
+import java.util.Comparator;
+
 public class SoftDeletedProperty {
-    private final String propertyKey;
-    private final String propertyName;
+    public static final Comparator<SoftDeletedProperty> COMPARATOR = new Comparator<SoftDeletedProperty>() {
+        @Override
+        public int compare(SoftDeletedProperty o1, SoftDeletedProperty o2) {
+            return PropertyColumn.compare(o1.propertyColumnQualifier, o1.visibility, o2.propertyColumnQualifier, o2.visibility);
+        }
+    };
+    private final Text propertyColumnQualifier;
     private final long timestamp;
     private final Text visibility;
 
-    public SoftDeletedProperty(String propertyKey, String propertyName, long timestamp, Text visibility) {
-        this.propertyKey = propertyKey;
-        this.propertyName = propertyName;
+    /**
+     * @param propertyColumnQualifier The property name and key, the same as the property column qualifier.
+     */
+    public SoftDeletedProperty(Text propertyColumnQualifier, long timestamp, Text visibility) {
+        this.propertyColumnQualifier = propertyColumnQualifier;
         this.timestamp = timestamp;
         this.visibility = visibility;
     }
@@ -19,6 +28,10 @@ public class SoftDeletedProperty {
         return timestamp;
     }
 
+    public int compareTo(PropertyColumn propertyColumn) {
+        return PropertyColumn.compare(propertyColumnQualifier, visibility, propertyColumn.getColumnQualifier(), propertyColumn.getVisibility());
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -30,13 +43,10 @@ public class SoftDeletedProperty {
 
         SoftDeletedProperty that = (SoftDeletedProperty) o;
 
-        if (propertyKey != null ? !propertyKey.equals(that.propertyKey) : that.propertyKey != null) {
+        if (!propertyColumnQualifier.equals(that.propertyColumnQualifier)) {
             return false;
         }
-        if (propertyName != null ? !propertyName.equals(that.propertyName) : that.propertyName != null) {
-            return false;
-        }
-        if (visibility != null ? !visibility.equals(that.visibility) : that.visibility != null) {
+        if (!visibility.equals(that.visibility)) {
             return false;
         }
 
@@ -45,16 +55,8 @@ public class SoftDeletedProperty {
 
     @Override
     public int hashCode() {
-        int result = propertyKey != null ? propertyKey.hashCode() : 0;
-        result = 31 * result + (propertyName != null ? propertyName.hashCode() : 0);
-        result = 31 * result + (visibility != null ? visibility.hashCode() : 0);
+        int result = propertyColumnQualifier.hashCode();
+        result = 31 * result + visibility.hashCode();
         return result;
     }
-
-    public boolean matches(String propertyKey, String propertyName, Text visibility) {
-        return propertyKey.equals(this.propertyKey)
-                && propertyName.equals(this.propertyName)
-                && visibility.equals(this.visibility);
-    }
 }
-
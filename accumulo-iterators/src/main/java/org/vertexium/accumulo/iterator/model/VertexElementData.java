@@ -3,6 +3,7 @@ package org.vertexium.accumulo.iterator.model;
 import org.apache.hadoop.io.Text;
 import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.*;
@@ -10,9 +11,10 @@ import java.util.*;
 public class VertexElementData extends ElementData {
     public final EdgesWithEdgeInfo outEdges = new EdgesWithEdgeInfo();
     public final EdgesWithEdgeInfo inEdges = new EdgesWithEdgeInfo();
-    public final Set<Text> hiddenEdges = new HashSet<>();
+    public final List<Text> hiddenEdges = new ArrayList<>();
     public final List<SoftDeleteEdgeInfo> outSoftDeletes = new ArrayList<>();
     public final List<SoftDeleteEdgeInfo> inSoftDeletes = new ArrayList<>();
+    private final ByteArrayOutputStream edgesBuffer = new ByteArrayOutputStream();
 
     @Override
     public void clear() {
@@ -24,11 +26,21 @@ public class VertexElementData extends ElementData {
         inSoftDeletes.clear();
     }
 
+    /**
+     * Each edge section is prefixed with its length so readers can skip over the edges until they are needed.
+     */
     @Override
     protected void encode(DataOutputStream out, EnumSet<FetchHint> fetchHints) throws IOException {
         super.encode(out, fetchHints);
-        DataOutputStreamUtils.encodeEdges(out, outEdges, fetchHints.contains(FetchHint.OUT_EDGE_LABELS) && !fetchHints.contains(FetchHint.OUT_EDGE_REFS));
-        DataOutputStreamUtils.encodeEdges(out, inEdges, fetchHints.contains(FetchHint.IN_EDGE_LABELS) && !fetchHints.contains(FetchHint.IN_EDGE_REFS));
+        encodeEdges(out, outEdges, fetchHints.contains(FetchHint.OUT_EDGE_LABELS) && !fetchHints.contains(FetchHint.OUT_EDGE_REFS));
+        encodeEdges(out, inEdges, fetchHints.contains(FetchHint.IN_EDGE_LABELS) && !fetchHints.contains(FetchHint.IN_EDGE_REFS));
+    }
+
+    private void encodeEdges(DataOutputStream out, EdgesWithEdgeInfo edges, boolean edgeLabelsOnly) throws IOException {
+        edgesBuffer.reset();
+        DataOutputStreamUtils.encodeEdges(new DataOutputStream(edgesBuffer), edges, edgeLabelsOnly);
+        out.writeInt(edgesBuffer.size());
+        edgesBuffer.writeTo(out);
     }
 
     @Override
@@ -0,0 +1,107 @@
+package org.vertexium.accumulo.iterator.util;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.apache.accumulo.core.data.ByteSequence;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Interns parsed column qualifiers keyed on the raw qualifier bytes. Instances are meant to be shared by every scan
+ * session in a tablet server so lookups are thread safe and the number of entries is bounded. When the cache reaches
+ * its maximum size it is cleared rather than tracking recency, which keeps lookups lock free.
+ */
+public abstract class ColumnQualifierCache<T> {
+    public static final int DEFAULT_MAX_SIZE = 10000;
+    private final ConcurrentMap<ByteSequence, T> cache = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private volatile int maxSize;
+
+    protected ColumnQualifierCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    protected ColumnQualifierCache(int maxSize) {
+        setMaxSize(maxSize);
+    }
+
+    /**
+     * @param columnQualifier The column qualifier bytes. This may be backed by the key's array since it is only
+     *                        copied when a new entry is added.
+     */
+    public T get(ByteSequence columnQualifier) {
+        T result = cache.get(columnQualifier);
+        if (result != null) {
+            hits.incrementAndGet();
+            return result;
+        }
+        misses.incrementAndGet();
+        byte[] bytes = Arrays.copyOfRange(columnQualifier.getBackingArray(), columnQualifier.offset(), columnQualifier.offset() + columnQualifier.length());
+        result = parse(bytes);
+        if (maxSize <= 0) {
+            return result;
+        }
+        if (cache.size() >= maxSize) {
+            cache.clear();
+        }
+        T existing = cache.putIfAbsent(new ArrayByteSequence(bytes), result);
+        return existing == null ? result : existing;
+    }
+
+    protected abstract T parse(byte[] columnQualifier);
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @param maxSize The maximum number of entries to keep. Zero disables caching.
+     */
+    public void setMaxSize(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must be greater than or equal to 0: " + maxSize);
+        }
+        this.maxSize = maxSize;
+        if (cache.size() > maxSize) {
+            cache.clear();
+        }
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    public void clear() {
+        cache.clear();
+        hits.set(0);
+        misses.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "ColumnQualifierCache{" +
+                "size=" + size() +
+                ", maxSize=" + getMaxSize() +
+                ", hits=" + getHitCount() +
+                ", misses=" + getMissCount() +
+                ", hitRate=" + String.format("%.3f", getHitRate()) +
+                '}';
+    }
+}
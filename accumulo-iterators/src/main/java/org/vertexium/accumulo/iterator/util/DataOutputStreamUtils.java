@@ -14,6 +14,13 @@ public class DataOutputStreamUtils {
     public static final Charset CHARSET = Charset.forName("utf8");
     public static final byte EDGE_LABEL_ONLY_MARKER = 1;
     public static final byte EDGE_LABEL_WITH_REFS_MARKER = 2;
+    public static final byte EDGE_LABEL_WITH_COLUMNAR_REFS_MARKER = 3;
+    private static final Comparator<Map.Entry<Text, EdgeInfo>> EDGE_ID_COMPARATOR = new Comparator<Map.Entry<Text, EdgeInfo>>() {
+        @Override
+        public int compare(Map.Entry<Text, EdgeInfo> o1, Map.Entry<Text, EdgeInfo> o2) {
+            return o1.getKey().compareTo(o2.getKey());
+        }
+    };
 
     public static void encodeTextList(DataOutputStream out, Collection<Text> texts) throws IOException {
         if (texts == null) {
@@ -44,6 +51,11 @@ public class DataOutputStreamUtils {
         out.write(bytes);
     }
 
+    public static void encodeByteArray(DataOutputStream out, byte[] bytes, int offset, int length) throws IOException {
+        out.writeInt(length);
+        out.write(bytes, offset, length);
+    }
+
     public static void encodeString(DataOutputStream out, String text) throws IOException {
         if (text == null) {
             out.writeInt(-1);
@@ -72,22 +84,48 @@ public class DataOutputStreamUtils {
         out.write(metadataEntry.value);
     }
 
+    /**
+     * Edge labels are written once followed by the number of edges with that label. With refs, the edges follow
+     * grouped by label in the same order as columns: the timestamps, the edge id lengths, the edge ids, the vertex id
+     * lengths and the vertex ids.
+     */
     public static void encodeEdges(DataOutputStream out, EdgesWithEdgeInfo edges, boolean edgeLabelsOnly) throws IOException {
-        out.write(edgeLabelsOnly ? EDGE_LABEL_ONLY_MARKER : EDGE_LABEL_WITH_REFS_MARKER);
+        out.write(edgeLabelsOnly ? EDGE_LABEL_ONLY_MARKER : EDGE_LABEL_WITH_COLUMNAR_REFS_MARKER);
 
         Map<ByteArrayWrapper, List<Map.Entry<Text, EdgeInfo>>> edgesByLabels = getEdgesByLabel(edges);
         out.writeInt(edgesByLabels.size());
+        List<Map.Entry<Text, EdgeInfo>> edgesInLabelOrder = new ArrayList<>(edgeLabelsOnly ? 0 : edges.size());
         for (Map.Entry<ByteArrayWrapper, List<Map.Entry<Text, EdgeInfo>>> entry : edgesByLabels.entrySet()) {
             encodeByteArray(out, entry.getKey().getData());
             out.writeInt(entry.getValue().size());
             if (!edgeLabelsOnly) {
-                for (Map.Entry<Text, EdgeInfo> edgeEntry : entry.getValue()) {
-                    encodeText(out, edgeEntry.getKey());
-                    out.writeLong(edgeEntry.getValue().getTimestamp());
-                    encodeString(out, edgeEntry.getValue().getVertexId());
-                }
+                // the edges of each label are written sorted by edge id so they can be found by binary search
+                Collections.sort(entry.getValue(), EDGE_ID_COMPARATOR);
+                edgesInLabelOrder.addAll(entry.getValue());
             }
         }
+        if (edgeLabelsOnly) {
+            return;
+        }
+
+        out.writeInt(edgesInLabelOrder.size());
+        for (Map.Entry<Text, EdgeInfo> edgeEntry : edgesInLabelOrder) {
+            out.writeLong(edgeEntry.getValue().getTimestamp());
+        }
+        for (Map.Entry<Text, EdgeInfo> edgeEntry : edgesInLabelOrder) {
+            out.writeInt(edgeEntry.getKey().getLength());
+        }
+        for (Map.Entry<Text, EdgeInfo> edgeEntry : edgesInLabelOrder) {
+            out.write(edgeEntry.getKey().getBytes(), 0, edgeEntry.getKey().getLength());
+        }
+        byte[][] vertexIds = new byte[edgesInLabelOrder.size()][];
+        for (int i = 0; i < vertexIds.length; i++) {
+            vertexIds[i] = edgesInLabelOrder.get(i).getValue().getVertexId().getBytes(CHARSET);
+            out.writeInt(vertexIds[i].length);
+        }
+        for (byte[] vertexId : vertexIds) {
+            out.write(vertexId);
+        }
     }
 
     private static Map<ByteArrayWrapper, List<Map.Entry<Text, EdgeInfo>>> getEdgesByLabel(EdgesWithEdgeInfo edges) throws IOException {
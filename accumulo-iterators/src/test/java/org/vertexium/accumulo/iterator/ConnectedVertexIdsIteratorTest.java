@@ -0,0 +1,91 @@
+package org.vertexium.accumulo.iterator;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+import org.vertexium.accumulo.iterator.model.Direction;
+import org.vertexium.accumulo.iterator.model.EdgeInfo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ConnectedVertexIdsIteratorTest {
+    private final List<Key> keys = new ArrayList<>();
+    private final List<Value> values = new ArrayList<>();
+
+    @Test
+    public void testRowEncoder() throws IOException {
+        addEdge(VertexIterator.CF_OUT_EDGE, "e1", "label1", "v2");
+        addEdge(VertexIterator.CF_OUT_EDGE, "e2", "label2", "v3");
+        addEdge(VertexIterator.CF_IN_EDGE, "e3", "label1", "v4");
+        addEdge(VertexIterator.CF_IN_EDGE, "e4", "label1", "v2");
+        addEdge(VertexIterator.CF_IN_EDGE, "e5", "label1", "v5");
+        addHidden(VertexIterator.CF_IN_EDGE_HIDDEN, "e5");
+
+        Set<String> result = encodeDecode(createSettings());
+        assertEquals(3, result.size());
+        assertTrue(result.contains("v2"));
+        assertTrue(result.contains("v3"));
+        assertTrue(result.contains("v4"));
+
+        IteratorSetting settings = createSettings();
+        ConnectedVertexIdsIterator.setDirection(settings, Direction.OUT);
+        result = encodeDecode(settings);
+        assertEquals(2, result.size());
+        assertTrue(result.contains("v2"));
+        assertTrue(result.contains("v3"));
+
+        settings = createSettings();
+        ConnectedVertexIdsIterator.setDirection(settings, Direction.IN);
+        ConnectedVertexIdsIterator.setLabels(settings, new String[]{"label1"});
+        result = encodeDecode(settings);
+        assertEquals(2, result.size());
+        assertTrue(result.contains("v2"));
+        assertTrue(result.contains("v4"));
+    }
+
+    @Test
+    public void testDecodeValueRejectsUnknownHeader() throws IOException {
+        // the format used before the header was added, a count followed by the vertex ids
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(baos);
+        out.writeInt(1);
+        out.writeInt(2);
+        out.write("v2".getBytes());
+        try {
+            ConnectedVertexIdsIterator.decodeValue(new Value(baos.toByteArray()));
+            fail("Expected the value to be rejected");
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+
+    private IteratorSetting createSettings() {
+        return new IteratorSetting(1000, ConnectedVertexIdsIterator.class.getSimpleName(), ConnectedVertexIdsIterator.class);
+    }
+
+    private Set<String> encodeDecode(IteratorSetting settings) throws IOException {
+        ConnectedVertexIdsIterator iterator = new ConnectedVertexIdsIterator();
+        iterator.init(null, settings.getOptions(), null);
+        Value value = iterator.rowEncoder(keys, values);
+        return ConnectedVertexIdsIterator.decodeValue(value);
+    }
+
+    private void addEdge(Text columnFamily, String edgeId, String label, String vertexId) {
+        keys.add(new Key(new Text("v1"), columnFamily, new Text(edgeId)));
+        values.add(new Value(new EdgeInfo(label, vertexId).getBytes()));
+    }
+
+    private void addHidden(Text columnFamily, String edgeId) {
+        keys.add(new Key(new Text("v1"), columnFamily, new Text(edgeId)));
+        values.add(new Value(new byte[0]));
+    }
+}
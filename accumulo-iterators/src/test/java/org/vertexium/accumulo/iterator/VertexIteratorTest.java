@@ -0,0 +1,214 @@
+package org.vertexium.accumulo.iterator;
+
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+import org.vertexium.accumulo.iterator.model.EdgeInfo;
+import org.vertexium.accumulo.iterator.model.EdgesWithEdgeInfo;
+import org.vertexium.accumulo.iterator.model.FetchHint;
+import org.vertexium.accumulo.iterator.model.KeyBase;
+import org.vertexium.accumulo.iterator.model.Property;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class VertexIteratorTest {
+    private static final String SEP = String.valueOf(KeyBase.VALUE_SEPARATOR);
+    private final SortedMap<Key, Value> row = new TreeMap<>();
+
+    @Test
+    public void testHiddenAndSoftDeletedProperties() throws IOException {
+        addSignal("v1", 1);
+        addProperty("v1", "prop1", "k1", "a", 10, "value1");
+        addProperty("v1", "prop1", "k2", "a", 10, "value2");
+        addProperty("v1", "prop1", "k2", "b", 10, "value3");
+        addProperty("v1", "prop2", "k1", "", 10, "value4");
+        addProperty("v1", "prop2", "k1", "", 5, "value5");
+        addPropertyHidden("v1", "prop1", "k2", "a", "h");
+        addPropertySoftDelete("v1", "prop1", "k1", "a", 11);
+        addPropertySoftDelete("v1", "prop2", "k1", "", 6);
+        addPropertyMetadata("v1", "prop2", "k1", "", "meta1", 10, "metaValue");
+
+        VertexIterator iterator = populate(FetchHint.ALL);
+        assertNotNull(iterator.rowEncoder(new ArrayList<Key>(), new ArrayList<Value>()));
+        Map<String, Property> properties = getPropertiesByValue(iterator.getElementData().getProperties(FetchHint.ALL));
+        assertEquals(2, properties.size());
+        assertTrue(properties.containsKey("value3"));
+        Property property = properties.get("value4");
+        assertEquals("k1", property.key);
+        assertEquals("prop2", property.name);
+        assertEquals(10, property.timestamp);
+        assertEquals(1, property.metadata.entries.size());
+
+        iterator = populate(EnumSet.allOf(FetchHint.class));
+        properties = getPropertiesByValue(iterator.getElementData().getProperties(EnumSet.allOf(FetchHint.class)));
+        assertEquals(3, properties.size());
+        property = properties.get("value2");
+        assertEquals(1, property.hiddenVisibilities.size());
+        assertEquals(new Text("h"), property.hiddenVisibilities.iterator().next());
+        assertNull(properties.get("value3").hiddenVisibilities);
+    }
+
+    @Test
+    public void testPropertyNames() throws IOException {
+        addSignal("v1", 1);
+        addProperty("v1", "prop1", "k1", "a", 10, "value1");
+        addProperty("v1", "prop10", "k1", "a", 10, "value2");
+        addProperty("v1", "prop2", "k1", "a", 10, "value3");
+        addPropertyHidden("v1", "prop10", "k1", "a", "h");
+        addPropertyMetadata("v1", "prop1", "k1", "a", "meta1", 10, "metaValue1");
+        addPropertyMetadata("v1", "prop2", "k1", "a", "meta1", 10, "metaValue2");
+
+        IteratorSetting settings = new IteratorSetting(1000, VertexIterator.class);
+        VertexIterator.setFetchHints(settings, EnumSet.allOf(FetchHint.class));
+        VertexIterator.setPropertyNames(settings, new String[]{"prop1", "prop3"});
+        VertexIterator iterator = new VertexIterator();
+        iterator.init(null, settings.getOptions(), null);
+        assertTrue(iterator.populateElementData(new ArrayList<>(row.keySet()), new ArrayList<>(row.values())));
+        Map<String, Property> properties = getPropertiesByValue(iterator.getElementData().getProperties(EnumSet.allOf(FetchHint.class)));
+        assertEquals(1, properties.size());
+        Property property = properties.get("value1");
+        assertEquals("prop1", property.name);
+        assertEquals(1, property.metadata.entries.size());
+        assertEquals(0, iterator.getElementData().hiddenProperties.size());
+    }
+
+    @Test
+    public void testHiddenAndSoftDeletedEdges() {
+        addSignal("v1", 1);
+        addEdge("v1", VertexIterator.CF_OUT_EDGE, "e1", "label1", "v2", 10);
+        addEdge("v1", VertexIterator.CF_OUT_EDGE, "e2", "label1", "v3", 10);
+        addEdge("v1", VertexIterator.CF_OUT_EDGE, "e3", "label1", "v4", 10);
+        addEdge("v1", VertexIterator.CF_OUT_EDGE, "e4", "label1", "v5", 10);
+        addEdge("v1", VertexIterator.CF_IN_EDGE, "e5", "label2", "v6", 10);
+        addEdge("v1", VertexIterator.CF_IN_EDGE, "e6", "label2", "v7", 10);
+        addEdgeMarker("v1", VertexIterator.CF_OUT_EDGE_HIDDEN, "e2", 20, ElementIterator.HIDDEN_VALUE);
+        addEdgeMarker("v1", VertexIterator.CF_IN_EDGE_HIDDEN, "e6", 20, ElementIterator.HIDDEN_VALUE);
+        addEdgeMarker("v1", VertexIterator.CF_OUT_EDGE_SOFT_DELETE, "e3", 11, ElementIterator.SOFT_DELETE_VALUE);
+        addEdgeMarker("v1", VertexIterator.CF_OUT_EDGE_SOFT_DELETE, "e4", 9, ElementIterator.SOFT_DELETE_VALUE);
+
+        VertexIterator iterator = populate(FetchHint.ALL);
+        assertEquals(Arrays.asList("e1", "e4"), getEdgeIds(iterator.getElementData().outEdges));
+        assertEquals(Arrays.asList("e5"), getEdgeIds(iterator.getElementData().inEdges));
+
+        iterator = populate(EnumSet.allOf(FetchHint.class));
+        assertEquals(Arrays.asList("e1", "e2", "e4"), getEdgeIds(iterator.getElementData().outEdges));
+        assertEquals(Arrays.asList("e5", "e6"), getEdgeIds(iterator.getElementData().inEdges));
+    }
+
+    // Test for performance
+    //@Test
+    @SuppressWarnings("unused")
+    private void testEncodeWideRowPerformance() throws IOException {
+        int propertyCount = 5000;
+        int iterations = 500;
+
+        addSignal("v1", 1);
+        for (int i = 0; i < propertyCount; i++) {
+            String name = "prop" + (i % 50);
+            String key = "key" + i;
+            addProperty("v1", name, key, "a", 10, "value" + i);
+            addPropertyMetadata("v1", name, key, "a", "modifiedBy", 10, "user1");
+            if (i % 100 == 0) {
+                addPropertyHidden("v1", name, key, "a", "h");
+            }
+            if (i % 100 == 1) {
+                addPropertySoftDelete("v1", name, key, "a", 11);
+            }
+        }
+        List<Key> keys = new ArrayList<>(row.keySet());
+        List<Value> values = new ArrayList<>(row.values());
+
+        VertexIterator iterator = new VertexIterator(FetchHint.ALL);
+        long encodedSize = 0;
+        for (int i = 0; i < iterations / 10; i++) {
+            iterator.populateElementData(keys, values);
+            encodedSize = iterator.rowEncoder(keys, values).getSize();
+        }
+
+        long startTime = System.currentTimeMillis();
+        for (int i = 0; i < iterations; i++) {
+            iterator.populateElementData(keys, values);
+            iterator.rowEncoder(keys, values);
+        }
+        long endTime = System.currentTimeMillis();
+
+        System.out.printf(
+                "RESULTS\npropertyCount,iterations,encodedSize,totalTime,timePerRow\n%d,%d,%d,%d,%.3f%n",
+                propertyCount,
+                iterations,
+                encodedSize,
+                endTime - startTime,
+                (double) (endTime - startTime) / iterations
+        );
+    }
+
+    private VertexIterator populate(EnumSet<FetchHint> fetchHints) {
+        VertexIterator iterator = new VertexIterator(fetchHints);
+        assertTrue(iterator.populateElementData(new ArrayList<>(row.keySet()), new ArrayList<>(row.values())));
+        return iterator;
+    }
+
+    private Map<String, Property> getPropertiesByValue(Iterable<Property> properties) {
+        Map<String, Property> results = new HashMap<>();
+        for (Property property : properties) {
+            results.put(new String(property.value), property);
+        }
+        return results;
+    }
+
+    private List<String> getEdgeIds(EdgesWithEdgeInfo edges) {
+        List<String> results = new ArrayList<>();
+        for (Map.Entry<Text, EdgeInfo> entry : edges.getEntries()) {
+            results.add(entry.getKey().toString());
+        }
+        return results;
+    }
+
+    private void addEdge(String vertexId, Text columnFamily, String edgeId, String label, String otherVertexId, long timestamp) {
+        row.put(
+                new Key(new Text(vertexId), columnFamily, new Text(edgeId), new Text(""), timestamp),
+                new Value(new EdgeInfo(label, otherVertexId).getBytes())
+        );
+    }
+
+    private void addEdgeMarker(String vertexId, Text columnFamily, String edgeId, long timestamp, Value value) {
+        row.put(new Key(new Text(vertexId), columnFamily, new Text(edgeId), new Text(""), timestamp), value);
+    }
+
+    private void addSignal(String vertexId, long timestamp) {
+        row.put(new Key(new Text(vertexId), VertexIterator.CF_SIGNAL, new Text(""), new Text(""), timestamp), new Value(new byte[0]));
+    }
+
+    private void addProperty(String vertexId, String name, String key, String visibility, long timestamp, String value) {
+        row.put(
+                new Key(new Text(vertexId), ElementIterator.CF_PROPERTY, new Text(name + SEP + key), new Text(visibility), timestamp),
+                new Value(value.getBytes())
+        );
+    }
+
+    private void addPropertyHidden(String vertexId, String name, String key, String visibility, String hiddenVisibility) {
+        row.put(
+                new Key(new Text(vertexId), ElementIterator.CF_PROPERTY_HIDDEN, new Text(name + SEP + key + SEP + visibility), new Text(hiddenVisibility), 20),
+                ElementIterator.HIDDEN_VALUE
+        );
+    }
+
+    private void addPropertySoftDelete(String vertexId, String name, String key, String visibility, long timestamp) {
+        row.put(
+                new Key(new Text(vertexId), ElementIterator.CF_PROPERTY_SOFT_DELETE, new Text(name + SEP + key), new Text(visibility), timestamp),
+                ElementIterator.SOFT_DELETE_VALUE
+        );
+    }
+
+    private void addPropertyMetadata(String vertexId, String name, String key, String visibility, String metadataKey, long timestamp, String value) {
+        row.put(
+                new Key(new Text(vertexId), ElementIterator.CF_PROPERTY_METADATA, new Text(name + SEP + key + SEP + visibility + SEP + metadataKey), new Text(""), timestamp),
+                new Value(value.getBytes())
+        );
+    }
+}
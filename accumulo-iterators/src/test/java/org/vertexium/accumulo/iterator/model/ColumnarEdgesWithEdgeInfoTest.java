@@ -0,0 +1,89 @@
+package org.vertexium.accumulo.iterator.model;
+
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+import org.vertexium.accumulo.iterator.util.DataInputStreamUtils;
+import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ColumnarEdgesWithEdgeInfoTest {
+    @Test
+    public void testEncodeAndRead() throws IOException {
+        EdgesWithEdgeInfo edges = new EdgesWithEdgeInfo();
+        for (int i = 9; i >= 0; i--) {
+            edges.add(new Text("e" + i), new EdgeInfo("label" + (i % 3), "v" + i, 100 + i));
+        }
+
+        ColumnarEdgesWithEdgeInfo columnarEdges = encodeAndDecode(edges);
+        assertEquals(10, columnarEdges.size());
+        Map<String, EdgeInfo> edgeInfosById = new HashMap<>();
+        for (Map.Entry<Text, EdgeInfo> entry : columnarEdges.getEntries()) {
+            edgeInfosById.put(entry.getKey().toString(), entry.getValue());
+        }
+        assertEquals(10, edgeInfosById.size());
+        for (int i = 0; i < 10; i++) {
+            EdgeInfo edgeInfo = edgeInfosById.get("e" + i);
+            assertEquals("label" + (i % 3), edgeInfo.getLabel());
+            assertEquals("v" + i, edgeInfo.getVertexId());
+            assertEquals(100 + i, edgeInfo.getTimestamp());
+            assertEquals("label" + (i % 3), columnarEdges.get(new Text("e" + i)).getLabel());
+        }
+        assertEquals("v7", columnarEdges.get(new Text("e7")).getVertexId());
+        assertNull(columnarEdges.get(new Text("e70")));
+    }
+
+    @Test
+    public void testChangeCopiesEdges() throws IOException {
+        EdgesWithEdgeInfo edges = new EdgesWithEdgeInfo();
+        edges.add(new Text("e1"), new EdgeInfo("label1", "v1", 10));
+        edges.add(new Text("e2"), new EdgeInfo("label2", "v2", 10));
+
+        ColumnarEdgesWithEdgeInfo columnarEdges = encodeAndDecode(edges);
+        Iterable<EdgeInfo> edgeInfos = columnarEdges.getEdgeInfos();
+        columnarEdges.remove(new Text("e1"));
+        columnarEdges.add(new Text("e3"), new EdgeInfo("label1", "v3", 20));
+        assertEquals(2, columnarEdges.size());
+        assertNull(columnarEdges.get(new Text("e1")));
+        assertEquals("label2", columnarEdges.get(new Text("e2")).getLabel());
+        assertEquals("v3", columnarEdges.get(new Text("e3")).getVertexId());
+
+        int count = 0;
+        for (EdgeInfo ignored : edgeInfos) {
+            count++;
+        }
+        assertEquals(2, count);
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        ColumnarEdgesWithEdgeInfo columnarEdges = encodeAndDecode(new EdgesWithEdgeInfo());
+        assertEquals(0, columnarEdges.size());
+        assertFalse(columnarEdges.getEntries().iterator().hasNext());
+    }
+
+    private ColumnarEdgesWithEdgeInfo encodeAndDecode(EdgesWithEdgeInfo edges) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStreamUtils.encodeEdges(new DataOutputStream(buffer), edges, false);
+        byte[] data = buffer.toByteArray();
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        assertEquals(DataOutputStreamUtils.EDGE_LABEL_WITH_COLUMNAR_REFS_MARKER, in.readByte());
+        int labelCount = in.readInt();
+        String[] labels = new String[labelCount];
+        int[] labelCounts = new int[labelCount];
+        for (int i = 0; i < labelCount; i++) {
+            labels[i] = DataInputStreamUtils.decodeString(in);
+            labelCounts[i] = in.readInt();
+        }
+        return new ColumnarEdgesWithEdgeInfo(data, data.length - in.available(), labels, labelCounts);
+    }
+}
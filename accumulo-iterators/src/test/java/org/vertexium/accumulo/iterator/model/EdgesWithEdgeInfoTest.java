@@ -0,0 +1,52 @@
+package org.vertexium.accumulo.iterator.model;
+
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class EdgesWithEdgeInfoTest {
+    @Test
+    public void testGetAndRemove() {
+        EdgesWithEdgeInfo edges = new EdgesWithEdgeInfo();
+        for (int i = 0; i < 100; i++) {
+            edges.add(String.format("e%03d", i), new EdgeInfo("label", "v" + i));
+        }
+        edges.remove("e010");
+        edges.remove("e011");
+        assertEquals(98, edges.size());
+        assertNull(edges.get(new Text("e010")));
+        assertEquals("v12", edges.get(new Text("e012")).getVertexId());
+
+        edges.add("a000", new EdgeInfo("label", "v100"));
+        assertEquals("v100", edges.get(new Text("a000")).getVertexId());
+        edges.removeAll(Arrays.asList(new Text("a000"), new Text("e000"), new Text("e099")));
+        assertEquals(96, edges.size());
+        assertNull(edges.get(new Text("a000")));
+        assertEquals("v1", edges.get(new Text("e001")).getVertexId());
+
+        int count = 0;
+        for (EdgeInfo ignored : edges.getEdgeInfos()) {
+            count++;
+        }
+        assertEquals(96, count);
+    }
+
+    @Test
+    public void testRemoveSoftDeleted() {
+        EdgesWithEdgeInfo edges = new EdgesWithEdgeInfo();
+        edges.add(new Text("e1"), new EdgeInfo("label", "v1", 10));
+        edges.add(new Text("e2"), new EdgeInfo("label", "v2", 10));
+        edges.add(new Text("e3"), new EdgeInfo("label", "v3", 10));
+        edges.removeSoftDeleted(Arrays.asList(
+                new SoftDeleteEdgeInfo(new Text("e1"), 9),
+                new SoftDeleteEdgeInfo(new Text("e2"), 10)
+        ));
+        assertEquals(2, edges.size());
+        assertNotNull(edges.get(new Text("e1")));
+        assertNull(edges.get(new Text("e2")));
+        assertNotNull(edges.get(new Text("e3")));
+    }
+}
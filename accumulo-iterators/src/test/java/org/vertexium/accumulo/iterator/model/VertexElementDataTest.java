@@ -0,0 +1,160 @@
+package org.vertexium.accumulo.iterator.model;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+import org.vertexium.accumulo.iterator.ElementIterator;
+import org.vertexium.accumulo.iterator.util.DataInputStreamUtils;
+import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class VertexElementDataTest {
+    private static final String SEP = String.valueOf(KeyBase.VALUE_SEPARATOR);
+
+    @Test
+    public void testEncodeAndReadByPropertyName() throws IOException {
+        VertexElementData elementData = createElementData();
+        byte[] data = elementData.encode(FetchHint.ALL).get();
+        EncodedVertex vertex = new EncodedVertex(data);
+
+        assertEquals(new HashSet<>(Arrays.asList("prop1", "prop2", "prop3")), vertex.propertyRanges.keySet());
+        assertEquals(Arrays.asList("value1", "value2"), vertex.decodePropertyValues("prop1"));
+        assertEquals(Arrays.asList("value3"), vertex.decodePropertyValues("prop2"));
+        assertEquals(Arrays.asList("value4"), vertex.decodePropertyValues("prop3"));
+        assertEquals(Collections.<String>emptyList(), vertex.decodePropertyValues("prop4"));
+
+        ColumnarEdgesWithEdgeInfo outEdges = vertex.decodeEdges(vertex.outEdgesOffset);
+        assertEquals(2, outEdges.size());
+        assertEquals("label1", outEdges.get(new Text("e1")).getLabel());
+        assertEquals("v2", outEdges.get(new Text("e1")).getVertexId());
+        assertEquals("label2", outEdges.get(new Text("e2")).getLabel());
+        assertEquals("v3", outEdges.get(new Text("e2")).getVertexId());
+        assertNull(outEdges.get(new Text("e3")));
+
+        ColumnarEdgesWithEdgeInfo inEdges = vertex.decodeEdges(vertex.inEdgesOffset);
+        assertEquals(1, inEdges.size());
+        assertEquals("v4", inEdges.get(new Text("e3")).getVertexId());
+        assertEquals(12, inEdges.get(new Text("e3")).getTimestamp());
+    }
+
+    @Test
+    public void testEdgeLabelsOnly() throws IOException {
+        VertexElementData elementData = createElementData();
+        byte[] data = elementData.encode(EnumSet.of(FetchHint.PROPERTIES, FetchHint.OUT_EDGE_LABELS, FetchHint.IN_EDGE_REFS)).get();
+        EncodedVertex vertex = new EncodedVertex(data);
+
+        assertEquals(Arrays.asList("value3"), vertex.decodePropertyValues("prop2"));
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, vertex.outEdgesOffset, data.length - vertex.outEdgesOffset));
+        assertEquals(DataOutputStreamUtils.EDGE_LABEL_ONLY_MARKER, in.readByte());
+        assertEquals(2, in.readInt());
+        assertEquals("v4", vertex.decodeEdges(vertex.inEdgesOffset).get(new Text("e3")).getVertexId());
+    }
+
+    private VertexElementData createElementData() {
+        VertexElementData elementData = new VertexElementData();
+        elementData.id = new Text("v1");
+        elementData.timestamp = 1;
+        elementData.visibility = new Text("a");
+        addProperty(elementData, "prop1", "k1", "value1");
+        addProperty(elementData, "prop1", "k2", "value2");
+        addProperty(elementData, "prop2", "k1", "value3");
+        addProperty(elementData, "prop3", "k1", "value4");
+        elementData.outEdges.add(new Text("e1"), new EdgeInfo("label1", "v2", 10));
+        elementData.outEdges.add(new Text("e2"), new EdgeInfo("label2", "v3", 11));
+        elementData.inEdges.add(new Text("e3"), new EdgeInfo("label1", "v4", 12));
+        return elementData;
+    }
+
+    private void addProperty(VertexElementData elementData, String name, String key, String value) {
+        elementData.addPropertyColumn(
+                new Key(new Text("v1"), ElementIterator.CF_PROPERTY, new Text(name + SEP + key), new Text(""), 10),
+                new Value(value.getBytes())
+        );
+    }
+
+    /**
+     * Reads an encoded vertex the way the client does, keeping the property name index and the offsets of the edge
+     * sections without decoding the properties or edges.
+     */
+    private static class EncodedVertex {
+        private final byte[] data;
+        private final Map<String, int[]> propertyRanges = new HashMap<>();
+        private final int propertiesOffset;
+        private final int outEdgesOffset;
+        private final int inEdgesOffset;
+
+        private EncodedVertex(byte[] data) throws IOException {
+            this.data = data;
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+            byte[] header = new byte[ElementData.HEADER.length];
+            in.readFully(header);
+            assertArrayEquals(ElementData.HEADER, header);
+            assertEquals(ElementData.TYPE_ID_VERTEX, in.readByte());
+            assertEquals(new Text("v1"), DataInputStreamUtils.decodeText(in));
+            assertEquals(1, in.readLong());
+            assertEquals(new Text("a"), DataInputStreamUtils.decodeText(in));
+            assertEquals(0, in.readInt());
+
+            int indexCount = in.readInt();
+            for (int i = 0; i < indexCount; i++) {
+                propertyRanges.put(DataInputStreamUtils.decodeString(in), new int[]{in.readInt(), in.readInt()});
+            }
+            int propertiesLength = in.readInt();
+            propertiesOffset = data.length - in.available();
+            assertEquals(propertiesLength, in.skipBytes(propertiesLength));
+
+            int outEdgesLength = in.readInt();
+            outEdgesOffset = data.length - in.available();
+            assertEquals(outEdgesLength, in.skipBytes(outEdgesLength));
+            int inEdgesLength = in.readInt();
+            inEdgesOffset = data.length - in.available();
+            assertEquals(inEdgesLength, in.skipBytes(inEdgesLength));
+            assertEquals(0, in.available());
+        }
+
+        /**
+         * Decodes only the range of the property name index entry, checking every property in it has that name.
+         */
+        private List<String> decodePropertyValues(String name) throws IOException {
+            List<String> results = new ArrayList<>();
+            int[] range = propertyRanges.get(name);
+            if (range == null) {
+                return results;
+            }
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, propertiesOffset + range[0], range[1]));
+            while (in.available() > 0) {
+                assertEquals(ElementData.PROP_START, in.read());
+                DataInputStreamUtils.decodeString(in);
+                assertEquals(name, DataInputStreamUtils.decodeString(in));
+                DataInputStreamUtils.decodeText(in);
+                in.readLong();
+                byte[] value = new byte[in.readInt()];
+                in.readFully(value);
+                results.add(new String(value));
+                assertEquals(-1, in.readInt());
+                assertEquals(0, in.readInt());
+            }
+            return results;
+        }
+
+        private ColumnarEdgesWithEdgeInfo decodeEdges(int offset) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, data.length - offset));
+            assertEquals(DataOutputStreamUtils.EDGE_LABEL_WITH_COLUMNAR_REFS_MARKER, in.readByte());
+            int labelCount = in.readInt();
+            String[] labels = new String[labelCount];
+            int[] labelCounts = new int[labelCount];
+            for (int i = 0; i < labelCount; i++) {
+                labels[i] = DataInputStreamUtils.decodeString(in);
+                labelCounts[i] = in.readInt();
+            }
+            return new ColumnarEdgesWithEdgeInfo(data, data.length - in.available(), labels, labelCounts);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.vertexium.accumulo.iterator.util;
+
+import org.apache.accumulo.core.data.ArrayByteSequence;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ColumnQualifierCacheTest {
+    @Test
+    public void testGetReturnsInternedValue() {
+        TestCache cache = new TestCache(10);
+        byte[] data = "xxcq1xx".getBytes();
+        String first = cache.get(new ArrayByteSequence(data, 2, 3));
+        String second = cache.get(new ArrayByteSequence("cq1".getBytes()));
+        assertEquals("cq1", first);
+        assertSame(first, second);
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate(), 0.0001);
+        assertEquals(1, cache.parseCount);
+    }
+
+    @Test
+    public void testBounded() {
+        TestCache cache = new TestCache(2);
+        cache.get(new ArrayByteSequence("cq1"));
+        cache.get(new ArrayByteSequence("cq2"));
+        assertEquals(2, cache.size());
+        cache.get(new ArrayByteSequence("cq3"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testDisabled() {
+        TestCache cache = new TestCache(0);
+        cache.get(new ArrayByteSequence("cq1"));
+        cache.get(new ArrayByteSequence("cq1"));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.parseCount);
+    }
+
+    private static class TestCache extends ColumnQualifierCache<String> {
+        private int parseCount;
+
+        public TestCache(int maxSize) {
+            super(maxSize);
+        }
+
+        @Override
+        protected String parse(byte[] columnQualifier) {
+            parseCount++;
+            return new String(columnQualifier);
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package org.vertexium.accumulo;
 
-import com.google.common.base.Function;
-import com.google.common.collect.Iterables;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.hadoop.io.Text;
@@ -14,7 +12,6 @@ import org.vertexium.mutation.PropertyDeleteMutation;
 import org.vertexium.mutation.PropertySoftDeleteMutation;
 import org.vertexium.util.IterableUtils;
 
-import javax.annotation.Nullable;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
@@ -64,32 +61,47 @@ public class AccumuloEdge extends AccumuloElement implements Edge {
         this.newEdgeLabel = newEdgeLabel;
     }
 
+    private AccumuloEdge(
+            Graph graph,
+            String id,
+            String outVertexId,
+            String inVertexId,
+            String label,
+            Visibility visibility,
+            LazyPropertyCollection properties,
+            Iterable<Visibility> hiddenVisibilities,
+            long timestamp,
+            Authorizations authorizations
+    ) {
+        super(
+                graph,
+                id,
+                visibility,
+                properties,
+                new ArrayList<Property>(),
+                new ArrayList<PropertyDeleteMutation>(),
+                new ArrayList<PropertySoftDeleteMutation>(),
+                hiddenVisibilities,
+                timestamp,
+                authorizations
+        );
+        this.outVertexId = outVertexId;
+        this.inVertexId = inVertexId;
+        this.label = label;
+        this.newEdgeLabel = null;
+    }
+
     public static Edge createFromIteratorValue(AccumuloGraph graph, Key key, Value value, Authorizations authorizations) {
         try {
-            String edgeId;
-            Visibility vertexVisibility;
-            Iterable<Property> properties;
-            Iterable<PropertyDeleteMutation> propertyDeleteMutations = new ArrayList<>();
-            Iterable<PropertySoftDeleteMutation> propertySoftDeleteMutations = new ArrayList<>();
-            Iterable<Visibility> hiddenVisibilities;
-            Map<String, org.vertexium.accumulo.iterator.model.EdgeInfo> inEdges;
-            Map<String, org.vertexium.accumulo.iterator.model.EdgeInfo> outEdges;
-            long timestamp;
-
-            ByteArrayInputStream bain = new ByteArrayInputStream(value.get());
+            byte[] data = value.get();
+            ByteArrayInputStream bain = new ByteArrayInputStream(data);
             final DataInputStream in = new DataInputStream(bain);
             DataInputStreamUtils.decodeHeader(in, ElementData.TYPE_ID_EDGE);
-            edgeId = DataInputStreamUtils.decodeText(in).toString();
-            timestamp = in.readLong();
-            vertexVisibility = new Visibility(DataInputStreamUtils.decodeText(in).toString());
-            hiddenVisibilities = Iterables.transform(DataInputStreamUtils.decodeTextList(in), new Function<Text, Visibility>() {
-                @Nullable
-                @Override
-                public Visibility apply(Text input) {
-                    return new Visibility(input.toString());
-                }
-            });
-            properties = DataInputStreamUtils.decodeProperties(graph, in);
+            String edgeId = DataInputStreamUtils.decodeText(in).toString();
+            long timestamp = in.readLong();
+            Visibility vertexVisibility = new Visibility(DataInputStreamUtils.decodeText(in).toString());
+            Iterable<Visibility> hiddenVisibilities = DataInputStreamUtils.decodeVisibilities(in);
+            LazyPropertyCollection properties = LazyPropertyCollection.decode(graph, data, in);
             String inVertexId = DataInputStreamUtils.decodeText(in).toString();
             String outVertexId = DataInputStreamUtils.decodeText(in).toString();
             String label = graph.getNameSubstitutionStrategy().inflate(DataInputStreamUtils.decodeText(in));
@@ -100,11 +112,8 @@ public class AccumuloEdge extends AccumuloElement implements Edge {
                     outVertexId,
                     inVertexId,
                     label,
-                    null,
                     vertexVisibility,
                     properties,
-                    propertyDeleteMutations,
-                    propertySoftDeleteMutations,
                     hiddenVisibilities,
                     timestamp,
                     authorizations
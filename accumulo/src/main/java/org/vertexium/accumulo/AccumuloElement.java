@@ -10,6 +10,7 @@ import org.vertexium.mutation.PropertyDeleteMutation;
 import org.vertexium.mutation.PropertySoftDeleteMutation;
 import org.vertexium.property.MutableProperty;
 import org.vertexium.util.IncreasingTime;
+import org.vertexium.util.PropertyCollection;
 
 import java.io.Serializable;
 
@@ -55,6 +56,32 @@ public abstract class AccumuloElement extends ElementBase implements Serializabl
         );
     }
 
+    protected AccumuloElement(
+            Graph graph,
+            String id,
+            Visibility visibility,
+            PropertyCollection propertyCollection,
+            Iterable<Property> properties,
+            Iterable<PropertyDeleteMutation> propertyDeleteMutations,
+            Iterable<PropertySoftDeleteMutation> propertySoftDeleteMutations,
+            Iterable<Visibility> hiddenVisibilities,
+            long timestamp,
+            Authorizations authorizations
+    ) {
+        super(
+                graph,
+                id,
+                visibility,
+                propertyCollection,
+                properties,
+                propertyDeleteMutations,
+                propertySoftDeleteMutations,
+                hiddenVisibilities,
+                timestamp,
+                authorizations
+        );
+    }
+
     @Override
     public void deleteProperty(String key, String name, Authorizations authorizations) {
         Property property = super.removePropertyInternal(key, name);
@@ -0,0 +1,201 @@
+package org.vertexium.accumulo;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.vertexium.Authorizations;
+import org.vertexium.ElementType;
+import org.vertexium.FetchHint;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Element iterator rows of vertices and edges kept by {@link AccumuloGraph} so hot elements are not scanned on every
+ * read.
+ * <p>
+ * Rows are cached per id for each combination of authorizations and fetch hints they were read with and the least
+ * recently used ids are evicted once there are more than the maximum size. The rows are never modified and each read
+ * decodes a new element from the row, so callers can change the element they get without affecting other callers.
+ * An id is invalidated when the graph writes a mutation to its row and again when the graph is flushed, and
+ * when another graph instance signals that it flushed a change to it. Entries also expire after a fixed time in case a
+ * change is written without a flush or a signal is missed.
+ */
+public class AccumuloElementCache {
+    private static final int GENERATION_STRIPES = 64;
+    private final Cache<ElementKey, ConcurrentMap<ReadKey, Map.Entry<Key, Value>>> cache;
+    // bumped on invalidation so a read that started before the invalidation does not cache what it read
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    /**
+     * @param maximumSize            The number of element ids to keep.
+     * @param expireAfterWriteMillis How long an element is kept after it was read.
+     */
+    public AccumuloElementCache(long maximumSize, long expireAfterWriteMillis) {
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWriteMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Must be called before reading a row that will be passed to {@link #put}.
+     */
+    long getGeneration(String id) {
+        return generations.get(getStripe(id));
+    }
+
+    Map.Entry<Key, Value> get(ElementType elementType, String id, EnumSet<FetchHint> fetchHints, Authorizations authorizations) {
+        ConcurrentMap<ReadKey, Map.Entry<Key, Value>> elements = cache.getIfPresent(new ElementKey(elementType, id));
+        Map.Entry<Key, Value> row = elements == null ? null : elements.get(new ReadKey(fetchHints, authorizations));
+        if (row == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return row;
+    }
+
+    /**
+     * @param row        The element iterator row, which must not be modified after it is cached.
+     * @param generation The generation of the id from before the row was read.
+     */
+    void put(ElementType elementType, String id, EnumSet<FetchHint> fetchHints, Authorizations authorizations, Map.Entry<Key, Value> row, long generation) {
+        int stripe = getStripe(id);
+        if (generations.get(stripe) != generation) {
+            return;
+        }
+        ElementKey elementKey = new ElementKey(elementType, id);
+        ConcurrentMap<ReadKey, Map.Entry<Key, Value>> elements = cache.getIfPresent(elementKey);
+        if (elements == null) {
+            elements = new ConcurrentHashMap<>();
+            ConcurrentMap<ReadKey, Map.Entry<Key, Value>> existing = cache.asMap().putIfAbsent(elementKey, elements);
+            if (existing != null) {
+                elements = existing;
+            }
+        }
+        ReadKey readKey = new ReadKey(fetchHints, authorizations);
+        elements.put(readKey, row);
+        if (generations.get(stripe) != generation) {
+            elements.remove(readKey, row);
+        }
+    }
+
+    /**
+     * Invalidates the vertex and the edge with the id.
+     */
+    public void invalidate(String id) {
+        generations.incrementAndGet(getStripe(id));
+        invalidationCount.incrementAndGet();
+        cache.invalidate(new ElementKey(ElementType.VERTEX, id));
+        cache.invalidate(new ElementKey(ElementType.EDGE, id));
+    }
+
+    public void invalidateAll() {
+        for (int i = 0; i < GENERATION_STRIPES; i++) {
+            generations.incrementAndGet(i);
+        }
+        invalidationCount.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    private static int getStripe(String id) {
+        return (id.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount.get();
+    }
+
+    /**
+     * The number of element ids removed to stay under the maximum size or because they expired.
+     */
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * The number of element ids cached.
+     */
+    public long getSize() {
+        return cache.size();
+    }
+
+    private static class ElementKey {
+        private final ElementType elementType;
+        private final String id;
+
+        private ElementKey(ElementType elementType, String id) {
+            this.elementType = elementType;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ElementKey that = (ElementKey) o;
+            return elementType == that.elementType && id.equals(that.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * elementType.hashCode() + id.hashCode();
+        }
+    }
+
+    /**
+     * Compares the authorizations themselves rather than a hash of them so a collision can not return an element
+     * read with other authorizations.
+     */
+    private static class ReadKey {
+        private final EnumSet<FetchHint> fetchHints;
+        private final String[] authorizations;
+
+        private ReadKey(EnumSet<FetchHint> fetchHints, Authorizations authorizations) {
+            this.fetchHints = EnumSet.copyOf(fetchHints);
+            this.authorizations = authorizations.getAuthorizations().clone();
+            Arrays.sort(this.authorizations);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            ReadKey that = (ReadKey) o;
+            return fetchHints.equals(that.fetchHints) && Arrays.equals(authorizations, that.authorizations);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * fetchHints.hashCode() + Arrays.hashCode(authorizations);
+        }
+    }
+}
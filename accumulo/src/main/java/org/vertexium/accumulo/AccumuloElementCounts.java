@@ -0,0 +1,158 @@
+package org.vertexium.accumulo;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.IteratorSetting;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.iterators.Combiner;
+import org.apache.accumulo.core.iterators.IteratorUtil;
+import org.apache.accumulo.core.iterators.LongCombiner;
+import org.apache.accumulo.core.iterators.user.SummingCombiner;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.hadoop.io.Text;
+import org.vertexium.ElementType;
+import org.vertexium.VertexiumException;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Vertex and edge counts kept in the counts table so they can be read without scanning the element tables.
+ * <p>
+ * Adds, deletes and soft deletes made through the graph are summed in memory and written as a single delta per
+ * element type when the graph is flushed. A combiner on the counts table sums the deltas from every graph instance, so
+ * a count includes every change flushed by any instance when it is read and nothing that has not been flushed yet.
+ * <p>
+ * Saving an element with a vertex or edge builder only counts it if the element did not exist before its first save
+ * since the last flush. The ids saved are kept until the flush, which checks them all with one batch scan using every
+ * authorization of the Accumulo user, so saving an element several times before a flush counts it at most once. The
+ * counts are approximate. A save with an explicit timestamp older than the existing element counts it again, two graph
+ * instances adding the same element in the same flush interval both count it and deleting an element that was already
+ * soft deleted removes it again. Use {@link AccumuloGraph#recalculateElementCounts(org.vertexium.Authorizations)} to
+ * reset them from a scan.
+ */
+public class AccumuloElementCounts {
+    public static final Text ROW_COUNTS = new Text("counts");
+    public static final Text CF_COUNT = new Text("count");
+    private static final String COMBINER_NAME = "elementCount";
+    private static final int COMBINER_PRIORITY = 10;
+    private final AtomicLong vertexCountDelta = new AtomicLong();
+    private final AtomicLong edgeCountDelta = new AtomicLong();
+    private Map<String, Long> savedVertices = new HashMap<>();
+    private Map<String, Long> savedEdges = new HashMap<>();
+
+    public void increment(ElementType elementType, long delta) {
+        getDelta(elementType).addAndGet(delta);
+    }
+
+    private AtomicLong getDelta(ElementType elementType) {
+        switch (elementType) {
+            case VERTEX:
+                return vertexCountDelta;
+            case EDGE:
+                return edgeCountDelta;
+            default:
+                throw new VertexiumException("Unhandled element type: " + elementType);
+        }
+    }
+
+    /**
+     * Records an element saved through a builder, keeping the timestamp of its first save since the last flush.
+     */
+    public synchronized void elementSaved(ElementType elementType, String elementId, long timestamp) {
+        Map<String, Long> savedElements = elementType == ElementType.VERTEX ? savedVertices : savedEdges;
+        Long firstTimestamp = savedElements.get(elementId);
+        if (firstTimestamp == null || timestamp < firstTimestamp) {
+            savedElements.put(elementId, timestamp);
+        }
+    }
+
+    /**
+     * Takes the elements saved since the last call with the timestamp of their first save.
+     */
+    synchronized Map<String, Long> takeSavedElements(ElementType elementType) {
+        Map<String, Long> result;
+        if (elementType == ElementType.VERTEX) {
+            result = savedVertices;
+            savedVertices = new HashMap<>();
+        } else {
+            result = savedEdges;
+            savedEdges = new HashMap<>();
+        }
+        return result;
+    }
+
+    /**
+     * Takes the deltas not written yet.
+     *
+     * @return The mutation to write or null if nothing changed.
+     */
+    Mutation takePendingMutation() {
+        long vertexDelta = vertexCountDelta.getAndSet(0);
+        long edgeDelta = edgeCountDelta.getAndSet(0);
+        if (vertexDelta == 0 && edgeDelta == 0) {
+            return null;
+        }
+        Mutation m = new Mutation(ROW_COUNTS);
+        if (vertexDelta != 0) {
+            m.put(CF_COUNT, new Text(ElementType.VERTEX.name()), encode(vertexDelta));
+        }
+        if (edgeDelta != 0) {
+            m.put(CF_COUNT, new Text(ElementType.EDGE.name()), encode(edgeDelta));
+        }
+        return m;
+    }
+
+    static Mutation createDeltaMutation(ElementType elementType, long delta) {
+        Mutation m = new Mutation(ROW_COUNTS);
+        m.put(CF_COUNT, new Text(elementType.name()), encode(delta));
+        return m;
+    }
+
+    private static Value encode(long delta) {
+        return new Value(LongCombiner.FIXED_LEN_ENCODER.encode(delta));
+    }
+
+    /**
+     * @return The count of each element type written to the counts table, which does not include unflushed deltas.
+     */
+    static Map<ElementType, Long> read(Connector connector, String tableName) {
+        Map<ElementType, Long> results = new EnumMap<>(ElementType.class);
+        try {
+            Scanner scanner = connector.createScanner(tableName, new Authorizations());
+            try {
+                scanner.setRange(new Range(ROW_COUNTS));
+                scanner.fetchColumnFamily(CF_COUNT);
+                for (Map.Entry<Key, Value> entry : scanner) {
+                    ElementType elementType = ElementType.valueOf(entry.getKey().getColumnQualifier().toString());
+                    results.put(elementType, LongCombiner.FIXED_LEN_ENCODER.decode(entry.getValue().get()));
+                }
+                return results;
+            } finally {
+                scanner.close();
+            }
+        } catch (Exception ex) {
+            throw new VertexiumException("Could not read element counts from table: " + tableName, ex);
+        }
+    }
+
+    static void ensureCombinerIsAttached(Connector connector, String tableName) {
+        try {
+            if (connector.tableOperations().listIterators(tableName).containsKey(COMBINER_NAME)) {
+                return;
+            }
+            IteratorSetting setting = new IteratorSetting(COMBINER_PRIORITY, COMBINER_NAME, SummingCombiner.class);
+            LongCombiner.setEncodingType(setting, LongCombiner.Type.FIXEDLEN);
+            Combiner.setCombineAllColumns(setting, true);
+            connector.tableOperations().attachIterator(tableName, setting, EnumSet.allOf(IteratorUtil.IteratorScope.class));
+        } catch (Exception ex) {
+            throw new VertexiumException("Could not attach element count combiner to table: " + tableName, ex);
+        }
+    }
+}
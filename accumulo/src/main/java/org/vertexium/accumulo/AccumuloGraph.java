@@ -1,5 +1,6 @@
 package org.vertexium.accumulo;
 
+import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.google.common.primitives.Longs;
 import org.apache.accumulo.core.client.*;
@@ -42,6 +43,9 @@ import org.vertexium.mutation.AlterPropertyVisibility;
 import org.vertexium.mutation.PropertyDeleteMutation;
 import org.vertexium.mutation.PropertySoftDeleteMutation;
 import org.vertexium.mutation.SetPropertyMetadata;
+import org.vertexium.path.BidirectionalPathFinder;
+import org.vertexium.path.NeighborhoodFinder;
+import org.vertexium.path.VertexIdDictionary;
 import org.vertexium.property.MutableProperty;
 import org.vertexium.property.StreamingPropertyValue;
 import org.vertexium.property.StreamingPropertyValueRef;
@@ -50,7 +54,10 @@ import org.vertexium.util.*;
 
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Pattern;
 
 import static org.vertexium.util.IterableUtils.singleOrDefault;
@@ -64,6 +71,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     private static final int ROW_DELETING_ITERATOR_PRIORITY = 7;
     private static final Object addIteratorLock = new Object();
     private static final Integer METADATA_ACCUMULO_GRAPH_VERSION = 2;
+    private static final int MIN_CONNECTED_VERTEX_IDS_PARTITION_SIZE = 100;
     private static final String METADATA_ACCUMULO_GRAPH_VERSION_KEY = "accumulo.graph.version";
     private static final String METADATA_SERIALIZER = "accumulo.graph.serializer";
     private static final Authorizations METADATA_AUTHORIZATIONS = new AccumuloAuthorizations();
@@ -73,6 +81,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     private static final String ACCUMULO_DEFAULT_VERSIONING_ITERATOR_NAME = "vers";
     private static final ColumnVisibility EMPTY_COLUMN_VISIBILITY = new ColumnVisibility();
     private static final String CLASSPATH_CONTEXT_NAME = "vertexium";
+    private static final int STREAMING_PROPERTY_VALUE_CHUNKS_PER_BATCH = 4;
     private final Connector connector;
     private final VertexiumSerializer vertexiumSerializer;
     private final FileSystem fileSystem;
@@ -80,6 +89,8 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     private final CuratorFramework curatorFramework;
     private ThreadLocal<VertexiumMultiTableBatchWriter> elementWriter = new ThreadLocal<>();
     private ThreadLocal<BatchWriter> metadataWriter = new ThreadLocal<>();
+    private final SharedBatchWriter sharedBatchWriter;
+    private final HdfsSegmentStore hdfsSegmentStore;
     protected ElementMutationBuilder elementMutationBuilder;
     private final Queue<GraphEvent> graphEventQueue = new LinkedList<>();
     private Integer accumuloGraphVersion;
@@ -89,8 +100,14 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     private final String edgesTableName;
     private final String dataTableName;
     private final String metadataTableName;
+    private final String countsTableName;
+    private final AccumuloElementCounts elementCounts;
     private final int numberOfQueryThreads;
+    private final Object queryExecutorServiceLock = new Object();
+    private ExecutorService queryExecutorService;
     private AccumuloGraphMetadataStore graphMetadataStore;
+    private final AccumuloElementCache elementCache;
+    private final AccumuloElementCacheSync elementCacheSync;
     private boolean distributedTraceEnabled;
 
     protected AccumuloGraph(
@@ -103,17 +120,23 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         this.vertexiumSerializer = config.createSerializer(this);
         this.fileSystem = fileSystem;
         this.dataDir = config.getDataDir();
+        if (config.getHdfsSegmentSize() > 0) {
+            this.hdfsSegmentStore = new HdfsSegmentStore(fileSystem, dataDir, config.getHdfsSegmentSize(), config.getHdfsMaxOpenSegments(), config.getHdfsSegmentIdleSealMillis());
+        } else {
+            this.hdfsSegmentStore = null;
+        }
         this.nameSubstitutionStrategy = AccumuloNameSubstitutionStrategy.create(config.createSubstitutionStrategy(this));
         long maxStreamingPropertyValueTableDataSize = config.getMaxStreamingPropertyValueTableDataSize();
-        this.elementMutationBuilder = new ElementMutationBuilder(fileSystem, vertexiumSerializer, maxStreamingPropertyValueTableDataSize, dataDir) {
+        int streamingPropertyValueTableChunkSize = config.getStreamingPropertyValueTableChunkSize();
+        this.elementMutationBuilder = new ElementMutationBuilder(fileSystem, vertexiumSerializer, maxStreamingPropertyValueTableDataSize, streamingPropertyValueTableChunkSize, dataDir) {
             @Override
             protected void saveVertexMutation(Mutation m) {
-                addMutations(getVerticesWriter(), m);
+                addElementMutations(getVerticesWriter(), m);
             }
 
             @Override
             protected void saveEdgeMutation(Mutation m) {
-                addMutations(getEdgesWriter(), m);
+                addElementMutations(getEdgesWriter(), m);
             }
 
             @Override
@@ -121,6 +144,11 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 return AccumuloGraph.this.getNameSubstitutionStrategy();
             }
 
+            @Override
+            protected HdfsSegmentStore getHdfsSegmentStore() {
+                return hdfsSegmentStore;
+            }
+
             @Override
             protected void saveDataMutation(Mutation dataMutation) {
                 addMutations(getDataWriter(), dataMutation);
@@ -139,11 +167,25 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         curatorFramework.start();
         String zkPath = config.getZookeeperMetadataSyncPath();
         this.graphMetadataStore = new AccumuloGraphMetadataStore(curatorFramework, zkPath);
+        if (config.getElementCacheSize() > 0) {
+            this.elementCache = new AccumuloElementCache(config.getElementCacheSize(), config.getElementCacheExpireMillis());
+            this.elementCacheSync = new AccumuloElementCacheSync(curatorFramework, config.getZookeeperElementCacheSyncPath());
+        } else {
+            this.elementCache = null;
+            this.elementCacheSync = null;
+        }
         this.verticesTableName = getVerticesTableName(getConfiguration().getTableNamePrefix());
         this.edgesTableName = getEdgesTableName(getConfiguration().getTableNamePrefix());
         this.dataTableName = getDataTableName(getConfiguration().getTableNamePrefix());
         this.metadataTableName = getMetadataTableName(getConfiguration().getTableNamePrefix());
+        this.countsTableName = getCountsTableName(getConfiguration().getTableNamePrefix());
+        this.elementCounts = getConfiguration().isMaintainElementCounts() ? new AccumuloElementCounts() : null;
         this.numberOfQueryThreads = getConfiguration().getNumberOfQueryThreads();
+        if (getConfiguration().isBatchWriterShared()) {
+            this.sharedBatchWriter = new SharedBatchWriter(connector, getConfiguration().createBatchWriterConfig());
+        } else {
+            this.sharedBatchWriter = null;
+        }
     }
 
     public static AccumuloGraph create(AccumuloGraphConfiguration config) throws AccumuloSecurityException, AccumuloException, VertexiumException, InterruptedException, IOException, URISyntaxException {
@@ -152,10 +194,17 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         }
         Connector connector = config.createConnector();
         FileSystem fs = config.createFileSystem();
-        ensureTableExists(connector, getVerticesTableName(config.getTableNamePrefix()), config.getMaxVersions(), config.getHdfsContextClasspath(), config.isCreateTables());
-        ensureTableExists(connector, getEdgesTableName(config.getTableNamePrefix()), config.getMaxVersions(), config.getHdfsContextClasspath(), config.isCreateTables());
-        ensureTableExists(connector, getDataTableName(config.getTableNamePrefix()), 1, config.getHdfsContextClasspath(), config.isCreateTables());
+        SortedSet<Text> splits = AccumuloTableSettings.getSplits(config, config.getTableInitialSplits());
+        ensureTableExists(connector, getVerticesTableName(config.getTableNamePrefix()), config.getMaxVersions(), config.getHdfsContextClasspath(), config.isCreateTables(), splits);
+        ensureTableExists(connector, getEdgesTableName(config.getTableNamePrefix()), config.getMaxVersions(), config.getHdfsContextClasspath(), config.isCreateTables(), splits);
+        ensureTableExists(connector, getDataTableName(config.getTableNamePrefix()), 1, config.getHdfsContextClasspath(), config.isCreateTables(), splits);
         ensureTableExists(connector, getMetadataTableName(config.getTableNamePrefix()), 1, config.getHdfsContextClasspath(), config.isCreateTables());
+        if (config.isMaintainElementCounts()) {
+            // no versioning iterator so the combiner sums every delta
+            ensureTableExists(connector, getCountsTableName(config.getTableNamePrefix()), null, config.getHdfsContextClasspath(), config.isCreateTables());
+            AccumuloElementCounts.ensureCombinerIsAttached(connector, getCountsTableName(config.getTableNamePrefix()));
+        }
+        AccumuloTableSettings.apply(connector, config);
         ensureRowDeletingIteratorIsAttached(connector, getVerticesTableName(config.getTableNamePrefix()));
         ensureRowDeletingIteratorIsAttached(connector, getEdgesTableName(config.getTableNamePrefix()));
         ensureRowDeletingIteratorIsAttached(connector, getDataTableName(config.getTableNamePrefix()));
@@ -207,6 +256,13 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     }
 
     protected static void ensureTableExists(Connector connector, String tableName, Integer maxVersions, String hdfsContextClasspath, boolean createTable) {
+        ensureTableExists(connector, tableName, maxVersions, hdfsContextClasspath, createTable, new TreeSet<Text>());
+    }
+
+    /**
+     * @param splits Split points added only when the table is created.
+     */
+    protected static void ensureTableExists(Connector connector, String tableName, Integer maxVersions, String hdfsContextClasspath, boolean createTable, SortedSet<Text> splits) {
         try {
             if (!connector.tableOperations().exists(tableName)) {
                 if (!createTable) {
@@ -228,6 +284,8 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                     EnumSet<IteratorUtil.IteratorScope> scope = EnumSet.allOf(IteratorUtil.IteratorScope.class);
                     connector.tableOperations().attachIterator(tableName, versioningSettings, scope);
                 }
+
+                AccumuloTableSettings.addSplits(connector, tableName, splits);
             }
 
             if (hdfsContextClasspath != null) {
@@ -287,6 +345,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                     // This has to occur before createVertex since it will mutate the properties
                     getElementMutationBuilder().saveVertexBuilder(AccumuloGraph.this, this, timestampLong);
 
+                    if (elementCounts != null) {
+                        elementCounts.elementSaved(ElementType.VERTEX, finalVertexId, timestampLong);
+                    }
+
                     AccumuloVertex vertex = createVertex(authorizations);
 
                     if (getIndexHint() != IndexHint.DO_NOT_INDEX) {
@@ -357,7 +419,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             elementMutationBuilder.addPropertyToMutation(this, m, elementRowKey, property);
         }
         if (hasProperty) {
-            addMutations(getWriterFromElementType(element), m);
+            addElementMutations(getWriterFromElementType(element), m);
         }
 
         if (indexHint != IndexHint.DO_NOT_INDEX) {
@@ -400,7 +462,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     void deleteProperty(AccumuloElement element, Property property, Authorizations authorizations) {
         Mutation m = new Mutation(element.getId());
         elementMutationBuilder.addPropertyDeleteToMutation(m, property);
-        addMutations(getWriterFromElementType(element), m);
+        addElementMutations(getWriterFromElementType(element), m);
 
         getSearchIndex().deleteProperty(this, element, property, authorizations);
 
@@ -412,7 +474,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     void softDeleteProperty(AccumuloElement element, Property property, Authorizations authorizations) {
         Mutation m = new Mutation(element.getId());
         elementMutationBuilder.addPropertySoftDeleteToMutation(m, property);
-        addMutations(getWriterFromElementType(element), m);
+        addElementMutations(getWriterFromElementType(element), m);
 
         getSearchIndex().deleteProperty(this, element, property, authorizations);
 
@@ -434,7 +496,24 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         }
     }
 
+    /**
+     * Adds mutations to the vertex or edge table and drops the elements they change from the element cache. The
+     * elements are recorded as changed only once their mutations are in the writer so the next flush of that writer
+     * writes the mutations before the other graph instances are told.
+     */
+    private void addElementMutations(BatchWriter writer, Mutation... mutations) {
+        addMutations(writer, mutations);
+        if (elementCacheSync != null) {
+            for (Mutation mutation : mutations) {
+                elementCacheSync.elementChanged(new String(mutation.getRow(), StandardCharsets.UTF_8));
+            }
+        }
+    }
+
     private BatchWriter getElementWriter(String tableName) {
+        if (sharedBatchWriter != null) {
+            return sharedBatchWriter.getBatchWriter(tableName);
+        }
         if (elementWriter.get() == null) {
             BatchWriterConfig writerConfig = getConfiguration().createBatchWriterConfig();
             elementWriter.set(new VertexiumMultiTableBatchWriter(connector.createMultiTableBatchWriter(writerConfig)));
@@ -442,6 +521,13 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         return elementWriter.get().getBatchWriter(tableName);
     }
 
+    /**
+     * The writer shared by all threads or null if each thread has its own writer.
+     */
+    public SharedBatchWriter getSharedBatchWriter() {
+        return sharedBatchWriter;
+    }
+
     protected BatchWriter getVerticesWriter() {
         return getElementWriter(getVerticesTableName());
     }
@@ -465,6 +551,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     }
 
     protected BatchWriter getMetadataWriter() {
+        if (sharedBatchWriter != null) {
+            return sharedBatchWriter.getBatchWriter(getMetadataTableName());
+        }
         try {
             if (this.metadataWriter.get() != null) {
                 return this.metadataWriter.get();
@@ -496,7 +585,8 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 deleteEdge(edge, authorizations);
             }
 
-            addMutations(getVerticesWriter(), getDeleteRowMutation(vertex.getId()));
+            incrementElementCount(ElementType.VERTEX, -1);
+            addElementMutations(getVerticesWriter(), getDeleteRowMutation(vertex.getId()));
 
             if (hasEventListeners()) {
                 queueEvent(new DeleteVertexEvent(this, vertex));
@@ -523,7 +613,8 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 softDeleteEdge(edge, timestamp, authorizations);
             }
 
-            addMutations(getVerticesWriter(), getSoftDeleteRowMutation(vertex.getId(), timestamp));
+            incrementElementCount(ElementType.VERTEX, -1);
+            addElementMutations(getVerticesWriter(), getSoftDeleteRowMutation(vertex.getId(), timestamp));
 
             if (hasEventListeners()) {
                 queueEvent(new SoftDeleteVertexEvent(this, vertex));
@@ -546,7 +637,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 markEdgeHidden(edge, visibility, authorizations);
             }
 
-            addMutations(getVerticesWriter(), getMarkHiddenRowMutation(vertex.getId(), columnVisibility));
+            addElementMutations(getVerticesWriter(), getMarkHiddenRowMutation(vertex.getId(), columnVisibility));
 
             if (hasEventListeners()) {
                 queueEvent(new MarkHiddenVertexEvent(this, vertex));
@@ -569,7 +660,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 markEdgeVisible(edge, visibility, authorizations);
             }
 
-            addMutations(getVerticesWriter(), getMarkVisibleRowMutation(vertex.getId(), columnVisibility));
+            addElementMutations(getVerticesWriter(), getMarkVisibleRowMutation(vertex.getId(), columnVisibility));
 
             if (hasEventListeners()) {
                 queueEvent(new MarkVisibleVertexEvent(this, vertex));
@@ -602,6 +693,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                     // This has to occur before createEdge since it will mutate the properties
                     elementMutationBuilder.saveEdgeBuilder(AccumuloGraph.this, this, timestampLong);
 
+                    if (elementCounts != null) {
+                        elementCounts.elementSaved(ElementType.EDGE, finalEdgeId, timestampLong);
+                    }
+
                     AccumuloEdge edge = AccumuloGraph.this.createEdge(AccumuloGraph.this, this, timestampLong, authorizations);
                     return savePreparedEdge(this, edge, null, authorizations);
                 } finally {
@@ -651,6 +746,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                     // This has to occur before createEdge since it will mutate the properties
                     elementMutationBuilder.saveEdgeBuilder(AccumuloGraph.this, this, timestampLong);
 
+                    if (elementCounts != null) {
+                        elementCounts.elementSaved(ElementType.EDGE, finalEdgeId, timestampLong);
+                    }
+
                     AccumuloEdge edge = createEdge(AccumuloGraph.this, this, timestampLong, authorizations);
                     return savePreparedEdge(this, edge, addEdgeToVertex, authorizations);
                 } finally {
@@ -825,10 +924,12 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             Mutation inMutation = new Mutation(edge.getVertexId(Direction.IN));
             inMutation.putDelete(AccumuloVertex.CF_IN_EDGE, new Text(edge.getId()), visibility);
 
-            addMutations(getVerticesWriter(), outMutation, inMutation);
+            addElementMutations(getVerticesWriter(), outMutation, inMutation);
+
+            incrementElementCount(ElementType.EDGE, -1);
 
             // Deletes everything else related to edge.
-            addMutations(getEdgesWriter(), getDeleteRowMutation(edge.getId()));
+            addElementMutations(getEdgesWriter(), getDeleteRowMutation(edge.getId()));
 
             if (hasEventListeners()) {
                 queueEvent(new DeleteEdgeEvent(this, edge));
@@ -858,10 +959,12 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             Mutation inMutation = new Mutation(edge.getVertexId(Direction.IN));
             inMutation.put(AccumuloVertex.CF_IN_EDGE_SOFT_DELETE, new Text(edge.getId()), visibility, timestamp, AccumuloElement.SOFT_DELETE_VALUE);
 
-            addMutations(getVerticesWriter(), outMutation, inMutation);
+            addElementMutations(getVerticesWriter(), outMutation, inMutation);
+
+            incrementElementCount(ElementType.EDGE, -1);
 
             // Soft deletes everything else related to edge.
-            addMutations(getEdgesWriter(), getSoftDeleteRowMutation(edge.getId(), timestamp));
+            addElementMutations(getEdgesWriter(), getSoftDeleteRowMutation(edge.getId(), timestamp));
 
             if (hasEventListeners()) {
                 queueEvent(new SoftDeleteEdgeEvent(this, edge));
@@ -894,10 +997,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             Mutation inMutation = new Mutation(in.getId());
             inMutation.put(AccumuloVertex.CF_IN_EDGE_HIDDEN, new Text(edge.getId()), columnVisibility, AccumuloElement.HIDDEN_VALUE);
 
-            addMutations(getVerticesWriter(), outMutation, inMutation);
+            addElementMutations(getVerticesWriter(), outMutation, inMutation);
 
             // Delete everything else related to edge.
-            addMutations(getEdgesWriter(), getMarkHiddenRowMutation(edge.getId(), columnVisibility));
+            addElementMutations(getEdgesWriter(), getMarkHiddenRowMutation(edge.getId(), columnVisibility));
 
             if (out instanceof AccumuloVertex) {
                 ((AccumuloVertex) out).removeOutEdge(edge);
@@ -937,10 +1040,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             Mutation inMutation = new Mutation(in.getId());
             inMutation.putDelete(AccumuloVertex.CF_IN_EDGE_HIDDEN, new Text(edge.getId()), columnVisibility);
 
-            addMutations(getVerticesWriter(), outMutation, inMutation);
+            addElementMutations(getVerticesWriter(), outMutation, inMutation);
 
             // Delete everything else related to edge.
-            addMutations(getEdgesWriter(), getMarkVisibleRowMutation(edge.getId(), columnVisibility));
+            addElementMutations(getEdgesWriter(), getMarkVisibleRowMutation(edge.getId(), columnVisibility));
 
             if (out instanceof AccumuloVertex) {
                 ((AccumuloVertex) out).addOutEdge(edge);
@@ -982,9 +1085,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             ColumnVisibility columnVisibility = visibilityToAccumuloVisibility(visibility);
 
             if (element instanceof Vertex) {
-                addMutations(getVerticesWriter(), getMarkHiddenPropertyMutation(element.getId(), property, timestamp, columnVisibility));
+                addElementMutations(getVerticesWriter(), getMarkHiddenPropertyMutation(element.getId(), property, timestamp, columnVisibility));
             } else if (element instanceof Edge) {
-                addMutations(getEdgesWriter(), getMarkHiddenPropertyMutation(element.getId(), property, timestamp, columnVisibility));
+                addElementMutations(getEdgesWriter(), getMarkHiddenPropertyMutation(element.getId(), property, timestamp, columnVisibility));
             }
 
             if (hasEventListeners()) {
@@ -1017,9 +1120,9 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             ColumnVisibility columnVisibility = visibilityToAccumuloVisibility(visibility);
 
             if (element instanceof Vertex) {
-                addMutations(getVerticesWriter(), getMarkVisiblePropertyMutation(element.getId(), property, timestamp, columnVisibility));
+                addElementMutations(getVerticesWriter(), getMarkVisiblePropertyMutation(element.getId(), property, timestamp, columnVisibility));
             } else if (element instanceof Edge) {
-                addMutations(getEdgesWriter(), getMarkVisiblePropertyMutation(element.getId(), property, timestamp, columnVisibility));
+                addElementMutations(getEdgesWriter(), getMarkVisiblePropertyMutation(element.getId(), property, timestamp, columnVisibility));
             }
 
             if (hasEventListeners()) {
@@ -1050,7 +1153,23 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     }
 
     private void flushWritersAndSuper() {
-        flushWriter(this.elementWriter.get());
+        writeElementCountDeltas();
+        List<String> changedElementIds = elementCacheSync == null ? null : elementCacheSync.takePendingIds();
+        if (sharedBatchWriter != null) {
+            try {
+                sharedBatchWriter.flush();
+            } catch (MutationsRejectedException ex) {
+                throw new VertexiumException("Could not flush writer", ex);
+            }
+        } else {
+            flushWriter(this.elementWriter.get());
+        }
+        if (elementCacheSync != null) {
+            elementCacheSync.flushed(changedElementIds);
+        }
+        if (hdfsSegmentStore != null) {
+            hdfsSegmentStore.sealIdleSegments();
+        }
         super.flush();
     }
 
@@ -1074,8 +1193,23 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         try {
             flush();
             super.shutdown();
+            synchronized (queryExecutorServiceLock) {
+                if (queryExecutorService != null) {
+                    queryExecutorService.shutdownNow();
+                    queryExecutorService = null;
+                }
+            }
+            if (sharedBatchWriter != null) {
+                sharedBatchWriter.close();
+            }
+            if (hdfsSegmentStore != null) {
+                hdfsSegmentStore.close();
+            }
             fileSystem.close();
             this.graphMetadataStore.close();
+            if (elementCacheSync != null) {
+                elementCacheSync.close();
+            }
             this.curatorFramework.close();
         } catch (Exception ex) {
             throw new VertexiumException(ex);
@@ -1122,6 +1256,23 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 return null;
             }
 
+            if (isElementCacheable(fetchHints, endTime)) {
+                Map.Entry<Key, Value> row = elementCache.get(ElementType.VERTEX, vertexId, fetchHints, authorizations);
+                if (row != null) {
+                    return createVertexFromVertexIteratorValue(row.getKey(), row.getValue(), authorizations);
+                }
+                long cacheGeneration = elementCache.getGeneration(vertexId);
+                row = getElementRow(ElementType.VERTEX, vertexId, fetchHints, authorizations);
+                if (row == null) {
+                    return null;
+                }
+                Vertex vertex = createVertexFromVertexIteratorValue(row.getKey(), row.getValue(), authorizations);
+                if (vertex != null) {
+                    elementCache.put(ElementType.VERTEX, vertexId, fetchHints, authorizations, row, cacheGeneration);
+                }
+                return vertex;
+            }
+
             Span trace = Trace.start("getVertex");
             trace.data("vertexId", vertexId);
             traceDataFetchHints(trace, fetchHints);
@@ -1231,6 +1382,20 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             Collection<org.apache.accumulo.core.data.Range> ranges,
             boolean useVertexiumElementIterators,
             Authorizations authorizations
+    ) throws VertexiumException {
+        return createElementScanner(fetchHints, elementType, maxVersions, startTime, endTime, ranges, null, useVertexiumElementIterators, authorizations);
+    }
+
+    private ScannerBase createElementScanner(
+            EnumSet<FetchHint> fetchHints,
+            ElementType elementType,
+            Integer maxVersions,
+            Long startTime,
+            Long endTime,
+            Collection<org.apache.accumulo.core.data.Range> ranges,
+            String[] propertyNames,
+            boolean useVertexiumElementIterators,
+            Authorizations authorizations
     ) throws VertexiumException {
         try {
             String tableName = getTableNameFromElementType(elementType);
@@ -1275,6 +1440,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                             VertexIterator.class
                     );
                     VertexIterator.setFetchHints(vertexIteratorSettings, toIteratorFetchHints(fetchHints));
+                    VertexIterator.setPropertyNames(vertexIteratorSettings, deflatePropertyNames(propertyNames));
                     scanner.addScanIterator(vertexIteratorSettings);
                 } else if (elementType == ElementType.EDGE) {
                     IteratorSetting edgeIteratorSettings = new IteratorSetting(
@@ -1283,6 +1449,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                             EdgeIterator.class
                     );
                     EdgeIterator.setFetchHints(edgeIteratorSettings, toIteratorFetchHints(fetchHints));
+                    EdgeIterator.setPropertyNames(edgeIteratorSettings, deflatePropertyNames(propertyNames));
                     scanner.addScanIterator(edgeIteratorSettings);
                 } else {
                     throw new VertexiumException("Unexpected element type: " + elementType);
@@ -1297,6 +1464,17 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         }
     }
 
+    private String[] deflatePropertyNames(String[] propertyNames) {
+        if (propertyNames == null) {
+            return null;
+        }
+        String[] results = new String[propertyNames.length];
+        for (int i = 0; i < propertyNames.length; i++) {
+            results[i] = getNameSubstitutionStrategy().deflate(propertyNames[i]);
+        }
+        return results;
+    }
+
     public static EnumSet<org.vertexium.accumulo.iterator.model.FetchHint> toIteratorFetchHints(EnumSet<FetchHint> fetchHints) {
         List<org.vertexium.accumulo.iterator.model.FetchHint> results = new ArrayList<>();
         for (FetchHint fetchHint : fetchHints) {
@@ -1316,6 +1494,18 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             Long endTime,
             Collection<org.apache.accumulo.core.data.Range> ranges,
             Authorizations authorizations
+    ) throws VertexiumException {
+        return createVertexScanner(fetchHints, maxVersions, startTime, endTime, ranges, null, authorizations);
+    }
+
+    protected ScannerBase createVertexScanner(
+            EnumSet<FetchHint> fetchHints,
+            Integer maxVersions,
+            Long startTime,
+            Long endTime,
+            Collection<org.apache.accumulo.core.data.Range> ranges,
+            String[] propertyNames,
+            Authorizations authorizations
     ) throws VertexiumException {
         return createElementScanner(
                 fetchHints,
@@ -1324,6 +1514,8 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 startTime,
                 endTime,
                 ranges,
+                propertyNames,
+                true,
                 authorizations
         );
     }
@@ -1335,6 +1527,18 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             Long endTime,
             Collection<org.apache.accumulo.core.data.Range> ranges,
             Authorizations authorizations
+    ) throws VertexiumException {
+        return createEdgeScanner(fetchHints, maxVersions, startTime, endTime, ranges, null, authorizations);
+    }
+
+    protected ScannerBase createEdgeScanner(
+            EnumSet<FetchHint> fetchHints,
+            Integer maxVersions,
+            Long startTime,
+            Long endTime,
+            Collection<org.apache.accumulo.core.data.Range> ranges,
+            String[] propertyNames,
+            Authorizations authorizations
     ) throws VertexiumException {
         return createElementScanner(
                 fetchHints,
@@ -1343,6 +1547,8 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 startTime,
                 endTime,
                 ranges,
+                propertyNames,
+                true,
                 authorizations
         );
     }
@@ -1460,9 +1666,26 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
 
     @Override
     public Edge getEdge(String edgeId, EnumSet<FetchHint> fetchHints, Long endTime, Authorizations authorizations) {
-        Span trace = Trace.start("getEdge");
-        trace.data("edgeId", edgeId);
         try {
+            if (edgeId != null && isElementCacheable(fetchHints, endTime)) {
+                Map.Entry<Key, Value> row = elementCache.get(ElementType.EDGE, edgeId, fetchHints, authorizations);
+                if (row != null) {
+                    return createEdgeFromEdgeIteratorValue(row.getKey(), row.getValue(), authorizations);
+                }
+                long cacheGeneration = elementCache.getGeneration(edgeId);
+                row = getElementRow(ElementType.EDGE, edgeId, fetchHints, authorizations);
+                if (row == null) {
+                    return null;
+                }
+                Edge edge = createEdgeFromEdgeIteratorValue(row.getKey(), row.getValue(), authorizations);
+                if (edge != null) {
+                    elementCache.put(ElementType.EDGE, edgeId, fetchHints, authorizations, row, cacheGeneration);
+                }
+                return edge;
+            }
+
+            Span trace = Trace.start("getEdge");
+            trace.data("edgeId", edgeId);
             return singleOrDefault(getEdgesInRange(trace, edgeId, edgeId, fetchHints, endTime, authorizations), null);
         } catch (IllegalStateException ex) {
             throw new VertexiumException("Failed to find edge with id: " + edgeId, ex);
@@ -1474,6 +1697,62 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         }
     }
 
+    /**
+     * Reads the element iterator row of a single element, which unlike the element decoded from it can be cached and
+     * shared.
+     *
+     * @return The row or null if the element does not exist or can not be seen with the authorizations.
+     */
+    private Map.Entry<Key, Value> getElementRow(ElementType elementType, String elementId, EnumSet<FetchHint> fetchHints, Authorizations authorizations) {
+        Span trace = Trace.start(elementType == ElementType.VERTEX ? "getVertex" : "getEdge");
+        trace.data(elementType == ElementType.VERTEX ? "vertexId" : "edgeId", elementId);
+        traceDataFetchHints(trace, fetchHints);
+        final long timerStartTime = System.currentTimeMillis();
+        org.apache.accumulo.core.data.Range range = new org.apache.accumulo.core.data.Range(elementId);
+        ScannerBase scanner = elementType == ElementType.VERTEX
+                ? createVertexScanner(fetchHints, SINGLE_VERSION, null, null, range, authorizations)
+                : createEdgeScanner(fetchHints, SINGLE_VERSION, null, null, range, authorizations);
+        try {
+            Iterator<Map.Entry<Key, Value>> it = scanner.iterator();
+            if (!it.hasNext()) {
+                return null;
+            }
+            Map.Entry<Key, Value> row = it.next();
+            if (it.hasNext()) {
+                throw new IllegalStateException("More than one row found for id " + elementId);
+            }
+            return new AbstractMap.SimpleImmutableEntry<>(new Key(row.getKey()), new Value(row.getValue().get()));
+        } finally {
+            scanner.close();
+            trace.stop();
+            GRAPH_LOGGER.logEndIterator(System.currentTimeMillis() - timerStartTime);
+        }
+    }
+
+    /**
+     * Elements read as of a time are not cached since they would need to be invalidated differently.
+     */
+    private boolean isElementCacheable(EnumSet<FetchHint> fetchHints, Long endTime) {
+        return elementCache != null && fetchHints != null && endTime == null;
+    }
+
+    /**
+     * The element cache or null if elements are not cached.
+     */
+    public AccumuloElementCache getElementCache() {
+        return elementCache;
+    }
+
+    /**
+     * Drops every element from the element caches of this and the other graph instances. Use after changing the
+     * tables without going through the graph, for example after a bulk load.
+     */
+    public void clearElementCache() {
+        if (elementCacheSync != null) {
+            elementCacheSync.invalidateAll();
+        }
+    }
+
     public byte[] streamingPropertyValueTableData(String dataRowKey) {
         try {
             final long timerStartTime = System.currentTimeMillis();
@@ -1499,6 +1778,92 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         throw new VertexiumException("Unexpected end of row: " + dataRowKey);
     }
 
+    /**
+     * Loads the data of the table backed streaming property values with one batch scan of the data table. Values
+     * larger than one chunk are left to stream and values stored in HDFS are not read.
+     */
+    @Override
+    public void prefetchStreamingPropertyValues(Iterable<Property> properties) {
+        Map<String, List<StreamingPropertyValue>> valuesByDataRowKey = new HashMap<>();
+        List<org.apache.accumulo.core.data.Range> ranges = new ArrayList<>();
+        for (Property property : properties) {
+            Object value = property.getValue();
+            String dataRowKey;
+            org.apache.accumulo.core.data.Range range;
+            if (value instanceof StreamingPropertyValueTable && !((StreamingPropertyValueTable) value).isDataLoaded()) {
+                dataRowKey = ((StreamingPropertyValueTable) value).getDataRowKey();
+                range = new org.apache.accumulo.core.data.Range(dataRowKey);
+            } else if (value instanceof StreamingPropertyValueTableChunked && ((StreamingPropertyValueTableChunked) value).isPrefetchable()) {
+                dataRowKey = ((StreamingPropertyValueTableChunked) value).getDataRowKey();
+                Key chunkKey = new Key(new Text(dataRowKey), StreamingPropertyValueTableChunked.CF_CHUNK, StreamingPropertyValueTableChunked.getChunkColumnQualifier(0));
+                range = new org.apache.accumulo.core.data.Range(chunkKey, true, chunkKey.followingKey(PartialKey.ROW_COLFAM_COLQUAL), false);
+            } else {
+                continue;
+            }
+            List<StreamingPropertyValue> values = valuesByDataRowKey.get(dataRowKey);
+            if (values == null) {
+                values = new ArrayList<>();
+                valuesByDataRowKey.put(dataRowKey, values);
+                ranges.add(range);
+            }
+            values.add((StreamingPropertyValue) value);
+        }
+        if (ranges.size() == 0) {
+            return;
+        }
+
+        final long timerStartTime = System.currentTimeMillis();
+        ScannerBase scanner = null;
+        Span trace = Trace.start("prefetchStreamingPropertyValues");
+        trace.data("count", Integer.toString(ranges.size()));
+        try {
+            scanner = createBatchScanner(getDataTableName(), ranges, new org.apache.accumulo.core.security.Authorizations());
+            GRAPH_LOGGER.logStartIterator(scanner);
+            for (Map.Entry<Key, Value> entry : scanner) {
+                List<StreamingPropertyValue> values = valuesByDataRowKey.get(entry.getKey().getRow().toString());
+                if (values == null) {
+                    continue;
+                }
+                byte[] data = entry.getValue().get();
+                for (StreamingPropertyValue value : values) {
+                    if (value instanceof StreamingPropertyValueTable) {
+                        ((StreamingPropertyValueTable) value).setData(data);
+                    } else {
+                        ((StreamingPropertyValueTableChunked) value).setData(data);
+                    }
+                }
+            }
+        } catch (Exception ex) {
+            throw new VertexiumException("Could not prefetch streaming property values", ex);
+        } finally {
+            if (scanner != null) {
+                scanner.close();
+            }
+            trace.stop();
+            GRAPH_LOGGER.logEndIterator(System.currentTimeMillis() - timerStartTime);
+        }
+    }
+
+    /**
+     * Scans the chunks of a streaming property value stored in the data table starting at a chunk.
+     */
+    Scanner createStreamingPropertyValueTableChunkScanner(String dataRowKey, int startChunkIndex) {
+        try {
+            Text row = new Text(dataRowKey);
+            Key startKey = new Key(row, StreamingPropertyValueTableChunked.CF_CHUNK, StreamingPropertyValueTableChunked.getChunkColumnQualifier(startChunkIndex));
+            Key endKey = new Key(row).followingKey(PartialKey.ROW);
+            org.apache.accumulo.core.data.Range range = new org.apache.accumulo.core.data.Range(startKey, true, endKey, false);
+            Scanner scanner = createScanner(getDataTableName(), range, new org.apache.accumulo.core.security.Authorizations());
+            scanner.fetchColumnFamily(StreamingPropertyValueTableChunked.CF_CHUNK);
+            // keep each batch to a few chunks, the default batch size would read most values in one batch
+            scanner.setBatchSize(STREAMING_PROPERTY_VALUE_CHUNKS_PER_BATCH);
+            GRAPH_LOGGER.logStartIterator(scanner);
+            return scanner;
+        } catch (Exception ex) {
+            throw new VertexiumException("Could not scan streaming property value chunks: " + dataRowKey, ex);
+        }
+    }
+
     public static ColumnVisibility visibilityToAccumuloVisibility(Visibility visibility) {
         return new ColumnVisibility(visibility.getVisibilityString());
     }
@@ -1544,6 +1909,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         return tableNamePrefix.concat("_m");
     }
 
+    public static String getCountsTableName(String tableNamePrefix) {
+        return tableNamePrefix.concat("_c");
+    }
+
     public String getVerticesTableName() {
         return verticesTableName;
     }
@@ -1560,6 +1929,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         return metadataTableName;
     }
 
+    public String getCountsTableName() {
+        return countsTableName;
+    }
+
     public FileSystem getFileSystem() {
         return fileSystem;
     }
@@ -1622,19 +1995,19 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                 String vertexOutRowKey = edge.getVertexId(Direction.OUT);
                 Mutation vertexOutMutation = new Mutation(vertexOutRowKey);
                 if (elementMutationBuilder.alterEdgeVertexOutVertex(vertexOutMutation, edge, newVisibility)) {
-                    addMutations(vertexWriter, vertexOutMutation);
+                    addElementMutations(vertexWriter, vertexOutMutation);
                 }
 
                 String vertexInRowKey = edge.getVertexId(Direction.IN);
                 Mutation vertexInMutation = new Mutation(vertexInRowKey);
                 if (elementMutationBuilder.alterEdgeVertexInVertex(vertexInMutation, edge, newVisibility)) {
-                    addMutations(vertexWriter, vertexInMutation);
+                    addElementMutations(vertexWriter, vertexInMutation);
                 }
             }
 
             Mutation m = new Mutation(elementRowKey);
             if (elementMutationBuilder.alterElementVisibility(m, element, newVisibility)) {
-                addMutations(elementWriter, m);
+                addElementMutations(elementWriter, m);
             }
             element.setVisibility(newVisibility);
             getSearchIndex().alterElementVisibility(
@@ -1700,7 +2073,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             propertyChanged = true;
         }
         if (propertyChanged) {
-            addMutations(writer, m);
+            addElementMutations(writer, m);
         }
     }
 
@@ -1726,7 +2099,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         for (Property property : propertiesToSave) {
             elementMutationBuilder.addPropertyMetadataToMutation(m, property);
         }
-        addMutations(writer, m);
+        addElementMutations(writer, m);
     }
 
     @Override
@@ -1741,6 +2114,10 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             this.connector.tableOperations().deleteRows(getEdgesTableName(), null, null);
             this.connector.tableOperations().deleteRows(getVerticesTableName(), null, null);
             this.connector.tableOperations().deleteRows(getMetadataTableName(), null, null);
+            if (elementCounts != null) {
+                this.connector.tableOperations().deleteRows(getCountsTableName(), null, null);
+            }
+            clearElementCache();
             getSearchIndex().truncate(this);
         } catch (Exception ex) {
             throw new VertexiumException("Could not delete rows", ex);
@@ -1754,6 +2131,8 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             dropTableIfExists(getEdgesTableName());
             dropTableIfExists(getVerticesTableName());
             dropTableIfExists(getMetadataTableName());
+            dropTableIfExists(getCountsTableName());
+            clearElementCache();
             getSearchIndex().drop(this);
         } catch (Exception ex) {
             throw new VertexiumException("Could not drop tables", ex);
@@ -1930,6 +2309,47 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         return foundPaths;
     }
 
+    @Override
+    protected BidirectionalPathFinder createPathFinder(FindPathOptions options, Authorizations authorizations) {
+        return new BidirectionalPathFinder(this, options, authorizations) {
+            @Override
+            protected Map<String, Set<String>> getConnectedVertexIds(Set<String> vertexIds) {
+                // ConnectedVertexIdsIterator reads the raw rows, so check separately that the vertices can be read
+                Set<String> readableVertexIds = getReadableVertexIds(vertexIds);
+                Map<String, Set<String>> connectedVertexIds = getConnectedVertexIdsInParallel(readableVertexIds, getLabels(), getAuthorizations());
+                Map<String, Set<String>> results = new HashMap<>();
+                for (String vertexId : readableVertexIds) {
+                    Set<String> vertexConnectedVertexIds = connectedVertexIds.get(vertexId);
+                    results.put(vertexId, vertexConnectedVertexIds == null ? new HashSet<String>() : vertexConnectedVertexIds);
+                }
+                return results;
+            }
+        };
+    }
+
+    @Override
+    protected NeighborhoodFinder createNeighborhoodFinder(int maxHops, String[] labels, Direction direction, Integer maxVertices, Authorizations authorizations) {
+        return new NeighborhoodFinder(this, maxHops, labels, direction, maxVertices, authorizations) {
+            @Override
+            protected Map<String, Set<String>> getConnectedVertexIds(Set<String> vertexIds) {
+                // ConnectedVertexIdsIterator reads the raw rows, so check separately that the vertices can be read
+                Set<String> readableVertexIds = getReadableVertexIds(vertexIds);
+                Map<String, Set<String>> connectedVertexIds = AccumuloGraph.this.getConnectedVertexIds(
+                        readableVertexIds,
+                        getDirection(),
+                        getLabels(),
+                        getAuthorizations()
+                );
+                Map<String, Set<String>> results = new HashMap<>();
+                for (String vertexId : readableVertexIds) {
+                    Set<String> vertexConnectedVertexIds = connectedVertexIds.get(vertexId);
+                    results.put(vertexId, vertexConnectedVertexIds == null ? new HashSet<String>() : vertexConnectedVertexIds);
+                }
+                return results;
+            }
+        };
+    }
+
     protected void findPathsSetIntersection(List<Path> foundPaths, String sourceVertexId, String destVertexId, String[] labels, ProgressCallback progressCallback, Authorizations authorizations) {
         Set<String> vertexIds = new HashSet<>();
         vertexIds.add(sourceVertexId);
@@ -1959,23 +2379,36 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
 
     private void findPathsBreadthFirst(List<Path> foundPaths, String sourceVertexId, String destVertexId, String[] labels, int hops, ProgressCallback progressCallback, Authorizations authorizations) {
         Map<String, Set<String>> connectedVertexIds = getConnectedVertexIds(sourceVertexId, destVertexId, labels, authorizations);
+        Set<String> searchedVertexIds = new HashSet<>(connectedVertexIds.keySet());
+        searchedVertexIds.add(sourceVertexId);
+        searchedVertexIds.add(destVertexId);
+        Collection<Set<String>> lastConnectedVertexIds = connectedVertexIds.values();
         // start at 2 since we already got the source and dest vertex connected vertex ids
         for (int i = 2; i < hops; i++) {
             progressCallback.progress((double) i / (double) hops, ProgressCallback.Step.FINDING_PATH);
             Set<String> vertexIdsToSearch = new HashSet<>();
-            for (Map.Entry<String, Set<String>> entry : connectedVertexIds.entrySet()) {
-                vertexIdsToSearch.addAll(entry.getValue());
+            for (Set<String> vertexIds : lastConnectedVertexIds) {
+                for (String vertexId : vertexIds) {
+                    if (searchedVertexIds.add(vertexId)) {
+                        vertexIdsToSearch.add(vertexId);
+                    }
+                }
+            }
+            if (vertexIdsToSearch.size() == 0) {
+                break;
             }
-            vertexIdsToSearch.removeAll(connectedVertexIds.keySet());
-            Map<String, Set<String>> r = getConnectedVertexIds(vertexIdsToSearch, labels, authorizations);
+            Map<String, Set<String>> r = getConnectedVertexIdsInParallel(vertexIdsToSearch, labels, authorizations);
             connectedVertexIds.putAll(r);
+            lastConnectedVertexIds = r.values();
         }
         progressCallback.progress(0.9, ProgressCallback.Step.ADDING_PATHS);
-        Set<String> seenVertices = new HashSet<>();
-        Path currentPath = new Path(sourceVertexId);
-        findPathsRecursive(connectedVertexIds, foundPaths, sourceVertexId, destVertexId, labels, hops, seenVertices, currentPath, progressCallback);
+        findPathsInConnectedVertexIds(connectedVertexIds, foundPaths, sourceVertexId, destVertexId, hops);
     }
 
+    /**
+     * @deprecated replaced by the walk in {@link #findPaths(String, String, String[], int, ProgressCallback, Authorizations)}
+     */
+    @Deprecated
     protected void findPathsRecursive(
             Map<String, Set<String>> connectedVertexIds,
             List<Path> foundPaths,
@@ -1987,20 +2420,86 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             Path currentPath,
             @SuppressWarnings("UnusedParameters") ProgressCallback progressCallback
     ) {
-        seenVertices.add(sourceVertexId);
-        if (sourceVertexId.equals(destVertexId)) {
-            foundPaths.add(currentPath);
-        } else if (hops > 0) {
-            Set<String> vertexIds = connectedVertexIds.get(sourceVertexId);
+        List<Path> paths = new ArrayList<>();
+        findPathsInConnectedVertexIds(connectedVertexIds, paths, sourceVertexId, destVertexId, hops);
+        for (Path path : paths) {
+            Path resultPath = currentPath;
+            for (int i = 1; i < path.length() && resultPath != null; i++) {
+                resultPath = seenVertices.contains(path.get(i)) ? null : new Path(resultPath, path.get(i));
+            }
+            if (resultPath != null) {
+                foundPaths.add(resultPath);
+            }
+        }
+    }
+
+    /**
+     * Depth first walk of the loaded connected vertex ids. Vertex ids are mapped to ints so the current path is
+     * kept in an int array and a bit set instead of copying a Path for every edge.
+     */
+    private void findPathsInConnectedVertexIds(Map<String, Set<String>> connectedVertexIds, List<Path> foundPaths, String sourceVertexId, String destVertexId, int hops) {
+        VertexIdDictionary dictionary = new VertexIdDictionary();
+        int source = dictionary.getOrAdd(sourceVertexId);
+        int dest = dictionary.getOrAdd(destVertexId);
+        if (source == dest) {
+            foundPaths.add(new Path(sourceVertexId));
+            return;
+        }
+
+        List<int[]> adjacency = new ArrayList<>();
+        int[] currentPath = new int[hops + 1];
+        int[] nextConnectedIndex = new int[hops + 1];
+        BitSet currentPathVertices = new BitSet();
+        currentPath[0] = source;
+        currentPathVertices.set(source);
+        int depth = 0;
+        while (depth >= 0) {
+            int[] connectedVertices = getConnectedVertices(connectedVertexIds, dictionary, adjacency, currentPath[depth]);
+            if (nextConnectedIndex[depth] >= connectedVertices.length) {
+                currentPathVertices.clear(currentPath[depth]);
+                depth--;
+                continue;
+            }
+            int vertex = connectedVertices[nextConnectedIndex[depth]++];
+            if (currentPathVertices.get(vertex)) {
+                continue;
+            }
+            if (vertex == dest) {
+                String[] vertexIds = new String[depth + 2];
+                for (int i = 0; i <= depth; i++) {
+                    vertexIds[i] = dictionary.get(currentPath[i]);
+                }
+                vertexIds[depth + 1] = destVertexId;
+                foundPaths.add(new Path(vertexIds));
+                continue;
+            }
+            if (depth + 1 >= hops) {
+                continue;
+            }
+            depth++;
+            currentPath[depth] = vertex;
+            nextConnectedIndex[depth] = 0;
+            currentPathVertices.set(vertex);
+        }
+    }
+
+    private static int[] getConnectedVertices(Map<String, Set<String>> connectedVertexIds, VertexIdDictionary dictionary, List<int[]> adjacency, int vertex) {
+        while (adjacency.size() <= vertex) {
+            adjacency.add(null);
+        }
+        int[] connectedVertices = adjacency.get(vertex);
+        if (connectedVertices == null) {
+            Set<String> vertexIds = connectedVertexIds.get(dictionary.get(vertex));
+            connectedVertices = new int[vertexIds == null ? 0 : vertexIds.size()];
+            int i = 0;
             if (vertexIds != null) {
-                for (String childId : vertexIds) {
-                    if (!seenVertices.contains(childId)) {
-                        findPathsRecursive(connectedVertexIds, foundPaths, childId, destVertexId, labels, hops - 1, seenVertices, new Path(currentPath, childId), progressCallback);
-                    }
+                for (String vertexId : vertexIds) {
+                    connectedVertices[i++] = dictionary.getOrAdd(vertexId);
                 }
             }
+            adjacency.set(vertex, connectedVertices);
         }
-        seenVertices.remove(sourceVertexId);
+        return connectedVertices;
     }
 
     private Set<String> getConnectedVertexIds(String vertexId, String[] labels, Authorizations authorizations) {
@@ -2021,7 +2520,90 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         return getConnectedVertexIds(vertexIds, labels, authorizations);
     }
 
+    /**
+     * Splits large frontiers into partitions which are scanned and decoded on the query thread pool.
+     */
+    private Map<String, Set<String>> getConnectedVertexIdsInParallel(Set<String> vertexIds, final String[] labels, final Authorizations authorizations) {
+        int partitionCount = Math.min(numberOfQueryThreads, vertexIds.size() / MIN_CONNECTED_VERTEX_IDS_PARTITION_SIZE);
+        if (partitionCount <= 1) {
+            return getConnectedVertexIds(vertexIds, labels, authorizations);
+        }
+
+        int partitionSize = (vertexIds.size() + partitionCount - 1) / partitionCount;
+        List<Future<Map<String, Set<String>>>> futures = new ArrayList<>();
+        Set<String> partition = new HashSet<>();
+        for (String vertexId : vertexIds) {
+            partition.add(vertexId);
+            if (partition.size() >= partitionSize) {
+                futures.add(submitGetConnectedVertexIds(partition, labels, authorizations));
+                partition = new HashSet<>();
+            }
+        }
+        if (partition.size() > 0) {
+            futures.add(submitGetConnectedVertexIds(partition, labels, authorizations));
+        }
+
+        Map<String, Set<String>> results = new HashMap<>(vertexIds.size());
+        try {
+            for (Future<Map<String, Set<String>>> future : futures) {
+                results.putAll(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new VertexiumException("Interrupted while getting connected vertex ids", ex);
+        } catch (ExecutionException ex) {
+            throw new VertexiumException("Could not get connected vertex ids", ex.getCause());
+        } finally {
+            for (Future<Map<String, Set<String>>> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return results;
+    }
+
+    private Future<Map<String, Set<String>>> submitGetConnectedVertexIds(final Set<String> vertexIds, final String[] labels, final Authorizations authorizations) {
+        return getQueryExecutorService().submit(new Callable<Map<String, Set<String>>>() {
+            @Override
+            public Map<String, Set<String>> call() throws Exception {
+                return getConnectedVertexIds(vertexIds, labels, authorizations);
+            }
+        });
+    }
+
+    private ExecutorService getQueryExecutorService() {
+        synchronized (queryExecutorServiceLock) {
+            if (queryExecutorService == null) {
+                queryExecutorService = Executors.newFixedThreadPool(numberOfQueryThreads, new ThreadFactory() {
+                    private final AtomicInteger threadCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread = new Thread(r, "vertexium-accumulo-query-" + threadCount.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            }
+            return queryExecutorService;
+        }
+    }
+
     private Map<String, Set<String>> getConnectedVertexIds(Set<String> vertexIds, String[] labels, Authorizations authorizations) {
+        return getConnectedVertexIds(vertexIds, Direction.BOTH, labels, authorizations);
+    }
+
+    /**
+     * Gets the vertices connected to each of the given vertices using a server side iterator.
+     *
+     * @param direction Only follow edges in this direction.
+     * @param labels    Only follow edges with one of these labels or all edges if null.
+     */
+    public Map<String, Set<String>> getConnectedVertexIds(
+            Set<String> vertexIds,
+            Direction direction,
+            String[] labels,
+            Authorizations authorizations
+    ) {
         Span trace = Trace.start("getConnectedVertexIds");
         try {
             if (LOGGER.isTraceEnabled()) {
@@ -2057,6 +2639,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
                     ConnectedVertexIdsIterator.class
             );
             ConnectedVertexIdsIterator.setLabels(connectedVertexIdsIteratorSettings, labels);
+            ConnectedVertexIdsIterator.setDirection(connectedVertexIdsIteratorSettings, org.vertexium.accumulo.iterator.model.Direction.valueOf(direction.name()));
             scanner.addScanIterator(connectedVertexIdsIteratorSettings);
 
             final long timerStartTime = System.currentTimeMillis();
@@ -2265,7 +2848,18 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     }
 
     @Override
-    public CloseableIterable<Vertex> getVertices(Iterable<String> ids, final EnumSet<FetchHint> fetchHints, final Long endTime, final Authorizations authorizations) {
+    public CloseableIterable<Vertex> getVertices(Iterable<String> ids, EnumSet<FetchHint> fetchHints, Long endTime, Authorizations authorizations) {
+        return getVertices(ids, fetchHints, null, endTime, authorizations);
+    }
+
+    @Override
+    public CloseableIterable<Vertex> getVertices(
+            Iterable<String> ids,
+            final EnumSet<FetchHint> fetchHints,
+            final String[] propertyNames,
+            final Long endTime,
+            final Authorizations authorizations
+    ) {
         final List<org.apache.accumulo.core.data.Range> ranges = new ArrayList<>();
         int idCount = 0;
         for (String id : ids) {
@@ -2297,7 +2891,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             @Override
             protected Iterator<Map.Entry<Key, Value>> createIterator() {
                 Long startTime = null;
-                scanner = createVertexScanner(fetchHints, 1, startTime, endTime, ranges, authorizations);
+                scanner = createVertexScanner(fetchHints, 1, startTime, endTime, ranges, propertyNames, authorizations);
                 return scanner.iterator();
             }
 
@@ -2312,7 +2906,18 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
     }
 
     @Override
-    public CloseableIterable<Edge> getEdges(Iterable<String> ids, final EnumSet<FetchHint> fetchHints, final Long endTime, final Authorizations authorizations) {
+    public CloseableIterable<Edge> getEdges(Iterable<String> ids, EnumSet<FetchHint> fetchHints, Long endTime, Authorizations authorizations) {
+        return getEdges(ids, fetchHints, null, endTime, authorizations);
+    }
+
+    @Override
+    public CloseableIterable<Edge> getEdges(
+            Iterable<String> ids,
+            final EnumSet<FetchHint> fetchHints,
+            final String[] propertyNames,
+            final Long endTime,
+            final Authorizations authorizations
+    ) {
         final List<org.apache.accumulo.core.data.Range> ranges = new ArrayList<>();
         int idCount = 0;
         for (String id : ids) {
@@ -2344,7 +2949,7 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
             @Override
             protected Iterator<Map.Entry<Key, Value>> createIterator() {
                 Long startTime = null;
-                scanner = createEdgeScanner(fetchHints, 1, startTime, endTime, ranges, authorizations);
+                scanner = createEdgeScanner(fetchHints, 1, startTime, endTime, ranges, propertyNames, authorizations);
                 return scanner.iterator();
             }
 
@@ -2466,6 +3071,146 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         return getRowCountFromTable(tableName, AccumuloEdge.CF_SIGNAL, authorizations);
     }
 
+    /**
+     * The vertex count maintained in the counts table. This is approximate and only includes changes that have been
+     * flushed, see {@link AccumuloElementCounts}. Use {@link #getVertexCount(Authorizations)} for an exact count.
+     */
+    public long getApproximateVertexCount() {
+        return getApproximateElementCount(ElementType.VERTEX);
+    }
+
+    /**
+     * The edge count maintained in the counts table. This is approximate and only includes changes that have been
+     * flushed, see {@link AccumuloElementCounts}. Use {@link #getEdgeCount(Authorizations)} for an exact count.
+     */
+    public long getApproximateEdgeCount() {
+        return getApproximateElementCount(ElementType.EDGE);
+    }
+
+    private long getApproximateElementCount(ElementType elementType) {
+        if (elementCounts == null) {
+            throw new VertexiumException("Element counts are not maintained, set " + AccumuloGraphConfiguration.MAINTAIN_ELEMENT_COUNTS + " to true");
+        }
+        Long count = AccumuloElementCounts.read(connector, getCountsTableName()).get(elementType);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Resets the maintained counts to the number of elements that are not soft deleted, counted by scanning the
+     * element tables. Changes made while this runs may be counted twice or not at all.
+     *
+     * @param authorizations Authorizations that can see every element in the graph.
+     */
+    public void recalculateElementCounts(Authorizations authorizations) {
+        if (elementCounts == null) {
+            throw new VertexiumException("Element counts are not maintained, set " + AccumuloGraphConfiguration.MAINTAIN_ELEMENT_COUNTS + " to true");
+        }
+        flush();
+        Map<ElementType, Long> currentCounts = AccumuloElementCounts.read(connector, getCountsTableName());
+        for (ElementType elementType : ElementType.values()) {
+            String tableName = getTableNameFromElementType(elementType);
+            Text signalColumn = elementType == ElementType.VERTEX ? AccumuloVertex.CF_SIGNAL : AccumuloEdge.CF_SIGNAL;
+            long count = getRowCountFromTable(tableName, signalColumn, authorizations)
+                    - getRowCountFromTable(tableName, AccumuloElement.CF_SOFT_DELETE, authorizations);
+            Long currentCount = currentCounts.get(elementType);
+            long delta = count - (currentCount == null ? 0 : currentCount);
+            LOGGER.info("recalculated %s count: %d (delta: %d)", elementType, count, delta);
+            if (delta != 0) {
+                addMutations(getElementWriter(getCountsTableName()), AccumuloElementCounts.createDeltaMutation(elementType, delta));
+            }
+        }
+        flush();
+    }
+
+    /**
+     * The maintained counts or null if element counts are not maintained. Saves through builders are only counted when
+     * the graph is flushed, see {@link AccumuloElementCounts} for the cases where the counts drift.
+     */
+    public AccumuloElementCounts getElementCounts() {
+        return elementCounts;
+    }
+
+    /**
+     * Counts the elements saved through builders since the last flush that did not exist before their first save. The
+     * existence checks for all of them are made with one batch scan using every authorization of the Accumulo user so
+     * elements are found whatever their visibility. Only signal and soft delete columns older than the first save are
+     * looked at, which makes the check independent of whether the saves have been written yet.
+     */
+    private void countSavedElements() {
+        org.apache.accumulo.core.security.Authorizations authorizations = null;
+        for (ElementType elementType : ElementType.values()) {
+            Map<String, Long> savedElements = elementCounts.takeSavedElements(elementType);
+            if (savedElements.size() == 0) {
+                continue;
+            }
+            ScannerBase scanner = null;
+            try {
+                if (authorizations == null) {
+                    authorizations = connector.securityOperations().getUserAuthorizations(connector.whoami());
+                }
+                List<org.apache.accumulo.core.data.Range> ranges = new ArrayList<>();
+                for (String elementId : savedElements.keySet()) {
+                    ranges.add(new org.apache.accumulo.core.data.Range(elementId));
+                }
+                scanner = createBatchScanner(getTableNameFromElementType(elementType), ranges, authorizations);
+                scanner.fetchColumnFamily(elementType == ElementType.VERTEX ? AccumuloVertex.CF_SIGNAL : AccumuloEdge.CF_SIGNAL);
+                scanner.fetchColumnFamily(AccumuloElement.CF_SOFT_DELETE);
+                Map<String, Long> timestamps = new HashMap<>();
+                Map<String, Long> softDeleteTimestamps = new HashMap<>();
+                for (Map.Entry<Key, Value> entry : scanner) {
+                    String elementId = entry.getKey().getRow().toString();
+                    long timestamp = entry.getKey().getTimestamp();
+                    if (timestamp >= savedElements.get(elementId)) {
+                        continue;
+                    }
+                    Map<String, Long> latest = entry.getKey().getColumnFamily().equals(AccumuloElement.CF_SOFT_DELETE) ? softDeleteTimestamps : timestamps;
+                    Long current = latest.get(elementId);
+                    if (current == null || timestamp > current) {
+                        latest.put(elementId, timestamp);
+                    }
+                }
+                long newElements = 0;
+                for (String elementId : savedElements.keySet()) {
+                    Long timestamp = timestamps.get(elementId);
+                    Long softDeleteTimestamp = softDeleteTimestamps.get(elementId);
+                    // same rule as the element iterators, a soft deleted element is added again by saving it
+                    if (timestamp == null || (softDeleteTimestamp != null && softDeleteTimestamp >= timestamp)) {
+                        newElements++;
+                    }
+                }
+                elementCounts.increment(elementType, newElements);
+            } catch (Exception ex) {
+                throw new VertexiumException("Could not check which saved elements are new", ex);
+            } finally {
+                if (scanner != null) {
+                    scanner.close();
+                }
+            }
+        }
+    }
+
+    private void incrementElementCount(ElementType elementType, long delta) {
+        if (elementCounts != null) {
+            elementCounts.increment(elementType, delta);
+        }
+    }
+
+    private void writeElementCountDeltas() {
+        if (elementCounts == null) {
+            return;
+        }
+        countSavedElements();
+        Mutation m = elementCounts.takePendingMutation();
+        if (m == null) {
+            return;
+        }
+        try {
+            getElementWriter(getCountsTableName()).addMutation(m);
+        } catch (MutationsRejectedException ex) {
+            throw new VertexiumException("Could not write element counts", ex);
+        }
+    }
+
     private long getRowCountFromTable(String tableName, Text signalColumn, Authorizations authorizations) {
         try {
             LOGGER.debug("BEGIN getRowCountFromTable(%s)", tableName);
@@ -2655,6 +3400,151 @@ public class AccumuloGraph extends GraphBaseWithSearchIndex implements Traceable
         }
     }
 
+    /**
+     * Tells other graph instances which elements changed so they drop them from their element caches. Each flush
+     * creates an ephemeral node holding the changed ids, or no data to drop everything, and the nodes are deleted once
+     * the other instances have had time to see them.
+     */
+    private class AccumuloElementCacheSync {
+        private static final int MAX_IDS_PER_SIGNAL = 10000;
+        private static final long SIGNAL_NODE_TTL_MILLIS = 60 * 1000;
+        private final CuratorFramework curatorFramework;
+        private final String zkPath;
+        private final TreeCache treeCache;
+        private final ThreadLocal<Set<String>> threadPendingIds = new ThreadLocal<>();
+        private final Set<String> sharedPendingIds = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        private final Queue<SignalNode> signalNodes = new ConcurrentLinkedQueue<>();
+
+        public AccumuloElementCacheSync(CuratorFramework curatorFramework, String zkPath) {
+            this.curatorFramework = curatorFramework;
+            this.zkPath = zkPath;
+            this.treeCache = new TreeCache(curatorFramework, zkPath);
+            this.treeCache.getListenable().addListener(new TreeCacheListener() {
+                @Override
+                public void childEvent(CuratorFramework client, TreeCacheEvent event) throws Exception {
+                    switch (event.getType()) {
+                        case NODE_ADDED:
+                            if (event.getData() != null && !event.getData().getPath().equals(AccumuloElementCacheSync.this.zkPath)) {
+                                invalidate(event.getData().getData());
+                            }
+                            break;
+                        case CONNECTION_SUSPENDED:
+                        case CONNECTION_LOST:
+                        case CONNECTION_RECONNECTED:
+                            // signals may have been missed
+                            elementCache.invalidateAll();
+                            break;
+                    }
+                }
+            });
+            try {
+                this.treeCache.start();
+            } catch (Exception e) {
+                throw new VertexiumException("Could not start element cache sync", e);
+            }
+        }
+
+        private void invalidate(byte[] data) {
+            if (data == null || data.length == 0) {
+                elementCache.invalidateAll();
+                return;
+            }
+            for (String id : new String(data, StandardCharsets.UTF_8).split("\n")) {
+                elementCache.invalidate(id);
+            }
+        }
+
+        /**
+         * The ids changed through the writer of the current thread, or through the shared writer if there is one, and
+         * not yet flushed.
+         */
+        private Set<String> getPendingIds() {
+            if (sharedBatchWriter != null) {
+                return sharedPendingIds;
+            }
+            Set<String> ids = threadPendingIds.get();
+            if (ids == null) {
+                ids = new HashSet<>();
+                threadPendingIds.set(ids);
+            }
+            return ids;
+        }
+
+        public void elementChanged(String id) {
+            elementCache.invalidate(id);
+            getPendingIds().add(id);
+        }
+
+        /**
+         * Called before the writer of the current thread is flushed. Ids changed after this are left for the next flush.
+         */
+        public List<String> takePendingIds() {
+            List<String> ids = new ArrayList<>();
+            Iterator<String> it = getPendingIds().iterator();
+            while (it.hasNext()) {
+                ids.add(it.next());
+                it.remove();
+            }
+            return ids;
+        }
+
+        /**
+         * Called after the writer the ids were taken from is flushed. The ids are invalidated again since the elements
+         * may have been read back before the changes were written.
+         */
+        public void flushed(List<String> ids) {
+            if (ids.size() == 0) {
+                return;
+            }
+            for (String id : ids) {
+                elementCache.invalidate(id);
+            }
+            signal(ids.size() > MAX_IDS_PER_SIGNAL ? new byte[0] : Joiner.on('\n').join(ids).getBytes(StandardCharsets.UTF_8));
+        }
+
+        public void invalidateAll() {
+            elementCache.invalidateAll();
+            signal(new byte[0]);
+        }
+
+        private void signal(byte[] data) {
+            try {
+                deleteExpiredSignalNodes();
+                String path = this.curatorFramework.create()
+                        .creatingParentsIfNeeded()
+                        .withMode(CreateMode.EPHEMERAL_SEQUENTIAL)
+                        .forPath(zkPath + "/change", data);
+                signalNodes.add(new SignalNode(path, System.currentTimeMillis()));
+            } catch (Exception e) {
+                LOGGER.error("Could not notify other nodes of element changes via ZooKeeper", e);
+            }
+        }
+
+        private void deleteExpiredSignalNodes() throws Exception {
+            long now = System.currentTimeMillis();
+            SignalNode signalNode;
+            while ((signalNode = signalNodes.peek()) != null && now - signalNode.createdTime > SIGNAL_NODE_TTL_MILLIS) {
+                if (signalNodes.remove(signalNode)) {
+                    this.curatorFramework.delete().guaranteed().forPath(signalNode.path);
+                }
+            }
+        }
+
+        public void close() {
+            this.treeCache.close();
+        }
+    }
+
+    private static class SignalNode {
+        private final String path;
+        private final long createdTime;
+
+        private SignalNode(String path, long createdTime) {
+            this.path = path;
+            this.createdTime = createdTime;
+        }
+    }
+
     private class VertexiumMultiTableBatchWriter {
         private final MultiTableBatchWriter multiTableBatchWriter;
 
@@ -25,6 +25,7 @@ public class AccumuloGraphConfiguration extends GraphConfiguration {
     private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(AccumuloGraphConfiguration.class);
 
     public static final String HDFS_CONFIG_PREFIX = "hdfs";
+    public static final String ELEMENT_CACHE_CONFIG_PREFIX = "elementCache";
     public static final String BATCHWRITER_CONFIG_PREFIX = "batchwriter";
 
     public static final String ACCUMULO_INSTANCE_NAME = "accumuloInstanceName";
@@ -35,15 +36,27 @@ public class AccumuloGraphConfiguration extends GraphConfiguration {
     public static final String ACCUMULO_MAX_VERSIONS = "maxVersions";
     public static final String NAME_SUBSTITUTION_STRATEGY_PROP_PREFIX = "nameSubstitutionStrategy";
     public static final String MAX_STREAMING_PROPERTY_VALUE_TABLE_DATA_SIZE = "maxStreamingPropertyValueTableDataSize";
+    public static final String STREAMING_PROPERTY_VALUE_TABLE_CHUNK_SIZE = "streamingPropertyValueTableChunkSize";
     public static final String HDFS_USER = HDFS_CONFIG_PREFIX + ".user";
     public static final String HDFS_ROOT_DIR = HDFS_CONFIG_PREFIX + ".rootDir";
     public static final String DATA_DIR = HDFS_CONFIG_PREFIX + ".dataDir";
+    public static final String HDFS_SEGMENT_SIZE = HDFS_CONFIG_PREFIX + ".segmentSize";
+    public static final String HDFS_MAX_OPEN_SEGMENTS = HDFS_CONFIG_PREFIX + ".maxOpenSegments";
+    public static final String HDFS_SEGMENT_IDLE_SEAL_MILLIS = HDFS_CONFIG_PREFIX + ".segmentIdleSealMillis";
     public static final String BATCHWRITER_MAX_MEMORY = BATCHWRITER_CONFIG_PREFIX + ".maxMemory";
     public static final String BATCHWRITER_MAX_LATENCY = BATCHWRITER_CONFIG_PREFIX + ".maxLatency";
     public static final String BATCHWRITER_TIMEOUT = BATCHWRITER_CONFIG_PREFIX + ".timeout";
     public static final String BATCHWRITER_MAX_WRITE_THREADS = BATCHWRITER_CONFIG_PREFIX + ".maxWriteThreads";
+    public static final String BATCHWRITER_SHARED = BATCHWRITER_CONFIG_PREFIX + ".shared";
     public static final String NUMBER_OF_QUERY_THREADS = "numberOfQueryThreads";
     public static final String HDFS_CONTEXT_CLASSPATH = "hdfsContextClasspath";
+    public static final String TABLE_LOCALITY_GROUPS = "tableLocalityGroups";
+    public static final String TABLE_BLOOM_FILTERS = "tableBloomFilters";
+    public static final String TABLE_INITIAL_SPLITS = "tableInitialSplits";
+    public static final String MAINTAIN_ELEMENT_COUNTS = "maintainElementCounts";
+    public static final String ELEMENT_CACHE_SIZE = ELEMENT_CACHE_CONFIG_PREFIX + ".size";
+    public static final String ELEMENT_CACHE_EXPIRE_MILLIS = ELEMENT_CACHE_CONFIG_PREFIX + ".expireMillis";
+    public static final String ZOOKEEPER_ELEMENT_CACHE_SYNC_PATH = "zookeeperElementCacheSyncPath";
 
     public static final String DEFAULT_ACCUMULO_PASSWORD = "password";
     public static final String DEFAULT_ACCUMULO_USERNAME = "root";
@@ -51,18 +64,30 @@ public class AccumuloGraphConfiguration extends GraphConfiguration {
     public static final String DEFAULT_ZOOKEEPER_SERVERS = "localhost";
     public static final String DEFAULT_ZOOKEEPER_METADATA_SYNC_PATH = "/vertexium/metadata";
     public static final int DEFAULT_MAX_STREAMING_PROPERTY_VALUE_TABLE_DATA_SIZE = 10 * 1024 * 1024;
+    public static final int DEFAULT_STREAMING_PROPERTY_VALUE_TABLE_CHUNK_SIZE = 64 * 1024;
     public static final String DEFAULT_HDFS_USER = "hadoop";
     public static final String DEFAULT_HDFS_ROOT_DIR = "";
     public static final String HADOOP_CONF_DIR = HDFS_CONFIG_PREFIX + ".confDir";
     public static final String DEFAULT_DATA_DIR = "/accumuloGraph";
+    public static final long DEFAULT_HDFS_SEGMENT_SIZE = 0;
+    public static final int DEFAULT_HDFS_MAX_OPEN_SEGMENTS = 4;
+    public static final long DEFAULT_HDFS_SEGMENT_IDLE_SEAL_MILLIS = 10 * 60 * 1000L;
     private static final String DEFAULT_NAME_SUBSTITUTION_STRATEGY = IdentityNameSubstitutionStrategy.class.getName();
     public static final Long DEFAULT_BATCHWRITER_MAX_MEMORY = 50 * 1024 * 1024l;
     public static final Long DEFAULT_BATCHWRITER_MAX_LATENCY = 2 * 60 * 1000l;
     public static final Long DEFAULT_BATCHWRITER_TIMEOUT = Long.MAX_VALUE;
     public static final Integer DEFAULT_BATCHWRITER_MAX_WRITE_THREADS = 3;
+    public static final boolean DEFAULT_BATCHWRITER_SHARED = false;
     public static final Integer DEFAULT_ACCUMULO_MAX_VERSIONS = null;
     public static final int DEFAULT_NUMBER_OF_QUERY_THREADS = 10;
     public static final String DEFAULT_HDFS_CONTEXT_CLASSPATH = null;
+    public static final boolean DEFAULT_TABLE_LOCALITY_GROUPS = false;
+    public static final boolean DEFAULT_TABLE_BLOOM_FILTERS = false;
+    public static final int DEFAULT_TABLE_INITIAL_SPLITS = 0;
+    public static final boolean DEFAULT_MAINTAIN_ELEMENT_COUNTS = false;
+    public static final long DEFAULT_ELEMENT_CACHE_SIZE = 0;
+    public static final long DEFAULT_ELEMENT_CACHE_EXPIRE_MILLIS = 5 * 60 * 1000l;
+    public static final String DEFAULT_ZOOKEEPER_ELEMENT_CACHE_SYNC_PATH = "/vertexium/elementCache";
 
     public static final String[] HADOOP_CONF_FILENAMES = new String[]{
             "core-site.xml",
@@ -183,10 +208,38 @@ public class AccumuloGraphConfiguration extends GraphConfiguration {
         return getConfigLong(MAX_STREAMING_PROPERTY_VALUE_TABLE_DATA_SIZE, DEFAULT_MAX_STREAMING_PROPERTY_VALUE_TABLE_DATA_SIZE);
     }
 
+    /**
+     * The size of the chunks streaming property values stored in the data table are split into so they can be read a
+     * chunk at a time. 0 stores each value in a single cell.
+     */
+    public int getStreamingPropertyValueTableChunkSize() {
+        return getInt(STREAMING_PROPERTY_VALUE_TABLE_CHUNK_SIZE, DEFAULT_STREAMING_PROPERTY_VALUE_TABLE_CHUNK_SIZE);
+    }
+
     public String getDataDir() {
         return getString(DATA_DIR, DEFAULT_DATA_DIR);
     }
 
+    /**
+     * The size at which HDFS segment files holding large streaming property values are sealed. 0 writes a file for
+     * each value instead.
+     */
+    public long getHdfsSegmentSize() {
+        return getConfigLong(HDFS_SEGMENT_SIZE, DEFAULT_HDFS_SEGMENT_SIZE);
+    }
+
+    public int getHdfsMaxOpenSegments() {
+        return getInt(HDFS_MAX_OPEN_SEGMENTS, DEFAULT_HDFS_MAX_OPEN_SEGMENTS);
+    }
+
+    /**
+     * How long an HDFS segment file can go without a value written to it before it is sealed. Only sealed segments
+     * are compacted.
+     */
+    public long getHdfsSegmentIdleSealMillis() {
+        return getConfigLong(HDFS_SEGMENT_IDLE_SEAL_MILLIS, DEFAULT_HDFS_SEGMENT_IDLE_SEAL_MILLIS);
+    }
+
     public NameSubstitutionStrategy createSubstitutionStrategy(Graph graph) {
         NameSubstitutionStrategy strategy = ConfigurationUtils.createProvider(graph, this, NAME_SUBSTITUTION_STRATEGY_PROP_PREFIX, DEFAULT_NAME_SUBSTITUTION_STRATEGY);
         strategy.setup(getConfig());
@@ -207,6 +260,14 @@ public class AccumuloGraphConfiguration extends GraphConfiguration {
         return config;
     }
 
+    /**
+     * When true all threads write through one {@link SharedBatchWriter} instead of a batch writer per thread, so
+     * batchwriter.maxMemory becomes the memory budget for the whole graph.
+     */
+    public boolean isBatchWriterShared() {
+        return getBoolean(BATCHWRITER_SHARED, DEFAULT_BATCHWRITER_SHARED);
+    }
+
     public Integer getMaxVersions() {
         return getInteger(ACCUMULO_MAX_VERSIONS, DEFAULT_ACCUMULO_MAX_VERSIONS);
     }
@@ -219,7 +280,47 @@ public class AccumuloGraphConfiguration extends GraphConfiguration {
         return getString(HDFS_CONTEXT_CLASSPATH, DEFAULT_HDFS_CONTEXT_CLASSPATH);
     }
 
+    public boolean isTableLocalityGroupsEnabled() {
+        return getBoolean(TABLE_LOCALITY_GROUPS, DEFAULT_TABLE_LOCALITY_GROUPS);
+    }
+
+    public boolean isTableBloomFiltersEnabled() {
+        return getBoolean(TABLE_BLOOM_FILTERS, DEFAULT_TABLE_BLOOM_FILTERS);
+    }
+
+    /**
+     * The number of split points added to the vertex, edge and data tables when they are created.
+     */
+    public int getTableInitialSplits() {
+        return getInt(TABLE_INITIAL_SPLITS, DEFAULT_TABLE_INITIAL_SPLITS);
+    }
+
+    /**
+     * When true vertex and edge counts are kept in the counts table, see {@link AccumuloElementCounts}.
+     */
+    public boolean isMaintainElementCounts() {
+        return getBoolean(MAINTAIN_ELEMENT_COUNTS, DEFAULT_MAINTAIN_ELEMENT_COUNTS);
+    }
+
     public String getZookeeperMetadataSyncPath() {
         return getString(ZOOKEEPER_METADATA_SYNC_PATH, DEFAULT_ZOOKEEPER_METADATA_SYNC_PATH);
     }
+
+    /**
+     * The number of element ids kept in the {@link AccumuloElementCache}, 0 disables the cache.
+     */
+    public long getElementCacheSize() {
+        return getConfigLong(ELEMENT_CACHE_SIZE, DEFAULT_ELEMENT_CACHE_SIZE);
+    }
+
+    public long getElementCacheExpireMillis() {
+        return getConfigLong(ELEMENT_CACHE_EXPIRE_MILLIS, DEFAULT_ELEMENT_CACHE_EXPIRE_MILLIS);
+    }
+
+    /**
+     * The ZooKeeper path graph instances signal element changes under. It must not be under the metadata sync path.
+     */
+    public String getZookeeperElementCacheSyncPath() {
+        return getString(ZOOKEEPER_ELEMENT_CACHE_SYNC_PATH, DEFAULT_ZOOKEEPER_ELEMENT_CACHE_SYNC_PATH);
+    }
 }
@@ -0,0 +1,174 @@
+package org.vertexium.accumulo;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.hadoop.io.Text;
+import org.vertexium.ElementType;
+import org.vertexium.GraphConfiguration;
+import org.vertexium.VertexiumException;
+import org.vertexium.id.UUIDIdGenerator;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.util.*;
+
+/**
+ * Locality groups, bloom filters and split points for the vertex, edge and data tables.
+ */
+public class AccumuloTableSettings {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(AccumuloTableSettings.class);
+    public static final String LOCALITY_GROUP_PROPERTIES = "properties";
+    public static final String LOCALITY_GROUP_PROPERTY_METADATA = "propertyMetadata";
+    public static final String LOCALITY_GROUP_OUT_EDGES = "outEdges";
+    public static final String LOCALITY_GROUP_IN_EDGES = "inEdges";
+    public static final String LOCALITY_GROUP_MARKERS = "markers";
+    private static final String TABLE_BLOOM_ENABLED = "table.bloom.enabled";
+    private static final String TABLE_BLOOM_KEY_FUNCTOR = "table.bloom.key.functor";
+    private static final String ROW_FUNCTOR = "org.apache.accumulo.core.file.keyfunctor.RowFunctor";
+    private static final String HEX_DIGITS = "0123456789abcdef";
+
+    /**
+     * Applies the locality groups and bloom filters enabled in the configuration to the vertex, edge and data tables.
+     */
+    public static void apply(Connector connector, AccumuloGraphConfiguration config) {
+        String tableNamePrefix = config.getTableNamePrefix();
+        apply(connector, config.isTableLocalityGroupsEnabled(), config.isTableBloomFiltersEnabled(), tableNamePrefix);
+    }
+
+    public static void apply(Connector connector, boolean localityGroups, boolean bloomFilters, String tableNamePrefix) {
+        String verticesTableName = AccumuloGraph.getVerticesTableName(tableNamePrefix);
+        String edgesTableName = AccumuloGraph.getEdgesTableName(tableNamePrefix);
+        String dataTableName = AccumuloGraph.getDataTableName(tableNamePrefix);
+        if (localityGroups) {
+            setLocalityGroups(connector, verticesTableName, getLocalityGroups(ElementType.VERTEX));
+            setLocalityGroups(connector, edgesTableName, getLocalityGroups(ElementType.EDGE));
+        }
+        if (bloomFilters) {
+            enableRowBloomFilter(connector, verticesTableName);
+            enableRowBloomFilter(connector, edgesTableName);
+            enableRowBloomFilter(connector, dataTableName);
+        }
+    }
+
+    /**
+     * Edge refs, properties and property metadata are each kept in their own locality group so scans that only
+     * fetch some of them skip the others. The signal column stays in the default group.
+     */
+    public static Map<String, Set<Text>> getLocalityGroups(ElementType elementType) {
+        Map<String, Set<Text>> groups = new HashMap<>();
+        groups.put(LOCALITY_GROUP_PROPERTIES, toSet(
+                AccumuloElement.CF_PROPERTY,
+                AccumuloElement.CF_PROPERTY_HIDDEN,
+                AccumuloElement.CF_PROPERTY_SOFT_DELETE
+        ));
+        groups.put(LOCALITY_GROUP_PROPERTY_METADATA, toSet(AccumuloElement.CF_PROPERTY_METADATA));
+        groups.put(LOCALITY_GROUP_MARKERS, toSet(AccumuloElement.CF_HIDDEN, AccumuloElement.CF_SOFT_DELETE));
+        if (elementType == ElementType.VERTEX) {
+            groups.put(LOCALITY_GROUP_OUT_EDGES, toSet(
+                    AccumuloVertex.CF_OUT_EDGE,
+                    AccumuloVertex.CF_OUT_EDGE_HIDDEN,
+                    AccumuloVertex.CF_OUT_EDGE_SOFT_DELETE
+            ));
+            groups.put(LOCALITY_GROUP_IN_EDGES, toSet(
+                    AccumuloVertex.CF_IN_EDGE,
+                    AccumuloVertex.CF_IN_EDGE_HIDDEN,
+                    AccumuloVertex.CF_IN_EDGE_SOFT_DELETE
+            ));
+        } else if (elementType != ElementType.EDGE) {
+            throw new VertexiumException("Unexpected element type: " + elementType);
+        }
+        return groups;
+    }
+
+    private static Set<Text> toSet(Text... columnFamilies) {
+        return new HashSet<>(Arrays.asList(columnFamilies));
+    }
+
+    public static void setLocalityGroups(Connector connector, String tableName, Map<String, Set<Text>> groups) {
+        try {
+            if (groups.equals(connector.tableOperations().getLocalityGroups(tableName))) {
+                return;
+            }
+            LOGGER.info("setting locality groups on table %s: %s", tableName, groups.keySet());
+            connector.tableOperations().setLocalityGroups(tableName, groups);
+        } catch (Exception e) {
+            throw new VertexiumException("Could not set locality groups on table " + tableName, e);
+        }
+    }
+
+    /**
+     * Row bloom filters let point lookups skip files that do not contain the row.
+     */
+    public static void enableRowBloomFilter(Connector connector, String tableName) {
+        try {
+            Map<String, String> properties = new HashMap<>();
+            for (Map.Entry<String, String> property : connector.tableOperations().getProperties(tableName)) {
+                properties.put(property.getKey(), property.getValue());
+            }
+            if (!ROW_FUNCTOR.equals(properties.get(TABLE_BLOOM_KEY_FUNCTOR))) {
+                connector.tableOperations().setProperty(tableName, TABLE_BLOOM_KEY_FUNCTOR, ROW_FUNCTOR);
+            }
+            if (!"true".equals(properties.get(TABLE_BLOOM_ENABLED))) {
+                LOGGER.info("enabling row bloom filter on table %s", tableName);
+                connector.tableOperations().setProperty(tableName, TABLE_BLOOM_ENABLED, "true");
+            }
+        } catch (Exception e) {
+            throw new VertexiumException("Could not enable bloom filter on table " + tableName, e);
+        }
+    }
+
+    /**
+     * Split points for element ids made by the configured id generator. Only the ids made by {@link UUIDIdGenerator},
+     * lower case hex strings, are known to be evenly distributed so other id generators get no split points.
+     *
+     * @param splitCount The number of split points, one less than the number of tablets.
+     */
+    public static SortedSet<Text> getSplits(GraphConfiguration config, int splitCount) {
+        String idGeneratorClassName = config.getString(GraphConfiguration.IDGENERATOR_PROP_PREFIX, GraphConfiguration.DEFAULT_IDGENERATOR);
+        if (!UUIDIdGenerator.class.getName().equals(idGeneratorClassName)) {
+            if (splitCount > 0) {
+                LOGGER.warn("split points can not be derived from id generator %s, not splitting tables", idGeneratorClassName);
+            }
+            return new TreeSet<>();
+        }
+        return getHexSplits(splitCount);
+    }
+
+    /**
+     * Evenly spaced split points over lower case hex strings.
+     */
+    public static SortedSet<Text> getHexSplits(int splitCount) {
+        SortedSet<Text> splits = new TreeSet<>();
+        if (splitCount <= 0) {
+            return splits;
+        }
+        int tablets = splitCount + 1;
+        int digits = 1;
+        long range = HEX_DIGITS.length();
+        while (range < tablets) {
+            digits++;
+            range *= HEX_DIGITS.length();
+        }
+        for (int i = 1; i < tablets; i++) {
+            long value = range * i / tablets;
+            char[] chars = new char[digits];
+            for (int d = digits - 1; d >= 0; d--) {
+                chars[d] = HEX_DIGITS.charAt((int) (value % HEX_DIGITS.length()));
+                value /= HEX_DIGITS.length();
+            }
+            splits.add(new Text(new String(chars)));
+        }
+        return splits;
+    }
+
+    public static void addSplits(Connector connector, String tableName, SortedSet<Text> splits) {
+        if (splits.size() == 0) {
+            return;
+        }
+        try {
+            LOGGER.info("adding %d splits to table %s", splits.size(), tableName);
+            connector.tableOperations().addSplits(tableName, splits);
+        } catch (Exception e) {
+            throw new VertexiumException("Could not add splits to table " + tableName, e);
+        }
+    }
+}
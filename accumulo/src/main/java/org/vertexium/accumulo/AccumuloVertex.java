@@ -1,7 +1,5 @@
 package org.vertexium.accumulo;
 
-import com.google.common.base.Function;
-import com.google.common.collect.Iterables;
 import org.apache.accumulo.core.data.Key;
 import org.apache.accumulo.core.data.Value;
 import org.apache.hadoop.io.Text;
@@ -22,7 +20,6 @@ import org.vertexium.util.FilterIterable;
 import org.vertexium.util.JoinIterable;
 import org.vertexium.util.LookAheadIterable;
 
-import javax.annotation.Nullable;
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
@@ -39,8 +36,12 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
     public static final Text CF_IN_EDGE_SOFT_DELETE = VertexIterator.CF_IN_EDGE_SOFT_DELETE;
     public static final Text CF_OUT_EDGE_HIDDEN = VertexIterator.CF_OUT_EDGE_HIDDEN;
     public static final Text CF_IN_EDGE_HIDDEN = VertexIterator.CF_IN_EDGE_HIDDEN;
-    private final Edges inEdges;
-    private final Edges outEdges;
+    private Edges inEdges;
+    private Edges outEdges;
+    // when read from the iterator the edges are decoded from this value on first use
+    private final byte[] encodedEdges;
+    private final int encodedInEdgesOffset;
+    private final int encodedOutEdgesOffset;
 
     public AccumuloVertex(
             AccumuloGraph graph,
@@ -94,47 +95,67 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
         );
         this.inEdges = inEdges;
         this.outEdges = outEdges;
+        this.encodedEdges = null;
+        this.encodedInEdgesOffset = -1;
+        this.encodedOutEdgesOffset = -1;
     }
 
+    private AccumuloVertex(
+            AccumuloGraph graph,
+            String vertexId,
+            Visibility vertexVisibility,
+            LazyPropertyCollection properties,
+            Iterable<Visibility> hiddenVisibilities,
+            byte[] encodedEdges,
+            int encodedInEdgesOffset,
+            int encodedOutEdgesOffset,
+            long timestamp,
+            Authorizations authorizations
+    ) {
+        super(
+                graph,
+                vertexId,
+                vertexVisibility,
+                properties,
+                new ArrayList<Property>(),
+                new ArrayList<PropertyDeleteMutation>(),
+                new ArrayList<PropertySoftDeleteMutation>(),
+                hiddenVisibilities,
+                timestamp,
+                authorizations
+        );
+        this.encodedEdges = encodedEdges;
+        this.encodedInEdgesOffset = encodedInEdgesOffset;
+        this.encodedOutEdgesOffset = encodedOutEdgesOffset;
+    }
+
+    /**
+     * Only the id, visibility and timestamp are decoded here. Properties are decoded by name and the edges are
+     * decoded the first time they are used.
+     */
     public static Vertex createFromIteratorValue(AccumuloGraph graph, Key key, Value value, Authorizations authorizations) {
         try {
-            String vertexId;
-            Visibility vertexVisibility;
-            Iterable<Property> properties;
-            Iterable<PropertyDeleteMutation> propertyDeleteMutations = new ArrayList<>();
-            Iterable<PropertySoftDeleteMutation> propertySoftDeleteMutations = new ArrayList<>();
-            Iterable<Visibility> hiddenVisibilities;
-            Edges inEdges;
-            Edges outEdges;
-            long timestamp;
-
-            ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(value.get());
+            byte[] data = value.get();
+            ByteArrayInputStream byteArrayInputStream = new ByteArrayInputStream(data);
             final DataInputStream in = new DataInputStream(byteArrayInputStream);
             DataInputStreamUtils.decodeHeader(in, ElementData.TYPE_ID_VERTEX);
-            vertexId = DataInputStreamUtils.decodeText(in).toString();
-            timestamp = in.readLong();
-            vertexVisibility = new Visibility(DataInputStreamUtils.decodeText(in).toString());
-            hiddenVisibilities = Iterables.transform(DataInputStreamUtils.decodeTextList(in), new Function<Text, Visibility>() {
-                @Nullable
-                @Override
-                public Visibility apply(Text input) {
-                    return new Visibility(input.toString());
-                }
-            });
-            properties = DataInputStreamUtils.decodeProperties(graph, in);
-            outEdges = DataInputStreamUtils.decodeEdges(in, graph.getNameSubstitutionStrategy());
-            inEdges = DataInputStreamUtils.decodeEdges(in, graph.getNameSubstitutionStrategy());
+            String vertexId = DataInputStreamUtils.decodeText(in).toString();
+            long timestamp = in.readLong();
+            Visibility vertexVisibility = new Visibility(DataInputStreamUtils.decodeText(in).toString());
+            Iterable<Visibility> hiddenVisibilities = DataInputStreamUtils.decodeVisibilities(in);
+            LazyPropertyCollection properties = LazyPropertyCollection.decode(graph, data, in);
+            int encodedOutEdgesOffset = skipEncodedEdges(data, in);
+            int encodedInEdgesOffset = skipEncodedEdges(data, in);
 
             return new AccumuloVertex(
                     graph,
                     vertexId,
                     vertexVisibility,
                     properties,
-                    propertyDeleteMutations,
-                    propertySoftDeleteMutations,
                     hiddenVisibilities,
-                    inEdges,
-                    outEdges,
+                    data,
+                    encodedInEdgesOffset,
+                    encodedOutEdgesOffset,
                     timestamp,
                     authorizations
             );
@@ -143,6 +164,37 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
         }
     }
 
+    private static int skipEncodedEdges(byte[] data, DataInputStream in) throws IOException {
+        int length = in.readInt();
+        int offset = data.length - in.available();
+        if (in.skipBytes(length) != length) {
+            throw new IOException("Unexpected end of data skipping edges");
+        }
+        return offset;
+    }
+
+    private synchronized Edges getInEdges() {
+        if (inEdges == null && encodedEdges != null) {
+            inEdges = decodeEdges(encodedInEdgesOffset);
+        }
+        return inEdges;
+    }
+
+    private synchronized Edges getOutEdges() {
+        if (outEdges == null && encodedEdges != null) {
+            outEdges = decodeEdges(encodedOutEdgesOffset);
+        }
+        return outEdges;
+    }
+
+    private Edges decodeEdges(int offset) {
+        try {
+            return DataInputStreamUtils.decodeEdges(encodedEdges, offset, getGraph().getNameSubstitutionStrategy());
+        } catch (IOException ex) {
+            throw new VertexiumException("Could not read edges of vertex: " + getId(), ex);
+        }
+    }
+
     @Override
     public Iterable<Edge> getEdges(Direction direction, Authorizations authorizations) {
         return getEdges(direction, FetchHint.ALL, authorizations);
@@ -240,7 +292,24 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
 
     @Override
     public int getEdgeCount(Direction direction, Authorizations authorizations) {
-        return count(getEdgeIds(direction, authorizations));
+        switch (direction) {
+            case IN:
+                return getEdgeCount(getInEdges(), Direction.IN);
+            case OUT:
+                return getEdgeCount(getOutEdges(), Direction.OUT);
+            case BOTH:
+                return getEdgeCount(getInEdges(), Direction.IN) + getEdgeCount(getOutEdges(), Direction.OUT);
+            default:
+                throw new VertexiumException("Unexpected direction: " + direction);
+        }
+    }
+
+    private int getEdgeCount(Edges edges, Direction direction) {
+        // edges fetched with the *_EDGE_LABELS fetch hints only carry the per label counts computed by the iterator
+        if (edges instanceof EdgesWithCount) {
+            return ((EdgesWithCount) edges).getCount();
+        }
+        return count(getEdgeInfos(direction));
     }
 
     @Override
@@ -248,8 +317,8 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
         Set<String> edgeLabels = new HashSet<>();
 
         if (direction == Direction.IN || direction == Direction.BOTH) {
-            if (inEdges instanceof EdgesWithCount) {
-                edgeLabels.addAll(((EdgesWithCount) inEdges).getLabels());
+            if (getInEdges() instanceof EdgesWithCount) {
+                edgeLabels.addAll(((EdgesWithCount) getInEdges()).getLabels());
             } else {
                 edgeLabels.addAll(toList(new ConvertingIterable<Map.Entry<Text, org.vertexium.accumulo.iterator.model.EdgeInfo>, String>(getEdgeInfos(Direction.IN)) {
                     @Override
@@ -261,8 +330,8 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
         }
 
         if (direction == Direction.OUT || direction == Direction.BOTH) {
-            if (outEdges instanceof EdgesWithCount) {
-                edgeLabels.addAll(((EdgesWithCount) outEdges).getLabels());
+            if (getOutEdges() instanceof EdgesWithCount) {
+                edgeLabels.addAll(((EdgesWithCount) getOutEdges()).getLabels());
             } else {
                 edgeLabels.addAll(toList(new ConvertingIterable<Map.Entry<Text, org.vertexium.accumulo.iterator.model.EdgeInfo>, String>(getEdgeInfos(Direction.OUT)) {
                     @Override
@@ -318,13 +387,13 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
     private Iterable<Map.Entry<Text, org.vertexium.accumulo.iterator.model.EdgeInfo>> getEdgeInfos(Direction direction) {
         switch (direction) {
             case IN:
-                if (this.inEdges instanceof EdgesWithEdgeInfo) {
-                    return ((EdgesWithEdgeInfo) this.inEdges).getEntries();
+                if (getInEdges() instanceof EdgesWithEdgeInfo) {
+                    return ((EdgesWithEdgeInfo) getInEdges()).getEntries();
                 }
                 throw new VertexiumException("Cannot get edge info");
             case OUT:
-                if (this.outEdges instanceof EdgesWithEdgeInfo) {
-                    return ((EdgesWithEdgeInfo) this.outEdges).getEntries();
+                if (getOutEdges() instanceof EdgesWithEdgeInfo) {
+                    return ((EdgesWithEdgeInfo) getOutEdges()).getEntries();
                 }
                 throw new VertexiumException("Cannot get edge info");
             case BOTH:
@@ -429,13 +498,13 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
                 Iterable<String> outVertexIds = getVertexIds(Direction.OUT, labels, authorizations);
                 return new JoinIterable<>(inVertexIds, outVertexIds);
             case IN:
-                if (this.inEdges instanceof EdgesWithEdgeInfo) {
-                    return new GetVertexIdsIterable(((EdgesWithEdgeInfo) this.inEdges).getEdgeInfos(), labels);
+                if (getInEdges() instanceof EdgesWithEdgeInfo) {
+                    return new GetVertexIdsIterable(((EdgesWithEdgeInfo) getInEdges()).getEdgeInfos(), labels);
                 }
                 throw new VertexiumException("Cannot get vertex ids");
             case OUT:
-                if (this.outEdges instanceof EdgesWithEdgeInfo) {
-                    return new GetVertexIdsIterable(((EdgesWithEdgeInfo) this.outEdges).getEdgeInfos(), labels);
+                if (getOutEdges() instanceof EdgesWithEdgeInfo) {
+                    return new GetVertexIdsIterable(((EdgesWithEdgeInfo) getOutEdges()).getEdgeInfos(), labels);
                 }
                 throw new VertexiumException("Cannot get vertex ids");
             default:
@@ -454,32 +523,32 @@ public class AccumuloVertex extends AccumuloElement implements Vertex {
     }
 
     void addOutEdge(Edge edge) {
-        if (this.outEdges instanceof EdgesWithEdgeInfo) {
-            ((EdgesWithEdgeInfo) this.outEdges).add(edge.getId(), new org.vertexium.accumulo.iterator.model.EdgeInfo(edge.getLabel(), edge.getVertexId(Direction.IN)));
+        if (getOutEdges() instanceof EdgesWithEdgeInfo) {
+            ((EdgesWithEdgeInfo) getOutEdges()).add(edge.getId(), new org.vertexium.accumulo.iterator.model.EdgeInfo(edge.getLabel(), edge.getVertexId(Direction.IN)));
         } else {
             throw new VertexiumException("Cannot add edge");
         }
     }
 
     void removeOutEdge(Edge edge) {
-        if (this.outEdges instanceof EdgesWithEdgeInfo) {
-            ((EdgesWithEdgeInfo) this.outEdges).remove(edge.getId());
+        if (getOutEdges() instanceof EdgesWithEdgeInfo) {
+            ((EdgesWithEdgeInfo) getOutEdges()).remove(edge.getId());
         } else {
             throw new VertexiumException("Cannot remove out edge");
         }
     }
 
     void addInEdge(Edge edge) {
-        if (this.inEdges instanceof EdgesWithEdgeInfo) {
-            ((EdgesWithEdgeInfo) this.inEdges).add(edge.getId(), new org.vertexium.accumulo.iterator.model.EdgeInfo(edge.getLabel(), edge.getVertexId(Direction.OUT)));
+        if (getInEdges() instanceof EdgesWithEdgeInfo) {
+            ((EdgesWithEdgeInfo) getInEdges()).add(edge.getId(), new org.vertexium.accumulo.iterator.model.EdgeInfo(edge.getLabel(), edge.getVertexId(Direction.OUT)));
         } else {
             throw new VertexiumException("Cannot add edge");
         }
     }
 
     void removeInEdge(Edge edge) {
-        if (this.inEdges instanceof EdgesWithEdgeInfo) {
-            ((EdgesWithEdgeInfo) this.inEdges).remove(edge.getId());
+        if (getInEdges() instanceof EdgesWithEdgeInfo) {
+            ((EdgesWithEdgeInfo) getInEdges()).remove(edge.getId());
         } else {
             throw new VertexiumException("Cannot remove in edge");
         }
@@ -22,7 +22,9 @@ import org.vertexium.util.*;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.zip.CRC32;
 
 import static org.vertexium.util.IncreasingTime.currentTimeMillis;
 
@@ -34,6 +36,7 @@ public abstract class ElementMutationBuilder {
     private final FileSystem fileSystem;
     private final VertexiumSerializer vertexiumSerializer;
     private final long maxStreamingPropertyValueTableDataSize;
+    private final int streamingPropertyValueTableChunkSize;
     private final String dataDir;
     private static final Cache<String, Text> propertyMetadataColumnQualifierTextCache = CacheBuilder
             .newCache(String.class, Text.class)
@@ -42,9 +45,18 @@ public abstract class ElementMutationBuilder {
             .build();
 
     protected ElementMutationBuilder(FileSystem fileSystem, VertexiumSerializer vertexiumSerializer, long maxStreamingPropertyValueTableDataSize, String dataDir) {
+        this(fileSystem, vertexiumSerializer, maxStreamingPropertyValueTableDataSize, 0, dataDir);
+    }
+
+    /**
+     * @param streamingPropertyValueTableChunkSize The size of the chunks streaming property values stored in the data
+     *                                             table are split into. 0 stores each value in a single cell.
+     */
+    protected ElementMutationBuilder(FileSystem fileSystem, VertexiumSerializer vertexiumSerializer, long maxStreamingPropertyValueTableDataSize, int streamingPropertyValueTableChunkSize, String dataDir) {
         this.fileSystem = fileSystem;
         this.vertexiumSerializer = vertexiumSerializer;
         this.maxStreamingPropertyValueTableDataSize = maxStreamingPropertyValueTableDataSize;
+        this.streamingPropertyValueTableChunkSize = streamingPropertyValueTableChunkSize;
         this.dataDir = dataDir;
     }
 
@@ -395,6 +407,10 @@ public abstract class ElementMutationBuilder {
     }
 
     protected StreamingPropertyValueRef saveStreamingPropertyValue(final String rowKey, final Property property, StreamingPropertyValue propertyValue) {
+        HdfsSegmentStore segmentStore = getHdfsSegmentStore();
+        if (segmentStore != null) {
+            return saveStreamingPropertyValueToSegment(segmentStore, rowKey, property, propertyValue);
+        }
         try {
             HdfsLargeDataStore largeDataStore = new HdfsLargeDataStore(this.fileSystem, this.dataDir, rowKey, property);
             LimitOutputStream out = new LimitOutputStream(largeDataStore, maxStreamingPropertyValueTableDataSize);
@@ -406,7 +422,28 @@ public abstract class ElementMutationBuilder {
 
             if (out.hasExceededSizeLimit()) {
                 LOGGER.debug("saved large file to \"%s\" (length: %d)", largeDataStore.getFullHdfsPath(), out.getLength());
-                return new StreamingPropertyValueHdfsRef(largeDataStore.getRelativeFileName(), propertyValue);
+                return new StreamingPropertyValueHdfsLengthRef(largeDataStore.getRelativeFileName(), propertyValue, out.getLength());
+            } else {
+                return saveStreamingPropertyValueSmall(rowKey, property, out.getSmall(), propertyValue);
+            }
+        } catch (IOException ex) {
+            throw new VertexiumException(ex);
+        }
+    }
+
+    private StreamingPropertyValueRef saveStreamingPropertyValueToSegment(HdfsSegmentStore segmentStore, String rowKey, Property property, StreamingPropertyValue propertyValue) {
+        try {
+            HdfsSegmentStore.SegmentLargeDataStore largeDataStore = segmentStore.createLargeDataStore();
+            LimitOutputStream out = new LimitOutputStream(largeDataStore, maxStreamingPropertyValueTableDataSize);
+            try {
+                StreamUtils.copy(propertyValue.getInputStream(), out);
+            } finally {
+                out.close();
+            }
+
+            if (out.hasExceededSizeLimit()) {
+                LOGGER.debug("saved large file to \"%s\" at %d (length: %d)", largeDataStore.getFullHdfsPath(), largeDataStore.getOffset(), out.getLength());
+                return new StreamingPropertyValueHdfsSegmentRef(largeDataStore.getRelativeFileName(), largeDataStore.getOffset(), out.getLength(), propertyValue);
             } else {
                 return saveStreamingPropertyValueSmall(rowKey, property, out.getSmall(), propertyValue);
             }
@@ -415,6 +452,13 @@ public abstract class ElementMutationBuilder {
         }
     }
 
+    /**
+     * The store to pack large streaming property values into or null to write a file for each value.
+     */
+    protected HdfsSegmentStore getHdfsSegmentStore() {
+        return null;
+    }
+
     public void addPropertyDeleteToMutation(Mutation m, Property property) {
         Preconditions.checkNotNull(m, "mutation cannot be null");
         Preconditions.checkNotNull(property, "property cannot be null");
@@ -444,11 +488,29 @@ public abstract class ElementMutationBuilder {
 
     private StreamingPropertyValueRef saveStreamingPropertyValueSmall(String rowKey, Property property, byte[] data, StreamingPropertyValue propertyValue) {
         String dataTableRowKey = new DataTableRowKey(rowKey, property).getRowKey();
+        if (streamingPropertyValueTableChunkSize > 0 && data.length > 0) {
+            return saveStreamingPropertyValueChunks(dataTableRowKey, data, propertyValue);
+        }
         Mutation dataMutation = new Mutation(dataTableRowKey);
         dataMutation.put(EMPTY_TEXT, EMPTY_TEXT, new Value(data));
         saveDataMutation(dataMutation);
         return new StreamingPropertyValueTableRef(dataTableRowKey, propertyValue, data);
     }
 
+    private StreamingPropertyValueRef saveStreamingPropertyValueChunks(String dataTableRowKey, byte[] data, StreamingPropertyValue propertyValue) {
+        Mutation dataMutation = new Mutation(dataTableRowKey);
+        int chunkSize = streamingPropertyValueTableChunkSize;
+        for (int chunkIndex = 0; chunkIndex * chunkSize < data.length; chunkIndex++) {
+            int offset = chunkIndex * chunkSize;
+            byte[] chunk = Arrays.copyOfRange(data, offset, Math.min(offset + chunkSize, data.length));
+            Text columnQualifier = StreamingPropertyValueTableChunked.getChunkColumnQualifier(chunkIndex);
+            dataMutation.put(StreamingPropertyValueTableChunked.CF_CHUNK, columnQualifier, new Value(chunk));
+        }
+        saveDataMutation(dataMutation);
+        CRC32 checksum = new CRC32();
+        checksum.update(data);
+        return new StreamingPropertyValueTableChunkedRef(dataTableRowKey, propertyValue, data, chunkSize, checksum.getValue());
+    }
+
     protected abstract void saveDataMutation(Mutation dataMutation);
 }
@@ -0,0 +1,366 @@
+package org.vertexium.accumulo;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.accumulo.core.security.ColumnVisibility;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.vertexium.VertexiumException;
+import org.vertexium.accumulo.iterator.model.KeyBase;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * Rewrites HDFS segment files that are mostly taken up by values that are no longer referenced. Values of deleted
+ * properties and elements are dropped. Every value still referenced by a property column is copied to a new segment,
+ * including values of soft deleted properties and elements which can still be read with an end time before the soft
+ * delete. A segment is only deleted once a second scan finds nothing referencing it.
+ * <p>
+ * The old property cell and its metadata cells are deleted and written again 1ms later pointing to the new segment, so
+ * the new cells always replace the old ones. The timestamp of a rewritten property moves by 1ms. Segments holding a
+ * value of a property with more than one version are not compacted, since deleting the old cell would also delete the
+ * older versions.
+ * <p>
+ * Only sealed segments are compacted, segments that are not sealed may still be written to by a graph. Graphs seal
+ * segments that have been idle for {@link AccumuloGraphConfiguration#HDFS_SEGMENT_IDLE_SEAL_MILLIS}. Segments left
+ * unsealed by a process that stopped without closing the graph are never compacted. A segment is also left alone until
+ * it has been sealed for {@link #setSealedMinAgeMillis(long)}, since the mutations referencing its last values may still
+ * be waiting in a batch writer when it is sealed.
+ * <p>
+ * The tables are scanned with the authorizations of the Accumulo user, which must be able to see every visibility used
+ * in the graph or values only visible to other authorizations will be treated as unreferenced.
+ */
+public class HdfsSegmentCompactor {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(HdfsSegmentCompactor.class);
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    private final AccumuloGraph graph;
+    private final FileSystem fs;
+    private double maxLiveRatio = 0.5;
+    private long sealedMinAgeMillis;
+
+    public HdfsSegmentCompactor(AccumuloGraph graph) {
+        this.graph = graph;
+        this.fs = graph.getFileSystem();
+        this.sealedMinAgeMillis = 3 * graph.getConfiguration().getConfigLong(
+                AccumuloGraphConfiguration.BATCHWRITER_MAX_LATENCY,
+                AccumuloGraphConfiguration.DEFAULT_BATCHWRITER_MAX_LATENCY
+        );
+    }
+
+    /**
+     * Segments with less than this fraction of their bytes still referenced are compacted.
+     */
+    public void setMaxLiveRatio(double maxLiveRatio) {
+        this.maxLiveRatio = maxLiveRatio;
+    }
+
+    /**
+     * Segments sealed more recently than this are not compacted. Defaults to three times the batch writer max latency.
+     */
+    public void setSealedMinAgeMillis(long sealedMinAgeMillis) {
+        this.sealedMinAgeMillis = sealedMinAgeMillis;
+    }
+
+    /**
+     * @return The number of segments deleted.
+     */
+    public int compact() {
+        try {
+            Map<String, FileStatus> segments = findCompactableSegments();
+            if (segments.size() == 0) {
+                LOGGER.info("no segments to compact");
+                return 0;
+            }
+
+            Map<String, List<SegmentValue>> valuesBySegment = findSegmentValues(segments.keySet());
+            Set<String> segmentsToCompact = new HashSet<>();
+            for (Map.Entry<String, FileStatus> segment : segments.entrySet()) {
+                long liveBytes = 0;
+                boolean rewritable = true;
+                List<SegmentValue> values = valuesBySegment.get(segment.getKey());
+                if (values != null) {
+                    for (SegmentValue value : values) {
+                        liveBytes += value.ref.getLength();
+                        rewritable &= value.rewritable;
+                    }
+                }
+                long size = segment.getValue().getLen();
+                if (size != 0 && (double) liveBytes / size >= maxLiveRatio) {
+                    continue;
+                }
+                if (!rewritable) {
+                    LOGGER.info("not compacting segment %s, it holds values of properties with more than one version", segment.getKey());
+                    continue;
+                }
+                LOGGER.info("compacting segment %s (live bytes: %d, size: %d)", segment.getKey(), liveBytes, size);
+                segmentsToCompact.add(segment.getKey());
+            }
+            if (segmentsToCompact.size() == 0) {
+                return 0;
+            }
+
+            copyValues(segmentsToCompact, valuesBySegment);
+            graph.clearElementCache();
+
+            Map<String, List<SegmentValue>> remainingValues = findSegmentValues(segmentsToCompact);
+            int deleted = 0;
+            for (String segment : segmentsToCompact) {
+                if (remainingValues.containsKey(segment)) {
+                    LOGGER.warn("segment %s is still referenced after compaction, not deleting", segment);
+                    continue;
+                }
+                Path path = new Path(graph.getDataDir(), segment);
+                fs.delete(path, false);
+                fs.delete(HdfsSegmentStore.getSealedMarkerPath(path), false);
+                deleted++;
+            }
+            LOGGER.info("deleted %d segments", deleted);
+            return deleted;
+        } catch (VertexiumException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new VertexiumException("Could not compact segments", ex);
+        }
+    }
+
+    private Map<String, FileStatus> findCompactableSegments() throws IOException {
+        Map<String, FileStatus> results = new HashMap<>();
+        Path segmentsDir = new Path(graph.getDataDir(), HdfsSegmentStore.SEGMENTS_DIR);
+        if (!fs.exists(segmentsDir)) {
+            return results;
+        }
+        // sealed time by segment name
+        Map<String, Long> sealedMarkers = new HashMap<>();
+        List<FileStatus> segmentFiles = new ArrayList<>();
+        for (FileStatus fileStatus : fs.listStatus(segmentsDir)) {
+            String name = fileStatus.getPath().getName();
+            if (name.endsWith(HdfsSegmentStore.SEALED_EXTENSION)) {
+                sealedMarkers.put(name.substring(0, name.length() - HdfsSegmentStore.SEALED_EXTENSION.length()), fileStatus.getModificationTime());
+            } else if (HdfsSegmentStore.isSegmentFile(fileStatus.getPath())) {
+                segmentFiles.add(fileStatus);
+            }
+        }
+        for (FileStatus segmentFile : segmentFiles) {
+            String name = segmentFile.getPath().getName();
+            Long sealedTime = sealedMarkers.get(name);
+            if (sealedTime == null) {
+                LOGGER.debug("skipping unsealed segment %s", name);
+                continue;
+            }
+            if (System.currentTimeMillis() - sealedTime < sealedMinAgeMillis) {
+                LOGGER.debug("skipping recently sealed segment %s", name);
+                continue;
+            }
+            results.put(HdfsSegmentStore.SEGMENTS_DIR + "/" + name, segmentFile);
+        }
+        return results;
+    }
+
+    /**
+     * @return The values referenced by a property column of an element, by segment.
+     */
+    private Map<String, List<SegmentValue>> findSegmentValues(Set<String> segments) throws Exception {
+        Map<String, List<SegmentValue>> results = new HashMap<>();
+        findSegmentValues(graph.getVerticesTableName(), segments, results);
+        findSegmentValues(graph.getEdgesTableName(), segments, results);
+        return results;
+    }
+
+    private void findSegmentValues(String tableName, Set<String> segments, Map<String, List<SegmentValue>> results) throws Exception {
+        Connector connector = graph.getConnector();
+        Authorizations authorizations = connector.securityOperations().getUserAuthorizations(connector.whoami());
+        Scanner scanner = connector.createScanner(tableName, authorizations);
+        scanner.fetchColumnFamily(AccumuloElement.CF_PROPERTY);
+        scanner.fetchColumnFamily(AccumuloElement.CF_PROPERTY_METADATA);
+        scanner.fetchColumnFamily(AccumuloElement.CF_PROPERTY_SOFT_DELETE);
+        try {
+            RowValues row = null;
+            for (Map.Entry<Key, Value> entry : scanner) {
+                Key key = entry.getKey();
+                if (row == null || !row.row.equals(key.getRow())) {
+                    if (row != null) {
+                        row.addValues(results);
+                    }
+                    row = new RowValues(tableName, key.getRow());
+                }
+                row.addVersion(key);
+                Text columnFamily = key.getColumnFamily();
+                if (columnFamily.equals(AccumuloElement.CF_PROPERTY_METADATA)) {
+                    row.metadata.add(new AbstractMap.SimpleImmutableEntry<>(new Key(key), new Value(entry.getValue().get())));
+                } else if (columnFamily.equals(AccumuloElement.CF_PROPERTY_SOFT_DELETE)) {
+                    row.propertySoftDeletes.add(getPropertyColumn(key) + "\u0000" + key.getTimestamp());
+                } else {
+                    Object value = graph.getVertexiumSerializer().bytesToObject(entry.getValue().get());
+                    if (value instanceof StreamingPropertyValueHdfsSegmentRef
+                            && segments.contains(((StreamingPropertyValueHdfsSegmentRef) value).getSegment())) {
+                        row.values.add(new SegmentValue(tableName, new Key(key), (StreamingPropertyValueHdfsSegmentRef) value));
+                    }
+                }
+            }
+            if (row != null) {
+                row.addValues(results);
+            }
+        } finally {
+            scanner.close();
+        }
+    }
+
+    private static String getPropertyColumn(Key key) {
+        return key.getColumnQualifier().toString() + "\u0000" + key.getColumnVisibility().toString();
+    }
+
+    private void copyValues(Set<String> segmentsToCompact, Map<String, List<SegmentValue>> valuesBySegment) throws Exception {
+        AccumuloGraphConfiguration config = graph.getConfiguration();
+        HdfsSegmentStore segmentStore = new HdfsSegmentStore(fs, graph.getDataDir(), config.getHdfsSegmentSize() > 0 ? config.getHdfsSegmentSize() : Long.MAX_VALUE, 1);
+        Map<String, BatchWriter> writers = new HashMap<>();
+        try {
+            for (String segment : segmentsToCompact) {
+                List<SegmentValue> values = valuesBySegment.get(segment);
+                if (values == null) {
+                    continue;
+                }
+                FSDataInputStream in = fs.open(new Path(graph.getDataDir(), segment));
+                try {
+                    for (SegmentValue value : values) {
+                        StreamingPropertyValueHdfsSegmentRef newRef = copyValue(in, value.ref, segmentStore);
+                        Mutation m = new Mutation(value.key.getRow());
+                        move(m, value.key, new Value(graph.getVertexiumSerializer().objectToBytes(newRef)));
+                        for (Map.Entry<Key, Value> metadata : value.metadata) {
+                            move(m, metadata.getKey(), metadata.getValue());
+                        }
+                        BatchWriter writer = writers.get(value.tableName);
+                        if (writer == null) {
+                            writer = graph.getConnector().createBatchWriter(value.tableName, config.createBatchWriterConfig());
+                            writers.put(value.tableName, writer);
+                        }
+                        writer.addMutation(m);
+                    }
+                } finally {
+                    in.close();
+                }
+            }
+        } finally {
+            segmentStore.close();
+            for (BatchWriter writer : writers.values()) {
+                writer.close();
+            }
+        }
+    }
+
+    /**
+     * Deletes the cell and writes the value 1ms later. Writing at the same timestamp would leave two cells with the
+     * same key and no guarantee which one is read.
+     */
+    private static void move(Mutation m, Key key, Value value) {
+        ColumnVisibility columnVisibility = new ColumnVisibility(key.getColumnVisibility());
+        m.putDelete(key.getColumnFamily(), key.getColumnQualifier(), columnVisibility, key.getTimestamp());
+        m.put(key.getColumnFamily(), key.getColumnQualifier(), columnVisibility, key.getTimestamp() + 1, value);
+    }
+
+    private StreamingPropertyValueHdfsSegmentRef copyValue(FSDataInputStream in, StreamingPropertyValueHdfsSegmentRef ref, HdfsSegmentStore segmentStore) throws IOException {
+        HdfsSegmentStore.SegmentLargeDataStore largeDataStore = segmentStore.createLargeDataStore();
+        OutputStream out = largeDataStore.createOutputStream();
+        try {
+            in.seek(ref.getOffset());
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            long remaining = ref.getLength();
+            while (remaining > 0) {
+                int n = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (n < 0) {
+                    throw new IOException("Unexpected end of segment " + ref.getSegment() + " reading " + ref.getLength() + " bytes at " + ref.getOffset());
+                }
+                out.write(buffer, 0, n);
+                remaining -= n;
+            }
+        } finally {
+            out.close();
+        }
+        return ref.withSegment(largeDataStore.getRelativeFileName(), largeDataStore.getOffset());
+    }
+
+    private static class SegmentValue {
+        private final String tableName;
+        private final Key key;
+        private final StreamingPropertyValueHdfsSegmentRef ref;
+        private final List<Map.Entry<Key, Value>> metadata = new ArrayList<>();
+        private boolean rewritable;
+
+        private SegmentValue(String tableName, Key key, StreamingPropertyValueHdfsSegmentRef ref) {
+            this.tableName = tableName;
+            this.key = key;
+            this.ref = ref;
+        }
+    }
+
+    private static class RowValues {
+        private final String tableName;
+        private final Text row;
+        private final Map<String, Integer> versionCounts = new HashMap<>();
+        private final Set<String> propertySoftDeletes = new HashSet<>();
+        private final List<Map.Entry<Key, Value>> metadata = new ArrayList<>();
+        private final List<SegmentValue> values = new ArrayList<>();
+
+        private RowValues(String tableName, Text row) {
+            this.tableName = tableName;
+            this.row = new Text(row);
+        }
+
+        private void addVersion(Key key) {
+            String column = getColumn(key);
+            Integer count = versionCounts.get(column);
+            versionCounts.put(column, count == null ? 1 : count + 1);
+        }
+
+        private static String getColumn(Key key) {
+            return key.getColumnFamily().toString() + "\u0000" + getPropertyColumn(key);
+        }
+
+        /**
+         * Finds the metadata of each value, which is matched to the property by name, key, visibility and timestamp,
+         * and checks that moving the value and its metadata 1ms later does not change what is read.
+         */
+        private void addValues(Map<String, List<SegmentValue>> results) {
+            for (SegmentValue value : values) {
+                Key key = value.key;
+                String metadataPrefix = key.getColumnQualifier().toString() + KeyBase.VALUE_SEPARATOR + key.getColumnVisibility().toString() + KeyBase.VALUE_SEPARATOR;
+                boolean rewritable = versionCounts.get(getColumn(key)) == 1
+                        && !propertySoftDeletes.contains(getPropertyColumn(key) + "\u0000" + key.getTimestamp());
+                for (Map.Entry<Key, Value> metadataEntry : metadata) {
+                    Key metadataKey = metadataEntry.getKey();
+                    if (metadataKey.getTimestamp() == key.getTimestamp() && metadataKey.getColumnQualifier().toString().startsWith(metadataPrefix)) {
+                        value.metadata.add(metadataEntry);
+                        rewritable &= versionCounts.get(getColumn(metadataKey)) == 1;
+                    }
+                }
+                value.rewritable = rewritable;
+
+                List<SegmentValue> segmentValues = results.get(value.ref.getSegment());
+                if (segmentValues == null) {
+                    segmentValues = new ArrayList<>();
+                    results.put(value.ref.getSegment(), segmentValues);
+                }
+                segmentValues.add(value);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "RowValues{" +
+                    "tableName='" + tableName + '\'' +
+                    ", row=" + row +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package org.vertexium.accumulo;
+
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.vertexium.VertexiumException;
+import org.vertexium.util.LimitOutputStream;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+
+/**
+ * Packs large streaming property values into segment files instead of writing a file per value. A small number of
+ * segments are kept open and each value is appended to an idle segment while no other value is written to it. Once a
+ * segment reaches the segment size, or has been idle for longer than the idle seal time, it is closed and marked sealed
+ * with an empty file next to it. Sealed segments are never written again and can be rewritten by
+ * {@link HdfsSegmentCompactor}. Idle segments are sealed when the next value is written and by
+ * {@link #sealIdleSegments()}.
+ */
+public class HdfsSegmentStore {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(HdfsSegmentStore.class);
+    public static final String SEGMENTS_DIR = "segments";
+    public static final String SEGMENT_EXTENSION = ".seg";
+    public static final String SEALED_EXTENSION = ".sealed";
+    private final FileSystem fs;
+    private final String dataDir;
+    private final long segmentSize;
+    private final int maxOpenSegments;
+    private final long idleSealMillis;
+    private final Deque<Segment> idleSegments = new ArrayDeque<>();
+    private int openSegmentCount;
+    private boolean closed;
+
+    /**
+     * @param segmentSize     The size a segment is sealed at. Values are not split so segments can be larger.
+     * @param maxOpenSegments The number of segments that can be written to at the same time.
+     */
+    public HdfsSegmentStore(FileSystem fs, String dataDir, long segmentSize, int maxOpenSegments) {
+        this(fs, dataDir, segmentSize, maxOpenSegments, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param idleSealMillis How long a segment can go without a value written to it before it is sealed.
+     */
+    public HdfsSegmentStore(FileSystem fs, String dataDir, long segmentSize, int maxOpenSegments, long idleSealMillis) {
+        this.fs = fs;
+        this.dataDir = dataDir;
+        this.segmentSize = segmentSize;
+        this.maxOpenSegments = maxOpenSegments;
+        this.idleSealMillis = idleSealMillis;
+    }
+
+    public SegmentLargeDataStore createLargeDataStore() {
+        return new SegmentLargeDataStore();
+    }
+
+    public Path getSegmentsDir() {
+        return new Path(dataDir, SEGMENTS_DIR);
+    }
+
+    public static boolean isSegmentFile(Path path) {
+        return path.getName().endsWith(SEGMENT_EXTENSION);
+    }
+
+    public static Path getSealedMarkerPath(Path segmentPath) {
+        return new Path(segmentPath.getParent(), segmentPath.getName() + SEALED_EXTENSION);
+    }
+
+    private Segment acquire() throws IOException {
+        sealIdleSegments();
+        synchronized (idleSegments) {
+            while (true) {
+                if (closed) {
+                    throw new VertexiumException("Segment store is closed");
+                }
+                Segment segment = idleSegments.pollFirst();
+                if (segment != null) {
+                    return segment;
+                }
+                if (openSegmentCount < maxOpenSegments) {
+                    openSegmentCount++;
+                    break;
+                }
+                try {
+                    idleSegments.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted waiting for a segment", ex);
+                }
+            }
+        }
+        try {
+            return createSegment();
+        } catch (IOException | RuntimeException ex) {
+            synchronized (idleSegments) {
+                openSegmentCount--;
+                idleSegments.notifyAll();
+            }
+            throw ex;
+        }
+    }
+
+    private Segment createSegment() throws IOException {
+        String relativeFileName = SEGMENTS_DIR + "/" + UUID.randomUUID().toString() + SEGMENT_EXTENSION;
+        Path path = new Path(dataDir, relativeFileName);
+        if (!fs.mkdirs(path.getParent())) {
+            throw new IOException("Could not create directory " + path.getParent());
+        }
+        LOGGER.debug("creating segment %s", path);
+        return new Segment(relativeFileName, path, fs.create(path, false));
+    }
+
+    /**
+     * Makes the value just written readable and returns the segment to the idle segments, or seals it if it is full.
+     */
+    private void release(Segment segment) {
+        boolean seal;
+        try {
+            segment.out.hflush();
+            seal = segment.out.getPos() >= segmentSize;
+        } catch (IOException ex) {
+            LOGGER.error("could not flush segment %s", segment.path, ex);
+            seal = true;
+        }
+        synchronized (idleSegments) {
+            if (!seal && !closed) {
+                segment.releasedTime = System.currentTimeMillis();
+                idleSegments.addFirst(segment);
+                idleSegments.notifyAll();
+                return;
+            }
+            openSegmentCount--;
+            idleSegments.notifyAll();
+        }
+        seal(segment);
+    }
+
+    private void seal(Segment segment) {
+        try {
+            segment.out.close();
+            fs.create(getSealedMarkerPath(segment.path), true).close();
+            LOGGER.debug("sealed segment %s", segment.path);
+        } catch (IOException ex) {
+            throw new VertexiumException("Could not seal segment " + segment.path, ex);
+        }
+    }
+
+    /**
+     * Seals the segments that have been idle for longer than the idle seal time so they can be compacted.
+     */
+    public void sealIdleSegments() {
+        List<Segment> segments = new ArrayList<>();
+        synchronized (idleSegments) {
+            long sealBefore = System.currentTimeMillis() - idleSealMillis;
+            Iterator<Segment> it = idleSegments.descendingIterator();
+            while (it.hasNext()) {
+                Segment segment = it.next();
+                if (segment.releasedTime > sealBefore) {
+                    break;
+                }
+                it.remove();
+                openSegmentCount--;
+                segments.add(segment);
+            }
+            if (segments.size() > 0) {
+                idleSegments.notifyAll();
+            }
+        }
+        for (Segment segment : segments) {
+            seal(segment);
+        }
+    }
+
+    /**
+     * Seals the idle segments. Segments being written to are sealed when the write completes.
+     */
+    public void close() {
+        Segment[] segments;
+        synchronized (idleSegments) {
+            closed = true;
+            segments = idleSegments.toArray(new Segment[idleSegments.size()]);
+            idleSegments.clear();
+            openSegmentCount -= segments.length;
+            idleSegments.notifyAll();
+        }
+        for (Segment segment : segments) {
+            seal(segment);
+        }
+    }
+
+    private static class Segment {
+        private final String relativeFileName;
+        private final Path path;
+        private final FSDataOutputStream out;
+        private long releasedTime;
+
+        private Segment(String relativeFileName, Path path, FSDataOutputStream out) {
+            this.relativeFileName = relativeFileName;
+            this.path = path;
+            this.out = out;
+        }
+    }
+
+    public class SegmentLargeDataStore extends LimitOutputStream.LargeDataStore {
+        private Segment segment;
+        private long offset;
+
+        @Override
+        public OutputStream createOutputStream() throws IOException {
+            segment = acquire();
+            offset = segment.out.getPos();
+            return new OutputStream() {
+                private boolean released;
+
+                @Override
+                public void write(int b) throws IOException {
+                    segment.out.write(b);
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    segment.out.write(b, off, len);
+                }
+
+                @Override
+                public void flush() throws IOException {
+                    segment.out.flush();
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (!released) {
+                        released = true;
+                        release(segment);
+                    }
+                }
+            };
+        }
+
+        /**
+         * The segment file name relative to the data dir.
+         */
+        public String getRelativeFileName() {
+            return segment.relativeFileName;
+        }
+
+        public Path getFullHdfsPath() {
+            return segment.path;
+        }
+
+        public long getOffset() {
+            return offset;
+        }
+    }
+}
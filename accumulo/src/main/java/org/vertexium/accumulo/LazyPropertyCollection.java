@@ -0,0 +1,138 @@
+package org.vertexium.accumulo;
+
+import org.vertexium.Property;
+import org.vertexium.VertexiumException;
+import org.vertexium.accumulo.util.DataInputStreamUtils;
+import org.vertexium.util.PropertyCollection;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Holds the encoded properties of an iterator value and only decodes the properties of a name the first time that
+ * name is read or changed.
+ */
+public class LazyPropertyCollection extends PropertyCollection {
+    private final AccumuloGraph graph;
+    private final byte[] data;
+    private final int propertiesOffset;
+    // property name to pairs of offset and length, relative to propertiesOffset, of properties not yet decoded
+    private final Map<String, int[]> undecodedPropertyRanges;
+
+    private LazyPropertyCollection(AccumuloGraph graph, byte[] data, int propertiesOffset, Map<String, int[]> undecodedPropertyRanges) {
+        this.graph = graph;
+        this.data = data;
+        this.propertiesOffset = propertiesOffset;
+        this.undecodedPropertyRanges = undecodedPropertyRanges;
+    }
+
+    /**
+     * Reads the property name index and skips over the properties.
+     *
+     * @param data The iterator value.
+     * @param in   A stream over data positioned at the property name index.
+     */
+    public static LazyPropertyCollection decode(AccumuloGraph graph, byte[] data, DataInputStream in) throws IOException {
+        int indexCount = in.readInt();
+        Map<String, int[]> ranges = new HashMap<>(indexCount);
+        for (int i = 0; i < indexCount; i++) {
+            String propertyName = graph.getNameSubstitutionStrategy().inflate(DataInputStreamUtils.decodeString(in));
+            int offset = in.readInt();
+            int length = in.readInt();
+            int[] existingRanges = ranges.get(propertyName);
+            if (existingRanges == null) {
+                ranges.put(propertyName, new int[]{offset, length});
+            } else {
+                int[] newRanges = Arrays.copyOf(existingRanges, existingRanges.length + 2);
+                newRanges[existingRanges.length] = offset;
+                newRanges[existingRanges.length + 1] = length;
+                ranges.put(propertyName, newRanges);
+            }
+        }
+        int propertiesLength = in.readInt();
+        int propertiesOffset = data.length - in.available();
+        if (in.skipBytes(propertiesLength) != propertiesLength) {
+            throw new IOException("Unexpected end of data skipping properties");
+        }
+        return new LazyPropertyCollection(graph, data, propertiesOffset, ranges);
+    }
+
+    private void decodeProperties(String name) {
+        if (undecodedPropertyRanges.isEmpty()) {
+            return;
+        }
+        int[] ranges = undecodedPropertyRanges.remove(name);
+        if (ranges == null) {
+            return;
+        }
+        try {
+            for (int i = 0; i < ranges.length; i += 2) {
+                DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, propertiesOffset + ranges[i], ranges[i + 1]));
+                for (Property property : DataInputStreamUtils.decodeProperties(graph, in)) {
+                    super.addProperty(property);
+                }
+            }
+        } catch (IOException ex) {
+            throw new VertexiumException("Could not decode properties: " + name, ex);
+        }
+    }
+
+    private void decodeAllProperties() {
+        for (String name : new ArrayList<>(undecodedPropertyRanges.keySet())) {
+            decodeProperties(name);
+        }
+    }
+
+    @Override
+    public synchronized Iterable<Property> getProperties() {
+        decodeAllProperties();
+        return super.getProperties();
+    }
+
+    @Override
+    public synchronized Iterable<Property> getProperties(String key, String name) {
+        decodeProperties(name);
+        return super.getProperties(key, name);
+    }
+
+    @Override
+    public synchronized Iterable<Property> getProperties(String name) {
+        decodeProperties(name);
+        return super.getProperties(name);
+    }
+
+    @Override
+    public synchronized Property getProperty(String name, int index) {
+        decodeProperties(name);
+        return super.getProperty(name, index);
+    }
+
+    @Override
+    public synchronized Property getProperty(String key, String name, int index) {
+        decodeProperties(name);
+        return super.getProperty(key, name, index);
+    }
+
+    @Override
+    public synchronized void addProperty(Property property) {
+        decodeProperties(property.getName());
+        super.addProperty(property);
+    }
+
+    @Override
+    public synchronized void removeProperty(Property property) {
+        decodeProperties(property.getName());
+        super.removeProperty(property);
+    }
+
+    @Override
+    public synchronized Iterable<Property> removeProperties(String name) {
+        decodeProperties(name);
+        return super.removeProperties(name);
+    }
+}
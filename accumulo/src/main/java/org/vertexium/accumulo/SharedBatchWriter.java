@@ -0,0 +1,273 @@
+package org.vertexium.accumulo;
+
+import org.apache.accumulo.core.client.*;
+import org.apache.accumulo.core.data.ConstraintViolationSummary;
+import org.apache.accumulo.core.data.Mutation;
+import org.vertexium.VertexiumException;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A single {@link MultiTableBatchWriter} shared by all threads writing to a graph so the memory held in write buffers
+ * is bounded by one batchwriter.maxMemory no matter how many threads write.
+ * <p>
+ * Every mutation gets a sequence number once it has been handed to the writer and each thread remembers the last
+ * sequence number it submitted. {@link #flush()} returns as soon as a flush started after that mutation was submitted
+ * has finished, so a thread only waits for its own mutations and threads flushing at the same time share one flush.
+ * <p>
+ * A writer that rejects mutations is replaced. Every thread with mutations in it that were not covered by an earlier
+ * flush gets the rejection from its next {@link #flush()}, even if the replacement writer has been flushed since.
+ */
+public class SharedBatchWriter {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(SharedBatchWriter.class);
+    private final Connector connector;
+    private final BatchWriterConfig batchWriterConfig;
+    private final Object writerLock = new Object();
+    private final Object flushLock = new Object();
+    private Generation generation;
+    private final AtomicLong submittedSequence = new AtomicLong();
+    private final AtomicLong submittedBytes = new AtomicLong();
+    private volatile long flushedBytes;
+    private final AtomicLong flushCount = new AtomicLong();
+    private final AtomicLong rejectedMutationCount = new AtomicLong();
+    private final ThreadLocal<Ticket> lastTicket = new ThreadLocal<>();
+
+    public SharedBatchWriter(Connector connector, BatchWriterConfig batchWriterConfig) {
+        this.connector = connector;
+        this.batchWriterConfig = batchWriterConfig;
+    }
+
+    protected MultiTableBatchWriter createMultiTableBatchWriter() {
+        return connector.createMultiTableBatchWriter(batchWriterConfig);
+    }
+
+    private Generation getGeneration() {
+        synchronized (writerLock) {
+            if (generation == null) {
+                generation = new Generation(createMultiTableBatchWriter());
+            }
+            return generation;
+        }
+    }
+
+    /**
+     * Gets a writer for the table. The writer can be used by any thread and closing it does nothing.
+     */
+    public BatchWriter getBatchWriter(String tableName) {
+        return new TableBatchWriter(tableName);
+    }
+
+    public void addMutation(String tableName, Mutation mutation) throws MutationsRejectedException {
+        Generation generation = getGeneration();
+        long size = mutation.estimatedMemoryUsed();
+        try {
+            generation.writer.getBatchWriter(tableName).addMutation(mutation);
+        } catch (MutationsRejectedException ex) {
+            mutationsRejected(generation, ex);
+            throw ex;
+        } catch (AccumuloException | AccumuloSecurityException | TableNotFoundException ex) {
+            throw new VertexiumException("Could not get batch writer for table: " + tableName, ex);
+        }
+        // the sequence number is taken after the add so a flush that sees it also covers the mutation
+        submittedBytes.addAndGet(size);
+        long sequence = submittedSequence.incrementAndGet();
+        Ticket previous = lastTicket.get();
+        if (previous != null && previous.generation == generation) {
+            // the earlier mutations of this thread are in the same writer, so the new ticket covers them
+            previous = previous.previous;
+        }
+        lastTicket.set(new Ticket(sequence, generation, previous));
+    }
+
+    /**
+     * Waits until the mutations submitted by the calling thread have been written.
+     */
+    public void flush() throws MutationsRejectedException {
+        Ticket ticket = lastTicket.get();
+        if (ticket == null) {
+            return;
+        }
+        // the mutations are reported lost or written once, the next flush only covers mutations added after this one
+        lastTicket.remove();
+        for (Ticket t = ticket.previous; t != null; t = t.previous) {
+            t.checkNotRejected();
+        }
+        ticket.checkNotRejected();
+        if (ticket.isFlushed()) {
+            return;
+        }
+        synchronized (flushLock) {
+            ticket.checkNotRejected();
+            if (ticket.isFlushed()) {
+                return;
+            }
+            Generation generation = ticket.generation;
+            synchronized (writerLock) {
+                if (this.generation != generation) {
+                    // the writer was replaced after rejecting mutations, or closed, which flushed it
+                    ticket.checkNotRejected();
+                    return;
+                }
+            }
+            long sequence = submittedSequence.get();
+            long bytes = submittedBytes.get();
+            try {
+                generation.writer.flush();
+            } catch (MutationsRejectedException ex) {
+                mutationsRejected(generation, ex);
+                throw ex;
+            }
+            flushCount.incrementAndGet();
+            flushedBytes = bytes;
+            generation.flushedSequence = sequence;
+        }
+    }
+
+    /**
+     * A writer that has failed keeps failing so it is replaced for the other threads still writing. The mutations
+     * still buffered in it are lost, so the threads that added them get the rejection when they flush.
+     */
+    private void mutationsRejected(Generation generation, MutationsRejectedException ex) {
+        long count = 0;
+        for (ConstraintViolationSummary summary : ex.getConstraintViolationSummaries()) {
+            count += summary.getNumberOfViolatingMutations();
+        }
+        rejectedMutationCount.addAndGet(Math.max(count, 1));
+        LOGGER.error("mutations rejected by shared batch writer", ex);
+        synchronized (writerLock) {
+            if (generation.rejection == null) {
+                generation.rejection = ex;
+            }
+            if (this.generation == generation) {
+                this.generation = null;
+                closeQuietly(generation.writer);
+            }
+        }
+    }
+
+    public void close() {
+        synchronized (writerLock) {
+            if (generation == null) {
+                return;
+            }
+            try {
+                generation.writer.close();
+            } catch (MutationsRejectedException ex) {
+                generation.rejection = ex;
+                throw new VertexiumException("Could not close shared batch writer", ex);
+            } finally {
+                generation = null;
+            }
+        }
+    }
+
+    private static void closeQuietly(MultiTableBatchWriter writer) {
+        try {
+            writer.close();
+        } catch (Exception ex) {
+            LOGGER.debug("could not close failed batch writer", ex);
+        }
+    }
+
+    /**
+     * The estimated size of the mutations submitted since the last flush. Accumulo may have already written some of
+     * them in the background.
+     */
+    public long getBufferedBytes() {
+        return submittedBytes.get() - flushedBytes;
+    }
+
+    public long getSubmittedMutationCount() {
+        return submittedSequence.get();
+    }
+
+    public long getFlushCount() {
+        return flushCount.get();
+    }
+
+    public long getRejectedMutationCount() {
+        return rejectedMutationCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SharedBatchWriter{" +
+                "bufferedBytes=" + getBufferedBytes() +
+                ", submittedMutationCount=" + getSubmittedMutationCount() +
+                ", flushCount=" + getFlushCount() +
+                ", rejectedMutationCount=" + getRejectedMutationCount() +
+                '}';
+    }
+
+    /**
+     * A writer and the last sequence number a successful flush of it covered.
+     */
+    private static class Generation {
+        private final MultiTableBatchWriter writer;
+        private volatile long flushedSequence;
+        private volatile MutationsRejectedException rejection;
+
+        private Generation(MultiTableBatchWriter writer) {
+            this.writer = writer;
+        }
+    }
+
+    /**
+     * The last mutation a thread added to a writer, linked to its last mutation in each earlier writer that has not
+     * been flushed by the thread yet.
+     */
+    private static class Ticket {
+        private final long sequence;
+        private final Generation generation;
+        private final Ticket previous;
+
+        private Ticket(long sequence, Generation generation, Ticket previous) {
+            this.sequence = sequence;
+            this.generation = generation;
+            this.previous = previous;
+        }
+
+        private boolean isFlushed() {
+            return sequence <= generation.flushedSequence;
+        }
+
+        private void checkNotRejected() throws MutationsRejectedException {
+            MutationsRejectedException rejection = generation.rejection;
+            if (rejection != null && !isFlushed()) {
+                throw rejection;
+            }
+        }
+    }
+
+    private class TableBatchWriter implements BatchWriter {
+        private final String tableName;
+
+        public TableBatchWriter(String tableName) {
+            this.tableName = tableName;
+        }
+
+        @Override
+        public void addMutation(Mutation m) throws MutationsRejectedException {
+            SharedBatchWriter.this.addMutation(tableName, m);
+        }
+
+        @Override
+        public void addMutations(Iterable<Mutation> iterable) throws MutationsRejectedException {
+            for (Mutation m : iterable) {
+                addMutation(m);
+            }
+        }
+
+        @Override
+        public void flush() throws MutationsRejectedException {
+            SharedBatchWriter.this.flush();
+        }
+
+        @Override
+        public void close() throws MutationsRejectedException {
+            // shared with other threads, closed with the graph
+        }
+    }
+}
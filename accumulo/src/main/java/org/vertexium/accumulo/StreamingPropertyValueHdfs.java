@@ -12,22 +12,34 @@ import java.io.InputStream;
 class StreamingPropertyValueHdfs extends StreamingPropertyValue {
     private final FileSystem fs;
     private final Path path;
+    private long length;
 
     public StreamingPropertyValueHdfs(FileSystem fs, Path path, StreamingPropertyValueRef streamingPropertyValueRef) {
+        this(fs, path, streamingPropertyValueRef, -1);
+    }
+
+    /**
+     * @param length The length of the file if it is known, -1 to get it from the file system when first needed.
+     */
+    public StreamingPropertyValueHdfs(FileSystem fs, Path path, StreamingPropertyValueRef streamingPropertyValueRef, long length) {
         super(null, streamingPropertyValueRef.getValueType());
         this.store(streamingPropertyValueRef.isStore());
         this.searchIndex(streamingPropertyValueRef.isSearchIndex());
         this.fs = fs;
         this.path = path;
+        this.length = length;
     }
 
     @Override
     public long getLength() {
-        try {
-            return fs.getFileStatus(path).getLen();
-        } catch (IOException ex) {
-            throw new VertexiumException("Could not get length of: " + this.path, ex);
+        if (this.length < 0) {
+            try {
+                this.length = fs.getFileStatus(path).getLen();
+            } catch (IOException ex) {
+                throw new VertexiumException("Could not get length of: " + this.path, ex);
+            }
         }
+        return this.length;
     }
 
     @Override
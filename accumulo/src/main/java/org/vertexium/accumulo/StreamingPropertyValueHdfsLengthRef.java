@@ -0,0 +1,32 @@
+package org.vertexium.accumulo;
+
+import org.apache.hadoop.fs.Path;
+import org.vertexium.property.StreamingPropertyValue;
+
+/**
+ * A streaming property value stored in HDFS with the length known when it was written, so reading the length does
+ * not need the file status.
+ */
+public class StreamingPropertyValueHdfsLengthRef extends StreamingPropertyValueHdfsRef {
+    private static final long serialVersionUID = 1L;
+    private final long length;
+
+    // here for serialization
+    protected StreamingPropertyValueHdfsLengthRef() {
+        this.length = -1;
+    }
+
+    public StreamingPropertyValueHdfsLengthRef(String path, StreamingPropertyValue propertyValue, long length) {
+        super(path, propertyValue);
+        this.length = length;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public StreamingPropertyValue toStreamingPropertyValue(AccumuloGraph graph) {
+        return new StreamingPropertyValueHdfs(graph.getFileSystem(), new Path(graph.getDataDir(), getPath()), this, getLength());
+    }
+}
@@ -0,0 +1,97 @@
+package org.vertexium.accumulo;
+
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.vertexium.VertexiumException;
+import org.vertexium.property.StreamingPropertyValue;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+class StreamingPropertyValueHdfsSegment extends StreamingPropertyValue {
+    private final FileSystem fs;
+    private final Path path;
+    private final long offset;
+    private final long length;
+
+    public StreamingPropertyValueHdfsSegment(FileSystem fs, Path path, StreamingPropertyValueHdfsSegmentRef valueRef) {
+        super(null, valueRef.getValueType());
+        this.store(valueRef.isStore());
+        this.searchIndex(valueRef.isSearchIndex());
+        this.fs = fs;
+        this.path = path;
+        this.offset = valueRef.getOffset();
+        this.length = valueRef.getLength();
+    }
+
+    @Override
+    public long getLength() {
+        return length;
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        try {
+            FSDataInputStream in = fs.open(this.path);
+            in.seek(offset);
+            return new SegmentInputStream(in, length);
+        } catch (IOException ex) {
+            throw new VertexiumException("Could not open: " + this.path + " at " + offset, ex);
+        }
+    }
+
+    /**
+     * Stops at the end of the value instead of the end of the segment.
+     */
+    private static class SegmentInputStream extends FilterInputStream {
+        private long remaining;
+
+        private SegmentInputStream(InputStream in, long length) {
+            super(in);
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = super.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = super.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(Math.min(n, remaining));
+            remaining -= skipped;
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(super.available(), remaining);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.vertexium.accumulo;
+
+import org.apache.hadoop.fs.Path;
+import org.vertexium.property.StreamingPropertyValue;
+import org.vertexium.property.StreamingPropertyValueRef;
+
+/**
+ * A streaming property value stored at an offset in an HDFS segment file written by {@link HdfsSegmentStore}.
+ */
+public class StreamingPropertyValueHdfsSegmentRef extends StreamingPropertyValueRef<AccumuloGraph> {
+    private static final long serialVersionUID = 1L;
+    private String segment;
+    private long offset;
+    private long length;
+
+    // here for serialization
+    protected StreamingPropertyValueHdfsSegmentRef() {
+
+    }
+
+    public StreamingPropertyValueHdfsSegmentRef(String segment, long offset, long length, StreamingPropertyValue propertyValue) {
+        super(propertyValue);
+        this.segment = segment;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * The segment file name relative to the data dir.
+     */
+    public String getSegment() {
+        return segment;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    /**
+     * A ref to the same value after it has been copied to another segment.
+     */
+    public StreamingPropertyValueHdfsSegmentRef withSegment(String segment, long offset) {
+        StreamingPropertyValue propertyValue = new StreamingPropertyValue(null, getValueType());
+        propertyValue.store(isStore());
+        propertyValue.searchIndex(isSearchIndex());
+        return new StreamingPropertyValueHdfsSegmentRef(segment, offset, getLength(), propertyValue);
+    }
+
+    @Override
+    public StreamingPropertyValue toStreamingPropertyValue(AccumuloGraph graph) {
+        return new StreamingPropertyValueHdfsSegment(graph.getFileSystem(), new Path(graph.getDataDir(), getSegment()), this);
+    }
+}
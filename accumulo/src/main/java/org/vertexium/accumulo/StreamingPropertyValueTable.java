@@ -33,6 +33,18 @@ class StreamingPropertyValueTable extends StreamingPropertyValue {
         return new ByteArrayInputStream(this.data);
     }
 
+    String getDataRowKey() {
+        return dataRowKey;
+    }
+
+    boolean isDataLoaded() {
+        return this.data != null;
+    }
+
+    void setData(byte[] data) {
+        this.data = data;
+    }
+
     private void ensureDataLoaded() {
         if (this.data == null) {
             this.data = this.graph.streamingPropertyValueTableData(this.dataRowKey);
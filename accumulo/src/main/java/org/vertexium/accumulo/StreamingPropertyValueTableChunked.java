@@ -0,0 +1,65 @@
+package org.vertexium.accumulo;
+
+import org.apache.hadoop.io.Text;
+import org.vertexium.property.StreamingPropertyValue;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+
+class StreamingPropertyValueTableChunked extends StreamingPropertyValue {
+    public static final Text CF_CHUNK = new Text("c");
+    private final AccumuloGraph graph;
+    private final StreamingPropertyValueTableChunkedRef valueRef;
+    private transient byte[] data;
+
+    StreamingPropertyValueTableChunked(AccumuloGraph graph, StreamingPropertyValueTableChunkedRef valueRef) {
+        super(null, valueRef.getValueType());
+        this.store(valueRef.isStore());
+        this.searchIndex(valueRef.isSearchIndex());
+        this.graph = graph;
+        this.valueRef = valueRef;
+        this.data = valueRef.getData();
+    }
+
+    /**
+     * Chunk indexes are written as fixed width hex so the columns sort in chunk order.
+     */
+    static Text getChunkColumnQualifier(int chunkIndex) {
+        return new Text(String.format("%08x", chunkIndex));
+    }
+
+    String getDataRowKey() {
+        return valueRef.getDataRowKey();
+    }
+
+    /**
+     * Only values that fit in one chunk are loaded ahead of time, larger values are streamed.
+     */
+    boolean isPrefetchable() {
+        return this.data == null && valueRef.getLength() <= valueRef.getChunkSize();
+    }
+
+    void setData(byte[] data) {
+        this.data = data;
+    }
+
+    @Override
+    public long getLength() {
+        return valueRef.getLength();
+    }
+
+    @Override
+    public InputStream getInputStream() {
+        // the data is kept when the value was just saved since the mutation may not have been flushed yet
+        if (this.data != null) {
+            return new ByteArrayInputStream(this.data);
+        }
+        return new StreamingPropertyValueTableChunkedInputStream(
+                graph,
+                valueRef.getDataRowKey(),
+                valueRef.getLength(),
+                valueRef.getChunkSize(),
+                valueRef.getChecksum()
+        );
+    }
+}
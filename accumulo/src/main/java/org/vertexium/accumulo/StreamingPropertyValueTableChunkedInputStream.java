@@ -0,0 +1,147 @@
+package org.vertexium.accumulo;
+
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.vertexium.VertexiumException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Reads the chunks of a streaming property value from the data table as they are needed. Skipping seeks straight to
+ * the chunk holding the new position so reading part of a large value only loads the chunks in that part. The checksum
+ * is checked when the whole value is read in order.
+ */
+class StreamingPropertyValueTableChunkedInputStream extends InputStream {
+    private final AccumuloGraph graph;
+    private final String dataRowKey;
+    private final long length;
+    private final int chunkSize;
+    private final long expectedChecksum;
+    private long position;
+    private byte[] chunk;
+    private long chunkStart;
+    private Scanner scanner;
+    private Iterator<Map.Entry<Key, Value>> chunks;
+    private int nextChunkIndex;
+    // null once the stream has skipped since the checksum can only be checked over the whole value
+    private CRC32 checksum = new CRC32();
+
+    StreamingPropertyValueTableChunkedInputStream(AccumuloGraph graph, String dataRowKey, long length, int chunkSize, long expectedChecksum) {
+        this.graph = graph;
+        this.dataRowKey = dataRowKey;
+        this.length = length;
+        this.chunkSize = chunkSize;
+        this.expectedChecksum = expectedChecksum;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureChunk()) {
+            return -1;
+        }
+        int b = chunk[(int) (position - chunkStart)] & 0xff;
+        position++;
+        if (checksum != null) {
+            checksum.update(b);
+        }
+        checkChecksumAtEnd();
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureChunk()) {
+            return -1;
+        }
+        int chunkOffset = (int) (position - chunkStart);
+        int n = Math.min(len, chunk.length - chunkOffset);
+        System.arraycopy(chunk, chunkOffset, b, off, n);
+        position += n;
+        if (checksum != null) {
+            checksum.update(b, off, n);
+        }
+        checkChecksumAtEnd();
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        long newPosition = Math.min(length, position + n);
+        long skipped = newPosition - position;
+        position = newPosition;
+        checksum = null;
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (chunk == null || position < chunkStart || position >= chunkStart + chunk.length) {
+            return 0;
+        }
+        return (int) (chunkStart + chunk.length - position);
+    }
+
+    private void checkChecksumAtEnd() throws IOException {
+        if (checksum != null && position == length) {
+            long actualChecksum = checksum.getValue();
+            checksum = null;
+            if (actualChecksum != expectedChecksum) {
+                throw new IOException("Checksum mismatch reading streaming property value " + dataRowKey);
+            }
+        }
+    }
+
+    private boolean ensureChunk() {
+        if (position >= length) {
+            return false;
+        }
+        if (chunk != null && position >= chunkStart && position < chunkStart + chunk.length) {
+            return true;
+        }
+
+        int chunkIndex = (int) (position / chunkSize);
+        if (chunks == null || chunkIndex != nextChunkIndex) {
+            closeScanner();
+            scanner = graph.createStreamingPropertyValueTableChunkScanner(dataRowKey, chunkIndex);
+            chunks = scanner.iterator();
+            nextChunkIndex = chunkIndex;
+        }
+        if (!chunks.hasNext()) {
+            throw new VertexiumException("Missing chunk " + chunkIndex + " of streaming property value " + dataRowKey);
+        }
+        Map.Entry<Key, Value> entry = chunks.next();
+        if (!entry.getKey().getColumnQualifier().equals(StreamingPropertyValueTableChunked.getChunkColumnQualifier(chunkIndex))) {
+            throw new VertexiumException("Expected chunk " + chunkIndex + " of streaming property value " + dataRowKey + " found " + entry.getKey());
+        }
+        chunk = entry.getValue().get();
+        chunkStart = (long) chunkIndex * chunkSize;
+        nextChunkIndex = chunkIndex + 1;
+        return true;
+    }
+
+    private void closeScanner() {
+        if (scanner != null) {
+            scanner.close();
+            scanner = null;
+            chunks = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeScanner();
+        chunk = null;
+        super.close();
+    }
+}
@@ -0,0 +1,48 @@
+package org.vertexium.accumulo;
+
+import org.vertexium.property.StreamingPropertyValue;
+
+/**
+ * A streaming property value stored in the data table as chunk columns. The length and checksum are kept here so the
+ * length can be known without reading the data and a full read can be checked.
+ */
+public class StreamingPropertyValueTableChunkedRef extends StreamingPropertyValueTableRef {
+    private static final long serialVersionUID = 1L;
+    private final long length;
+    private final int chunkSize;
+    private final long checksum;
+
+    // here for serialization
+    protected StreamingPropertyValueTableChunkedRef() {
+        this.length = 0;
+        this.chunkSize = 0;
+        this.checksum = 0;
+    }
+
+    public StreamingPropertyValueTableChunkedRef(String dataRowKey, StreamingPropertyValue propertyValue, byte[] data, int chunkSize, long checksum) {
+        super(dataRowKey, propertyValue, data);
+        this.length = data.length;
+        this.chunkSize = chunkSize;
+        this.checksum = checksum;
+    }
+
+    public long getLength() {
+        return length;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * The CRC32 of the whole value.
+     */
+    public long getChecksum() {
+        return checksum;
+    }
+
+    @Override
+    public StreamingPropertyValue toStreamingPropertyValue(AccumuloGraph graph) {
+        return new StreamingPropertyValueTableChunked(graph, this);
+    }
+}
@@ -0,0 +1,244 @@
+package org.vertexium.accumulo.bulk;
+
+import org.apache.accumulo.core.client.Connector;
+import org.apache.accumulo.core.client.Scanner;
+import org.apache.accumulo.core.conf.DefaultConfiguration;
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.PartialKey;
+import org.apache.accumulo.core.data.Range;
+import org.apache.accumulo.core.data.Value;
+import org.apache.accumulo.core.file.FileOperations;
+import org.apache.accumulo.core.file.FileSKVWriter;
+import org.apache.accumulo.core.file.rfile.RFile;
+import org.apache.accumulo.core.security.Authorizations;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.Text;
+import org.vertexium.EdgeBuilderBase;
+import org.vertexium.ElementType;
+import org.vertexium.VertexBuilder;
+import org.vertexium.VertexiumException;
+import org.vertexium.accumulo.AccumuloElementCounts;
+import org.vertexium.accumulo.AccumuloGraph;
+import org.vertexium.accumulo.EdgeBuilderWithKeyValuePairs;
+import org.vertexium.accumulo.KeyValuePair;
+import org.vertexium.accumulo.VertexBuilderWithKeyValuePairs;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.*;
+
+/**
+ * Loads vertices and edges by writing sorted RFiles and importing them with
+ * {@link org.apache.accumulo.core.client.admin.TableOperations#importDirectory}, skipping the batch writers and tablet
+ * server ingest. Meant for initial loads of a graph. Elements are not added to the search index, run a reindex after
+ * loading. Streaming property values are not supported.
+ * <p>
+ * Key value pairs are sorted with an {@link ExternalKeyValuePairSorter} so loads larger than memory spill to local
+ * disk. One RFile is written for each tablet of the table at the time of the load.
+ */
+public class AccumuloBulkLoader implements Closeable {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(AccumuloBulkLoader.class);
+    private final AccumuloGraph graph;
+    private final FileSystem fileSystem;
+    private final Path workDir;
+    private final ExternalKeyValuePairSorter verticesSorter;
+    private final ExternalKeyValuePairSorter edgesSorter;
+    private int verifySampleSize;
+    private long vertexCount;
+    private long edgeCount;
+    private final Random random = new Random();
+
+    /**
+     * @param workDir        The directory, on the file system Accumulo imports from, to write RFiles to. It must not
+     *                       exist or be empty.
+     * @param localTempDir   The local directory for sort run files or null for the system temp directory.
+     * @param maxMemoryBytes The memory each of the vertex and edge table sorts may use before spilling to disk.
+     */
+    public AccumuloBulkLoader(AccumuloGraph graph, FileSystem fileSystem, String workDir, File localTempDir, long maxMemoryBytes) {
+        this.graph = graph;
+        this.fileSystem = fileSystem;
+        this.workDir = new Path(workDir);
+        this.verticesSorter = new ExternalKeyValuePairSorter(localTempDir, maxMemoryBytes);
+        this.edgesSorter = new ExternalKeyValuePairSorter(localTempDir, maxMemoryBytes);
+    }
+
+    /**
+     * After importing, reads back this many randomly chosen key value pairs from each table and fails the load if any
+     * are missing. 0 disables verification.
+     */
+    public void setVerifySampleSize(int verifySampleSize) {
+        this.verifySampleSize = verifySampleSize;
+    }
+
+    public void addVertex(VertexBuilder vertexBuilder) {
+        if (!(vertexBuilder instanceof VertexBuilderWithKeyValuePairs)) {
+            throw new VertexiumException("Vertex builder must implement " + VertexBuilderWithKeyValuePairs.class.getName() + " found " + vertexBuilder.getClass().getName());
+        }
+        verticesSorter.addAll(((VertexBuilderWithKeyValuePairs) vertexBuilder).getKeyValuePairs());
+        vertexCount++;
+    }
+
+    /**
+     * Adds the edge to the edge table and the edge refs to its vertices in the vertex table.
+     */
+    public void addEdge(EdgeBuilderBase edgeBuilder) {
+        if (!(edgeBuilder instanceof EdgeBuilderWithKeyValuePairs)) {
+            throw new VertexiumException("Edge builder must implement " + EdgeBuilderWithKeyValuePairs.class.getName() + " found " + edgeBuilder.getClass().getName());
+        }
+        EdgeBuilderWithKeyValuePairs edgeBuilderWithKeyValuePairs = (EdgeBuilderWithKeyValuePairs) edgeBuilder;
+        edgesSorter.addAll(edgeBuilderWithKeyValuePairs.getEdgeTableKeyValuePairs());
+        verticesSorter.addAll(edgeBuilderWithKeyValuePairs.getVertexTableKeyValuePairs());
+        edgeCount++;
+    }
+
+    public void load() {
+        load(graph.getVerticesTableName(), verticesSorter);
+        load(graph.getEdgesTableName(), edgesSorter);
+
+        AccumuloElementCounts elementCounts = graph.getElementCounts();
+        if (elementCounts != null) {
+            elementCounts.increment(ElementType.VERTEX, vertexCount);
+            elementCounts.increment(ElementType.EDGE, edgeCount);
+            graph.flush();
+        }
+        graph.clearElementCache();
+    }
+
+    private void load(String tableName, ExternalKeyValuePairSorter sorter) {
+        if (sorter.getCount() == 0) {
+            return;
+        }
+        Path filesDir = new Path(workDir, tableName + "/files");
+        Path failuresDir = new Path(workDir, tableName + "/failures");
+        try {
+            for (Path dir : new Path[]{filesDir, failuresDir}) {
+                if (fileSystem.exists(dir) && fileSystem.listStatus(dir).length > 0) {
+                    throw new VertexiumException("Bulk load directory is not empty: " + dir);
+                }
+                fileSystem.mkdirs(dir);
+            }
+
+            long startTime = System.currentTimeMillis();
+            List<KeyValuePair> sample = writeFiles(tableName, sorter, filesDir);
+            LOGGER.info("wrote %d key value pairs for table %s in %dms (sort run files: %d)", sorter.getCount(), tableName, System.currentTimeMillis() - startTime, sorter.getRunFileCount());
+
+            startTime = System.currentTimeMillis();
+            boolean setTime = false;
+            graph.getConnector().tableOperations().importDirectory(tableName, filesDir.toString(), failuresDir.toString(), setTime);
+            FileStatus[] failures = fileSystem.listStatus(failuresDir);
+            if (failures.length > 0) {
+                throw new VertexiumException("Could not import " + failures.length + " files into table " + tableName + ", see " + failuresDir);
+            }
+            LOGGER.info("imported files into table %s in %dms", tableName, System.currentTimeMillis() - startTime);
+
+            verify(tableName, sample);
+        } catch (VertexiumException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new VertexiumException("Could not bulk load table " + tableName, ex);
+        }
+    }
+
+    /**
+     * Writes the sorted pairs starting a new file each time the row passes a split point of the table.
+     *
+     * @return A random sample of the pairs written for verification.
+     */
+    private List<KeyValuePair> writeFiles(String tableName, ExternalKeyValuePairSorter sorter, Path filesDir) throws Exception {
+        List<Text> splits = new ArrayList<>(graph.getConnector().tableOperations().listSplits(tableName));
+        Collections.sort(splits);
+        List<KeyValuePair> sample = new ArrayList<>();
+        long pairCount = 0;
+        int splitIndex = 0;
+        int fileIndex = 0;
+        FileSKVWriter writer = null;
+        try {
+            Iterator<KeyValuePair> pairs = sorter.sortedIterator();
+            while (pairs.hasNext()) {
+                KeyValuePair pair = pairs.next();
+                Text row = pair.getKey().getRow();
+                boolean passedSplit = false;
+                while (splitIndex < splits.size() && row.compareTo(splits.get(splitIndex)) > 0) {
+                    splitIndex++;
+                    passedSplit = true;
+                }
+                if (writer == null || passedSplit) {
+                    if (writer != null) {
+                        writer.close();
+                    }
+                    String fileName = new Path(filesDir, String.format("part-%05d.%s", fileIndex++, RFile.EXTENSION)).toString();
+                    writer = FileOperations.getInstance().openWriter(fileName, fileSystem, fileSystem.getConf(), DefaultConfiguration.getInstance());
+                    writer.startDefaultLocalityGroup();
+                }
+                writer.append(pair.getKey(), pair.getValue());
+                sample(sample, pair, pairCount++);
+            }
+        } finally {
+            if (writer != null) {
+                writer.close();
+            }
+            sorter.close();
+        }
+        return sample;
+    }
+
+    /**
+     * Reservoir sampling so every pair is equally likely to be checked without knowing the count ahead of time.
+     */
+    private void sample(List<KeyValuePair> sample, KeyValuePair pair, long pairIndex) {
+        if (verifySampleSize <= 0) {
+            return;
+        }
+        if (sample.size() < verifySampleSize) {
+            sample.add(pair);
+            return;
+        }
+        long i = (long) (random.nextDouble() * (pairIndex + 1));
+        if (i < verifySampleSize) {
+            sample.set((int) i, pair);
+        }
+    }
+
+    /**
+     * Newer values already in the table for the same columns will hide the imported values and be reported missing.
+     */
+    private void verify(String tableName, List<KeyValuePair> sample) throws Exception {
+        if (sample.size() == 0) {
+            return;
+        }
+        Connector connector = graph.getConnector();
+        Authorizations authorizations = connector.securityOperations().getUserAuthorizations(connector.whoami());
+        int missing = 0;
+        for (KeyValuePair pair : sample) {
+            Key key = pair.getKey();
+            Scanner scanner = connector.createScanner(tableName, authorizations);
+            scanner.setRange(new Range(key.getRow()));
+            scanner.fetchColumn(key.getColumnFamily(), key.getColumnQualifier());
+            boolean found = false;
+            for (Map.Entry<Key, Value> entry : scanner) {
+                if (entry.getKey().equals(key, PartialKey.ROW_COLFAM_COLQUAL_COLVIS_TIME) && entry.getValue().equals(pair.getValue())) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                LOGGER.warn("imported key not found in table %s: %s", tableName, key);
+                missing++;
+            }
+        }
+        if (missing > 0) {
+            throw new VertexiumException("Verification of table " + tableName + " failed, " + missing + " of " + sample.size() + " sampled key value pairs are missing");
+        }
+        LOGGER.info("verified %d sampled key value pairs in table %s", sample.size(), tableName);
+    }
+
+    @Override
+    public void close() {
+        verticesSorter.close();
+        edgesSorter.close();
+    }
+}
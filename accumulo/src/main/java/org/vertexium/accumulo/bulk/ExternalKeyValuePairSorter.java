@@ -0,0 +1,192 @@
+package org.vertexium.accumulo.bulk;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.vertexium.VertexiumException;
+import org.vertexium.accumulo.KeyValuePair;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Sorts key value pairs that may not fit in memory. Pairs are buffered until the buffer reaches the memory limit, then
+ * sorted and written to a run file in the temp directory. {@link #sortedIterator()} merges the run files.
+ */
+public class ExternalKeyValuePairSorter implements Closeable {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(ExternalKeyValuePairSorter.class);
+    // rough size of the Key, Value and array objects around the bytes
+    private static final int PAIR_OVERHEAD = 128;
+    private final File tempDir;
+    private final long maxMemoryBytes;
+    private final List<KeyValuePair> buffer = new ArrayList<>();
+    private long bufferBytes;
+    private final List<File> runFiles = new ArrayList<>();
+    private final List<RunReader> runReaders = new ArrayList<>();
+    private long count;
+
+    /**
+     * @param tempDir        The local directory to write run files to or null for the system temp directory.
+     * @param maxMemoryBytes The estimated size of the pairs to hold in memory before writing a run file.
+     */
+    public ExternalKeyValuePairSorter(File tempDir, long maxMemoryBytes) {
+        this.tempDir = tempDir;
+        this.maxMemoryBytes = maxMemoryBytes;
+    }
+
+    public void addAll(Iterable<KeyValuePair> pairs) {
+        for (KeyValuePair pair : pairs) {
+            add(pair);
+        }
+    }
+
+    public void add(KeyValuePair pair) {
+        buffer.add(pair);
+        bufferBytes += pair.getKey().getSize() + pair.getValue().getSize() + PAIR_OVERHEAD;
+        count++;
+        if (bufferBytes >= maxMemoryBytes) {
+            spill();
+        }
+    }
+
+    private void spill() {
+        if (buffer.size() == 0) {
+            return;
+        }
+        Collections.sort(buffer);
+        try {
+            File runFile = File.createTempFile("vertexium-sort-", ".run", tempDir);
+            runFile.deleteOnExit();
+            runFiles.add(runFile);
+            LOGGER.debug("writing %d key value pairs to %s", buffer.size(), runFile.getAbsolutePath());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(runFile)))) {
+                for (KeyValuePair pair : buffer) {
+                    out.writeBoolean(true);
+                    pair.getKey().write(out);
+                    pair.getValue().write(out);
+                }
+                out.writeBoolean(false);
+            }
+        } catch (IOException ex) {
+            throw new VertexiumException("Could not write sort run file", ex);
+        }
+        buffer.clear();
+        bufferBytes = 0;
+    }
+
+    /**
+     * The pairs added so far in key order. No more pairs can be added once this is called.
+     */
+    public Iterator<KeyValuePair> sortedIterator() {
+        if (runFiles.size() == 0) {
+            Collections.sort(buffer);
+            return buffer.iterator();
+        }
+        spill();
+        final PriorityQueue<RunReader> queue = new PriorityQueue<>();
+        for (File runFile : runFiles) {
+            RunReader runReader = new RunReader(runFile);
+            runReaders.add(runReader);
+            if (runReader.getCurrent() != null) {
+                queue.add(runReader);
+            }
+        }
+        return new Iterator<KeyValuePair>() {
+            @Override
+            public boolean hasNext() {
+                return !queue.isEmpty();
+            }
+
+            @Override
+            public KeyValuePair next() {
+                RunReader runReader = queue.poll();
+                if (runReader == null) {
+                    throw new NoSuchElementException();
+                }
+                KeyValuePair result = runReader.getCurrent();
+                if (runReader.advance()) {
+                    queue.add(runReader);
+                }
+                return result;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getRunFileCount() {
+        return runFiles.size();
+    }
+
+    @Override
+    public void close() {
+        for (RunReader runReader : runReaders) {
+            runReader.close();
+        }
+        runReaders.clear();
+        for (File runFile : runFiles) {
+            if (!runFile.delete()) {
+                LOGGER.warn("could not delete sort run file %s", runFile.getAbsolutePath());
+            }
+        }
+        runFiles.clear();
+        buffer.clear();
+    }
+
+    private static class RunReader implements Comparable<RunReader> {
+        private final DataInputStream in;
+        private KeyValuePair current;
+
+        public RunReader(File runFile) {
+            try {
+                this.in = new DataInputStream(new BufferedInputStream(new FileInputStream(runFile)));
+            } catch (FileNotFoundException ex) {
+                throw new VertexiumException("Could not open sort run file: " + runFile.getAbsolutePath(), ex);
+            }
+            advance();
+        }
+
+        public KeyValuePair getCurrent() {
+            return current;
+        }
+
+        public boolean advance() {
+            try {
+                if (!in.readBoolean()) {
+                    current = null;
+                    close();
+                    return false;
+                }
+                Key key = new Key();
+                key.readFields(in);
+                Value value = new Value();
+                value.readFields(in);
+                current = new KeyValuePair(key, value);
+                return true;
+            } catch (IOException ex) {
+                throw new VertexiumException("Could not read sort run file", ex);
+            }
+        }
+
+        public void close() {
+            try {
+                in.close();
+            } catch (IOException ex) {
+                LOGGER.debug("could not close sort run file", ex);
+            }
+        }
+
+        @Override
+        public int compareTo(RunReader o) {
+            return current.compareTo(o.current);
+        }
+    }
+}
@@ -1,8 +1,5 @@
 package org.vertexium.accumulo.util;
 
-import com.google.common.base.Function;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Sets;
 import org.apache.hadoop.io.Text;
 import org.vertexium.Property;
 import org.vertexium.Visibility;
@@ -14,11 +11,12 @@ import org.vertexium.accumulo.iterator.model.*;
 import org.vertexium.accumulo.iterator.util.DataOutputStreamUtils;
 import org.vertexium.id.NameSubstitutionStrategy;
 
-import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -43,11 +41,26 @@ public class DataInputStreamUtils {
         return results;
     }
 
+    public static List<Visibility> decodeVisibilities(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count == -1) {
+            return null;
+        }
+        List<Visibility> results = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            results.add(new Visibility(decodeText(in).toString()));
+        }
+        return results;
+    }
+
+    /**
+     * Decodes properties until {@link ElementData#PROP_END} or the end of the stream.
+     */
     public static Iterable<Property> decodeProperties(AccumuloGraph graph, final DataInputStream in) throws IOException {
         List<Property> results = new ArrayList<>();
         while (true) {
             int propId = in.read();
-            if (propId == ElementData.PROP_END) {
+            if (propId == ElementData.PROP_END || propId == -1) {
                 break;
             } else if (propId != ElementData.PROP_START) {
                 throw new IOException("Unexpected prop id: " + propId);
@@ -65,13 +78,10 @@ public class DataInputStreamUtils {
             List<Text> propertyHiddenVisibilitiesTextList = decodeTextList(in);
             Set<Visibility> propertyHiddenVisibilities = null;
             if (propertyHiddenVisibilitiesTextList != null) {
-                propertyHiddenVisibilities = Sets.newHashSet(Iterables.transform(propertyHiddenVisibilitiesTextList, new Function<Text, Visibility>() {
-                    @Nullable
-                    @Override
-                    public Visibility apply(Text input) {
-                        return new Visibility(input.toString());
-                    }
-                }));
+                propertyHiddenVisibilities = new HashSet<>(propertyHiddenVisibilitiesTextList.size());
+                for (Text propertyHiddenVisibility : propertyHiddenVisibilitiesTextList) {
+                    propertyHiddenVisibilities.add(new Visibility(propertyHiddenVisibility.toString()));
+                }
             }
             LazyPropertyMetadata metadata = decodePropertyMetadata(in, graph.getNameSubstitutionStrategy());
             results.add(new LazyMutableProperty(
@@ -106,9 +116,16 @@ public class DataInputStreamUtils {
         return metadata;
     }
 
-    public static Edges decodeEdges(DataInputStream in, NameSubstitutionStrategy nameSubstitutionStrategy) throws IOException {
+    /**
+     * @param data   The iterator value.
+     * @param offset The offset in data of the edges.
+     */
+    public static Edges decodeEdges(byte[] data, int offset, NameSubstitutionStrategy nameSubstitutionStrategy) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, data.length - offset));
         int edgeLabelMarker = in.readByte();
-        if (edgeLabelMarker == DataOutputStreamUtils.EDGE_LABEL_WITH_REFS_MARKER) {
+        if (edgeLabelMarker == DataOutputStreamUtils.EDGE_LABEL_WITH_COLUMNAR_REFS_MARKER) {
+            return decodeEdgesWithColumnarRefs(data, in, nameSubstitutionStrategy);
+        } else if (edgeLabelMarker == DataOutputStreamUtils.EDGE_LABEL_WITH_REFS_MARKER) {
             return decodeEdgesWithRefs(in, nameSubstitutionStrategy);
         } else if (edgeLabelMarker == DataOutputStreamUtils.EDGE_LABEL_ONLY_MARKER) {
             return decodeEdgesLabelsOnly(in, nameSubstitutionStrategy);
@@ -145,6 +162,21 @@ public class DataInputStreamUtils {
         return edges;
     }
 
+    /**
+     * Only the label dictionary is decoded, the edges are read from data as they are used.
+     */
+    private static Edges decodeEdgesWithColumnarRefs(byte[] data, DataInputStream in, NameSubstitutionStrategy nameSubstitutionStrategy) throws IOException {
+        int count = in.readInt();
+        String[] labels = new String[count];
+        int[] labelCounts = new int[count];
+        for (int i = 0; i < count; i++) {
+            labels[i] = nameSubstitutionStrategy.inflate(decodeString(in));
+            labelCounts[i] = in.readInt();
+        }
+        int edgesOffset = data.length - in.available();
+        return new ColumnarEdgesWithEdgeInfo(data, edgesOffset, labels, labelCounts);
+    }
+
     public static byte[] decodeByteArray(DataInputStream in) throws IOException {
         return org.vertexium.accumulo.iterator.util.DataInputStreamUtils.decodeByteArray(in);
     }
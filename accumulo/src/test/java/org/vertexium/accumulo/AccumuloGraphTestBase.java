@@ -13,15 +13,18 @@ import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.vertexium.*;
+import org.vertexium.accumulo.bulk.AccumuloBulkLoader;
 import org.vertexium.accumulo.iterator.model.EdgeInfo;
 import org.vertexium.accumulo.iterator.model.KeyBase;
 import org.vertexium.accumulo.iterator.model.VertexiumInvalidKeyException;
+import org.vertexium.property.StreamingPropertyValue;
 import org.vertexium.test.GraphTestBase;
 import org.vertexium.util.IterableUtils;
 import org.vertexium.util.VertexiumLogger;
 import org.vertexium.util.VertexiumLoggerFactory;
 
 import java.io.File;
+import java.io.FilenameFilter;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.util.*;
@@ -51,6 +54,7 @@ public abstract class AccumuloGraphTestBase extends GraphTestBase {
         AccumuloGraphTestUtils.dropGraph(connector, AccumuloGraph.getVerticesTableName(GraphConfiguration.DEFAULT_TABLE_NAME_PREFIX));
         AccumuloGraphTestUtils.dropGraph(connector, AccumuloGraph.getEdgesTableName(GraphConfiguration.DEFAULT_TABLE_NAME_PREFIX));
         AccumuloGraphTestUtils.dropGraph(connector, AccumuloGraph.getMetadataTableName(GraphConfiguration.DEFAULT_TABLE_NAME_PREFIX));
+        AccumuloGraphTestUtils.dropGraph(connector, AccumuloGraph.getCountsTableName(GraphConfiguration.DEFAULT_TABLE_NAME_PREFIX));
         connector.securityOperations().changeUserAuthorizations(
                 AccumuloGraphConfiguration.DEFAULT_ACCUMULO_USERNAME,
                 new org.apache.accumulo.core.security.Authorizations(
@@ -126,6 +130,7 @@ public abstract class AccumuloGraphTestBase extends GraphTestBase {
         configMap.put(AccumuloGraphConfiguration.AUTO_FLUSH, false);
         configMap.put(AccumuloGraphConfiguration.MAX_STREAMING_PROPERTY_VALUE_TABLE_DATA_SIZE, GraphTestBase.LARGE_PROPERTY_VALUE_SIZE - 1);
         configMap.put(AccumuloGraphConfiguration.DATA_DIR, "/tmp/");
+        configMap.put(AccumuloGraphConfiguration.MAINTAIN_ELEMENT_COUNTS, true);
         return configMap;
     }
 
@@ -433,7 +438,291 @@ public abstract class AccumuloGraphTestBase extends GraphTestBase {
     }
 
     @Test
-    public void testListSplits() throws AccumuloSecurityException, TableNotFoundException, AccumuloException {
+    public void testStreamingPropertyValueTableChunks() {
+        int chunkSize = AccumuloGraphConfiguration.DEFAULT_STREAMING_PROPERTY_VALUE_TABLE_CHUNK_SIZE;
+        StringBuilder expectedValue = new StringBuilder();
+        for (int i = 0; expectedValue.length() < chunkSize * 3 + 100; i++) {
+            expectedValue.append(String.format("%08d", i));
+        }
+        graph.prepareVertex("v1", VISIBILITY_EMPTY)
+                .setProperty("spv", StreamingPropertyValue.create(expectedValue.toString()), VISIBILITY_EMPTY)
+                .save(AUTHORIZATIONS_EMPTY);
+        graph.flush();
+
+        Vertex v1 = graph.getVertex("v1", AUTHORIZATIONS_EMPTY);
+        StreamingPropertyValue spv = (StreamingPropertyValue) v1.getPropertyValue("spv");
+        assertEquals(expectedValue.length(), spv.getLength());
+        assertEquals(expectedValue.toString(), spv.readToString());
+        int offset = chunkSize * 2 - 4;
+        assertEquals(expectedValue.substring(offset, offset + 10), spv.readToString(offset, 10));
+        assertEquals(expectedValue.substring(expectedValue.length() - 5), spv.readToString(expectedValue.length() - 5, 100));
+    }
+
+    @Test
+    public void testPrefetchStreamingPropertyValuesLoadsData() {
+        for (int i = 0; i < 5; i++) {
+            graph.prepareVertex("v" + i, VISIBILITY_EMPTY)
+                    .setProperty("spv", StreamingPropertyValue.create("value" + i), VISIBILITY_EMPTY)
+                    .save(AUTHORIZATIONS_EMPTY);
+        }
+        graph.flush();
+
+        List<Vertex> vertices = toList(graph.getVertices(AUTHORIZATIONS_EMPTY));
+        List<Property> properties = new ArrayList<>();
+        for (Vertex vertex : vertices) {
+            StreamingPropertyValueTable spv = (StreamingPropertyValueTable) vertex.getPropertyValue("spv");
+            assertFalse(spv.isDataLoaded());
+            properties.addAll(toList(vertex.getProperties()));
+        }
+        getGraph().prefetchStreamingPropertyValues(properties);
+        for (Vertex vertex : vertices) {
+            StreamingPropertyValueTable spv = (StreamingPropertyValueTable) vertex.getPropertyValue("spv");
+            assertTrue("data of " + vertex.getId() + " was not prefetched", spv.isDataLoaded());
+            assertEquals("value" + vertex.getId().substring(1), spv.readToString());
+        }
+    }
+
+    @Test
+    public void testApproximateElementCounts() {
+        Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v2 = graph.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v3 = graph.addVertex("v3", VISIBILITY_EMPTY, AUTHORIZATIONS_A);
+        graph.addEdge("e1", v1, v2, "label1", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e2", v1, v3, "label1", VISIBILITY_A, AUTHORIZATIONS_A);
+        assertEquals(0, getGraph().getApproximateVertexCount());
+        graph.flush();
+        assertEquals(3, getGraph().getApproximateVertexCount());
+        assertEquals(2, getGraph().getApproximateEdgeCount());
+
+        graph.prepareVertex("v1", VISIBILITY_A)
+                .setProperty("prop1", "value1", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.prepareEdge("e1", "v1", "v2", "label1", VISIBILITY_A)
+                .setProperty("prop1", "value1", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.flush();
+        assertEquals(3, getGraph().getApproximateVertexCount());
+        assertEquals(2, getGraph().getApproximateEdgeCount());
+
+        graph.prepareVertex("v4", VISIBILITY_A)
+                .setProperty("prop1", "value1", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.prepareVertex("v4", VISIBILITY_A)
+                .setProperty("prop1", "value2", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.flush();
+        assertEquals(4, getGraph().getApproximateVertexCount());
+
+        graph.softDeleteEdge("e2", AUTHORIZATIONS_A);
+        graph.deleteVertex("v2", AUTHORIZATIONS_A);
+        graph.flush();
+        assertEquals(3, getGraph().getApproximateVertexCount());
+        assertEquals(0, getGraph().getApproximateEdgeCount());
+
+        getGraph().getElementCounts().increment(ElementType.VERTEX, 10);
+        getGraph().recalculateElementCounts(AUTHORIZATIONS_A);
+        assertEquals(3, getGraph().getApproximateVertexCount());
+        assertEquals(0, getGraph().getApproximateEdgeCount());
+        assertEquals(3, graph.getVertexCount(AUTHORIZATIONS_A));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testElementCache() throws Exception {
+        Map config = createConfig();
+        config.put(AccumuloGraphConfiguration.ELEMENT_CACHE_SIZE, 100);
+        AccumuloGraph graph1 = AccumuloGraph.create(new AccumuloGraphConfiguration(config));
+        AccumuloGraph graph2 = AccumuloGraph.create(new AccumuloGraphConfiguration(config));
+        try {
+            graph1.prepareVertex("v1", VISIBILITY_A)
+                    .setProperty("prop1", "value1", VISIBILITY_A)
+                    .save(AUTHORIZATIONS_A);
+            graph1.flush();
+
+            Vertex v1 = graph2.getVertex("v1", AUTHORIZATIONS_A);
+            assertEquals("value1", v1.getPropertyValue("prop1"));
+            Vertex cachedV1 = graph2.getVertex("v1", AUTHORIZATIONS_A);
+            assertNotSame(v1, cachedV1);
+            assertEquals(v1.getId(), cachedV1.getId());
+            assertEquals(v1.getVisibility(), cachedV1.getVisibility());
+            assertEquals(v1.getTimestamp(), cachedV1.getTimestamp());
+            assertEquals("value1", cachedV1.getPropertyValue("prop1"));
+            assertEquals(1, graph2.getElementCache().getHitCount());
+            assertEquals(1, graph2.getElementCache().getMissCount());
+            assertNotSame(v1, graph2.getVertex("v1", AUTHORIZATIONS_A_AND_B));
+            assertNull(graph2.getVertex("v2", AUTHORIZATIONS_A));
+
+            v1.prepareMutation()
+                    .setProperty("prop1", "value2", VISIBILITY_A)
+                    .save(AUTHORIZATIONS_A);
+            graph2.flush();
+            assertEquals("value2", graph2.getVertex("v1", AUTHORIZATIONS_A).getPropertyValue("prop1"));
+
+            assertEquals("value2", graph1.getVertex("v1", AUTHORIZATIONS_A).getPropertyValue("prop1"));
+            graph2.getVertex("v1", AUTHORIZATIONS_A).prepareMutation()
+                    .setProperty("prop1", "value3", VISIBILITY_A)
+                    .save(AUTHORIZATIONS_A);
+            graph2.flush();
+            long timeout = System.currentTimeMillis() + 10000;
+            while (!"value3".equals(graph1.getVertex("v1", AUTHORIZATIONS_A).getPropertyValue("prop1"))) {
+                if (System.currentTimeMillis() > timeout) {
+                    fail("element cache was not invalidated by the other graph");
+                }
+                Thread.sleep(100);
+            }
+
+            graph1.deleteVertex("v1", AUTHORIZATIONS_A);
+            graph1.flush();
+            assertNull(graph1.getVertex("v1", AUTHORIZATIONS_A));
+        } finally {
+            graph1.shutdown();
+            graph2.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "ResultOfMethodCallIgnored"})
+    public void testBulkLoad() throws Exception {
+        Map config = createConfig();
+        config.put(AccumuloGraphConfiguration.ELEMENT_CACHE_SIZE, 100);
+        AccumuloGraph graph1 = AccumuloGraph.create(new AccumuloGraphConfiguration(config));
+        File workDir = File.createTempFile("vertexium-bulk-load", "");
+        workDir.delete();
+        AccumuloBulkLoader bulkLoader = new AccumuloBulkLoader(graph1, graph1.getFileSystem(), workDir.getAbsolutePath(), null, 1024 * 1024);
+        try {
+            graph1.prepareVertex("v1", VISIBILITY_A)
+                    .setProperty("prop1", "value1", VISIBILITY_A)
+                    .save(AUTHORIZATIONS_A);
+            graph1.flush();
+            assertEquals(1, graph1.getApproximateVertexCount());
+            assertEquals(0, graph1.getApproximateEdgeCount());
+
+            Vertex v1 = graph1.getVertex("v1", AUTHORIZATIONS_A);
+            assertEquals(0, IterableUtils.count(v1.getEdgeIds(Direction.BOTH, AUTHORIZATIONS_A)));
+            assertEquals(1, graph1.getElementCache().getSize());
+
+            bulkLoader.setVerifySampleSize(10);
+            VertexBuilder v2Builder = graph1.prepareVertex("v2", VISIBILITY_A);
+            v2Builder.setProperty("prop1", "value2", VISIBILITY_A);
+            bulkLoader.addVertex(v2Builder);
+            VertexBuilder v3Builder = graph1.prepareVertex("v3", VISIBILITY_A);
+            v3Builder.setProperty("prop1", "value3", VISIBILITY_A);
+            bulkLoader.addVertex(v3Builder);
+            EdgeBuilderByVertexId e1Builder = graph1.prepareEdge("e1", "v2", "v3", "label1", VISIBILITY_A);
+            e1Builder.setProperty("prop1", "value_e1", VISIBILITY_A);
+            bulkLoader.addEdge(e1Builder);
+            bulkLoader.addEdge(graph1.prepareEdge("e2", "v1", "v2", "label1", VISIBILITY_A));
+            bulkLoader.load();
+
+            assertEquals(0, graph1.getElementCache().getSize());
+            assertEquals(3, graph1.getApproximateVertexCount());
+            assertEquals(2, graph1.getApproximateEdgeCount());
+
+            Vertex v2 = graph1.getVertex("v2", AUTHORIZATIONS_A);
+            assertEquals("value2", v2.getPropertyValue("prop1"));
+            assertEquals("value3", graph1.getVertex("v3", AUTHORIZATIONS_A).getPropertyValue("prop1"));
+            assertEquals(2, IterableUtils.count(v2.getEdgeIds(Direction.BOTH, AUTHORIZATIONS_A)));
+            assertEquals(1, IterableUtils.count(v2.getVertices(Direction.OUT, AUTHORIZATIONS_A)));
+
+            Edge e1 = graph1.getEdge("e1", AUTHORIZATIONS_A);
+            assertEquals("value_e1", e1.getPropertyValue("prop1"));
+            assertEquals("v2", e1.getVertexId(Direction.OUT));
+            assertEquals("v3", e1.getVertexId(Direction.IN));
+
+            // v1 was cached before the load added an edge to its row
+            v1 = graph1.getVertex("v1", AUTHORIZATIONS_A);
+            assertEquals("value1", v1.getPropertyValue("prop1"));
+            assertEquals(1, IterableUtils.count(v1.getEdgeIds(Direction.OUT, AUTHORIZATIONS_A)));
+        } finally {
+            bulkLoader.close();
+            graph1.getFileSystem().delete(new org.apache.hadoop.fs.Path(workDir.getAbsolutePath()), true);
+            graph1.shutdown();
+        }
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "ResultOfMethodCallIgnored"})
+    public void testHdfsSegmentCompactor() throws Exception {
+        File dataDir = File.createTempFile("vertexium-segments", "");
+        dataDir.delete();
+        File segmentsDir = new File(dataDir, HdfsSegmentStore.SEGMENTS_DIR);
+        Map config = createConfig();
+        config.put(AccumuloGraphConfiguration.DATA_DIR, dataDir.getAbsolutePath());
+        config.put(AccumuloGraphConfiguration.HDFS_SEGMENT_SIZE, 1024 * 1024);
+        config.put(AccumuloGraphConfiguration.MAX_STREAMING_PROPERTY_VALUE_TABLE_DATA_SIZE, 10);
+        AccumuloGraph writerGraph = AccumuloGraph.create(new AccumuloGraphConfiguration(config));
+        AccumuloGraph graph1 = AccumuloGraph.create(new AccumuloGraphConfiguration(config));
+        try {
+            long timestamp = System.currentTimeMillis() - 10000;
+            Metadata metadata = new Metadata();
+            metadata.add("m1", "m1_value", VISIBILITY_A);
+            for (String vertexId : new String[]{"v1", "v2", "v3", "v4"}) {
+                writerGraph.prepareVertex(vertexId, timestamp, VISIBILITY_A)
+                        .addPropertyValue("k1", "spv", StreamingPropertyValue.create(vertexId + " is larger than the table limit"), metadata, timestamp, VISIBILITY_A)
+                        .save(AUTHORIZATIONS_A);
+            }
+            writerGraph.flush();
+            writerGraph.getVertex("v2", AUTHORIZATIONS_A).deleteProperty("k1", "spv", AUTHORIZATIONS_A);
+            writerGraph.getVertex("v3", AUTHORIZATIONS_A).softDeleteProperty("k1", "spv", AUTHORIZATIONS_A);
+            writerGraph.deleteVertex("v4", AUTHORIZATIONS_A);
+            writerGraph.flush();
+
+            File[] segments = listSegmentFiles(segmentsDir);
+            assertEquals(1, segments.length);
+            File segment = segments[0];
+
+            HdfsSegmentCompactor compactor = new HdfsSegmentCompactor(graph1);
+            compactor.setMaxLiveRatio(1.0);
+            assertEquals("open segments are not compacted", 0, compactor.compact());
+            assertTrue(segment.exists());
+
+            writerGraph.shutdown();
+            writerGraph = null;
+            assertTrue(new File(segmentsDir, segment.getName() + HdfsSegmentStore.SEALED_EXTENSION).exists());
+            assertEquals("recently sealed segments are not compacted", 0, compactor.compact());
+
+            compactor.setSealedMinAgeMillis(0);
+            assertEquals(1, compactor.compact());
+            assertFalse(segment.exists());
+            assertFalse(new File(segmentsDir, segment.getName() + HdfsSegmentStore.SEALED_EXTENSION).exists());
+
+            Property property = graph1.getVertex("v1", AUTHORIZATIONS_A).getProperty("k1", "spv");
+            assertEquals("v1 is larger than the table limit", ((StreamingPropertyValue) property.getValue()).readToString());
+            assertEquals("m1_value", property.getMetadata().getValue("m1"));
+            assertEquals(timestamp + 1, property.getTimestamp());
+
+            assertNull(graph1.getVertex("v2", AUTHORIZATIONS_A).getProperty("k1", "spv"));
+
+            assertNull(graph1.getVertex("v3", AUTHORIZATIONS_A).getProperty("k1", "spv"));
+            property = graph1.getVertex("v3", FetchHint.ALL, timestamp + 5000, AUTHORIZATIONS_A).getProperty("k1", "spv");
+            assertEquals("v3 is larger than the table limit", ((StreamingPropertyValue) property.getValue()).readToString());
+
+            assertNull(graph1.getVertex("v4", AUTHORIZATIONS_A));
+
+            assertEquals(1, listSegmentFiles(segmentsDir).length);
+            assertEquals("nothing left to compact", 0, compactor.compact());
+        } finally {
+            if (writerGraph != null) {
+                writerGraph.shutdown();
+            }
+            graph1.getFileSystem().delete(new org.apache.hadoop.fs.Path(dataDir.getAbsolutePath()), true);
+            graph1.shutdown();
+        }
+    }
+
+    private static File[] listSegmentFiles(File segmentsDir) {
+        File[] files = segmentsDir.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return name.endsWith(HdfsSegmentStore.SEGMENT_EXTENSION);
+            }
+        });
+        assertNotNull(files);
+        return files;
+    }
+
+    @Test
+    public void testListSplits()throws AccumuloSecurityException, TableNotFoundException, AccumuloException {
         SortedSet<Text> keys = new TreeSet<>();
         keys.add(new Text("j"));
         getGraph().getConnector().tableOperations().addSplits(getGraph().getVerticesTableName(), keys);
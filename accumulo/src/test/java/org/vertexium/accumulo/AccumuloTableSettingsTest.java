@@ -0,0 +1,65 @@
+package org.vertexium.accumulo;
+
+import com.google.common.collect.Maps;
+import org.apache.hadoop.io.Text;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.ElementType;
+import org.vertexium.GraphConfiguration;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class AccumuloTableSettingsTest {
+    @Test
+    public void testGetHexSplits() {
+        assertEquals(0, AccumuloTableSettings.getHexSplits(0).size());
+        assertEquals(toTextList("8"), new ArrayList<>(AccumuloTableSettings.getHexSplits(1)));
+        assertEquals(toTextList("4", "8", "c"), new ArrayList<>(AccumuloTableSettings.getHexSplits(3)));
+
+        SortedSet<Text> splits = AccumuloTableSettings.getHexSplits(31);
+        assertEquals(31, splits.size());
+        assertEquals(new Text("08"), splits.first());
+        assertEquals(new Text("f8"), splits.last());
+    }
+
+    @Test
+    public void testGetSplitsOnlyForUUIDIdGenerator() {
+        Map configMap = Maps.newHashMap();
+        AccumuloGraphConfiguration config = new AccumuloGraphConfiguration(configMap);
+        assertEquals(3, AccumuloTableSettings.getSplits(config, 3).size());
+
+        config.set(GraphConfiguration.IDGENERATOR_PROP_PREFIX, "org.vertexium.id.QueueIdGenerator");
+        assertEquals(0, AccumuloTableSettings.getSplits(config, 3).size());
+    }
+
+    @Test
+    public void testGetLocalityGroups() {
+        Map<String, Set<Text>> vertexGroups = AccumuloTableSettings.getLocalityGroups(ElementType.VERTEX);
+        assertEquals(5, vertexGroups.size());
+        assertTrue(vertexGroups.get(AccumuloTableSettings.LOCALITY_GROUP_OUT_EDGES).contains(AccumuloVertex.CF_OUT_EDGE));
+        assertTrue(vertexGroups.get(AccumuloTableSettings.LOCALITY_GROUP_IN_EDGES).contains(AccumuloVertex.CF_IN_EDGE_SOFT_DELETE));
+
+        Map<String, Set<Text>> edgeGroups = AccumuloTableSettings.getLocalityGroups(ElementType.EDGE);
+        assertEquals(3, edgeGroups.size());
+        assertFalse(edgeGroups.containsKey(AccumuloTableSettings.LOCALITY_GROUP_OUT_EDGES));
+
+        Set<Text> allColumnFamilies = new HashSet<>();
+        for (Set<Text> columnFamilies : vertexGroups.values()) {
+            for (Text columnFamily : columnFamilies) {
+                assertTrue("column family in more than one group: " + columnFamily, allColumnFamilies.add(columnFamily));
+            }
+        }
+    }
+
+    private List<Text> toTextList(String... strings) {
+        List<Text> results = new ArrayList<>();
+        for (String s : strings) {
+            results.add(new Text(s));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,117 @@
+package org.vertexium.accumulo;
+
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.property.StreamingPropertyValue;
+import org.vertexium.util.LimitOutputStream;
+import org.vertexium.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class HdfsSegmentStoreTest {
+    private FileSystem fs;
+    private Path dataDir;
+
+    @Before
+    public void before() throws IOException {
+        fs = FileSystem.getLocal(new Configuration()).getRawFileSystem();
+        dataDir = new Path(Files.createTempDirectory("vertexium-segments").toUri());
+    }
+
+    @After
+    public void after() throws IOException {
+        fs.delete(dataDir, true);
+    }
+
+    @Test
+    public void testValuesShareSegment() throws IOException {
+        HdfsSegmentStore segmentStore = new HdfsSegmentStore(fs, dataDir.toString(), 1024 * 1024, 1);
+        StreamingPropertyValueHdfsSegmentRef ref1 = write(segmentStore, "value1 is larger than the limit");
+        StreamingPropertyValueHdfsSegmentRef ref2 = write(segmentStore, "value2 is also larger than the limit");
+        segmentStore.close();
+
+        assertEquals(ref1.getSegment(), ref2.getSegment());
+        assertEquals(0, ref1.getOffset());
+        assertEquals(ref1.getLength(), ref2.getOffset());
+        assertEquals("value1 is larger than the limit", read(ref1));
+        assertEquals("value2 is also larger than the limit", read(ref2));
+        assertTrue(fs.exists(HdfsSegmentStore.getSealedMarkerPath(new Path(dataDir, ref1.getSegment()))));
+    }
+
+    @Test
+    public void testSegmentsRollAtSegmentSize() throws IOException {
+        HdfsSegmentStore segmentStore = new HdfsSegmentStore(fs, dataDir.toString(), 40, 1);
+        StreamingPropertyValueHdfsSegmentRef ref1 = write(segmentStore, "value1 is larger than the limit");
+        StreamingPropertyValueHdfsSegmentRef ref2 = write(segmentStore, "value2 is also larger than the limit");
+        StreamingPropertyValueHdfsSegmentRef ref3 = write(segmentStore, "value3 is larger than the limit");
+
+        assertEquals(ref1.getSegment(), ref2.getSegment());
+        assertNotEquals(ref1.getSegment(), ref3.getSegment());
+        assertEquals(0, ref3.getOffset());
+        assertTrue(fs.exists(HdfsSegmentStore.getSealedMarkerPath(new Path(dataDir, ref1.getSegment()))));
+        assertFalse(fs.exists(HdfsSegmentStore.getSealedMarkerPath(new Path(dataDir, ref3.getSegment()))));
+        assertEquals("value3 is larger than the limit", read(ref3));
+
+        segmentStore.close();
+        assertTrue(fs.exists(HdfsSegmentStore.getSealedMarkerPath(new Path(dataDir, ref3.getSegment()))));
+        assertEquals("value2 is also larger than the limit", read(ref2));
+    }
+
+    @Test
+    public void testIdleSegmentsAreSealed() throws Exception {
+        HdfsSegmentStore segmentStore = new HdfsSegmentStore(fs, dataDir.toString(), 1024 * 1024, 1, 100);
+        StreamingPropertyValueHdfsSegmentRef ref1 = write(segmentStore, "value1 is larger than the limit");
+        Path segment1 = new Path(dataDir, ref1.getSegment());
+        segmentStore.sealIdleSegments();
+        assertFalse(fs.exists(HdfsSegmentStore.getSealedMarkerPath(segment1)));
+
+        Thread.sleep(200);
+        segmentStore.sealIdleSegments();
+        assertTrue(fs.exists(HdfsSegmentStore.getSealedMarkerPath(segment1)));
+
+        StreamingPropertyValueHdfsSegmentRef ref2 = write(segmentStore, "value2 is also larger than the limit");
+        assertNotEquals(ref1.getSegment(), ref2.getSegment());
+        assertEquals("value1 is larger than the limit", read(ref1));
+        segmentStore.close();
+    }
+
+    @Test
+    public void testSkipStaysWithinValue() throws IOException {
+        HdfsSegmentStore segmentStore = new HdfsSegmentStore(fs, dataDir.toString(), 1024 * 1024, 1);
+        StreamingPropertyValueHdfsSegmentRef ref1 = write(segmentStore, "value1 is larger than the limit");
+        write(segmentStore, "value2 is also larger than the limit");
+        segmentStore.close();
+
+        StreamingPropertyValue value = new StreamingPropertyValueHdfsSegment(fs, new Path(dataDir, ref1.getSegment()), ref1);
+        assertEquals("larger", StreamUtils.toString(value.getInputStream(), 10, 6));
+        assertEquals("limit", StreamUtils.toString(value.getInputStream(), 26, 100));
+    }
+
+    private StreamingPropertyValueHdfsSegmentRef write(HdfsSegmentStore segmentStore, String value) throws IOException {
+        HdfsSegmentStore.SegmentLargeDataStore largeDataStore = segmentStore.createLargeDataStore();
+        LimitOutputStream out = new LimitOutputStream(largeDataStore, 10);
+        try {
+            out.write(value.getBytes());
+        } finally {
+            out.close();
+        }
+        assertTrue(out.hasExceededSizeLimit());
+        return new StreamingPropertyValueHdfsSegmentRef(largeDataStore.getRelativeFileName(), largeDataStore.getOffset(), out.getLength(), StreamingPropertyValue.create(value));
+    }
+
+    private String read(StreamingPropertyValueHdfsSegmentRef ref) throws IOException {
+        StreamingPropertyValue value = new StreamingPropertyValueHdfsSegment(fs, new Path(dataDir, ref.getSegment()), ref);
+        assertEquals(ref.getLength(), value.getLength());
+        return StreamUtils.toString(value.getInputStream());
+    }
+}
@@ -0,0 +1,205 @@
+package org.vertexium.accumulo;
+
+import org.apache.accumulo.core.client.BatchWriter;
+import org.apache.accumulo.core.client.MultiTableBatchWriter;
+import org.apache.accumulo.core.client.MutationsRejectedException;
+import org.apache.accumulo.core.client.security.SecurityErrorCode;
+import org.apache.accumulo.core.data.ConstraintViolationSummary;
+import org.apache.accumulo.core.data.Mutation;
+import org.apache.accumulo.core.data.TabletId;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class SharedBatchWriterTest {
+    private TestMultiTableBatchWriter multiTableBatchWriter;
+    private SharedBatchWriter sharedBatchWriter;
+
+    @Before
+    public void before() {
+        multiTableBatchWriter = new TestMultiTableBatchWriter();
+        sharedBatchWriter = new SharedBatchWriter(null, null) {
+            @Override
+            protected MultiTableBatchWriter createMultiTableBatchWriter() {
+                return multiTableBatchWriter;
+            }
+        };
+    }
+
+    @Test
+    public void testFlushOnlyWhenThreadSubmittedMutations() throws Exception {
+        sharedBatchWriter.flush();
+        assertEquals(0, multiTableBatchWriter.flushCount);
+
+        sharedBatchWriter.getBatchWriter("table1").addMutation(createMutation("row1"));
+        assertEquals(1, sharedBatchWriter.getSubmittedMutationCount());
+        assertTrue(sharedBatchWriter.getBufferedBytes() > 0);
+        sharedBatchWriter.flush();
+        assertEquals(1, multiTableBatchWriter.flushCount);
+        assertEquals(0, sharedBatchWriter.getBufferedBytes());
+
+        sharedBatchWriter.flush();
+        assertEquals(1, multiTableBatchWriter.flushCount);
+    }
+
+    @Test
+    public void testFlushCoversMutationsFromOtherThreads() throws Exception {
+        Thread otherThread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    sharedBatchWriter.getBatchWriter("table1").addMutation(createMutation("row1"));
+                } catch (MutationsRejectedException ex) {
+                    throw new RuntimeException(ex);
+                }
+            }
+        };
+        otherThread.start();
+        otherThread.join();
+
+        sharedBatchWriter.getBatchWriter("table2").addMutation(createMutation("row2"));
+        sharedBatchWriter.flush();
+        assertEquals(1, multiTableBatchWriter.flushCount);
+        assertEquals(2, multiTableBatchWriter.mutations.size());
+        assertEquals(0, sharedBatchWriter.getBufferedBytes());
+    }
+
+    @Test
+    public void testRejectionIsReportedToEveryThreadWithLostMutations() throws Exception {
+        ExecutorService otherThread = Executors.newSingleThreadExecutor();
+        try {
+            otherThread.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    sharedBatchWriter.getBatchWriter("table1").addMutation(createMutation("row1"));
+                    return null;
+                }
+            }).get();
+            sharedBatchWriter.getBatchWriter("table1").addMutation(createMutation("row2"));
+
+            multiTableBatchWriter.rejectFlush = true;
+            try {
+                sharedBatchWriter.flush();
+                fail("Expected the flush to be rejected");
+            } catch (MutationsRejectedException ex) {
+                // expected
+            }
+            assertTrue(multiTableBatchWriter.isClosed());
+            assertEquals(1, sharedBatchWriter.getRejectedMutationCount());
+
+            // this thread's next mutation goes to a new writer which flushes fine
+            multiTableBatchWriter = new TestMultiTableBatchWriter();
+            sharedBatchWriter.getBatchWriter("table1").addMutation(createMutation("row3"));
+            sharedBatchWriter.flush();
+            assertEquals(1, multiTableBatchWriter.flushCount);
+
+            // row1 was lost with the first writer so the other thread must not see a successful flush
+            Callable<Void> flush = new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    sharedBatchWriter.flush();
+                    return null;
+                }
+            };
+            try {
+                otherThread.submit(flush).get();
+                fail("Expected the flush of the other thread to be rejected");
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof MutationsRejectedException);
+            }
+
+            // the rejection is only reported once
+            otherThread.submit(flush).get();
+        } finally {
+            otherThread.shutdown();
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        BatchWriter writer = sharedBatchWriter.getBatchWriter("table1");
+        writer.addMutation(createMutation("row1"));
+        writer.close();
+        assertFalse(multiTableBatchWriter.isClosed());
+
+        sharedBatchWriter.close();
+        assertTrue(multiTableBatchWriter.isClosed());
+    }
+
+    private static Mutation createMutation(String row) {
+        Mutation m = new Mutation(row);
+        m.put("cf", "cq", "value");
+        return m;
+    }
+
+    private static class TestMultiTableBatchWriter implements MultiTableBatchWriter {
+        private final List<Mutation> mutations = new ArrayList<>();
+        private int flushCount;
+        private boolean closed;
+        private boolean rejectFlush;
+
+        @Override
+        public BatchWriter getBatchWriter(String tableName) {
+            return new BatchWriter() {
+                @Override
+                public void addMutation(Mutation m) {
+                    synchronized (mutations) {
+                        mutations.add(m);
+                    }
+                }
+
+                @Override
+                public void addMutations(Iterable<Mutation> iterable) {
+                    for (Mutation m : iterable) {
+                        addMutation(m);
+                    }
+                }
+
+                @Override
+                public void flush() {
+                    throw new UnsupportedOperationException();
+                }
+
+                @Override
+                public void close() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public void flush() throws MutationsRejectedException {
+            if (rejectFlush) {
+                throw new MutationsRejectedException(
+                        null,
+                        new ArrayList<ConstraintViolationSummary>(),
+                        new HashMap<TabletId, Set<SecurityErrorCode>>(),
+                        new ArrayList<String>(),
+                        1,
+                        null
+                );
+            }
+            flushCount++;
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.vertexium.accumulo.bulk;
+
+import org.apache.accumulo.core.data.Key;
+import org.apache.accumulo.core.data.Value;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.accumulo.KeyValuePair;
+
+import java.util.*;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(JUnit4.class)
+public class ExternalKeyValuePairSorterTest {
+    @Test
+    public void testSortInMemory() {
+        ExternalKeyValuePairSorter sorter = new ExternalKeyValuePairSorter(null, Long.MAX_VALUE);
+        try {
+            List<KeyValuePair> expected = addRandomPairs(sorter, 100);
+            assertEquals(0, sorter.getRunFileCount());
+            assertSorted(expected, sorter.sortedIterator());
+        } finally {
+            sorter.close();
+        }
+    }
+
+    @Test
+    public void testSortWithRunFiles() {
+        ExternalKeyValuePairSorter sorter = new ExternalKeyValuePairSorter(null, 10 * 1024);
+        try {
+            List<KeyValuePair> expected = addRandomPairs(sorter, 1000);
+            assertEquals(1000, sorter.getCount());
+            assertSorted(expected, sorter.sortedIterator());
+        } finally {
+            sorter.close();
+        }
+    }
+
+    private List<KeyValuePair> addRandomPairs(ExternalKeyValuePairSorter sorter, int count) {
+        Random random = new Random(1);
+        List<KeyValuePair> pairs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Key key = new Key("row" + random.nextInt(count), "cf" + random.nextInt(3), "cq" + i, "a", random.nextInt(10));
+            KeyValuePair pair = new KeyValuePair(key, new Value(("value" + i).getBytes()));
+            pairs.add(pair);
+            sorter.add(pair);
+        }
+        Collections.sort(pairs);
+        return pairs;
+    }
+
+    private void assertSorted(List<KeyValuePair> expected, Iterator<KeyValuePair> it) {
+        List<KeyValuePair> found = new ArrayList<>();
+        while (it.hasNext()) {
+            found.add(it.next());
+        }
+        assertEquals(expected.size(), found.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getKey(), found.get(i).getKey());
+            assertEquals(expected.get(i).getValue(), found.get(i).getValue());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.vertexium;
+
+/**
+ * Lets another thread stop a long running graph operation, such as
+ * {@link Graph#findPaths(FindPathOptions, Authorizations)}.
+ */
+public class CancellationToken {
+    private volatile boolean cancelled;
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
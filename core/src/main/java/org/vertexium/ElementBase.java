@@ -41,12 +41,42 @@ public abstract class ElementBase implements Element {
             Iterable<Visibility> hiddenVisibilities,
             long timestamp,
             Authorizations authorizations
+    ) {
+        this(
+                graph,
+                id,
+                visibility,
+                new PropertyCollection(),
+                properties,
+                propertyDeleteMutations,
+                propertySoftDeleteMutations,
+                hiddenVisibilities,
+                timestamp,
+                authorizations
+        );
+    }
+
+    /**
+     * @param propertyCollection The collection to hold this element's properties. Backends can pass a subclass to
+     *                           populate the collection on demand.
+     */
+    protected ElementBase(
+            Graph graph,
+            String id,
+            Visibility visibility,
+            PropertyCollection propertyCollection,
+            Iterable<Property> properties,
+            Iterable<PropertyDeleteMutation> propertyDeleteMutations,
+            Iterable<PropertySoftDeleteMutation> propertySoftDeleteMutations,
+            Iterable<Visibility> hiddenVisibilities,
+            long timestamp,
+            Authorizations authorizations
     ) {
         this.graph = graph;
         this.id = id;
         this.visibility = visibility;
         this.timestamp = timestamp;
-        this.properties = new PropertyCollection();
+        this.properties = propertyCollection;
         this.authorizations = authorizations;
         if (hiddenVisibilities != null) {
             for (Visibility v : hiddenVisibilities) {
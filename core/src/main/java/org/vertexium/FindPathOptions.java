@@ -0,0 +1,113 @@
+package org.vertexium;
+
+import static org.vertexium.util.Preconditions.checkNotNull;
+
+/**
+ * Options used by {@link Graph#findPaths(FindPathOptions, Authorizations)}.
+ */
+public class FindPathOptions {
+    private final String sourceVertexId;
+    private final String destVertexId;
+    private final int maxHops;
+    private String[] labels;
+    private ProgressCallback progressCallback;
+    private Integer maxResults;
+    private Long timeoutMillis;
+    private CancellationToken cancellationToken;
+    private boolean shortestPathsOnly;
+
+    /**
+     * @param sourceVertexId The source vertex id to start the search from.
+     * @param destVertexId   The destination vertex id to get to.
+     * @param maxHops        The maximum number of hops to make before giving up.
+     */
+    public FindPathOptions(String sourceVertexId, String destVertexId, int maxHops) {
+        checkNotNull(sourceVertexId, "sourceVertexId cannot be null");
+        checkNotNull(destVertexId, "destVertexId cannot be null");
+        this.sourceVertexId = sourceVertexId;
+        this.destVertexId = destVertexId;
+        this.maxHops = maxHops;
+    }
+
+    /**
+     * Only follow edges with one of these labels.
+     */
+    public FindPathOptions labels(String... labels) {
+        this.labels = labels;
+        return this;
+    }
+
+    public FindPathOptions progressCallback(ProgressCallback progressCallback) {
+        this.progressCallback = progressCallback;
+        return this;
+    }
+
+    /**
+     * Stop after this many paths have been found.
+     */
+    public FindPathOptions maxResults(int maxResults) {
+        this.maxResults = maxResults;
+        return this;
+    }
+
+    /**
+     * Stop searching once this much time has passed since iteration started. Paths found before the timeout are
+     * still returned.
+     */
+    public FindPathOptions timeout(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        return this;
+    }
+
+    /**
+     * Stop searching once the token is cancelled. Paths found before cancellation are still returned.
+     */
+    public FindPathOptions cancellationToken(CancellationToken cancellationToken) {
+        this.cancellationToken = cancellationToken;
+        return this;
+    }
+
+    /**
+     * Only return the paths with the fewest hops.
+     */
+    public FindPathOptions shortestPathsOnly(boolean shortestPathsOnly) {
+        this.shortestPathsOnly = shortestPathsOnly;
+        return this;
+    }
+
+    public String getSourceVertexId() {
+        return sourceVertexId;
+    }
+
+    public String getDestVertexId() {
+        return destVertexId;
+    }
+
+    public int getMaxHops() {
+        return maxHops;
+    }
+
+    public String[] getLabels() {
+        return labels;
+    }
+
+    public ProgressCallback getProgressCallback() {
+        return progressCallback;
+    }
+
+    public Integer getMaxResults() {
+        return maxResults;
+    }
+
+    public Long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public CancellationToken getCancellationToken() {
+        return cancellationToken;
+    }
+
+    public boolean isShortestPathsOnly() {
+        return shortestPathsOnly;
+    }
+}
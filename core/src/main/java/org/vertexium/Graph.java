@@ -252,6 +252,21 @@ public interface Graph {
      */
     Iterable<Vertex> getVertices(Iterable<String> ids, EnumSet<FetchHint> fetchHints, Long endTime, Authorizations authorizations);
 
+    /**
+     * Gets all vertices matching the given ids on the graph, loading only the named properties. The order of
+     * the returned vertices is not guaranteed {@link Graph#getVerticesInOrder(Iterable, Authorizations)}.
+     * Vertices are not kept in memory during the iteration.
+     *
+     * @param ids            The ids of the vertices to get.
+     * @param fetchHints     Hint at what parts of the vertex to fetch.
+     * @param propertyNames  The names of the properties to include. null to include all properties, an empty array
+     *                       to include none.
+     * @param endTime        Include all changes made up until the point in time.
+     * @param authorizations The authorizations required to load the vertex.
+     * @return An iterable of all the vertices.
+     */
+    Iterable<Vertex> getVertices(Iterable<String> ids, EnumSet<FetchHint> fetchHints, String[] propertyNames, Long endTime, Authorizations authorizations);
+
     /**
      * Gets all vertices matching the given ids on the graph. This method is similar to
      * {@link Graph#getVertices(Iterable, Authorizations)}
@@ -622,6 +637,19 @@ public interface Graph {
      */
     Iterable<Edge> getEdges(Iterable<String> ids, EnumSet<FetchHint> fetchHints, Long endTime, Authorizations authorizations);
 
+    /**
+     * Gets all edges on the graph matching the given ids, loading only the named properties.
+     *
+     * @param ids            The ids of the edges to get.
+     * @param fetchHints     Hint at what parts of the edge to fetch.
+     * @param propertyNames  The names of the properties to include. null to include all properties, an empty array
+     *                       to include none.
+     * @param endTime        Include all changes made up until the point in time.
+     * @param authorizations The authorizations required to load the edge.
+     * @return An iterable of all the edges.
+     */
+    Iterable<Edge> getEdges(Iterable<String> ids, EnumSet<FetchHint> fetchHints, String[] propertyNames, Long endTime, Authorizations authorizations);
+
     /**
      * Use {@link #findRelatedEdgeIds(Iterable, Authorizations)}
      */
@@ -795,6 +823,14 @@ public interface Graph {
      */
     void flush();
 
+    /**
+     * Loads the data of the streaming property values of the given properties together instead of one at a time when
+     * each value is read. Properties that do not have streaming property values are ignored.
+     *
+     * @param properties The properties to load the streaming property values of.
+     */
+    void prefetchStreamingPropertyValues(Iterable<Property> properties);
+
     /**
      * Cleans up or disconnects from the underlying storage.
      */
@@ -848,6 +884,31 @@ public interface Graph {
      */
     Iterable<Path> findPaths(String sourceVertexId, String destVertexId, String[] labels, int maxHops, ProgressCallback progressCallback, Authorizations authorizations);
 
+    /**
+     * Finds paths between two vertices. Unlike the other findPaths methods the paths are produced lazily as the
+     * returned iterable is consumed, and the search can be bounded by a maximum number of results, a timeout or
+     * a cancellation token. Each call to iterator() runs a new search.
+     *
+     * @param options        The source and destination vertex ids along with the search limits.
+     * @param authorizations The authorizations required to load all edges and vertices.
+     * @return An Iterable of paths.
+     */
+    Iterable<Path> findPaths(FindPathOptions options, Authorizations authorizations);
+
+    /**
+     * Finds all vertices within maxHops of the seed vertices. Only vertex ids are loaded while expanding, vertex
+     * properties are never read.
+     *
+     * @param seedVertexIds  The vertex ids to start the search from. These are returned with a distance of 0.
+     * @param maxHops        The maximum number of hops to make from the seed vertices.
+     * @param labels         Only follow edges with one of these labels or all edges if null.
+     * @param direction      Only follow edges in this direction.
+     * @param maxVertices    Stop once this many vertices have been found or null to find all vertices.
+     * @param authorizations The authorizations required to load the edges and vertices.
+     * @return A map of vertex id to the number of hops from the closest seed vertex.
+     */
+    Map<String, Integer> getNeighborhood(Iterable<String> seedVertexIds, int maxHops, String[] labels, Direction direction, Integer maxVertices, Authorizations authorizations);
+
     /**
      * Gets the id generator used by this graph to create ids.
      *
@@ -4,6 +4,8 @@ import org.vertexium.event.GraphEvent;
 import org.vertexium.event.GraphEventListener;
 import org.vertexium.id.IdGenerator;
 import org.vertexium.mutation.ElementMutation;
+import org.vertexium.path.BidirectionalPathFinder;
+import org.vertexium.path.NeighborhoodFinder;
 import org.vertexium.property.StreamingPropertyValue;
 import org.vertexium.property.StreamingPropertyValueRef;
 import org.vertexium.query.GraphQuery;
@@ -21,6 +23,7 @@ public abstract class GraphBase implements Graph {
     private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(GraphBase.class);
     protected static final VertexiumLogger QUERY_LOGGER = VertexiumLoggerFactory.getQueryLogger(Graph.class);
     public static final String METADATA_DEFINE_PROPERTY_PREFIX = "defineProperty.";
+    protected static final int FIND_RELATED_EDGES_BATCH_SIZE = 1000;
     private final List<GraphEventListener> graphEventListeners = new ArrayList<>();
     private Map<String, PropertyDefinition> propertyDefinitionCache = new HashMap<>();
     private final boolean strictTyping;
@@ -170,6 +173,14 @@ public abstract class GraphBase implements Graph {
         return results;
     }
 
+    /**
+     * Backends that can not limit which properties are loaded return vertices with all of their properties.
+     */
+    @Override
+    public Iterable<Vertex> getVertices(Iterable<String> ids, EnumSet<FetchHint> fetchHints, String[] propertyNames, Long endTime, Authorizations authorizations) {
+        return getVertices(ids, fetchHints, endTime, authorizations);
+    }
+
     @Override
     public Iterable<Vertex> getVertices(final Iterable<String> ids, final Authorizations authorizations) {
         return getVertices(ids, FetchHint.ALL, authorizations);
@@ -463,6 +474,14 @@ public abstract class GraphBase implements Graph {
         };
     }
 
+    /**
+     * Backends that can not limit which properties are loaded return edges with all of their properties.
+     */
+    @Override
+    public Iterable<Edge> getEdges(Iterable<String> ids, EnumSet<FetchHint> fetchHints, String[] propertyNames, Long endTime, Authorizations authorizations) {
+        return getEdges(ids, fetchHints, endTime, authorizations);
+    }
+
     @Override
     public Iterable<Edge> getEdges(final Iterable<String> ids, final Authorizations authorizations) {
         return getEdges(ids, FetchHint.ALL, authorizations);
@@ -525,6 +544,13 @@ public abstract class GraphBase implements Graph {
 
     @Override
     public Iterable<Path> findPaths(String sourceVertexId, String destVertexId, String[] labels, int maxHops, ProgressCallback progressCallback, Authorizations authorizations) {
+        if (maxHops != 2) {
+            FindPathOptions options = new FindPathOptions(sourceVertexId, destVertexId, maxHops)
+                    .labels(labels)
+                    .progressCallback(progressCallback);
+            return IterableUtils.toList(findPaths(options, authorizations));
+        }
+
         EnumSet<FetchHint> fetchHints = FetchHint.EDGE_REFS;
         Vertex sourceVertex = getVertex(sourceVertexId, fetchHints, authorizations);
         if (sourceVertex == null) {
@@ -537,22 +563,45 @@ public abstract class GraphBase implements Graph {
 
         progressCallback.progress(0, ProgressCallback.Step.FINDING_PATH);
 
-        Set<String> seenVertices = new HashSet<>();
-        seenVertices.add(sourceVertex.getId());
-
-        Path startPath = new Path(sourceVertex.getId());
-
         List<Path> foundPaths = new ArrayList<>();
-        if (maxHops == 2) {
-            findPathsSetIntersection(foundPaths, sourceVertex, destVertex, labels, progressCallback, authorizations);
-        } else {
-            findPathsRecursive(foundPaths, sourceVertex, destVertex, labels, maxHops, maxHops, seenVertices, startPath, progressCallback, authorizations);
-        }
+        findPathsSetIntersection(foundPaths, sourceVertex, destVertex, labels, progressCallback, authorizations);
 
         progressCallback.progress(1, ProgressCallback.Step.COMPLETE);
         return foundPaths;
     }
 
+    @Override
+    public Iterable<Path> findPaths(final FindPathOptions options, final Authorizations authorizations) {
+        checkNotNull(options, "options cannot be null");
+        if (getVertex(options.getSourceVertexId(), FetchHint.NONE, authorizations) == null) {
+            throw new IllegalArgumentException("Could not find vertex with id: " + options.getSourceVertexId());
+        }
+        if (getVertex(options.getDestVertexId(), FetchHint.NONE, authorizations) == null) {
+            throw new IllegalArgumentException("Could not find vertex with id: " + options.getDestVertexId());
+        }
+        return new Iterable<Path>() {
+            @Override
+            public Iterator<Path> iterator() {
+                return createPathFinder(options, authorizations).findPaths();
+            }
+        };
+    }
+
+    protected BidirectionalPathFinder createPathFinder(FindPathOptions options, Authorizations authorizations) {
+        return new BidirectionalPathFinder(this, options, authorizations);
+    }
+
+    @Override
+    public Map<String, Integer> getNeighborhood(Iterable<String> seedVertexIds, int maxHops, String[] labels, Direction direction, Integer maxVertices, Authorizations authorizations) {
+        checkNotNull(seedVertexIds, "seedVertexIds cannot be null");
+        checkNotNull(direction, "direction cannot be null");
+        return createNeighborhoodFinder(maxHops, labels, direction, maxVertices, authorizations).find(seedVertexIds);
+    }
+
+    protected NeighborhoodFinder createNeighborhoodFinder(int maxHops, String[] labels, Direction direction, Integer maxVertices, Authorizations authorizations) {
+        return new NeighborhoodFinder(this, maxHops, labels, direction, maxVertices, authorizations);
+    }
+
     protected void findPathsSetIntersection(List<Path> foundPaths, Vertex sourceVertex, Vertex destVertex, String[] labels, ProgressCallback progressCallback, Authorizations authorizations) {
         String sourceVertexId = sourceVertex.getId();
         String destVertexId = destVertex.getId();
@@ -572,6 +621,10 @@ public abstract class GraphBase implements Graph {
         }
     }
 
+    /**
+     * @deprecated replaced by {@link #createPathFinder(FindPathOptions, Authorizations)}
+     */
+    @Deprecated
     protected void findPathsRecursive(List<Path> foundPaths, final Vertex sourceVertex, Vertex destVertex, String[] labels, int hops, int totalHops, Set<String> seenVertices, Path currentPath, ProgressCallback progressCallback, final Authorizations authorizations) {
         // if this is our first source vertex report progress back to the progress callback
         boolean firstLevelRecursion = hops == totalHops;
@@ -621,7 +674,7 @@ public abstract class GraphBase implements Graph {
 
     @Override
     public Iterable<String> findRelatedEdgeIds(Iterable<String> vertexIds, Long endTime, Authorizations authorizations) {
-        return findRelatedEdgeIdsForVertices(getVertices(vertexIds, EnumSet.of(FetchHint.OUT_EDGE_REFS), endTime, authorizations), authorizations);
+        return toEdgeIds(findRelatedEdgeSummary(vertexIds, endTime, authorizations));
     }
 
     @Override
@@ -631,46 +684,80 @@ public abstract class GraphBase implements Graph {
 
     @Override
     public Iterable<RelatedEdge> findRelatedEdgeSummary(Iterable<String> vertexIds, Long endTime, Authorizations authorizations) {
-        return findRelatedEdgeSummaryForVertices(getVertices(vertexIds, EnumSet.of(FetchHint.OUT_EDGE_REFS), endTime, authorizations), authorizations);
+        Set<String> vertexIdsSet = toSet(vertexIds);
+        Set<String> foundVertexIds = new HashSet<>();
+        List<RelatedEdge> relatedEdges = new ArrayList<>();
+        EnumSet<FetchHint> fetchHints = EnumSet.of(FetchHint.OUT_EDGE_REFS);
+        List<String> batch = new ArrayList<>();
+        for (String vertexId : vertexIdsSet) {
+            batch.add(vertexId);
+            if (batch.size() >= FIND_RELATED_EDGES_BATCH_SIZE) {
+                addRelatedEdges(getVertices(batch, fetchHints, endTime, authorizations), vertexIdsSet, foundVertexIds, relatedEdges, authorizations);
+                batch.clear();
+            }
+        }
+        if (batch.size() > 0) {
+            addRelatedEdges(getVertices(batch, fetchHints, endTime, authorizations), vertexIdsSet, foundVertexIds, relatedEdges, authorizations);
+        }
+
+        // edges pointing to vertices which could not be read are not related
+        if (foundVertexIds.size() < vertexIdsSet.size()) {
+            List<RelatedEdge> results = new ArrayList<>();
+            for (RelatedEdge relatedEdge : relatedEdges) {
+                if (foundVertexIds.contains(relatedEdge.getInVertexId())) {
+                    results.add(relatedEdge);
+                }
+            }
+            return results;
+        }
+        return relatedEdges;
     }
 
     @Override
     public Iterable<RelatedEdge> findRelatedEdgeSummaryForVertices(Iterable<Vertex> verticesIterable, Authorizations authorizations) {
-        List<RelatedEdge> results = new ArrayList<>();
         List<Vertex> vertices = IterableUtils.toList(verticesIterable);
-        for (Vertex outVertex : vertices) {
-            Iterable<EdgeInfo> edgeInfos = outVertex.getEdgeInfos(Direction.OUT, authorizations);
-            for (EdgeInfo edgeInfo : edgeInfos) {
-                for (Vertex inVertex : vertices) {
-                    if (edgeInfo.getVertexId().equals(inVertex.getId())) {
-                        results.add(new RelatedEdgeImpl(edgeInfo.getEdgeId(), edgeInfo.getLabel(), outVertex.getId(), inVertex.getId()));
-                    }
-                }
+        Set<String> vertexIds = new HashSet<>();
+        for (Vertex vertex : vertices) {
+            if (vertex == null) {
+                throw new VertexiumException("verticesIterable cannot have null values");
             }
+            vertexIds.add(vertex.getId());
         }
+        List<RelatedEdge> results = new ArrayList<>();
+        addRelatedEdges(vertices, vertexIds, new HashSet<String>(), results, authorizations);
         return results;
     }
 
     @Override
     public Iterable<String> findRelatedEdgeIdsForVertices(Iterable<Vertex> verticesIterable, Authorizations authorizations) {
-        List<String> results = new ArrayList<>();
-        List<Vertex> vertices = IterableUtils.toList(verticesIterable);
+        return toEdgeIds(findRelatedEdgeSummaryForVertices(verticesIterable, authorizations));
+    }
+
+    /**
+     * Adds the out edges of the given vertices which point to one of the vertex ids.
+     */
+    private void addRelatedEdges(Iterable<Vertex> vertices, Set<String> vertexIds, Set<String> foundVertexIds, List<RelatedEdge> relatedEdges, Authorizations authorizations) {
         for (Vertex outVertex : vertices) {
             if (outVertex == null) {
                 throw new VertexiumException("verticesIterable cannot have null values");
             }
-            Iterable<EdgeInfo> edgeInfos = outVertex.getEdgeInfos(Direction.OUT, authorizations);
-            for (EdgeInfo edgeInfo : edgeInfos) {
-                for (Vertex inVertex : vertices) {
-                    if (edgeInfo.getVertexId() == null) { // This check is for legacy data. null EdgeInfo.vertexIds are no longer permitted
-                        continue;
-                    }
-                    if (edgeInfo.getVertexId().equals(inVertex.getId())) {
-                        results.add(edgeInfo.getEdgeId());
-                    }
+            foundVertexIds.add(outVertex.getId());
+            for (EdgeInfo edgeInfo : outVertex.getEdgeInfos(Direction.OUT, authorizations)) {
+                if (edgeInfo.getVertexId() == null) { // This check is for legacy data. null EdgeInfo.vertexIds are no longer permitted
+                    continue;
+                }
+                if (vertexIds.contains(edgeInfo.getVertexId())) {
+                    relatedEdges.add(new RelatedEdgeImpl(edgeInfo.getEdgeId(), edgeInfo.getLabel(), outVertex.getId(), edgeInfo.getVertexId()));
                 }
             }
         }
+    }
+
+    private static List<String> toEdgeIds(Iterable<RelatedEdge> relatedEdges) {
+        List<String> results = new ArrayList<>();
+        for (RelatedEdge relatedEdge : relatedEdges) {
+            results.add(relatedEdge.getEdgeId());
+        }
         return results;
     }
 
@@ -708,6 +795,13 @@ public abstract class GraphBase implements Graph {
     @Override
     public abstract void flush();
 
+    /**
+     * Graphs that read each streaming property value separately do nothing here.
+     */
+    @Override
+    public void prefetchStreamingPropertyValues(Iterable<Property> properties) {
+    }
+
     @Override
     public abstract void shutdown();
 
@@ -0,0 +1,522 @@
+package org.vertexium.path;
+
+import org.vertexium.*;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import java.util.*;
+
+/**
+ * Finds all paths (without repeated vertices) of at most maxHops edges between two vertices.
+ *
+ * The search grows a breadth-first frontier from both the source and the destination vertex, always expanding
+ * the smaller of the two frontiers by one level using only the connected vertex ids. Once the two searches together
+ * cover maxHops levels the paths are stitched together from the collected adjacency, using the distances found by
+ * the destination search to prune branches that can no longer reach the destination within the remaining hops.
+ * Paths are stitched lazily as the returned iterator is consumed.
+ *
+ * Vertex ids are mapped to ints with a {@link VertexIdDictionary} so the frontiers, distances, adjacency and the
+ * partial paths are kept in int arrays and bit sets. Ids are only turned back into strings for the backend calls
+ * and for the emitted paths.
+ */
+public class BidirectionalPathFinder {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(BidirectionalPathFinder.class);
+    private static final IntArrayList EMPTY = new IntArrayList(1);
+    private final Graph graph;
+    private final String sourceVertexId;
+    private final String destVertexId;
+    private final String[] labels;
+    private final ProgressCallback progressCallback;
+    private final Integer maxResults;
+    private final Long timeoutMillis;
+    private final CancellationToken cancellationToken;
+    private final boolean shortestPathsOnly;
+    private final Authorizations authorizations;
+    private final VertexIdDictionary dictionary = new VertexIdDictionary();
+    private final List<IntArrayList> adjacency = new ArrayList<>();
+    private final BitSet expandedVertices = new BitSet();
+    private final BitSet loadedVertices = new BitSet();
+    private final BitSet missingVertices = new BitSet();
+    private final int source;
+    private final int dest;
+    private int maxHops;
+    private long startTime;
+
+    public BidirectionalPathFinder(Graph graph, FindPathOptions options, Authorizations authorizations) {
+        this.graph = graph;
+        this.sourceVertexId = options.getSourceVertexId();
+        this.destVertexId = options.getDestVertexId();
+        this.labels = options.getLabels();
+        this.maxHops = options.getMaxHops();
+        this.progressCallback = options.getProgressCallback() == null ? new NoopProgressCallback() : options.getProgressCallback();
+        this.maxResults = options.getMaxResults();
+        this.timeoutMillis = options.getTimeoutMillis();
+        this.cancellationToken = options.getCancellationToken();
+        this.shortestPathsOnly = options.isShortestPathsOnly();
+        this.authorizations = authorizations;
+        this.source = dictionary.getOrAdd(sourceVertexId);
+        this.dest = dictionary.getOrAdd(destVertexId);
+    }
+
+    public void findPaths(List<Path> foundPaths) {
+        Iterator<Path> paths = findPaths();
+        while (paths.hasNext()) {
+            foundPaths.add(paths.next());
+        }
+    }
+
+    /**
+     * Runs the breadth-first part of the search and returns an iterator which stitches the paths together as it
+     * is consumed.
+     */
+    public Iterator<Path> findPaths() {
+        startTime = System.currentTimeMillis();
+        progressCallback.progress(0, ProgressCallback.Step.FINDING_PATH);
+        if (source == dest) {
+            return new PathIterator(Collections.singletonList(new Path(sourceVertexId)).iterator());
+        }
+        if (maxHops <= 0) {
+            return new PathIterator(Collections.<Path>emptyIterator());
+        }
+
+        loadedVertices.set(source);
+        loadedVertices.set(dest);
+        Frontier sourceFrontier = new Frontier(source);
+        Frontier destFrontier = new Frontier(dest);
+        while (sourceFrontier.getDepth() + destFrontier.getDepth() < maxHops && !sourceFrontier.isExhausted() && !destFrontier.isExhausted()) {
+            if (isStopped()) {
+                return new PathIterator(Collections.<Path>emptyIterator());
+            }
+            double progressPercent = 0.8 * (double) (sourceFrontier.getDepth() + destFrontier.getDepth()) / (double) maxHops;
+            IntArrayList nextVertices;
+            Frontier other;
+            if (sourceFrontier.size() <= destFrontier.size()) {
+                progressCallback.progress(progressPercent, ProgressCallback.Step.SEARCHING_SOURCE_VERTEX_EDGES);
+                nextVertices = expand(sourceFrontier);
+                other = destFrontier;
+            } else {
+                progressCallback.progress(progressPercent, ProgressCallback.Step.SEARCHING_DESTINATION_VERTEX_EDGES);
+                nextVertices = expand(destFrontier);
+                other = sourceFrontier;
+            }
+            if (shortestPathsOnly) {
+                int shortestPathHops = getShortestPathHops(nextVertices, sourceFrontier, destFrontier, other);
+                if (shortestPathHops >= 0) {
+                    maxHops = shortestPathHops;
+                    break;
+                }
+            }
+        }
+
+        progressCallback.progress(0.8, ProgressCallback.Step.MERGING_EDGES);
+        verifyUnloadedVertices(sourceFrontier, destFrontier);
+
+        progressCallback.progress(0.9, ProgressCallback.Step.ADDING_PATHS);
+        return new PathIterator(new StitchingIterator(destFrontier));
+    }
+
+    /**
+     * Gets the vertex ids connected to each of the given vertices. Vertices which can't be read with the current
+     * authorizations must be left out of the result.
+     */
+    protected Map<String, Set<String>> getConnectedVertexIds(Set<String> vertexIds) {
+        Map<String, Set<String>> results = new HashMap<>();
+        for (Vertex vertex : graph.getVertices(vertexIds, FetchHint.EDGE_REFS, authorizations)) {
+            Set<String> connectedVertexIds = new LinkedHashSet<>();
+            for (String connectedVertexId : vertex.getVertexIds(Direction.BOTH, labels, authorizations)) {
+                connectedVertexIds.add(connectedVertexId);
+            }
+            results.put(vertex.getId(), connectedVertexIds);
+        }
+        return results;
+    }
+
+    /**
+     * Gets the vertex ids out of the given ids which can be read with the current authorizations.
+     */
+    protected Set<String> getReadableVertexIds(Set<String> vertexIds) {
+        Set<String> results = new HashSet<>();
+        for (Vertex vertex : graph.getVertices(vertexIds, FetchHint.NONE, authorizations)) {
+            results.add(vertex.getId());
+        }
+        return results;
+    }
+
+    protected Graph getGraph() {
+        return graph;
+    }
+
+    protected String[] getLabels() {
+        return labels;
+    }
+
+    protected Authorizations getAuthorizations() {
+        return authorizations;
+    }
+
+    private boolean isStopped() {
+        if (cancellationToken != null && cancellationToken.isCancelled()) {
+            LOGGER.debug("findPaths cancelled (%s -> %s)", sourceVertexId, destVertexId);
+            return true;
+        }
+        if (timeoutMillis != null && System.currentTimeMillis() - startTime > timeoutMillis) {
+            LOGGER.debug("findPaths timed out after %dms (%s -> %s)", timeoutMillis, sourceVertexId, destVertexId);
+            return true;
+        }
+        return false;
+    }
+
+    private IntArrayList expand(Frontier frontier) {
+        IntArrayList vertices = frontier.getVertices();
+        Set<String> vertexIdsToLoad = new HashSet<>();
+        for (int i = 0; i < vertices.size(); i++) {
+            int vertex = vertices.get(i);
+            if (!expandedVertices.get(vertex) && !missingVertices.get(vertex)) {
+                vertexIdsToLoad.add(dictionary.get(vertex));
+            }
+        }
+        if (vertexIdsToLoad.size() > 0) {
+            Map<String, Set<String>> connectedVertexIds = getConnectedVertexIds(vertexIdsToLoad);
+            for (String vertexId : vertexIdsToLoad) {
+                int vertex = dictionary.indexOf(vertexId);
+                Set<String> vertexConnectedVertexIds = connectedVertexIds.get(vertexId);
+                if (vertexConnectedVertexIds == null) {
+                    missingVertices.set(vertex);
+                    continue;
+                }
+                expandedVertices.set(vertex);
+                loadedVertices.set(vertex);
+                // the loaded neighbors replace the reverse edges added while expanding other vertices
+                IntArrayList neighbors = new IntArrayList(vertexConnectedVertexIds.size());
+                for (String connectedVertexId : vertexConnectedVertexIds) {
+                    int connectedVertex = dictionary.getOrAdd(connectedVertexId);
+                    neighbors.add(connectedVertex);
+                    if (!expandedVertices.get(connectedVertex)) {
+                        getOrCreateAdjacentVertices(connectedVertex).add(vertex);
+                    }
+                }
+                setAdjacentVertices(vertex, neighbors);
+            }
+        }
+
+        IntArrayList nextVertices = new IntArrayList();
+        for (int i = 0; i < vertices.size(); i++) {
+            int vertex = vertices.get(i);
+            if (!expandedVertices.get(vertex)) {
+                continue;
+            }
+            IntArrayList neighbors = getAdjacentVertices(vertex);
+            for (int j = 0; j < neighbors.size(); j++) {
+                int connectedVertex = neighbors.get(j);
+                if (frontier.addDistance(connectedVertex)) {
+                    nextVertices.add(connectedVertex);
+                }
+            }
+        }
+        frontier.setNext(nextVertices);
+        return nextVertices;
+    }
+
+    /**
+     * Checks if the newly discovered vertices meet the other search.
+     *
+     * @return the number of hops in the shortest path or -1 if the searches have not met yet.
+     */
+    private int getShortestPathHops(IntArrayList nextVertices, Frontier sourceFrontier, Frontier destFrontier, Frontier other) {
+        BitSet meetingVertices = new BitSet();
+        for (int i = 0; i < nextVertices.size(); i++) {
+            int vertex = nextVertices.get(i);
+            if (other.getDistance(vertex) >= 0) {
+                meetingVertices.set(vertex);
+            }
+        }
+        if (meetingVertices.isEmpty()) {
+            return -1;
+        }
+        verifyReadable(meetingVertices);
+
+        int shortestPathHops = -1;
+        for (int vertex = meetingVertices.nextSetBit(0); vertex >= 0; vertex = meetingVertices.nextSetBit(vertex + 1)) {
+            if (missingVertices.get(vertex)) {
+                continue;
+            }
+            int hops = sourceFrontier.getDistance(vertex) + destFrontier.getDistance(vertex);
+            if (shortestPathHops < 0 || hops < shortestPathHops) {
+                shortestPathHops = hops;
+            }
+        }
+        return shortestPathHops;
+    }
+
+    /**
+     * Vertices where the two searches meet were found through their edges but never loaded. Before they can
+     * be used in a path make sure the current authorizations can read them.
+     */
+    private void verifyUnloadedVertices(Frontier sourceFrontier, Frontier destFrontier) {
+        BitSet candidateVertices = new BitSet();
+        for (int vertex = 0; vertex < dictionary.size(); vertex++) {
+            int sourceDistance = sourceFrontier.getDistance(vertex);
+            if (sourceDistance < 0) {
+                continue;
+            }
+            int remainingHops = getMinimumHopsToDestination(vertex, destFrontier);
+            if (remainingHops >= 0 && sourceDistance + remainingHops <= maxHops) {
+                candidateVertices.set(vertex);
+            }
+        }
+        verifyReadable(candidateVertices);
+    }
+
+    private void verifyReadable(BitSet vertices) {
+        Set<String> unloadedVertexIds = new HashSet<>();
+        for (int vertex = vertices.nextSetBit(0); vertex >= 0; vertex = vertices.nextSetBit(vertex + 1)) {
+            if (!loadedVertices.get(vertex) && !missingVertices.get(vertex)) {
+                unloadedVertexIds.add(dictionary.get(vertex));
+            }
+        }
+        if (unloadedVertexIds.size() == 0) {
+            return;
+        }
+        Set<String> readableVertexIds = getReadableVertexIds(unloadedVertexIds);
+        for (String vertexId : unloadedVertexIds) {
+            int vertex = dictionary.indexOf(vertexId);
+            if (readableVertexIds.contains(vertexId)) {
+                loadedVertices.set(vertex);
+            } else {
+                missingVertices.set(vertex);
+            }
+        }
+    }
+
+    /**
+     * @return a lower bound on the number of hops from the given vertex to the destination vertex or -1 if the
+     * destination can not be reached.
+     */
+    private int getMinimumHopsToDestination(int vertex, Frontier destFrontier) {
+        int distance = destFrontier.getDistance(vertex);
+        if (distance >= 0) {
+            return distance;
+        }
+        if (destFrontier.isExhausted()) {
+            return -1;
+        }
+        return destFrontier.getDepth() + 1;
+    }
+
+    private IntArrayList getAdjacentVertices(int vertex) {
+        IntArrayList adjacentVertices = vertex < adjacency.size() ? adjacency.get(vertex) : null;
+        return adjacentVertices == null ? EMPTY : adjacentVertices;
+    }
+
+    private IntArrayList getOrCreateAdjacentVertices(int vertex) {
+        IntArrayList adjacentVertices = vertex < adjacency.size() ? adjacency.get(vertex) : null;
+        if (adjacentVertices == null) {
+            adjacentVertices = new IntArrayList(4);
+            setAdjacentVertices(vertex, adjacentVertices);
+        }
+        return adjacentVertices;
+    }
+
+    private void setAdjacentVertices(int vertex, IntArrayList adjacentVertices) {
+        while (adjacency.size() <= vertex) {
+            adjacency.add(null);
+        }
+        adjacency.set(vertex, adjacentVertices);
+    }
+
+    /**
+     * Applies the max results, timeout and cancellation options and reports completion.
+     */
+    private class PathIterator implements Iterator<Path> {
+        private final Iterator<Path> paths;
+        private int count;
+        private boolean done;
+
+        private PathIterator(Iterator<Path> paths) {
+            this.paths = paths;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (done) {
+                return false;
+            }
+            if ((maxResults != null && count >= maxResults) || isStopped() || !paths.hasNext()) {
+                done = true;
+                progressCallback.progress(1, ProgressCallback.Step.COMPLETE);
+                return false;
+            }
+            return true;
+        }
+
+        @Override
+        public Path next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            count++;
+            return paths.next();
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Depth first walk of the collected adjacency starting at the source vertex. The current path is kept as an
+     * int array with the position in each vertex's adjacency list alongside it.
+     */
+    private class StitchingIterator implements Iterator<Path> {
+        private final Frontier destFrontier;
+        private final int[] currentPath;
+        private final int[] nextAdjacentIndex;
+        private final BitSet currentPathVertices = new BitSet();
+        private final int sourceAdjacentCount;
+        private int depth;
+        private Path next;
+
+        private StitchingIterator(Frontier destFrontier) {
+            this.destFrontier = destFrontier;
+            this.currentPath = new int[maxHops + 1];
+            this.nextAdjacentIndex = new int[maxHops + 1];
+            this.sourceAdjacentCount = getAdjacentVertices(source).size();
+            this.currentPath[0] = source;
+            this.currentPathVertices.set(source);
+        }
+
+        @Override
+        public boolean hasNext() {
+            loadNext();
+            return next != null;
+        }
+
+        @Override
+        public Path next() {
+            loadNext();
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            Path result = next;
+            next = null;
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private void loadNext() {
+            while (next == null && depth >= 0) {
+                if (isStopped()) {
+                    return;
+                }
+                IntArrayList adjacentVertices = getAdjacentVertices(currentPath[depth]);
+                if (nextAdjacentIndex[depth] >= adjacentVertices.size()) {
+                    currentPathVertices.clear(currentPath[depth]);
+                    depth--;
+                    continue;
+                }
+                int vertex = adjacentVertices.get(nextAdjacentIndex[depth]++);
+                if (depth == 0) {
+                    // this will never get to 100% since the index starts at 0. which is good. 100% signifies done and we still have work to do.
+                    progressCallback.progress(
+                            0.9 + (0.1 * (nextAdjacentIndex[0] - 1) / sourceAdjacentCount),
+                            ProgressCallback.Step.SEARCHING_EDGES,
+                            nextAdjacentIndex[0],
+                            sourceAdjacentCount
+                    );
+                }
+                if (currentPathVertices.get(vertex)) {
+                    continue;
+                }
+                int hops = depth + 1;
+                if (vertex == dest) {
+                    next = toPath(hops);
+                    continue;
+                }
+                if (hops >= maxHops || !loadedVertices.get(vertex)) {
+                    continue;
+                }
+                int remainingHops = getMinimumHopsToDestination(vertex, destFrontier);
+                if (remainingHops < 0 || hops + remainingHops > maxHops) {
+                    continue;
+                }
+                depth++;
+                currentPath[depth] = vertex;
+                nextAdjacentIndex[depth] = 0;
+                currentPathVertices.set(vertex);
+            }
+        }
+
+        private Path toPath(int hops) {
+            String[] vertexIds = new String[hops + 1];
+            for (int i = 0; i < hops; i++) {
+                vertexIds[i] = dictionary.get(currentPath[i]);
+            }
+            vertexIds[hops] = destVertexId;
+            return new Path(vertexIds);
+        }
+    }
+
+    private static class NoopProgressCallback extends ProgressCallback {
+        @Override
+        public void progress(double progressPercent, Step step, Integer edgeIndex, Integer vertexCount) {
+        }
+    }
+
+    private static class Frontier {
+        private int[] distances = new int[0];
+        private IntArrayList vertices = new IntArrayList();
+        private int depth;
+
+        public Frontier(int startVertex) {
+            addDistance(startVertex, 0);
+            vertices.add(startVertex);
+        }
+
+        public int getDistance(int vertex) {
+            return vertex < distances.length ? distances[vertex] : -1;
+        }
+
+        public IntArrayList getVertices() {
+            return vertices;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public int size() {
+            return vertices.size();
+        }
+
+        public boolean isExhausted() {
+            return vertices.isEmpty();
+        }
+
+        public boolean addDistance(int vertex) {
+            if (getDistance(vertex) >= 0) {
+                return false;
+            }
+            addDistance(vertex, depth + 1);
+            return true;
+        }
+
+        private void addDistance(int vertex, int distance) {
+            if (vertex >= distances.length) {
+                int oldLength = distances.length;
+                distances = Arrays.copyOf(distances, Math.max(vertex + 1, oldLength * 2));
+                Arrays.fill(distances, oldLength, distances.length, -1);
+            }
+            distances[vertex] = distance;
+        }
+
+        public void setNext(IntArrayList nextVertices) {
+            vertices = nextVertices;
+            depth++;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.vertexium.path;
+
+import org.vertexium.*;
+
+import java.util.*;
+
+/**
+ * Breadth-first expansion from a set of seed vertices which only looks at connected vertex ids, so vertices are
+ * never loaded with their properties. Each level is loaded in batches.
+ */
+public class NeighborhoodFinder {
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+    private final Graph graph;
+    private final int maxHops;
+    private final String[] labels;
+    private final Direction direction;
+    private final Integer maxVertices;
+    private final Authorizations authorizations;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    public NeighborhoodFinder(Graph graph, int maxHops, String[] labels, Direction direction, Integer maxVertices, Authorizations authorizations) {
+        this.graph = graph;
+        this.maxHops = maxHops;
+        this.labels = labels;
+        this.direction = direction;
+        this.maxVertices = maxVertices;
+        this.authorizations = authorizations;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * @return the vertex ids found mapped to the number of hops from the closest seed vertex, in the order they were
+     * found.
+     */
+    public Map<String, Integer> find(Iterable<String> seedVertexIds) {
+        Map<String, Integer> results = new LinkedHashMap<>();
+        Set<String> seenVertexIds = new HashSet<>();
+        Set<String> candidateVertexIds = new LinkedHashSet<>();
+        for (String seedVertexId : seedVertexIds) {
+            if (seenVertexIds.add(seedVertexId)) {
+                candidateVertexIds.add(seedVertexId);
+            }
+        }
+
+        for (int hops = 0; candidateVertexIds.size() > 0 && !isFull(results); hops++) {
+            if (hops == maxHops) {
+                // the last level is not expanded, only make sure the vertices can be read
+                Set<String> readableVertexIds = getReadableVertexIdsInBatches(candidateVertexIds);
+                for (String vertexId : candidateVertexIds) {
+                    if (readableVertexIds.contains(vertexId) && !isFull(results)) {
+                        results.put(vertexId, hops);
+                    }
+                }
+                break;
+            }
+
+            Map<String, Set<String>> connectedVertexIds = getConnectedVertexIdsInBatches(candidateVertexIds);
+            Set<String> nextCandidateVertexIds = new LinkedHashSet<>();
+            for (String vertexId : candidateVertexIds) {
+                Set<String> vertexConnectedVertexIds = connectedVertexIds.get(vertexId);
+                if (vertexConnectedVertexIds == null || isFull(results)) {
+                    continue;
+                }
+                results.put(vertexId, hops);
+                for (String connectedVertexId : vertexConnectedVertexIds) {
+                    if (seenVertexIds.add(connectedVertexId)) {
+                        nextCandidateVertexIds.add(connectedVertexId);
+                    }
+                }
+            }
+            candidateVertexIds = nextCandidateVertexIds;
+        }
+        return results;
+    }
+
+    /**
+     * Gets the vertex ids connected to each of the given vertices following the configured direction and labels.
+     * Vertices which can't be read with the current authorizations must be left out of the result and readable
+     * vertices without connected vertices must be included with an empty set.
+     */
+    protected Map<String, Set<String>> getConnectedVertexIds(Set<String> vertexIds) {
+        Map<String, Set<String>> results = new HashMap<>();
+        for (Vertex vertex : graph.getVertices(vertexIds, getFetchHints(), authorizations)) {
+            Set<String> connectedVertexIds = new LinkedHashSet<>();
+            for (String connectedVertexId : vertex.getVertexIds(direction, labels, authorizations)) {
+                connectedVertexIds.add(connectedVertexId);
+            }
+            results.put(vertex.getId(), connectedVertexIds);
+        }
+        return results;
+    }
+
+    /**
+     * Gets the vertex ids out of the given ids which can be read with the current authorizations.
+     */
+    protected Set<String> getReadableVertexIds(Set<String> vertexIds) {
+        Set<String> results = new HashSet<>();
+        for (Vertex vertex : graph.getVertices(vertexIds, FetchHint.NONE, authorizations)) {
+            results.add(vertex.getId());
+        }
+        return results;
+    }
+
+    protected Graph getGraph() {
+        return graph;
+    }
+
+    protected String[] getLabels() {
+        return labels;
+    }
+
+    protected Direction getDirection() {
+        return direction;
+    }
+
+    protected Authorizations getAuthorizations() {
+        return authorizations;
+    }
+
+    private EnumSet<FetchHint> getFetchHints() {
+        switch (direction) {
+            case OUT:
+                return EnumSet.of(FetchHint.OUT_EDGE_REFS);
+            case IN:
+                return EnumSet.of(FetchHint.IN_EDGE_REFS);
+            default:
+                return FetchHint.EDGE_REFS;
+        }
+    }
+
+    private boolean isFull(Map<String, Integer> results) {
+        return maxVertices != null && results.size() >= maxVertices;
+    }
+
+    private Map<String, Set<String>> getConnectedVertexIdsInBatches(Set<String> vertexIds) {
+        Map<String, Set<String>> results = new HashMap<>();
+        for (Set<String> batch : toBatches(vertexIds)) {
+            results.putAll(getConnectedVertexIds(batch));
+        }
+        return results;
+    }
+
+    private Set<String> getReadableVertexIdsInBatches(Set<String> vertexIds) {
+        Set<String> results = new HashSet<>();
+        for (Set<String> batch : toBatches(vertexIds)) {
+            results.addAll(getReadableVertexIds(batch));
+        }
+        return results;
+    }
+
+    private List<Set<String>> toBatches(Set<String> vertexIds) {
+        if (vertexIds.size() <= batchSize) {
+            return Collections.singletonList(vertexIds);
+        }
+        List<Set<String>> batches = new ArrayList<>();
+        Set<String> batch = new HashSet<>();
+        for (String vertexId : vertexIds) {
+            batch.add(vertexId);
+            if (batch.size() >= batchSize) {
+                batches.add(batch);
+                batch = new HashSet<>();
+            }
+        }
+        if (batch.size() > 0) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+}
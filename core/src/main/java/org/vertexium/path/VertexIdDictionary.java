@@ -0,0 +1,41 @@
+package org.vertexium.path;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps vertex ids to small consecutive ints for the duration of a traversal, so frontiers, visited sets and
+ * partial paths can be kept in int arrays and bit sets instead of collections of strings.
+ */
+public class VertexIdDictionary {
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final List<String> vertexIds = new ArrayList<>();
+
+    public int getOrAdd(String vertexId) {
+        Integer index = indexes.get(vertexId);
+        if (index == null) {
+            index = vertexIds.size();
+            indexes.put(vertexId, index);
+            vertexIds.add(vertexId);
+        }
+        return index;
+    }
+
+    /**
+     * @return the index of the vertex id or -1 if it has not been added.
+     */
+    public int indexOf(String vertexId) {
+        Integer index = indexes.get(vertexId);
+        return index == null ? -1 : index;
+    }
+
+    public String get(int index) {
+        return vertexIds.get(index);
+    }
+
+    public int size() {
+        return vertexIds.size();
+    }
+}
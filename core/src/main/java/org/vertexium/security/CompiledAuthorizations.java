@@ -0,0 +1,98 @@
+package org.vertexium.security;
+
+import org.cache2k.Cache;
+import org.cache2k.CacheBuilder;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A set of authorizations as a bit set of {@link VisibilityExpression} term indexes, with the result of each
+ * visibility expression it has evaluated remembered so reading many elements with the same few visibilities only
+ * evaluates each visibility once. The bit set is rebuilt when an expression comes from a newer term dictionary.
+ */
+public class CompiledAuthorizations {
+    private static final int MAX_CACHED_RESULTS = 10000;
+    private static final Cache<String, CompiledAuthorizations> authorizationsCache = CacheBuilder
+            .newCache(String.class, CompiledAuthorizations.class)
+            .name(CompiledAuthorizations.class, "authorizationsCache")
+            .maxSize(1000)
+            .build();
+    private final String[] authorizations;
+    private volatile TermIndexes termIndexes;
+    private final ConcurrentMap<String, Boolean> results = new ConcurrentHashMap<>();
+
+    private CompiledAuthorizations(String[] authorizations) {
+        this.authorizations = authorizations;
+        this.termIndexes = new TermIndexes(VisibilityExpression.getTermDictionary(), authorizations);
+    }
+
+    /**
+     * @return The compiled authorizations, shared with other callers using the same authorizations in any order.
+     */
+    public static CompiledAuthorizations get(String[] authorizations) {
+        String[] sortedAuthorizations = authorizations.clone();
+        Arrays.sort(sortedAuthorizations);
+        String key = createKey(sortedAuthorizations);
+        CompiledAuthorizations result = authorizationsCache.peek(key);
+        if (result == null) {
+            result = new CompiledAuthorizations(sortedAuthorizations);
+            authorizationsCache.put(key, result);
+        }
+        return result;
+    }
+
+    static void clearCache() {
+        authorizationsCache.clear();
+    }
+
+    /**
+     * Prefixes each authorization with its length so no two sets of authorizations have the same key.
+     */
+    private static String createKey(String[] sortedAuthorizations) {
+        StringBuilder key = new StringBuilder();
+        for (String authorization : sortedAuthorizations) {
+            key.append(authorization.length()).append(':').append(authorization);
+        }
+        return key.toString();
+    }
+
+    public boolean canRead(String visibilityString) {
+        if (visibilityString.length() == 0) {
+            return true;
+        }
+        Boolean result = results.get(visibilityString);
+        if (result == null) {
+            VisibilityExpression expression = VisibilityExpression.get(visibilityString);
+            result = expression.evaluate(getTermIndexes(expression.getDictionary()));
+            if (results.size() >= MAX_CACHED_RESULTS) {
+                results.clear();
+            }
+            results.put(visibilityString, result);
+        }
+        return result;
+    }
+
+    private BitSet getTermIndexes(VisibilityExpression.TermDictionary dictionary) {
+        TermIndexes result = termIndexes;
+        if (dictionary != null && result.dictionary != dictionary) {
+            result = new TermIndexes(dictionary, authorizations);
+            termIndexes = result;
+        }
+        return result.bits;
+    }
+
+    private static class TermIndexes {
+        private final VisibilityExpression.TermDictionary dictionary;
+        private final BitSet bits = new BitSet();
+
+        private TermIndexes(VisibilityExpression.TermDictionary dictionary, String[] authorizations) {
+            this.dictionary = dictionary;
+            for (String authorization : authorizations) {
+                bits.set(dictionary.getTermIndex(authorization));
+            }
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package org.vertexium.security;
+
+import org.cache2k.Cache;
+import org.cache2k.CacheBuilder;
+import org.vertexium.VertexiumException;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A visibility expression parsed once into a tree that can be evaluated against the bit set of a
+ * {@link CompiledAuthorizations}.
+ * <p>
+ * The syntax is the same as Accumulo column visibilities: terms made of letters, digits and _-:./ or quoted terms
+ * where only \" and \\ may be escaped, combined with &amp; and | and grouped with parentheses. &amp; and | can not be
+ * mixed without parentheses. An empty expression is visible to everyone.
+ * <p>
+ * Each term is given an index in a dictionary shared by all expressions and authorizations so terms are compared by
+ * index instead of by string. Once the dictionary holds more than {@link #MAX_TERMS} terms it is replaced by an empty
+ * one and the expression and authorizations caches are cleared, so terms that are no longer used do not stay in memory.
+ * Each expression remembers the dictionary it was parsed with.
+ */
+public abstract class VisibilityExpression {
+    static final int MAX_TERMS = 100000;
+    private static volatile TermDictionary dictionary = new TermDictionary();
+    private static final Cache<String, VisibilityExpression> expressionCache = CacheBuilder
+            .newCache(String.class, VisibilityExpression.class)
+            .name(VisibilityExpression.class, "expressionCache")
+            .maxSize(10000)
+            .build();
+    private static final VisibilityExpression EMPTY = new VisibilityExpression(null) {
+        @Override
+        public boolean evaluate(BitSet authorizations) {
+            return true;
+        }
+    };
+    private final TermDictionary termDictionary;
+
+    private VisibilityExpression(TermDictionary termDictionary) {
+        this.termDictionary = termDictionary;
+    }
+
+    /**
+     * @return The parsed expression, from a cache if it was parsed before.
+     */
+    public static VisibilityExpression get(String expression) {
+        if (expression.length() == 0) {
+            return EMPTY;
+        }
+        VisibilityExpression result = expressionCache.peek(expression);
+        if (result == null) {
+            result = parse(expression);
+            expressionCache.put(expression, result);
+        }
+        return result;
+    }
+
+    public static VisibilityExpression parse(String expression) {
+        if (expression.length() == 0) {
+            return EMPTY;
+        }
+        return new Parser(getTermDictionary(), expression).parse();
+    }
+
+    /**
+     * @return The current dictionary, replaced first if it has grown past {@link #MAX_TERMS} terms.
+     */
+    static TermDictionary getTermDictionary() {
+        TermDictionary result = dictionary;
+        if (result.size() > MAX_TERMS) {
+            synchronized (VisibilityExpression.class) {
+                if (dictionary == result) {
+                    dictionary = new TermDictionary();
+                    expressionCache.clear();
+                    CompiledAuthorizations.clearCache();
+                }
+                result = dictionary;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The dictionary the term indexes of this expression come from or null if the expression has no terms.
+     */
+    TermDictionary getDictionary() {
+        return termDictionary;
+    }
+
+    /**
+     * @param authorizations The term indexes of the authorizations in the dictionary of this expression.
+     */
+    public abstract boolean evaluate(BitSet authorizations);
+
+    static class TermDictionary {
+        private final ConcurrentMap<String, Integer> termIndexes = new ConcurrentHashMap<>();
+        private final AtomicInteger nextTermIndex = new AtomicInteger();
+
+        int getTermIndex(String term) {
+            Integer index = termIndexes.get(term);
+            if (index == null) {
+                synchronized (termIndexes) {
+                    index = termIndexes.get(term);
+                    if (index == null) {
+                        index = nextTermIndex.getAndIncrement();
+                        termIndexes.put(term, index);
+                    }
+                }
+            }
+            return index;
+        }
+
+        int size() {
+            return nextTermIndex.get();
+        }
+    }
+
+    private static class Term extends VisibilityExpression {
+        private final int index;
+
+        private Term(TermDictionary termDictionary, String term) {
+            super(termDictionary);
+            this.index = termDictionary.getTermIndex(term);
+        }
+
+        @Override
+        public boolean evaluate(BitSet authorizations) {
+            return authorizations.get(index);
+        }
+    }
+
+    private static class And extends VisibilityExpression {
+        private final VisibilityExpression[] children;
+
+        private And(TermDictionary termDictionary, List<VisibilityExpression> children) {
+            super(termDictionary);
+            this.children = children.toArray(new VisibilityExpression[children.size()]);
+        }
+
+        @Override
+        public boolean evaluate(BitSet authorizations) {
+            for (VisibilityExpression child : children) {
+                if (!child.evaluate(authorizations)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static class Or extends VisibilityExpression {
+        private final VisibilityExpression[] children;
+
+        private Or(TermDictionary termDictionary, List<VisibilityExpression> children) {
+            super(termDictionary);
+            this.children = children.toArray(new VisibilityExpression[children.size()]);
+        }
+
+        @Override
+        public boolean evaluate(BitSet authorizations) {
+            for (VisibilityExpression child : children) {
+                if (child.evaluate(authorizations)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static class Parser {
+        private final TermDictionary termDictionary;
+        private final String expression;
+        private int index;
+
+        private Parser(TermDictionary termDictionary, String expression) {
+            this.termDictionary = termDictionary;
+            this.expression = expression;
+        }
+
+        VisibilityExpression parse() {
+            VisibilityExpression result = parseExpression();
+            if (index < expression.length()) {
+                if (expression.charAt(index) == ')') {
+                    throw error("parenthesis mis-match");
+                }
+                throw error("expression needs & or |");
+            }
+            return result;
+        }
+
+        private VisibilityExpression parseExpression() {
+            List<VisibilityExpression> children = new ArrayList<>();
+            children.add(parseOperand());
+            char operator = 0;
+            while (index < expression.length()) {
+                char c = expression.charAt(index);
+                if (c != '&' && c != '|') {
+                    break;
+                }
+                if (operator == 0) {
+                    operator = c;
+                } else if (operator != c) {
+                    throw error("cannot mix & and |");
+                }
+                index++;
+                children.add(parseOperand());
+            }
+            if (operator == 0) {
+                return children.get(0);
+            }
+            return operator == '&' ? new And(termDictionary, children) : new Or(termDictionary, children);
+        }
+
+        private VisibilityExpression parseOperand() {
+            if (index >= expression.length()) {
+                throw error("missing term");
+            }
+            char c = expression.charAt(index);
+            if (c == '(') {
+                index++;
+                VisibilityExpression result = parseExpression();
+                if (index >= expression.length() || expression.charAt(index) != ')') {
+                    throw error("parenthesis mis-match");
+                }
+                index++;
+                return result;
+            }
+            if (c == '"') {
+                return parseQuotedTerm();
+            }
+            int start = index;
+            while (index < expression.length() && isValidTermChar(expression.charAt(index))) {
+                index++;
+            }
+            if (start == index) {
+                if (c == '&' || c == '|' || c == ')') {
+                    throw error("empty term");
+                }
+                throw error("bad character (" + c + ")");
+            }
+            return new Term(termDictionary, expression.substring(start, index));
+        }
+
+        private VisibilityExpression parseQuotedTerm() {
+            int start = index;
+            index++;
+            StringBuilder term = new StringBuilder();
+            while (index < expression.length() && expression.charAt(index) != '"') {
+                char c = expression.charAt(index);
+                if (c == '\\') {
+                    index++;
+                    if (index >= expression.length() || (expression.charAt(index) != '\\' && expression.charAt(index) != '"')) {
+                        throw error("invalid escaping within quotes");
+                    }
+                    c = expression.charAt(index);
+                }
+                term.append(c);
+                index++;
+            }
+            if (index >= expression.length()) {
+                index = start;
+                throw error("unclosed quote");
+            }
+            index++;
+            if (term.length() == 0) {
+                index = start;
+                throw error("empty term");
+            }
+            return new Term(termDictionary, term.toString());
+        }
+
+        private static boolean isValidTermChar(char c) {
+            return (c >= 'a' && c <= 'z')
+                    || (c >= 'A' && c <= 'Z')
+                    || (c >= '0' && c <= '9')
+                    || c == '_' || c == '-' || c == ':' || c == '.' || c == '/';
+        }
+
+        private VertexiumException error(String message) {
+            return new VertexiumException("could not parse visibility " + expression + ": " + message + " at index " + index);
+        }
+    }
+}
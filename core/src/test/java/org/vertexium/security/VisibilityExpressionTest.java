@@ -0,0 +1,81 @@
+package org.vertexium.security;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.VertexiumException;
+
+import static org.junit.Assert.*;
+
+@RunWith(JUnit4.class)
+public class VisibilityExpressionTest {
+    @Test
+    public void testEvaluate() {
+        CompiledAuthorizations ab = CompiledAuthorizations.get(new String[]{"a", "b"});
+
+        assertTrue(ab.canRead(""));
+        assertTrue(ab.canRead("a"));
+        assertFalse(ab.canRead("c"));
+        assertTrue(ab.canRead("a&b"));
+        assertFalse(ab.canRead("a&c"));
+        assertTrue(ab.canRead("a|c"));
+        assertFalse(ab.canRead("c|d"));
+        assertTrue(ab.canRead("(a|c)&b"));
+        assertFalse(ab.canRead("(a|c)&d"));
+        assertTrue(ab.canRead("((a))"));
+        assertTrue(ab.canRead("c|(a&b)"));
+        assertTrue(ab.canRead("\"a\""));
+        assertTrue(ab.canRead("a-b|b:c|a.b/c|a_b|b"));
+    }
+
+    @Test
+    public void testQuotedTerms() {
+        CompiledAuthorizations auths = CompiledAuthorizations.get(new String[]{"a b", "c\"d", "e\\f"});
+
+        assertTrue(auths.canRead("\"a b\""));
+        assertTrue(auths.canRead("\"c\\\"d\"&\"e\\\\f\""));
+        assertFalse(auths.canRead("\"a\""));
+    }
+
+    @Test
+    public void testAuthorizationsAreSharedRegardlessOfOrder() {
+        assertSame(CompiledAuthorizations.get(new String[]{"a", "b"}), CompiledAuthorizations.get(new String[]{"b", "a"}));
+        assertNotSame(CompiledAuthorizations.get(new String[]{"a,b"}), CompiledAuthorizations.get(new String[]{"a", "b"}));
+        assertSame(VisibilityExpression.get("a&b"), VisibilityExpression.get("a&b"));
+    }
+
+    @Test
+    public void testTermDictionaryIsResetPastLimit() {
+        CompiledAuthorizations ab = CompiledAuthorizations.get(new String[]{"a", "b"});
+        assertTrue(ab.canRead("a&b"));
+        VisibilityExpression.TermDictionary dictionary = VisibilityExpression.getTermDictionary();
+
+        for (int i = 0; i <= VisibilityExpression.MAX_TERMS; i++) {
+            VisibilityExpression.get("term" + i);
+        }
+        assertNotSame(dictionary, VisibilityExpression.get("b|c").getDictionary());
+        assertTrue(VisibilityExpression.getTermDictionary().size() < VisibilityExpression.MAX_TERMS);
+        assertNotSame(ab, CompiledAuthorizations.get(new String[]{"a", "b"}));
+
+        assertTrue(ab.canRead("(a)&b"));
+        assertTrue(ab.canRead("b|c"));
+        assertFalse(ab.canRead("a&c"));
+        assertFalse(ab.canRead("term1"));
+        assertTrue(CompiledAuthorizations.get(new String[]{"a", "b"}).canRead("(b)&a"));
+    }
+
+    @Test
+    public void testParseErrors() {
+        String[] invalidExpressions = new String[]{
+                "a&", "&a", "a&&b", "a|b&c", "(a", "a)", "()", "a(b)", "(a)b", "a b", "a#b", "\"\"", "\"a", "\"a\\b\"", "\"a\"b"
+        };
+        for (String invalidExpression : invalidExpressions) {
+            try {
+                VisibilityExpression.parse(invalidExpression);
+                fail("Expected a parse error for: " + invalidExpression);
+            } catch (VertexiumException ex) {
+                // expected
+            }
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.vertexium.Authorizations;
 import org.vertexium.Graph;
 import org.vertexium.GraphMetadataEntry;
 import org.vertexium.Visibility;
+import org.vertexium.security.CompiledAuthorizations;
 import org.vertexium.util.VertexiumLogger;
 import org.vertexium.util.VertexiumLoggerFactory;
 
@@ -16,15 +17,14 @@ public class MetadataTablePropertyNameVisibilitiesStore extends PropertyNameVisi
     public static final String PROPERTY_NAME_VISIBILITY_TO_HASH_PREFIX = "propertyNameVisibility.";
     public static final String HASH_TO_VISIBILITY = "visibilityHash.";
     private static final Charset UTF8 = Charset.forName("utf8");
-    private Map<String, Visibility> visibilityCache = new HashMap<>();
 
     public Collection<String> getHashes(Graph graph, String propertyName, Authorizations authorizations) {
         List<String> results = new ArrayList<>();
         String prefix = getPropertyNameVisibilityToHashPrefix(propertyName);
+        CompiledAuthorizations compiledAuthorizations = CompiledAuthorizations.get(authorizations.getAuthorizations());
         for (GraphMetadataEntry metadata : graph.getMetadataWithPrefix(prefix)) {
             String visibilityString = metadata.getKey().substring(prefix.length());
-            Visibility visibility = getVisibility(visibilityString);
-            if (authorizations.canRead(visibility)) {
+            if (compiledAuthorizations.canRead(visibilityString)) {
                 String hash = (String) metadata.getValue();
                 results.add(hash);
             }
@@ -32,15 +32,6 @@ public class MetadataTablePropertyNameVisibilitiesStore extends PropertyNameVisi
         return results;
     }
 
-    private Visibility getVisibility(String visibilityString) {
-        Visibility visibility = visibilityCache.get(visibilityString);
-        if (visibility == null) {
-            visibility = new Visibility(visibilityString);
-            visibilityCache.put(visibilityString, visibility);
-        }
-        return visibility;
-    }
-
     public String getHash(Graph graph, String propertyName, Visibility visibility) {
         String visibilityString = visibility.getVisibilityString();
         String propertyNameVisibilityToHashKey = getMetadataKey(propertyName, visibilityString);
@@ -14,9 +14,17 @@ import org.vertexium.elasticsearch.utils.GetResponseUtil;
 import org.vertexium.search.SearchIndex;
 
 import java.io.IOException;
+import java.util.EnumSet;
 import java.util.List;
 
 public class EdgeCountScoringStrategy extends ScoringStrategy {
+    // the edge labels fetch hints return per label edge counts instead of every edge ref
+    private static final EnumSet<FetchHint> VERTEX_FETCH_HINTS = EnumSet.of(
+            FetchHint.PROPERTIES,
+            FetchHint.PROPERTY_METADATA,
+            FetchHint.IN_EDGE_LABELS,
+            FetchHint.OUT_EDGE_LABELS
+    );
     private final EdgeCountScoringStrategyConfiguration config;
 
     public EdgeCountScoringStrategy(GraphConfiguration config) {
@@ -37,12 +45,12 @@ public class EdgeCountScoringStrategy extends ScoringStrategy {
             return;
         }
 
-        Element vOut = ((Edge) element).getVertex(Direction.OUT, authorizations);
+        Element vOut = ((Edge) element).getVertex(Direction.OUT, VERTEX_FETCH_HINTS, authorizations);
         if (vOut != null) {
             searchIndex.addElement(graph, vOut, authorizations);
         }
 
-        Element vIn = ((Edge) element).getVertex(Direction.IN, authorizations);
+        Element vIn = ((Edge) element).getVertex(Direction.IN, VERTEX_FETCH_HINTS, authorizations);
         if (vIn != null) {
             searchIndex.addElement(graph, vIn, authorizations);
         }
@@ -59,13 +67,13 @@ public class EdgeCountScoringStrategy extends ScoringStrategy {
             return totalCount;
         }
 
-        Element vOut = ((Edge) element).getVertex(Direction.OUT, authorizations);
+        Element vOut = ((Edge) element).getVertex(Direction.OUT, VERTEX_FETCH_HINTS, authorizations);
         if (vOut != null) {
             searchIndex.addElementToBulkRequest(graph, bulkRequest, indexInfo, vOut, authorizations);
             totalCount++;
         }
 
-        Element vIn = ((Edge) element).getVertex(Direction.IN, authorizations);
+        Element vIn = ((Edge) element).getVertex(Direction.IN, VERTEX_FETCH_HINTS, authorizations);
         if (vIn != null) {
             searchIndex.addElementToBulkRequest(graph, bulkRequest, indexInfo, vIn, authorizations);
             totalCount++;
@@ -0,0 +1,114 @@
+package org.vertexium.inmemory;
+
+import org.vertexium.Direction;
+import org.vertexium.EdgeInfo;
+import org.vertexium.util.FilterIterable;
+import org.vertexium.util.JoinIterable;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Per-vertex index of the edges touching each vertex. This index only tracks the structure of the graph (edge id,
+ * label and other vertex id), visibility, hidden and soft delete state still need to be checked against the
+ * edge's {@link InMemoryTableElement}.
+ */
+public class InMemoryAdjacencyIndex {
+    private final ConcurrentMap<String, Map<String, EdgeInfo>> outEdges = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Map<String, EdgeInfo>> inEdges = new ConcurrentHashMap<>();
+
+    public void addEdge(String edgeId, String outVertexId, String inVertexId, String label) {
+        getOrCreate(outEdges, outVertexId).put(edgeId, new InMemoryEdgeInfo(edgeId, label, inVertexId));
+        getOrCreate(inEdges, inVertexId).put(edgeId, new InMemoryEdgeInfo(edgeId, label, outVertexId));
+    }
+
+    public void removeEdge(String edgeId, String outVertexId, String inVertexId) {
+        remove(outEdges, outVertexId, edgeId);
+        remove(inEdges, inVertexId, edgeId);
+    }
+
+    public void clear() {
+        outEdges.clear();
+        inEdges.clear();
+    }
+
+    /**
+     * Gets the edges touching the given vertex. A self referencing edge is only returned once when direction
+     * is {@link Direction#BOTH}.
+     */
+    public Iterable<EdgeInfo> getEdgeInfos(final String vertexId, Direction direction) {
+        switch (direction) {
+            case OUT:
+                return get(outEdges, vertexId);
+            case IN:
+                return get(inEdges, vertexId);
+            case BOTH:
+                Iterable<EdgeInfo> inEdgesWithoutSelfReferences = new FilterIterable<EdgeInfo>(get(inEdges, vertexId)) {
+                    @Override
+                    protected boolean isIncluded(EdgeInfo edgeInfo) {
+                        return !edgeInfo.getVertexId().equals(vertexId);
+                    }
+                };
+                return new JoinIterable<>(get(outEdges, vertexId), inEdgesWithoutSelfReferences);
+            default:
+                throw new IllegalArgumentException("Unexpected direction: " + direction);
+        }
+    }
+
+    private static Map<String, EdgeInfo> getOrCreate(ConcurrentMap<String, Map<String, EdgeInfo>> edges, String vertexId) {
+        Map<String, EdgeInfo> vertexEdges = edges.get(vertexId);
+        if (vertexEdges == null) {
+            vertexEdges = new ConcurrentSkipListMap<>();
+            Map<String, EdgeInfo> existing = edges.putIfAbsent(vertexId, vertexEdges);
+            if (existing != null) {
+                vertexEdges = existing;
+            }
+        }
+        return vertexEdges;
+    }
+
+    private static void remove(ConcurrentMap<String, Map<String, EdgeInfo>> edges, String vertexId, String edgeId) {
+        Map<String, EdgeInfo> vertexEdges = edges.get(vertexId);
+        if (vertexEdges != null) {
+            vertexEdges.remove(edgeId);
+        }
+    }
+
+    private static Iterable<EdgeInfo> get(ConcurrentMap<String, Map<String, EdgeInfo>> edges, String vertexId) {
+        Map<String, EdgeInfo> vertexEdges = edges.get(vertexId);
+        if (vertexEdges == null) {
+            return Collections.emptyList();
+        }
+        return vertexEdges.values();
+    }
+
+    private static class InMemoryEdgeInfo implements EdgeInfo {
+        private final String edgeId;
+        private final String label;
+        private final String vertexId;
+
+        private InMemoryEdgeInfo(String edgeId, String label, String vertexId) {
+            this.edgeId = edgeId;
+            this.label = label;
+            this.vertexId = vertexId;
+        }
+
+        @Override
+        public String getEdgeId() {
+            return edgeId;
+        }
+
+        @Override
+        public String getLabel() {
+            return label;
+        }
+
+        @Override
+        public String getVertexId() {
+            return vertexId;
+        }
+    }
+}
@@ -1,11 +1,7 @@
 package org.vertexium.inmemory;
 
-import org.vertexium.VertexiumException;
 import org.vertexium.Visibility;
-import org.vertexium.inmemory.security.Authorizations;
-import org.vertexium.inmemory.security.ColumnVisibility;
-import org.vertexium.inmemory.security.VisibilityEvaluator;
-import org.vertexium.inmemory.security.VisibilityParseException;
+import org.vertexium.security.CompiledAuthorizations;
 import org.vertexium.util.ArrayUtils;
 import org.vertexium.util.Preconditions;
 
@@ -15,6 +11,7 @@ import java.util.Arrays;
 public class InMemoryAuthorizations implements org.vertexium.Authorizations, Serializable {
     private static final long serialVersionUID = 1L;
     private final String[] authorizations;
+    private transient CompiledAuthorizations compiledAuthorizations;
 
     public InMemoryAuthorizations(String... authorizations) {
         this.authorizations = authorizations;
@@ -39,18 +36,19 @@ public class InMemoryAuthorizations implements org.vertexium.Authorizations, Ser
     public boolean canRead(Visibility visibility) {
         Preconditions.checkNotNull(visibility, "visibility is required");
 
-        // this is just a shortcut so that we don't need to construct evaluators and visibility objects to check for an empty string.
+        // this is just a shortcut so that we don't need to look up the compiled authorizations to check for an empty string.
         if (visibility.getVisibilityString().length() == 0) {
             return true;
         }
 
-        VisibilityEvaluator visibilityEvaluator = new VisibilityEvaluator(new Authorizations(this.getAuthorizations()));
-        ColumnVisibility columnVisibility = new ColumnVisibility(visibility.getVisibilityString());
-        try {
-            return visibilityEvaluator.evaluate(columnVisibility);
-        } catch (VisibilityParseException e) {
-            throw new VertexiumException("could not evaluate visibility " + visibility.getVisibilityString(), e);
+        return getCompiledAuthorizations().canRead(visibility.getVisibilityString());
+    }
+
+    private CompiledAuthorizations getCompiledAuthorizations() {
+        if (compiledAuthorizations == null) {
+            compiledAuthorizations = CompiledAuthorizations.get(authorizations);
         }
+        return compiledAuthorizations;
     }
 
     @Override
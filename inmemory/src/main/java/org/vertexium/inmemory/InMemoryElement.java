@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
 public abstract class InMemoryElement<TElement extends InMemoryElement> implements Element {
     private final String id;
@@ -23,6 +24,7 @@ public abstract class InMemoryElement<TElement extends InMemoryElement> implemen
     private final boolean includeHidden;
     private final Long endTime;
     private final Authorizations authorizations;
+    private Set<String> propertyNames;
 
     protected InMemoryElement(
             InMemoryGraph graph,
@@ -329,7 +331,14 @@ public abstract class InMemoryElement<TElement extends InMemoryElement> implemen
 
     @Override
     public Iterable<Property> getProperties() {
-        return inMemoryTableElement.getProperties(includeHidden, endTime, authorizations);
+        return inMemoryTableElement.getProperties(includeHidden, endTime, propertyNames, authorizations);
+    }
+
+    /**
+     * @param propertyNames The names of the properties to include. null to include all properties.
+     */
+    void setPropertyNames(Set<String> propertyNames) {
+        this.propertyNames = propertyNames;
     }
 
     @Override
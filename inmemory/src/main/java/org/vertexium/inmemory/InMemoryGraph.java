@@ -1,6 +1,5 @@
 package org.vertexium.inmemory;
 
-import com.google.common.collect.ImmutableSet;
 import org.vertexium.*;
 import org.vertexium.event.*;
 import org.vertexium.id.IdGenerator;
@@ -27,6 +26,8 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
     private final InMemoryEdgeTable edges;
     private final Set<String> validAuthorizations = new HashSet<>();
     private final GraphMetadataStore graphMetadataStore;
+    private final Object adjacencyIndexLock = new Object();
+    private volatile InMemoryAdjacencyIndex adjacencyIndex;
 
     protected InMemoryGraph(InMemoryGraphConfiguration configuration) {
         this(
@@ -154,6 +155,50 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
         };
     }
 
+    @Override
+    public Iterable<Vertex> getVertices(Iterable<String> ids, EnumSet<FetchHint> fetchHints, String[] propertyNames, Long endTime, Authorizations authorizations) {
+        Iterable<Vertex> vertices = getVertices(ids, fetchHints, endTime, authorizations);
+        if (propertyNames == null) {
+            return vertices;
+        }
+        final Set<String> propertyNamesSet = new HashSet<>(Arrays.asList(propertyNames));
+        return new ConvertingIterable<Vertex, Vertex>(vertices) {
+            @Override
+            protected Vertex convert(Vertex o) {
+                ((InMemoryVertex) o).setPropertyNames(propertyNamesSet);
+                return o;
+            }
+        };
+    }
+
+    @Override
+    public Vertex getVertex(String vertexId, EnumSet<FetchHint> fetchHints, Long endTime, Authorizations authorizations) {
+        validateAuthorizations(authorizations);
+        return this.vertices.get(InMemoryGraph.this, vertexId, fetchHints, endTime, authorizations);
+    }
+
+    @Override
+    public Iterable<Vertex> getVerticesWithPrefix(String vertexIdPrefix, EnumSet<FetchHint> fetchHints, Long endTime, Authorizations authorizations) {
+        validateAuthorizations(authorizations);
+        return new ConvertingIterable<InMemoryVertex, Vertex>(this.vertices.getAllWithPrefix(InMemoryGraph.this, vertexIdPrefix, fetchHints, endTime, authorizations)) {
+            @Override
+            protected Vertex convert(InMemoryVertex o) {
+                return o;
+            }
+        };
+    }
+
+    @Override
+    public Iterable<Vertex> getVerticesInRange(Range idRange, EnumSet<FetchHint> fetchHints, Long endTime, Authorizations authorizations) {
+        validateAuthorizations(authorizations);
+        return new ConvertingIterable<InMemoryVertex, Vertex>(this.vertices.getAllInRange(InMemoryGraph.this, idRange, fetchHints, endTime, authorizations)) {
+            @Override
+            protected Vertex convert(InMemoryVertex o) {
+                return o;
+            }
+        };
+    }
+
     protected void validateAuthorizations(Authorizations authorizations) {
         for (String auth : authorizations.getAuthorizations()) {
             if (!this.validAuthorizations.contains(auth)) {
@@ -320,11 +365,13 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
                     new AlterEdgeLabelMutation(incrementingTimestamp++, edgeBuilder.getLabel()),
                     new EdgeSetupMutation(incrementingTimestamp++, outVertexId, inVertexId)
             );
+            addToAdjacencyIndex(edgeBuilder.getEdgeId(), outVertexId, inVertexId, edgeBuilder.getLabel());
         } else {
             edges.append(edgeBuilder.getEdgeId(), new ElementTimestampMutation(incrementingTimestamp++));
         }
         if (edgeBuilder.getNewEdgeLabel() != null) {
             edges.append(edgeBuilder.getEdgeId(), new AlterEdgeLabelMutation(incrementingTimestamp, edgeBuilder.getNewEdgeLabel()));
+            addToAdjacencyIndex(edgeBuilder.getEdgeId(), outVertexId, inVertexId, edgeBuilder.getNewEdgeLabel());
         }
 
         InMemoryEdge edge = this.edges.get(InMemoryGraph.this, edgeBuilder.getEdgeId(), authorizations);
@@ -350,6 +397,37 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
         };
     }
 
+    @Override
+    public Iterable<Edge> getEdges(Iterable<String> ids, EnumSet<FetchHint> fetchHints, String[] propertyNames, Long endTime, Authorizations authorizations) {
+        Iterable<Edge> edges = getEdges(ids, fetchHints, endTime, authorizations);
+        if (propertyNames == null) {
+            return edges;
+        }
+        final Set<String> propertyNamesSet = new HashSet<>(Arrays.asList(propertyNames));
+        return new ConvertingIterable<Edge, Edge>(edges) {
+            @Override
+            protected Edge convert(Edge o) {
+                ((InMemoryEdge) o).setPropertyNames(propertyNamesSet);
+                return o;
+            }
+        };
+    }
+
+    @Override
+    public Edge getEdge(String edgeId, EnumSet<FetchHint> fetchHints, Long endTime, Authorizations authorizations) {
+        return this.edges.get(InMemoryGraph.this, edgeId, fetchHints, endTime, authorizations);
+    }
+
+    @Override
+    public Iterable<Edge> getEdgesInRange(Range idRange, EnumSet<FetchHint> fetchHints, Long endTime, Authorizations authorizations) {
+        return new ConvertingIterable<InMemoryEdge, Edge>(this.edges.getAllInRange(InMemoryGraph.this, idRange, fetchHints, endTime, authorizations)) {
+            @Override
+            protected Edge convert(InMemoryEdge o) {
+                return o;
+            }
+        };
+    }
+
     @Override
     protected GraphMetadataStore getGraphMetadataStore() {
         return graphMetadataStore;
@@ -363,6 +441,7 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
         }
 
         this.edges.remove(edge.getId());
+        removeFromAdjacencyIndex(edge.getId(), edge.getVertexId(Direction.OUT), edge.getVertexId(Direction.IN));
         getSearchIndex().deleteElement(this, edge, authorizations);
 
         if (hasEventListeners()) {
@@ -433,99 +512,125 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
         return new InMemoryAuthorizations(auths);
     }
 
-    @Override
-    protected void findPathsRecursive(
-            List<Path> foundPaths, final Vertex sourceVertex, Vertex destVertex, String[] labels,
-            int hops, int totalHops, Set<String> seenVertices, Path currentPath, ProgressCallback progressCallback,
-            Authorizations authorizations
+    protected Iterable<Edge> getEdgesFromVertex(
+            final String vertexId, final EnumSet<FetchHint> fetchHints,
+            final Long endTime, final Authorizations authorizations
     ) {
-        findPathsRecursive(foundPaths, sourceVertex.getId(), destVertex.getId(), labels, hops, totalHops, seenVertices,
-                           currentPath, progressCallback, authorizations
-        );
+        return getEdgesFromVertex(vertexId, Direction.BOTH, null, fetchHints, endTime, authorizations);
     }
 
-    protected void findPathsRecursive(
-            List<Path> foundPaths, String sourceVertexId, String destVertexId, String[] labels,
-            int hops, int totalHops, Set<String> seenVertices, Path currentPath, ProgressCallback progressCallback,
-            Authorizations authorizations
+    protected Iterable<Edge> getEdgesFromVertex(
+            final String vertexId, final Direction direction, final String[] labels,
+            final EnumSet<FetchHint> fetchHints, final Long endTime, final Authorizations authorizations
     ) {
-        // if this is our first source vertex report progress back to the progress callback
-        boolean firstLevelRecursion = hops == totalHops;
-        final Set<String> edgeLabels = ImmutableSet.copyOf(labels == null ? new String[0] : labels);
-
-        seenVertices.add(sourceVertexId);
-        if (sourceVertexId.equals(destVertexId)) {
-            foundPaths.add(currentPath);
-        } else if (hops > 0) {
-            Iterable<Edge> edges = new FilterIterable<Edge>(
-                    getEdgesFromVertex(sourceVertexId, FetchHint.ALL, null, authorizations)) {
-                @Override
-                protected boolean isIncluded(Edge edge) {
-                    return edgeLabels.isEmpty() || edgeLabels.contains(edge.getLabel());
-                }
-            };
-            List<String> vertexIds = new ArrayList<>();
-            for (Edge edge : edges) {
-                vertexIds.add(edge.getOtherVertexId(sourceVertexId));
-            }
+        final boolean includeHidden = fetchHints.contains(FetchHint.INCLUDE_HIDDEN);
 
-            int vertexCount = 0;
-            if (firstLevelRecursion) {
-                vertexCount = vertexIds.size();
+        return new LookAheadIterable<EdgeInfo, Edge>() {
+            @Override
+            protected boolean isIncluded(EdgeInfo edgeInfo, Edge edge) {
+                return edge != null;
             }
-            int i = 0;
-            for (String childId : vertexIds) {
-                if (firstLevelRecursion) {
-                    // this will never get to 100% since i starts at 0. which is good. 100% signifies done and we still
-                    // have work to do.
-                    double progress = (double) i / (double) vertexCount;
-                    progressCallback.progress(progress, ProgressCallback.Step.SEARCHING_EDGES, i + 1, vertexCount);
-                }
-                if (!seenVertices.contains(childId)) {
-                    findPathsRecursive(
-                            foundPaths, childId, destVertexId, labels, hops - 1, totalHops, seenVertices,
-                            new Path(currentPath, childId), progressCallback, authorizations
-                    );
+
+            @Override
+            protected Edge convert(EdgeInfo edgeInfo) {
+                InMemoryTableElement<InMemoryEdge> inMemoryTableElement = edges.getTableElement(edgeInfo.getEdgeId());
+                if (inMemoryTableElement == null
+                        || !isIncludedInTimeSpan(inMemoryTableElement, fetchHints, endTime, authorizations)) {
+                    return null; // edge deleted, hidden or outside of time range
                 }
-                i++;
+                return inMemoryTableElement.createElement(InMemoryGraph.this, includeHidden, endTime, authorizations);
             }
-        }
-        seenVertices.remove(sourceVertexId);
+
+            @Override
+            protected Iterator<EdgeInfo> createIterator() {
+                return getIndexedEdgeInfos(vertexId, direction, labels).iterator();
+            }
+        };
     }
 
-    protected Iterable<Edge> getEdgesFromVertex(
-            final String vertexId, final EnumSet<FetchHint> fetchHints,
-            final Long endTime, final Authorizations authorizations
+    /**
+     * Gets the edge infos of a vertex without creating the {@link Edge} objects.
+     */
+    protected Iterable<EdgeInfo> getEdgeInfosFromVertex(
+            final String vertexId, final Direction direction, final String[] labels,
+            final EnumSet<FetchHint> fetchHints, final Long endTime, final Authorizations authorizations
     ) {
-        final boolean includeHidden = fetchHints.contains(FetchHint.INCLUDE_HIDDEN);
+        return new FilterIterable<EdgeInfo>(getIndexedEdgeInfos(vertexId, direction, labels)) {
+            @Override
+            protected boolean isIncluded(EdgeInfo edgeInfo) {
+                InMemoryTableElement<InMemoryEdge> inMemoryTableElement = edges.getTableElement(edgeInfo.getEdgeId());
+                return inMemoryTableElement != null
+                        && isIncludedInTimeSpan(inMemoryTableElement, fetchHints, endTime, authorizations);
+            }
+        };
+    }
 
-        return new LookAheadIterable<InMemoryTableEdge, Edge>() {
+    private Iterable<EdgeInfo> getIndexedEdgeInfos(String vertexId, Direction direction, final String[] labels) {
+        Iterable<EdgeInfo> edgeInfos = getAdjacencyIndex().getEdgeInfos(vertexId, direction);
+        if (labels == null) {
+            return edgeInfos;
+        }
+        return new FilterIterable<EdgeInfo>(edgeInfos) {
             @Override
-            protected boolean isIncluded(InMemoryTableEdge inMemoryTableElement, Edge edge) {
-                if (edge == null) {
-                    return false; // edge deleted or outside of time range
+            protected boolean isIncluded(EdgeInfo edgeInfo) {
+                for (String label : labels) {
+                    if (label.equals(edgeInfo.getLabel())) {
+                        return true;
+                    }
                 }
+                return false;
+            }
+        };
+    }
 
-                EdgeSetupMutation edgeSetupMutation = inMemoryTableElement.findLastMutation(EdgeSetupMutation.class);
-                String inVertexId = edgeSetupMutation.getInVertexId();
-                checkNotNull(inVertexId, "inVertexId was null");
-                String outVertexId = edgeSetupMutation.getOutVertexId();
-                checkNotNull(outVertexId, "outVertexId was null");
-
-                return (inVertexId.equals(vertexId) || outVertexId.equals(vertexId)) &&
-                        InMemoryGraph.this.isIncluded(inMemoryTableElement, fetchHints, authorizations);
+    /**
+     * The adjacency index is built from the edge table on first use and then kept up to date as edges are
+     * added, relabeled and deleted.
+     */
+    protected InMemoryAdjacencyIndex getAdjacencyIndex() {
+        InMemoryAdjacencyIndex result = adjacencyIndex;
+        if (result == null) {
+            synchronized (adjacencyIndexLock) {
+                result = adjacencyIndex;
+                if (result == null) {
+                    result = new InMemoryAdjacencyIndex();
+                    for (InMemoryTableEdge inMemoryTableEdge : edges.getAllTableElements()) {
+                        EdgeSetupMutation edgeSetupMutation = inMemoryTableEdge.findLastMutation(EdgeSetupMutation.class);
+                        AlterEdgeLabelMutation alterEdgeLabelMutation = inMemoryTableEdge.findLastMutation(AlterEdgeLabelMutation.class);
+                        result.addEdge(
+                                inMemoryTableEdge.getId(),
+                                edgeSetupMutation.getOutVertexId(),
+                                edgeSetupMutation.getInVertexId(),
+                                alterEdgeLabelMutation.getNewEdgeLabel()
+                        );
+                    }
+                    adjacencyIndex = result;
+                }
             }
+        }
+        return result;
+    }
 
-            @Override
-            protected Edge convert(InMemoryTableEdge inMemoryTableElement) {
-                return inMemoryTableElement.createElement(InMemoryGraph.this, includeHidden, endTime, authorizations);
+    private void addToAdjacencyIndex(String edgeId, String outVertexId, String inVertexId, String label) {
+        synchronized (adjacencyIndexLock) {
+            if (adjacencyIndex != null) {
+                adjacencyIndex.addEdge(edgeId, outVertexId, inVertexId, label);
             }
+        }
+    }
 
-            @Override
-            protected Iterator<InMemoryTableEdge> createIterator() {
-                return edges.getAllTableElements().iterator();
+    private void removeFromAdjacencyIndex(String edgeId, String outVertexId, String inVertexId) {
+        synchronized (adjacencyIndexLock) {
+            if (adjacencyIndex != null) {
+                adjacencyIndex.removeEdge(edgeId, outVertexId, inVertexId);
             }
-        };
+        }
+    }
+
+    private void clearAdjacencyIndex() {
+        synchronized (adjacencyIndexLock) {
+            adjacencyIndex = null;
+        }
     }
 
     protected boolean isIncluded(
@@ -695,6 +800,7 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
     public void truncate() {
         this.vertices.clear();
         this.edges.clear();
+        clearAdjacencyIndex();
         getSearchIndex().truncate(this);
     }
 
@@ -702,11 +808,19 @@ public class InMemoryGraph extends GraphBaseWithSearchIndex {
     public void drop() {
         this.vertices.clear();
         this.edges.clear();
+        clearAdjacencyIndex();
         getSearchIndex().drop(this);
     }
 
     protected void alterEdgeLabel(InMemoryTableEdge inMemoryTableEdge, String newEdgeLabel) {
         inMemoryTableEdge.appendAlterEdgeLabelMutation(newEdgeLabel);
+        EdgeSetupMutation edgeSetupMutation = inMemoryTableEdge.findLastMutation(EdgeSetupMutation.class);
+        addToAdjacencyIndex(
+                inMemoryTableEdge.getId(),
+                edgeSetupMutation.getOutVertexId(),
+                edgeSetupMutation.getInVertexId(),
+                newEdgeLabel
+        );
     }
 
     protected void deleteProperty(
@@ -2,12 +2,12 @@ package org.vertexium.inmemory;
 
 import org.vertexium.Authorizations;
 import org.vertexium.FetchHint;
+import org.vertexium.Range;
 import org.vertexium.inmemory.mutations.Mutation;
+import org.vertexium.util.FilterIterable;
 import org.vertexium.util.LookAheadIterable;
 
-import java.util.EnumSet;
-import java.util.Iterator;
-import java.util.Map;
+import java.util.*;
 import java.util.concurrent.ConcurrentSkipListMap;
 
 public abstract class InMemoryTable<TElement extends InMemoryElement> {
@@ -29,6 +29,20 @@ public abstract class InMemoryTable<TElement extends InMemoryElement> {
         return inMemoryTableElement.createElement(graph, authorizations);
     }
 
+    public TElement get(InMemoryGraph graph, String id, EnumSet<FetchHint> fetchHints, Long endTime,
+                        Authorizations authorizations) {
+        if (id == null) {
+            return null;
+        }
+        InMemoryTableElement<TElement> inMemoryTableElement = getTableElement(id);
+        if (inMemoryTableElement == null
+                || !graph.isIncludedInTimeSpan(inMemoryTableElement, fetchHints, endTime, authorizations)) {
+            return null;
+        }
+        boolean includeHidden = fetchHints.contains(FetchHint.INCLUDE_HIDDEN);
+        return inMemoryTableElement.createElement(graph, includeHidden, endTime, authorizations);
+    }
+
     public InMemoryTableElement<TElement> getTableElement(String id) {
         return rows.get(id);
     }
@@ -54,6 +68,67 @@ public abstract class InMemoryTable<TElement extends InMemoryElement> {
 
     public Iterable<TElement> getAll(final InMemoryGraph graph, final EnumSet<FetchHint> fetchHints, final Long endTime,
                                      final Authorizations authorizations) {
+        return toElements(graph, getAllRowValues(), fetchHints, endTime, authorizations);
+    }
+
+    public Iterable<TElement> getAllWithPrefix(final InMemoryGraph graph, final String idPrefix,
+                                               final EnumSet<FetchHint> fetchHints, final Long endTime,
+                                               final Authorizations authorizations) {
+        Iterable<InMemoryTableElement<TElement>> rowValues;
+        if (rows instanceof NavigableMap) {
+            NavigableMap<String, InMemoryTableElement<TElement>> navigableRows =
+                    (NavigableMap<String, InMemoryTableElement<TElement>>) rows;
+            String prefixEnd = prefixEnd(idPrefix);
+            if (prefixEnd == null) {
+                rowValues = navigableRows.tailMap(idPrefix, true).values();
+            } else {
+                rowValues = navigableRows.subMap(idPrefix, true, prefixEnd, false).values();
+            }
+        } else {
+            rowValues = new FilterIterable<InMemoryTableElement<TElement>>(getAllRowValues()) {
+                @Override
+                protected boolean isIncluded(InMemoryTableElement<TElement> o) {
+                    return o.getId().startsWith(idPrefix);
+                }
+            };
+        }
+        return toElements(graph, rowValues, fetchHints, endTime, authorizations);
+    }
+
+    public Iterable<TElement> getAllInRange(final InMemoryGraph graph, final Range idRange,
+                                            final EnumSet<FetchHint> fetchHints, final Long endTime,
+                                            final Authorizations authorizations) {
+        Iterable<InMemoryTableElement<TElement>> rowValues;
+        if (rows instanceof NavigableMap) {
+            NavigableMap<String, InMemoryTableElement<TElement>> navigableRows =
+                    (NavigableMap<String, InMemoryTableElement<TElement>>) rows;
+            if (idRange.getInclusiveStart() != null && idRange.getExclusiveEnd() != null) {
+                if (idRange.getInclusiveStart().compareTo(idRange.getExclusiveEnd()) >= 0) {
+                    navigableRows = new TreeMap<>();
+                } else {
+                    navigableRows = navigableRows.subMap(idRange.getInclusiveStart(), true, idRange.getExclusiveEnd(), false);
+                }
+            } else if (idRange.getInclusiveStart() != null) {
+                navigableRows = navigableRows.tailMap(idRange.getInclusiveStart(), true);
+            } else if (idRange.getExclusiveEnd() != null) {
+                navigableRows = navigableRows.headMap(idRange.getExclusiveEnd(), false);
+            }
+            rowValues = navigableRows.values();
+        } else {
+            rowValues = new FilterIterable<InMemoryTableElement<TElement>>(getAllRowValues()) {
+                @Override
+                protected boolean isIncluded(InMemoryTableElement<TElement> o) {
+                    return idRange.isInRange(o.getId());
+                }
+            };
+        }
+        return toElements(graph, rowValues, fetchHints, endTime, authorizations);
+    }
+
+    private Iterable<TElement> toElements(final InMemoryGraph graph,
+                                          final Iterable<InMemoryTableElement<TElement>> rowValues,
+                                          final EnumSet<FetchHint> fetchHints, final Long endTime,
+                                          final Authorizations authorizations) {
         final boolean includeHidden = fetchHints.contains(FetchHint.INCLUDE_HIDDEN);
         return new LookAheadIterable<InMemoryTableElement<TElement>, TElement>() {
             @Override
@@ -68,11 +143,39 @@ public abstract class InMemoryTable<TElement extends InMemoryElement> {
 
             @Override
             protected Iterator<InMemoryTableElement<TElement>> createIterator() {
+                return rowValues.iterator();
+            }
+        };
+    }
+
+    /**
+     * Some row maps (e.g. the SQL backed maps) only allow a single iteration of values(), so ask for a new
+     * values collection each time the iterable is iterated.
+     */
+    private Iterable<InMemoryTableElement<TElement>> getAllRowValues() {
+        return new Iterable<InMemoryTableElement<TElement>>() {
+            @Override
+            public Iterator<InMemoryTableElement<TElement>> iterator() {
                 return rows.values().iterator();
             }
         };
     }
 
+    /**
+     * Returns the smallest string greater than every string starting with the given prefix, or null if there is
+     * no such string (the prefix is empty or made up entirely of {@link Character#MAX_VALUE}).
+     */
+    private static String prefixEnd(String prefix) {
+        int i = prefix.length() - 1;
+        while (i >= 0 && prefix.charAt(i) == Character.MAX_VALUE) {
+            i--;
+        }
+        if (i < 0) {
+            return null;
+        }
+        return prefix.substring(0, i) + (char) (prefix.charAt(i) + 1);
+    }
+
     public Iterable<InMemoryTableElement<TElement>> getRowValues() {
         return this.rows.values();
     }
@@ -178,11 +178,21 @@ public abstract class InMemoryTableElement<TElement extends InMemoryElement> imp
     }
 
     public Iterable<Property> getProperties(final boolean includeHidden, Long endTime, final Authorizations authorizations) {
+        return getProperties(includeHidden, endTime, null, authorizations);
+    }
+
+    /**
+     * @param propertyNames The names of the properties to include. null to include all properties.
+     */
+    public Iterable<Property> getProperties(final boolean includeHidden, Long endTime, Set<String> propertyNames, final Authorizations authorizations) {
         final TreeMap<String, List<PropertyMutation>> propertiesMutations = new TreeMap<>();
         for (PropertyMutation m : findMutations(PropertyMutation.class)) {
             if (endTime != null && m.getTimestamp() > endTime) {
                 continue;
             }
+            if (propertyNames != null && !propertyNames.contains(m.getPropertyName())) {
+                continue;
+            }
 
             String mapKey = toMapKey(m);
             List<PropertyMutation> propertyMutations = propertiesMutations.get(mapKey);
@@ -48,42 +48,8 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
     }
 
     @Override
-    public Iterable<EdgeInfo> getEdgeInfos(Direction direction, final String[] labels, Authorizations authorizations) {
-        Iterable<EdgeInfo> results = new ConvertingIterable<Edge, EdgeInfo>(getEdges(direction, getFetchHints(), authorizations)) {
-            @Override
-            protected EdgeInfo convert(final Edge o) {
-                return new EdgeInfo() {
-                    @Override
-                    public String getEdgeId() {
-                        return o.getId();
-                    }
-
-                    @Override
-                    public String getLabel() {
-                        return o.getLabel();
-                    }
-
-                    @Override
-                    public String getVertexId() {
-                        return o.getOtherVertexId(InMemoryVertex.this.getId());
-                    }
-                };
-            }
-        };
-        if (labels != null) {
-            results = new FilterIterable<EdgeInfo>(results) {
-                @Override
-                protected boolean isIncluded(EdgeInfo o) {
-                    for (String label : labels) {
-                        if (o.getLabel().equals(label)) {
-                            return true;
-                        }
-                    }
-                    return false;
-                }
-            };
-        }
-        return results;
+    public Iterable<EdgeInfo> getEdgeInfos(Direction direction, String[] labels, Authorizations authorizations) {
+        return getGraph().getEdgeInfosFromVertex(getId(), direction, labels, getFetchHints(), null, authorizations);
     }
 
     @Override
@@ -92,20 +58,8 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
     }
 
     @Override
-    public Iterable<Edge> getEdges(final Direction direction, EnumSet<FetchHint> fetchHints, Long endTime, Authorizations authorizations) {
-        return new FilterIterable<Edge>(getGraph().getEdgesFromVertex(getId(), fetchHints, endTime, authorizations)) {
-            @Override
-            protected boolean isIncluded(Edge edge) {
-                switch (direction) {
-                    case IN:
-                        return edge.getVertexId(Direction.IN).equals(getId());
-                    case OUT:
-                        return edge.getVertexId(Direction.OUT).equals(getId());
-                    default:
-                        return true;
-                }
-            }
-        };
+    public Iterable<Edge> getEdges(Direction direction, EnumSet<FetchHint> fetchHints, Long endTime, Authorizations authorizations) {
+        return getGraph().getEdgesFromVertex(getId(), direction, null, fetchHints, endTime, authorizations);
     }
 
     @Override
@@ -134,21 +88,8 @@ public class InMemoryVertex extends InMemoryElement<InMemoryVertex> implements V
     }
 
     @Override
-    public Iterable<Edge> getEdges(Direction direction, final String[] labels, EnumSet<FetchHint> fetchHints, Authorizations authorizations) {
-        return new FilterIterable<Edge>(getEdges(direction, authorizations)) {
-            @Override
-            protected boolean isIncluded(Edge edge) {
-                if (labels == null) {
-                    return true;
-                }
-                for (String label : labels) {
-                    if (label.equals(edge.getLabel())) {
-                        return true;
-                    }
-                }
-                return false;
-            }
-        };
+    public Iterable<Edge> getEdges(Direction direction, String[] labels, EnumSet<FetchHint> fetchHints, Authorizations authorizations) {
+        return getGraph().getEdgesFromVertex(getId(), direction, labels, FetchHint.ALL, null, authorizations);
     }
 
     @Override
@@ -0,0 +1,90 @@
+package org.vertexium.inmemory;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.vertexium.Visibility;
+import org.vertexium.inmemory.security.Authorizations;
+import org.vertexium.inmemory.security.ColumnVisibility;
+import org.vertexium.inmemory.security.VisibilityEvaluator;
+import org.vertexium.inmemory.security.VisibilityParseException;
+import org.vertexium.util.VertexiumLogger;
+import org.vertexium.util.VertexiumLoggerFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+@RunWith(JUnit4.class)
+public class InMemoryAuthorizationsTest {
+    private static final VertexiumLogger LOGGER = VertexiumLoggerFactory.getLogger(InMemoryAuthorizationsTest.class);
+    private static final String[] VISIBILITIES = new String[]{
+            "", "a", "b", "c", "a&b", "a|c", "a&c", "(a|c)&b", "(a&b)|(c&d)", "a&b&c", "\"a\"|d", "x|y|z", "((a))"
+    };
+    private static final String[][] AUTHORIZATIONS = new String[][]{
+            new String[]{}, new String[]{"a"}, new String[]{"a", "b"}, new String[]{"c", "d"}, new String[]{"a", "b", "c", "d"}
+    };
+
+    @Test
+    public void testCanReadMatchesColumnVisibility() throws VisibilityParseException {
+        for (String[] auths : AUTHORIZATIONS) {
+            InMemoryAuthorizations authorizations = new InMemoryAuthorizations(auths);
+            for (String visibility : VISIBILITIES) {
+                assertEquals(
+                        "auths " + authorizations + " visibility " + visibility,
+                        canReadWithColumnVisibility(auths, visibility),
+                        authorizations.canRead(new Visibility(visibility))
+                );
+            }
+        }
+    }
+
+    @Test
+    public void benchmarkCanRead() throws VisibilityParseException {
+        assumeTrue(Boolean.parseBoolean(System.getProperty("benchmark", "false")));
+        int iterations = 100000;
+
+        long startTime = System.currentTimeMillis();
+        int readable = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (String[] auths : AUTHORIZATIONS) {
+                for (String visibility : VISIBILITIES) {
+                    if (canReadWithColumnVisibility(auths, visibility)) {
+                        readable++;
+                    }
+                }
+            }
+        }
+        long endTime = System.currentTimeMillis();
+        LOGGER.info("column visibility canRead (readable: %d) in %dms", readable, endTime - startTime);
+
+        Visibility[] visibilities = new Visibility[VISIBILITIES.length];
+        for (int i = 0; i < VISIBILITIES.length; i++) {
+            visibilities[i] = new Visibility(VISIBILITIES[i]);
+        }
+        startTime = System.currentTimeMillis();
+        readable = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (String[] auths : AUTHORIZATIONS) {
+                InMemoryAuthorizations authorizations = new InMemoryAuthorizations(auths);
+                for (Visibility visibility : visibilities) {
+                    if (authorizations.canRead(visibility)) {
+                        readable++;
+                    }
+                }
+            }
+        }
+        endTime = System.currentTimeMillis();
+        LOGGER.info("compiled visibility canRead (readable: %d) in %dms", readable, endTime - startTime);
+    }
+
+    /**
+     * How {@link InMemoryAuthorizations#canRead(Visibility)} evaluated visibilities before they were compiled.
+     */
+    private static boolean canReadWithColumnVisibility(String[] auths, String visibility) throws VisibilityParseException {
+        if (visibility.length() == 0) {
+            return true;
+        }
+        VisibilityEvaluator visibilityEvaluator = new VisibilityEvaluator(new Authorizations(auths));
+        return visibilityEvaluator.evaluate(new ColumnVisibility(visibility));
+    }
+}
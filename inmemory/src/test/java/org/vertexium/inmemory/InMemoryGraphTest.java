@@ -8,12 +8,16 @@ import org.junit.runners.JUnit4;
 import org.vertexium.*;
 import org.vertexium.id.UUIDIdGenerator;
 import org.vertexium.search.DefaultSearchIndex;
+import org.vertexium.util.IterableUtils;
 import org.vertexium.test.GraphTestBase;
 
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.Assert.assertEquals;
+import static org.vertexium.util.IterableUtils.count;
 
 @RunWith(JUnit4.class)
 public class InMemoryGraphTest extends GraphTestBase {
@@ -75,4 +79,38 @@ public class InMemoryGraphTest extends GraphTestBase {
             assertEquals(String.class, ex.getValueClass());
         }
     }
+
+    @Test
+    public void testSelfReferencingEdge() {
+        Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e1", v1, v1, "label1", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.flush();
+
+        v1 = graph.getVertex("v1", AUTHORIZATIONS_A);
+        assertEquals(1, count(v1.getEdges(Direction.BOTH, AUTHORIZATIONS_A)));
+        assertEquals(1, count(v1.getEdges(Direction.OUT, AUTHORIZATIONS_A)));
+        assertEquals(1, count(v1.getEdges(Direction.IN, AUTHORIZATIONS_A)));
+        assertEquals("v1", IterableUtils.single(v1.getVertexIds(Direction.BOTH, AUTHORIZATIONS_A)));
+
+        graph.deleteEdge("e1", AUTHORIZATIONS_A);
+        graph.flush();
+
+        v1 = graph.getVertex("v1", AUTHORIZATIONS_A);
+        assertEquals(0, count(v1.getEdges(Direction.BOTH, AUTHORIZATIONS_A)));
+    }
+
+    @Test
+    public void testFindRelatedEdgeIdsWithUnreadableVertex() {
+        Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v2 = graph.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v3 = graph.addVertex("v3", VISIBILITY_B, AUTHORIZATIONS_B);
+        graph.addEdge("e v1->v2", v1, v2, "", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e v1->v3", v1, v3, "", VISIBILITY_A, AUTHORIZATIONS_A_AND_B);
+        graph.flush();
+
+        List<String> edgeIds = IterableUtils.toList(graph.findRelatedEdgeIds(Arrays.asList("v1", "v2", "v3"), AUTHORIZATIONS_A));
+        assertEquals(1, edgeIds.size());
+        assertEquals("e v1->v2", edgeIds.get(0));
+        assertEquals(2, count(graph.findRelatedEdgeIds(Arrays.asList("v1", "v2", "v3"), AUTHORIZATIONS_A_AND_B)));
+    }
 }
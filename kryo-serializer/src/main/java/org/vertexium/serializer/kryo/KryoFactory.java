@@ -54,6 +54,9 @@ public class KryoFactory {
             kryo.register(Class.forName("org.vertexium.accumulo.iterator.model.EdgeInfo"), 1000);
             kryo.register(Class.forName("org.vertexium.accumulo.StreamingPropertyValueTableRef"), 1004);
             kryo.register(Class.forName("org.vertexium.accumulo.StreamingPropertyValueHdfsRef"), 1005);
+            kryo.register(Class.forName("org.vertexium.accumulo.StreamingPropertyValueTableChunkedRef"), 1009);
+            kryo.register(Class.forName("org.vertexium.accumulo.StreamingPropertyValueHdfsLengthRef"), 1010);
+            kryo.register(Class.forName("org.vertexium.accumulo.StreamingPropertyValueHdfsSegmentRef"), 1011);
         } catch (ClassNotFoundException ex) {
             throw new VertexiumException("Could not find accumulo classes to serialize", ex);
         }
@@ -187,12 +187,21 @@ public class SqlGraph extends InMemoryGraph {
     @Override
     public Iterable<Edge> getEdgesFromVertex(final String vertexId, final EnumSet<FetchHint> fetchHints,
                                              final Long endTime, final Authorizations authorizations) {
+        return getEdgesFromVertex(vertexId, Direction.BOTH, null, fetchHints, endTime, authorizations);
+    }
+
+    @Override
+    public Iterable<Edge> getEdgesFromVertex(final String vertexId, final Direction direction, final String[] labels,
+                                             final EnumSet<FetchHint> fetchHints, final Long endTime,
+                                             final Authorizations authorizations) {
         final boolean includeHidden = fetchHints.contains(FetchHint.INCLUDE_HIDDEN);
 
         return new LookAheadIterable<InMemoryTableEdge, Edge>() {
             @Override
             protected boolean isIncluded(InMemoryTableEdge element, Edge edge) {
-                return edge != null && SqlGraph.this.isIncluded(element, fetchHints, authorizations);
+                return edge != null
+                        && SqlGraph.this.isIncluded(element, fetchHints, authorizations)
+                        && (labels == null || Arrays.asList(labels).contains(edge.getLabel()));
             }
 
             @Override
@@ -202,8 +211,18 @@ public class SqlGraph extends InMemoryGraph {
 
             @Override
             protected Iterator<InMemoryTableEdge> createIterator() {
-                Iterator<InMemoryTableElement<InMemoryEdge>> elements =
-                        edgeMap.query("in_vertex_id = ? or out_vertex_id = ?", vertexId, vertexId);
+                Iterator<InMemoryTableElement<InMemoryEdge>> elements;
+                switch (direction) {
+                    case IN:
+                        elements = edgeMap.query("in_vertex_id = ?", vertexId);
+                        break;
+                    case OUT:
+                        elements = edgeMap.query("out_vertex_id = ?", vertexId);
+                        break;
+                    default:
+                        elements = edgeMap.query("in_vertex_id = ? or out_vertex_id = ?", vertexId, vertexId);
+                        break;
+                }
 
                 return new ConvertingIterable<InMemoryTableElement<InMemoryEdge>, InMemoryTableEdge>(elements) {
                     @Override
@@ -215,6 +234,34 @@ public class SqlGraph extends InMemoryGraph {
         };
     }
 
+    @Override
+    protected Iterable<EdgeInfo> getEdgeInfosFromVertex(final String vertexId, Direction direction, String[] labels,
+                                                        EnumSet<FetchHint> fetchHints, Long endTime,
+                                                        Authorizations authorizations) {
+        Iterable<Edge> edges = getEdgesFromVertex(vertexId, direction, labels, fetchHints, endTime, authorizations);
+        return new ConvertingIterable<Edge, EdgeInfo>(edges) {
+            @Override
+            protected EdgeInfo convert(final Edge edge) {
+                return new EdgeInfo() {
+                    @Override
+                    public String getEdgeId() {
+                        return edge.getId();
+                    }
+
+                    @Override
+                    public String getLabel() {
+                        return edge.getLabel();
+                    }
+
+                    @Override
+                    public String getVertexId() {
+                        return edge.getOtherVertexId(vertexId);
+                    }
+                };
+            }
+        };
+    }
+
     @Override
     protected void alterElementPropertyMetadata(
             InMemoryTableElement inMemoryTableElement,
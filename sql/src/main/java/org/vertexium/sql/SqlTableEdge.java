@@ -123,6 +123,11 @@ public class SqlTableEdge extends SqlTableElement<InMemoryEdge> {
             return sqlTableEdge.getProperties(includeHidden, endTime, authorizations);
         }
 
+        @Override
+        public Iterable<Property> getProperties(boolean includeHidden, Long endTime, Set<String> propertyNames, Authorizations authorizations) {
+            return sqlTableEdge.getProperties(includeHidden, endTime, propertyNames, authorizations);
+        }
+
         @Override
         public void appendSoftDeleteMutation(Long timestamp) {
             sqlTableEdge.appendSoftDeleteMutation(timestamp);
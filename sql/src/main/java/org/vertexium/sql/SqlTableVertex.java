@@ -113,6 +113,11 @@ public class SqlTableVertex extends SqlTableElement<InMemoryVertex> {
             return sqlTableVertex.getProperties(includeHidden, endTime, authorizations);
         }
 
+        @Override
+        public Iterable<Property> getProperties(boolean includeHidden, Long endTime, Set<String> propertyNames, Authorizations authorizations) {
+            return sqlTableVertex.getProperties(includeHidden, endTime, propertyNames, authorizations);
+        }
+
         @Override
         public void appendSoftDeleteMutation(Long timestamp) {
             sqlTableVertex.appendSoftDeleteMutation(timestamp);
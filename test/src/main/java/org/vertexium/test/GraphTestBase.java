@@ -167,6 +167,29 @@ public abstract class GraphTestBase {
         assertEquals("Hello World", ((StreamingPropertyValue) v1.getPropertyValue("spv")).readToString(0, 100));
     }
 
+    @Test
+    public void testPrefetchStreamingPropertyValues() {
+        for (int i = 0; i < 5; i++) {
+            graph.prepareVertex("v" + i, VISIBILITY_EMPTY)
+                    .setProperty("spv", StreamingPropertyValue.create("value" + i), VISIBILITY_EMPTY)
+                    .setProperty("prop1", "value" + i, VISIBILITY_EMPTY)
+                    .save(AUTHORIZATIONS_EMPTY);
+        }
+        graph.flush();
+
+        List<Vertex> vertices = toList(graph.getVertices(AUTHORIZATIONS_EMPTY));
+        List<Property> properties = new ArrayList<>();
+        for (Vertex vertex : vertices) {
+            properties.addAll(toList(vertex.getProperties()));
+        }
+        graph.prefetchStreamingPropertyValues(properties);
+        for (Vertex vertex : vertices) {
+            String expectedValue = "value" + vertex.getId().substring(1);
+            assertEquals(expectedValue, ((StreamingPropertyValue) vertex.getPropertyValue("spv")).readToString());
+            assertEquals(expectedValue.length(), ((StreamingPropertyValue) vertex.getPropertyValue("spv")).getLength());
+        }
+    }
+
     @SuppressWarnings("AssertEqualsBetweenInconvertibleTypes")
     @Test
     public void testAddStreamingPropertyValue() throws IOException, InterruptedException {
@@ -1013,6 +1036,54 @@ public abstract class GraphTestBase {
         assertEquals("v1", verticesInOrder.get(1).getId());
     }
 
+    @Test
+    public void testGetVerticesAndEdgesWithIdsAndPropertyNames() {
+        graph.prepareVertex("v1", VISIBILITY_A)
+                .addPropertyValue("k1", "title", "v1 title", VISIBILITY_A)
+                .addPropertyValue("k2", "title", "v1 title 2", VISIBILITY_A)
+                .setProperty("description", "v1 description", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.prepareVertex("v2", VISIBILITY_A)
+                .setProperty("description", "v2 description", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.prepareEdge("e1", "v1", "v2", "label1", VISIBILITY_A)
+                .setProperty("title", "e1 title", VISIBILITY_A)
+                .setProperty("description", "e1 description", VISIBILITY_A)
+                .save(AUTHORIZATIONS_A);
+        graph.flush();
+
+        String[] propertyNames = new String[]{"title"};
+        List<Vertex> vertices = toList(graph.getVertices(Arrays.asList("v1", "v2"), FetchHint.ALL, propertyNames, null, AUTHORIZATIONS_A));
+        assertEquals(2, vertices.size());
+        for (Vertex v : vertices) {
+            assertNull(v.getPropertyValue("description"));
+            if (v.getId().equals("v1")) {
+                assertEquals(2, count(v.getProperties()));
+                assertEquals("v1 title", v.getPropertyValue("k1", "title"));
+                assertEquals("v1 title 2", v.getPropertyValue("k2", "title"));
+            } else {
+                assertEquals(0, count(v.getProperties()));
+            }
+        }
+
+        List<Edge> edges = toList(graph.getEdges(Arrays.asList("e1"), FetchHint.ALL, propertyNames, null, AUTHORIZATIONS_A));
+        assertEquals(1, edges.size());
+        assertEquals(1, count(edges.get(0).getProperties()));
+        assertEquals("e1 title", edges.get(0).getPropertyValue("title"));
+
+        vertices = toList(graph.getVertices(Arrays.asList("v1"), FetchHint.ALL, null, null, AUTHORIZATIONS_A));
+        assertEquals(3, count(vertices.get(0).getProperties()));
+
+        vertices = toList(graph.getVertices(Arrays.asList("v1", "v2"), FetchHint.ALL, new String[0], null, AUTHORIZATIONS_A));
+        assertEquals(2, vertices.size());
+        for (Vertex v : vertices) {
+            assertEquals(0, count(v.getProperties()));
+        }
+        edges = toList(graph.getEdges(Arrays.asList("e1"), FetchHint.ALL, new String[0], null, AUTHORIZATIONS_A));
+        assertEquals(1, edges.size());
+        assertEquals(0, count(edges.get(0).getProperties()));
+    }
+
     @Test
     public void testGetVerticesWithPrefix() {
         graph.addVertex("a", VISIBILITY_EMPTY, AUTHORIZATIONS_ALL);
@@ -1050,6 +1121,12 @@ public abstract class GraphTestBase {
 
         vertices = toList(graph.getVerticesInRange(new Range(null, null), AUTHORIZATIONS_ALL));
         assertVertexIds(vertices, new String[]{"a", "aa", "az", "b"});
+
+        vertices = toList(graph.getVerticesInRange(new Range("aa", "b"), AUTHORIZATIONS_ALL));
+        assertVertexIds(vertices, new String[]{"aa", "az"});
+
+        vertices = toList(graph.getVerticesInRange(new Range("az", null), AUTHORIZATIONS_ALL));
+        assertVertexIds(vertices, new String[]{"az", "b"});
     }
 
     @Test
@@ -1518,6 +1595,11 @@ public abstract class GraphTestBase {
         Assert.assertArrayEquals(new String[]{"label1", "label2"}, IterableUtils.toArray(v1.getEdgeLabels(Direction.OUT, AUTHORIZATIONS_A), String.class));
         Assert.assertArrayEquals(new String[]{"label1"}, IterableUtils.toArray(v1.getEdgeLabels(Direction.IN, AUTHORIZATIONS_A), String.class));
         Assert.assertArrayEquals(new String[]{"label1", "label2"}, IterableUtils.toArray(v1.getEdgeLabels(Direction.BOTH, AUTHORIZATIONS_A), String.class));
+
+        v1 = graph.getVertex("v1", FetchHint.EDGE_LABELS, AUTHORIZATIONS_A);
+        Assert.assertEquals(3, v1.getEdgeCount(Direction.BOTH, AUTHORIZATIONS_A));
+        Assert.assertEquals(2, v1.getEdgeCount(Direction.OUT, AUTHORIZATIONS_A));
+        Assert.assertEquals(1, v1.getEdgeCount(Direction.IN, AUTHORIZATIONS_A));
     }
 
     @Test
@@ -1696,6 +1778,9 @@ public abstract class GraphTestBase {
         v2 = graph.getVertex("v2", AUTHORIZATIONS_A);
         Assert.assertEquals(1, count(v2.getEdges(Direction.IN, AUTHORIZATIONS_A)));
         Assert.assertEquals("label2", IterableUtils.single(v2.getEdgeLabels(Direction.IN, AUTHORIZATIONS_A)));
+        Assert.assertEquals(0, count(v1.getEdges(Direction.OUT, "label1", AUTHORIZATIONS_A)));
+        Assert.assertEquals(1, count(v1.getEdges(Direction.OUT, "label2", AUTHORIZATIONS_A)));
+        Assert.assertEquals("v2", IterableUtils.single(v1.getVertexIds(Direction.OUT, "label2", AUTHORIZATIONS_A)));
 
         graph.prepareEdge(e.getId(), e.getVertexId(Direction.OUT), e.getVertexId(Direction.IN), e.getLabel(), e.getVisibility())
                 .alterEdgeLabel("label3")
@@ -3015,6 +3100,170 @@ public abstract class GraphTestBase {
         assertTrue("v3 not found in path", found3);
     }
 
+    @Test
+    public void testFindPathsLongerThanThreeHops() {
+        Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v2 = graph.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v3 = graph.addVertex("v3", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v4 = graph.addVertex("v4", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v5 = graph.addVertex("v5", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v6 = graph.addVertex("v6", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge(v1, v2, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v1 -> v2
+        graph.addEdge(v2, v3, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v2 -> v3
+        graph.addEdge(v3, v4, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v3 -> v4
+        graph.addEdge(v4, v5, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v4 -> v5
+        graph.addEdge(v2, v4, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v2 -> v4
+        graph.addEdge(v3, v6, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v3 -> v6
+        graph.flush();
+
+        // v1 -> v2 -> v4 -> v5
+        List<Path> paths = toList(graph.findPaths("v1", "v5", 3, AUTHORIZATIONS_A));
+        assertEquals(1, paths.size());
+        assertEquals(new Path("v1", "v2", "v4", "v5"), paths.get(0));
+
+        // v1 -> v2 -> v4 -> v5
+        // v1 -> v2 -> v3 -> v4 -> v5
+        paths = toList(graph.findPaths("v1", "v5", 4, AUTHORIZATIONS_A));
+        assertEquals(2, paths.size());
+        assertTrue(paths.contains(new Path("v1", "v2", "v4", "v5")));
+        assertTrue(paths.contains(new Path("v1", "v2", "v3", "v4", "v5")));
+        assertEquals(2, count(graph.findPaths("v1", "v5", 6, AUTHORIZATIONS_A)));
+        assertEquals(2, count(graph.findPaths("v5", "v1", 4, AUTHORIZATIONS_A)));
+        assertEquals(0, count(graph.findPaths("v1", "v5", new String[]{"bad"}, 4, AUTHORIZATIONS_A)));
+
+        // v1 -> v2 -> v3 -> v6
+        // v1 -> v2 -> v4 -> v3 -> v6
+        paths = toList(graph.findPaths("v1", "v6", 4, AUTHORIZATIONS_A));
+        assertEquals(2, paths.size());
+        assertTrue(paths.contains(new Path("v1", "v2", "v3", "v6")));
+        assertTrue(paths.contains(new Path("v1", "v2", "v4", "v3", "v6")));
+        assertEquals(0, count(graph.findPaths("v5", "v6", 1, AUTHORIZATIONS_A)));
+    }
+
+    @Test
+    public void testFindPathsWithOptions() {
+        Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v2 = graph.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v3 = graph.addVertex("v3", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v4 = graph.addVertex("v4", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v5 = graph.addVertex("v5", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge(v1, v2, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v1 -> v2
+        graph.addEdge(v2, v3, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v2 -> v3
+        graph.addEdge(v3, v4, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v3 -> v4
+        graph.addEdge(v1, v5, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v1 -> v5
+        graph.addEdge(v5, v4, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v5 -> v4
+        graph.addEdge(v2, v5, "likes", VISIBILITY_A, AUTHORIZATIONS_A); // v2 -> v5
+        graph.flush();
+
+        // v1 -> v5 -> v4
+        // v1 -> v2 -> v3 -> v4
+        // v1 -> v2 -> v5 -> v4
+        assertEquals(3, count(graph.findPaths(new FindPathOptions("v1", "v4", 3), AUTHORIZATIONS_A)));
+        assertEquals(2, count(graph.findPaths(new FindPathOptions("v1", "v4", 3).labels("knows"), AUTHORIZATIONS_A)));
+        assertEquals(2, count(graph.findPaths(new FindPathOptions("v1", "v4", 3).maxResults(2), AUTHORIZATIONS_A)));
+
+        List<Path> paths = toList(graph.findPaths(new FindPathOptions("v1", "v4", 3).shortestPathsOnly(true), AUTHORIZATIONS_A));
+        assertEquals(1, paths.size());
+        assertEquals(new Path("v1", "v5", "v4"), paths.get(0));
+
+        paths = toList(graph.findPaths(new FindPathOptions("v1", "v3", 5).shortestPathsOnly(true), AUTHORIZATIONS_A));
+        assertEquals(1, paths.size());
+        assertEquals(new Path("v1", "v2", "v3"), paths.get(0));
+
+        CancellationToken cancellationToken = new CancellationToken();
+        Iterator<Path> pathsIterator = graph.findPaths(new FindPathOptions("v1", "v4", 3).cancellationToken(cancellationToken), AUTHORIZATIONS_A).iterator();
+        assertTrue(pathsIterator.hasNext());
+        pathsIterator.next();
+        cancellationToken.cancel();
+        assertFalse(pathsIterator.hasNext());
+    }
+
+    @Test
+    public void testFindPathsWithUnreadableVertices() {
+        Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v2 = graph.addVertex("v2", VISIBILITY_B, AUTHORIZATIONS_B);
+        Vertex v3 = graph.addVertex("v3", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v4 = graph.addVertex("v4", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v5 = graph.addVertex("v5", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v6 = graph.addVertex("v6", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v7 = graph.addVertex("v7", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v8 = graph.addVertex("v8", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge(v1, v2, "knows", VISIBILITY_A, AUTHORIZATIONS_A_AND_B); // v1 -> v2
+        graph.addEdge(v2, v3, "knows", VISIBILITY_A, AUTHORIZATIONS_A_AND_B); // v2 -> v3
+        graph.addEdge(v3, v4, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v3 -> v4
+        graph.addEdge(v1, v5, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v1 -> v5
+        graph.addEdge(v5, v6, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v5 -> v6
+        graph.addEdge(v6, v4, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v6 -> v4
+        graph.addEdge(v1, v7, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v1 -> v7
+        graph.addEdge(v7, v8, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v7 -> v8
+        graph.addEdge(v8, v4, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v8 -> v4
+        graph.flush();
+        graph.markVertexHidden(v7, VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.flush();
+
+        // v2 can not be read and v7 is hidden, leaving v1 -> v5 -> v6 -> v4
+        List<Path> paths = toList(graph.findPaths(new FindPathOptions("v1", "v4", 3), AUTHORIZATIONS_A));
+        assertEquals(1, paths.size());
+        assertEquals(new Path("v1", "v5", "v6", "v4"), paths.get(0));
+
+        paths = toList(graph.findPaths(new FindPathOptions("v1", "v4", 3), AUTHORIZATIONS_A_AND_B));
+        assertEquals(2, paths.size());
+        assertTrue(paths.contains(new Path("v1", "v2", "v3", "v4")));
+        assertTrue(paths.contains(new Path("v1", "v5", "v6", "v4")));
+    }
+
+    @Test
+    public void testGetNeighborhood() {
+        Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v2 = graph.addVertex("v2", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v3 = graph.addVertex("v3", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v4 = graph.addVertex("v4", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex v5 = graph.addVertex("v5", VISIBILITY_B, AUTHORIZATIONS_B);
+        Vertex v6 = graph.addVertex("v6", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge(v1, v2, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v1 -> v2
+        graph.addEdge(v2, v3, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v2 -> v3
+        graph.addEdge(v4, v2, "likes", VISIBILITY_A, AUTHORIZATIONS_A); // v4 -> v2
+        graph.addEdge(v3, v6, "knows", VISIBILITY_A, AUTHORIZATIONS_A); // v3 -> v6
+        graph.addEdge(v1, v5, "knows", VISIBILITY_A, AUTHORIZATIONS_A_AND_B); // v1 -> v5
+        graph.flush();
+
+        Map<String, Integer> neighborhood = graph.getNeighborhood(Arrays.asList("v1"), 2, null, Direction.BOTH, null, AUTHORIZATIONS_A);
+        assertEquals(4, neighborhood.size());
+        assertEquals(0, (int) neighborhood.get("v1"));
+        assertEquals(1, (int) neighborhood.get("v2"));
+        assertEquals(2, (int) neighborhood.get("v3"));
+        assertEquals(2, (int) neighborhood.get("v4"));
+
+        neighborhood = graph.getNeighborhood(Arrays.asList("v1"), 2, new String[]{"knows"}, Direction.BOTH, null, AUTHORIZATIONS_A);
+        assertEquals(3, neighborhood.size());
+        assertFalse(neighborhood.containsKey("v4"));
+
+        neighborhood = graph.getNeighborhood(Arrays.asList("v2"), 3, null, Direction.OUT, null, AUTHORIZATIONS_A);
+        assertEquals(3, neighborhood.size());
+        assertEquals(0, (int) neighborhood.get("v2"));
+        assertEquals(1, (int) neighborhood.get("v3"));
+        assertEquals(2, (int) neighborhood.get("v6"));
+
+        neighborhood = graph.getNeighborhood(Arrays.asList("v2"), 1, null, Direction.IN, null, AUTHORIZATIONS_A);
+        assertEquals(3, neighborhood.size());
+        assertEquals(1, (int) neighborhood.get("v1"));
+        assertEquals(1, (int) neighborhood.get("v4"));
+
+        neighborhood = graph.getNeighborhood(Arrays.asList("v1", "v6"), 1, null, Direction.BOTH, null, AUTHORIZATIONS_A);
+        assertEquals(4, neighborhood.size());
+        assertEquals(0, (int) neighborhood.get("v6"));
+        assertEquals(1, (int) neighborhood.get("v3"));
+
+        neighborhood = graph.getNeighborhood(Arrays.asList("v1"), 1, null, Direction.BOTH, null, AUTHORIZATIONS_A_AND_B);
+        assertEquals(3, neighborhood.size());
+        assertEquals(1, (int) neighborhood.get("v5"));
+
+        neighborhood = graph.getNeighborhood(Arrays.asList("v1"), 3, null, Direction.BOTH, 2, AUTHORIZATIONS_A);
+        assertEquals(2, neighborhood.size());
+        assertEquals(0, (int) neighborhood.get("v1"));
+        assertEquals(1, (int) neighborhood.get("v2"));
+    }
+
     @Test
     public void testFindPathsWithSoftDeletedEdges() {
         Vertex v1 = graph.addVertex("v1", VISIBILITY_EMPTY, AUTHORIZATIONS_A);
@@ -3468,6 +3717,60 @@ public abstract class GraphTestBase {
         );
     }
 
+    // Test for performance
+    //@Test
+    @SuppressWarnings("unused")
+    private void testFindPathsPerformance() {
+        int totalNumberOfVertices = 500;
+        int edgesPerNewVertex = 2;
+        int searchesPerHopCount = 10;
+
+        Date startTime, endTime;
+        Random random = new Random(100);
+
+        // preferential attachment gives a scale-free graph with a few highly connected vertices
+        startTime = new Date();
+        List<String> edgeEndpoints = new ArrayList<>();
+        Vertex first = graph.addVertex("v0", VISIBILITY_A, AUTHORIZATIONS_A);
+        Vertex second = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
+        graph.addEdge("e0", first, second, "", VISIBILITY_A, AUTHORIZATIONS_A);
+        edgeEndpoints.add(first.getId());
+        edgeEndpoints.add(second.getId());
+        int edgeCount = 1;
+        for (int i = 2; i < totalNumberOfVertices; i++) {
+            String vertexId = "v" + i;
+            graph.addVertex(vertexId, VISIBILITY_A, AUTHORIZATIONS_A);
+            Set<String> targetVertexIds = new HashSet<>();
+            while (targetVertexIds.size() < Math.min(edgesPerNewVertex, i)) {
+                targetVertexIds.add(edgeEndpoints.get(random.nextInt(edgeEndpoints.size())));
+            }
+            for (String targetVertexId : targetVertexIds) {
+                graph.addEdge("e" + edgeCount, vertexId, targetVertexId, "", VISIBILITY_A, AUTHORIZATIONS_A);
+                edgeEndpoints.add(vertexId);
+                edgeEndpoints.add(targetVertexId);
+                edgeCount++;
+            }
+        }
+        graph.flush();
+        endTime = new Date();
+        long insertTime = endTime.getTime() - startTime.getTime();
+
+        StringBuilder results = new StringBuilder();
+        for (int hops = 3; hops <= 6; hops++) {
+            int pathCount = 0;
+            startTime = new Date();
+            for (int i = 0; i < searchesPerHopCount; i++) {
+                String sourceVertexId = "v" + random.nextInt(totalNumberOfVertices);
+                String destVertexId = "v" + random.nextInt(totalNumberOfVertices);
+                pathCount += count(graph.findPaths(sourceVertexId, destVertexId, hops, AUTHORIZATIONS_A));
+            }
+            endTime = new Date();
+            results.append(String.format("%d,%d,%d,%d,%d,%d,%d\n", totalNumberOfVertices, edgeCount, insertTime, hops, searchesPerHopCount, pathCount, endTime.getTime() - startTime.getTime()));
+        }
+
+        LOGGER.info("RESULTS\ntotalNumberOfVertices,totalNumberOfEdges,insertTime,hops,searches,pathCount,findPathsTime\n%s", results);
+    }
+
     @Test
     public void testFilterEdgeIdsByAuthorization() {
         Vertex v1 = graph.addVertex("v1", VISIBILITY_A, AUTHORIZATIONS_A);
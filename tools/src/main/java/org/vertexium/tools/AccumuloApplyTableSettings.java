@@ -0,0 +1,56 @@
+package org.vertexium.tools;
+
+import com.beust.jcommander.Parameter;
+import org.apache.accumulo.core.client.Connector;
+import org.vertexium.accumulo.AccumuloGraph;
+import org.vertexium.accumulo.AccumuloTableSettings;
+
+public class AccumuloApplyTableSettings extends GraphToolBase {
+    @Parameter(names = {"--localityGroups"}, arity = 1, description = "Set locality groups on the vertex and edge tables")
+    private boolean localityGroups = true;
+
+    @Parameter(names = {"--bloomFilters"}, arity = 1, description = "Enable row bloom filters on the vertex, edge and data tables")
+    private boolean bloomFilters = true;
+
+    @Parameter(names = {"--splits"}, description = "Number of split points to add to the vertex, edge and data tables")
+    private int splits = 0;
+
+    @Parameter(names = {"--compact"}, description = "Compact the tables so existing files are rewritten with the new settings")
+    private boolean compact = false;
+
+    public static void main(String[] args) throws Exception {
+        AccumuloApplyTableSettings accumuloApplyTableSettings = new AccumuloApplyTableSettings();
+        accumuloApplyTableSettings.run(args);
+    }
+
+    protected void run(String[] args) throws Exception {
+        super.run(args);
+
+        if (!(getGraph() instanceof AccumuloGraph)) {
+            throw new RuntimeException("Graph must be an " + AccumuloGraph.class.getName() + " found " + getGraph().getClass().getName());
+        }
+        AccumuloGraph graph = (AccumuloGraph) getGraph();
+        Connector connector = graph.getConnector();
+        String tableNamePrefix = graph.getConfiguration().getTableNamePrefix();
+        String[] tableNames = new String[]{
+                graph.getVerticesTableName(),
+                graph.getEdgesTableName(),
+                graph.getDataTableName()
+        };
+
+        System.out.println("Applying table settings");
+        AccumuloTableSettings.apply(connector, localityGroups, bloomFilters, tableNamePrefix);
+        for (String tableName : tableNames) {
+            AccumuloTableSettings.addSplits(connector, tableName, AccumuloTableSettings.getSplits(graph.getConfiguration(), splits));
+        }
+        if (compact) {
+            for (String tableName : tableNames) {
+                System.out.println("Compacting " + tableName);
+                boolean flush = true;
+                boolean wait = true;
+                connector.tableOperations().compact(tableName, null, null, flush, wait);
+            }
+        }
+        System.out.println("Table settings applied");
+    }
+}
@@ -0,0 +1,91 @@
+package org.vertexium.tools;
+
+import com.beust.jcommander.Parameter;
+import org.json.JSONObject;
+import org.vertexium.*;
+import org.vertexium.accumulo.AccumuloGraph;
+import org.vertexium.accumulo.bulk.AccumuloBulkLoader;
+
+import java.io.File;
+import java.io.InputStream;
+
+/**
+ * Restores a {@link GraphBackup} into an Accumulo graph by bulk importing RFiles. The search index is not updated,
+ * run {@link GraphReindex} afterwards.
+ */
+public class AccumuloBulkRestore extends GraphRestore {
+    @Parameter(names = {"--workDir"}, required = true, description = "Directory on the Accumulo file system to write RFiles to")
+    private String workDir = null;
+
+    @Parameter(names = {"--localTempDir"}, description = "Local directory for sort run files")
+    private String localTempDir = null;
+
+    @Parameter(names = {"--sortMemoryMB"}, description = "Memory used to sort each table before spilling to disk")
+    private int sortMemoryMB = 256;
+
+    @Parameter(names = {"--verifySampleSize"}, description = "Number of imported key value pairs per table to read back and check")
+    private int verifySampleSize = 1000;
+
+    private AccumuloBulkLoader bulkLoader;
+
+    public static void main(String[] args) throws Exception {
+        AccumuloBulkRestore accumuloBulkRestore = new AccumuloBulkRestore();
+        accumuloBulkRestore.run(args);
+    }
+
+    protected void run(String[] args) throws Exception {
+        try {
+            System.out.println("Sorting elements");
+            super.run(args);
+            if (bulkLoader != null) {
+                System.out.println("Importing files");
+                bulkLoader.load();
+            }
+            System.out.println("Bulk restore complete, run " + GraphReindex.class.getSimpleName() + " to update the search index");
+        } finally {
+            if (bulkLoader != null) {
+                bulkLoader.close();
+            }
+        }
+    }
+
+    private AccumuloBulkLoader getBulkLoader(Graph graph) {
+        if (bulkLoader == null) {
+            if (!(graph instanceof AccumuloGraph)) {
+                throw new RuntimeException("Graph must be an " + AccumuloGraph.class.getName() + " found " + graph.getClass().getName());
+            }
+            AccumuloGraph accumuloGraph = (AccumuloGraph) graph;
+            File tempDir = localTempDir == null ? null : new File(localTempDir);
+            bulkLoader = new AccumuloBulkLoader(accumuloGraph, accumuloGraph.getFileSystem(), workDir, tempDir, sortMemoryMB * 1024L * 1024L);
+            bulkLoader.setVerifySampleSize(verifySampleSize);
+        }
+        return bulkLoader;
+    }
+
+    @Override
+    protected Vertex restoreVertex(Graph graph, JSONObject json, Authorizations authorizations) {
+        VertexBuilder v = graph.prepareVertex(json.getString("id"), jsonToVisibility(json));
+        jsonToProperties(json, v);
+        getBulkLoader(graph).addVertex(v);
+        return null;
+    }
+
+    @Override
+    protected Edge restoreEdge(Graph graph, JSONObject json, Authorizations authorizations) {
+        EdgeBuilderByVertexId e = graph.prepareEdge(
+                json.getString("id"),
+                json.getString("outVertexId"),
+                json.getString("inVertexId"),
+                json.getString("label"),
+                jsonToVisibility(json)
+        );
+        jsonToProperties(json, e);
+        getBulkLoader(graph).addEdge(e);
+        return null;
+    }
+
+    @Override
+    protected void restoreStreamingPropertyValue(InputStream in, Graph graph, JSONObject propertyJson, Element element, Authorizations authorizations) {
+        throw new VertexiumException("Streaming property values can not be bulk loaded: " + propertyJson.getString("name"));
+    }
+}
@@ -0,0 +1,36 @@
+package org.vertexium.tools;
+
+import com.beust.jcommander.Parameter;
+import org.vertexium.accumulo.AccumuloGraph;
+import org.vertexium.accumulo.HdfsSegmentCompactor;
+
+public class AccumuloCompactHdfsSegments extends GraphToolBase {
+    @Parameter(names = {"--maxLiveRatio"}, description = "Compact segments with less than this fraction of their bytes still referenced")
+    private double maxLiveRatio = 0.5;
+
+    @Parameter(names = {"--sealedMinAgeMillis"}, description = "Skip segments sealed more recently than this, defaults to three times the batch writer max latency")
+    private Long sealedMinAgeMillis;
+
+    public static void main(String[] args) throws Exception {
+        AccumuloCompactHdfsSegments accumuloCompactHdfsSegments = new AccumuloCompactHdfsSegments();
+        accumuloCompactHdfsSegments.run(args);
+    }
+
+    protected void run(String[] args) throws Exception {
+        super.run(args);
+
+        if (!(getGraph() instanceof AccumuloGraph)) {
+            throw new RuntimeException("Graph must be an " + AccumuloGraph.class.getName() + " found " + getGraph().getClass().getName());
+        }
+        AccumuloGraph graph = (AccumuloGraph) getGraph();
+
+        System.out.println("Compacting segments in " + graph.getDataDir());
+        HdfsSegmentCompactor compactor = new HdfsSegmentCompactor(graph);
+        compactor.setMaxLiveRatio(maxLiveRatio);
+        if (sealedMinAgeMillis != null) {
+            compactor.setSealedMinAgeMillis(sealedMinAgeMillis);
+        }
+        int deleted = compactor.compact();
+        System.out.println("Deleted " + deleted + " segments");
+    }
+}
@@ -88,7 +88,7 @@ public class GraphRestore extends GraphToolBase {
         return new String(buffer.toByteArray());
     }
 
-    private Vertex restoreVertex(Graph graph, JSONObject json, Authorizations authorizations) {
+    protected Vertex restoreVertex(Graph graph, JSONObject json, Authorizations authorizations) {
         Visibility visibility = jsonToVisibility(json);
         String vertexId = json.getString("id");
         VertexBuilder v = graph.prepareVertex(vertexId, visibility);
@@ -96,7 +96,7 @@ public class GraphRestore extends GraphToolBase {
         return v.save(authorizations);
     }
 
-    private Edge restoreEdge(Graph graph, JSONObject json, Authorizations authorizations) {
+    protected Edge restoreEdge(Graph graph, JSONObject json, Authorizations authorizations) {
         Visibility visibility = jsonToVisibility(json);
         String edgeId = json.getString("id");
         String outVertexId = json.getString("outVertexId");
@@ -130,7 +130,7 @@ public class GraphRestore extends GraphToolBase {
         e.addPropertyValue(key, name, value, metadata, visibility);
     }
 
-    private void restoreStreamingPropertyValue(InputStream in, Graph graph, JSONObject propertyJson, Element element, Authorizations authorizations) throws ClassNotFoundException, IOException {
+    protected void restoreStreamingPropertyValue(InputStream in, Graph graph, JSONObject propertyJson, Element element, Authorizations authorizations) throws ClassNotFoundException, IOException {
         String key = propertyJson.getString("key");
         String name = propertyJson.getString("name");
         Metadata metadata = jsonToPropertyMetadata(propertyJson.optJSONObject("metadata"));